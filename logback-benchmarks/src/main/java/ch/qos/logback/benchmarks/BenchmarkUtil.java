@@ -0,0 +1,66 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.core.util.FileUtil;
+
+/**
+ * Helpers shared by the benchmarks.
+ *
+ * @since 1.1.4
+ */
+class BenchmarkUtil {
+
+  static final String DEFAULT_PATTERN = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n";
+
+  static PatternLayoutEncoder buildEncoder(LoggerContext lc, String pattern, boolean immediateFlush) {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(lc);
+    encoder.setPattern(pattern);
+    encoder.setImmediateFlush(immediateFlush);
+    encoder.start();
+    return encoder;
+  }
+
+  static File newOutputDir(String prefix) throws IOException {
+    File dir = File.createTempFile("logback-" + prefix, "");
+    if (!dir.delete() || !dir.mkdirs()) {
+      throw new IOException("Failed to create directory [" + dir + "]");
+    }
+    return dir;
+  }
+
+  static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    if (!file.delete()) {
+      file.deleteOnExit();
+    }
+  }
+
+  static String path(File dir, String name) {
+    File file = new File(dir, name);
+    FileUtil.createMissingParentDirectories(file);
+    return file.getAbsolutePath();
+  }
+}
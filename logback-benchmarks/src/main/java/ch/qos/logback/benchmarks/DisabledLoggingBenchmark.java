@@ -0,0 +1,71 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+
+/**
+ * Cost of logging statements below the effective level of the logger.
+ *
+ * @since 1.1.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DisabledLoggingBenchmark {
+
+  Logger logger;
+  Integer arg = 42;
+
+  @Setup
+  public void setUp() {
+    LoggerContext lc = new LoggerContext();
+    lc.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+    logger = lc.getLogger(DisabledLoggingBenchmark.class);
+  }
+
+  @Benchmark
+  public void isDebugEnabled() {
+    if (logger.isDebugEnabled()) {
+      logger.debug("message " + arg);
+    }
+  }
+
+  @Benchmark
+  public void debugNoArg() {
+    logger.debug("message");
+  }
+
+  @Benchmark
+  public void debugOneArg() {
+    logger.debug("message {}", arg);
+  }
+
+  @Benchmark
+  public void debugTwoArgs() {
+    logger.debug("message {} {}", arg, arg);
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.MDCFilter;
+import ch.qos.logback.classic.turbo.MarkerFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Cost of enabled logging statements, going through the
+ * <code>Logger.filterAndLog_*</code> methods, up to a no-op appender. Turbo
+ * filters can be added to the context, in which case they are consulted for
+ * every statement.
+ *
+ * @since 1.1.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FilterAndLogBenchmark {
+
+  @Param({ "0", "2" })
+  int turboFilterCount;
+
+  Logger logger;
+  Marker marker = MarkerFactory.getMarker("BENCHMARK");
+  Integer arg = 42;
+
+  @Setup
+  public void setUp() {
+    LoggerContext lc = new LoggerContext();
+    Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.setLevel(Level.DEBUG);
+    NopAppender<ILoggingEvent> appender = new NopAppender<ILoggingEvent>();
+    appender.setContext(lc);
+    appender.start();
+    root.addAppender(appender);
+
+    for (int i = 0; i < turboFilterCount; i++) {
+      if (i % 2 == 0) {
+        MarkerFilter markerFilter = new MarkerFilter();
+        markerFilter.setMarker("UNUSED");
+        markerFilter.setOnMatch(FilterReply.DENY.name());
+        markerFilter.setContext(lc);
+        markerFilter.start();
+        lc.addTurboFilter(markerFilter);
+      } else {
+        MDCFilter mdcFilter = new MDCFilter();
+        mdcFilter.setMDCKey("unused");
+        mdcFilter.setValue("unused");
+        mdcFilter.setOnMatch(FilterReply.DENY.name());
+        mdcFilter.setContext(lc);
+        mdcFilter.start();
+        lc.addTurboFilter(mdcFilter);
+      }
+    }
+    logger = lc.getLogger(FilterAndLogBenchmark.class);
+  }
+
+  @Benchmark
+  public void noArg() {
+    logger.info("message");
+  }
+
+  @Benchmark
+  public void oneArg() {
+    logger.info("message {}", arg);
+  }
+
+  @Benchmark
+  public void twoArgs() {
+    logger.info("message {} {}", arg, arg);
+  }
+
+  @Benchmark
+  public void threeArgs() {
+    logger.info("message {} {} {}", new Object[] { arg, arg, arg });
+  }
+
+  @Benchmark
+  public void withMarker() {
+    logger.info(marker, "message {}", arg);
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.JsonEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * Cost of encoding an event by a {@link JsonEncoder} compared to a
+ * PatternLayoutEncoder writing the same fields, into a stream discarding the
+ * bytes.
+ *
+ * @since 1.1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonEncoderBenchmark {
+
+  static final String PATTERN = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg [%X{user}] %n";
+
+  @Param({ "json", "pattern" })
+  String encoderType;
+
+  @Param({ "false", "true" })
+  boolean withThrowable;
+
+  Encoder<ILoggingEvent> encoder;
+  LoggingEvent event;
+
+  @Setup
+  public void setUp() throws IOException {
+    LoggerContext lc = new LoggerContext();
+    if ("json".equals(encoderType)) {
+      JsonEncoder json = new JsonEncoder();
+      json.setContext(lc);
+      json.setImmediateFlush(false);
+      json.start();
+      encoder = json;
+    } else {
+      encoder = BenchmarkUtil.buildEncoder(lc, withThrowable ? PATTERN + "%ex" : PATTERN, false);
+    }
+    encoder.init(new NullOutputStream());
+
+    Logger logger = lc.getLogger("ch.qos.logback.benchmarks.JsonEncoderBenchmark");
+    Throwable t = withThrowable ? new Exception("failure", new IllegalStateException()) : null;
+    event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "message {} of the benchmark", t,
+        new Object[] { 42 });
+    event.setThreadName("main");
+    Map<String, String> mdc = new HashMap<String, String>();
+    mdc.put("user", "alice");
+    event.setMDCPropertyMap(mdc);
+  }
+
+  @Benchmark
+  public void doEncode() throws IOException {
+    encoder.doEncode(event);
+  }
+
+  static class NullOutputStream extends OutputStream {
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+
+/**
+ * Cost of the MDC operations of {@link LogbackMDCAdapter}, and of capturing
+ * the MDC in a logging event, for MDC maps of various sizes.
+ * <p/>
+ * Run the suite against two releases and compare the JSON results to
+ * measure a change to the adapter.
+ *
+ * @since 1.1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MDCBenchmark {
+
+  @Param({ "0", "5", "30" })
+  int keyCount;
+
+  LogbackMDCAdapter mdcAdapter;
+  LoggerContext loggerContext = new LoggerContext();
+  Logger logger = loggerContext.getLogger(MDCBenchmark.class);
+  int counter;
+
+  @Setup
+  public void setUp() {
+    // the adapter the events read from is the one bound to slf4j
+    mdcAdapter = (LogbackMDCAdapter) MDC.getMDCAdapter();
+    mdcAdapter.clear();
+    for (int i = 0; i < keyCount; i++) {
+      mdcAdapter.put("key" + i, "value" + i);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    mdcAdapter.clear();
+  }
+
+  @Benchmark
+  public void put() {
+    mdcAdapter.put("counter", Integer.toString(counter++ & 0xFF));
+  }
+
+  @Benchmark
+  public void putThenRemove() {
+    mdcAdapter.put("counter", "c");
+    mdcAdapter.remove("counter");
+  }
+
+  @Benchmark
+  public String get() {
+    return mdcAdapter.get("key0");
+  }
+
+  @Benchmark
+  public Object putThenGetPropertyMap() {
+    mdcAdapter.put("counter", Integer.toString(counter++ & 0xFF));
+    return mdcAdapter.getPropertyMap();
+  }
+
+  /**
+   * A put between events, as done by request scoped MDC values, followed by
+   * the capture of the MDC by an event.
+   */
+  @Benchmark
+  public Object putThenCaptureInEvent() {
+    mdcAdapter.put("counter", Integer.toString(counter++ & 0xFF));
+    LoggingEvent event = new LoggingEvent("", logger, Level.INFO, "msg", null, null);
+    return event.getMDCPropertyMap();
+  }
+}
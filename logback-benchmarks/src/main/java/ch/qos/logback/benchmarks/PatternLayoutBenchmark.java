@@ -0,0 +1,84 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * Cost of formatting an event with commonly used patterns, both into a new
+ * String and into a reused buffer, by walking the converter chain or by a
+ * {@link ch.qos.logback.core.pattern.FusedConverterChain}.
+ *
+ * @since 1.1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PatternLayoutBenchmark {
+
+  @Param({ "%msg%n",
+      "%-5level %logger{36} - %msg%n",
+      "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n",
+      "%d{ISO8601} [%thread] %-5level %logger - %X{user} %msg%n%ex" })
+  String pattern;
+
+  @Param({ "false", "true" })
+  boolean fuseConverters;
+
+  PatternLayout layout;
+  LoggingEvent event;
+  StringBuilder buf = new StringBuilder(256);
+
+  @Setup
+  public void setUp() {
+    LoggerContext lc = new LoggerContext();
+    layout = new PatternLayout();
+    layout.setContext(lc);
+    layout.setPattern(pattern);
+    layout.setFuseConverters(fuseConverters);
+    layout.start();
+
+    Logger logger = lc.getLogger("ch.qos.logback.benchmarks.PatternLayoutBenchmark");
+    event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO, "message {} of the benchmark",
+        null, new Object[] { 42 });
+    event.setThreadName("main");
+  }
+
+  @Benchmark
+  public String doLayout() {
+    return layout.doLayout(event);
+  }
+
+  @Benchmark
+  public int doLayoutIntoBuffer() {
+    buf.setLength(0);
+    layout.doLayout(event, buf);
+    return buf.length();
+  }
+}
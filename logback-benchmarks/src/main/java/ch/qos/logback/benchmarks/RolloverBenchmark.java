@@ -0,0 +1,107 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.FixedWindowRollingPolicy;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeBasedTriggeringPolicy;
+
+/**
+ * Cost of a {@link RollingFileAppender} rollover, each invocation writing
+ * a few hundred kilobytes to the active file before rolling it over.
+ *
+ * @since 1.1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RolloverBenchmark {
+
+  static final int EVENTS_PER_ROLLOVER = 4096;
+
+  @Param({ "", ".gz", ".zip" })
+  String compressionSuffix;
+
+  LoggerContext lc;
+  Logger logger;
+  RollingFileAppender<ILoggingEvent> rfa;
+  File dir;
+
+  @Setup
+  public void setUp() throws IOException {
+    dir = BenchmarkUtil.newOutputDir("rollover");
+    lc = new LoggerContext();
+
+    rfa = new RollingFileAppender<ILoggingEvent>();
+    rfa.setContext(lc);
+    rfa.setName("ROLLING");
+    rfa.setFile(BenchmarkUtil.path(dir, "benchmark.log"));
+    rfa.setEncoder(BenchmarkUtil.buildEncoder(lc, BenchmarkUtil.DEFAULT_PATTERN, false));
+
+    FixedWindowRollingPolicy rollingPolicy = new FixedWindowRollingPolicy();
+    rollingPolicy.setContext(lc);
+    rollingPolicy.setFileNamePattern(BenchmarkUtil.path(dir, "benchmark-%i.log" + compressionSuffix));
+    rollingPolicy.setMinIndex(1);
+    rollingPolicy.setMaxIndex(5);
+    rollingPolicy.setParent(rfa);
+    rollingPolicy.start();
+
+    // rollovers are triggered explicitly
+    SizeBasedTriggeringPolicy<ILoggingEvent> triggeringPolicy = new SizeBasedTriggeringPolicy<ILoggingEvent>();
+    triggeringPolicy.setMaxFileSize("1000GB");
+    triggeringPolicy.setContext(lc);
+    triggeringPolicy.start();
+
+    rfa.setRollingPolicy(rollingPolicy);
+    rfa.setTriggeringPolicy(triggeringPolicy);
+    rfa.start();
+
+    Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.setLevel(Level.INFO);
+    root.addAppender(rfa);
+    logger = lc.getLogger(RolloverBenchmark.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    lc.stop();
+    BenchmarkUtil.deleteRecursively(dir);
+  }
+
+  @Benchmark
+  public void writeThenRollover() {
+    for (int i = 0; i < EVENTS_PER_ROLLOVER; i++) {
+      logger.info("message {} of the benchmark", i);
+    }
+    rfa.rollover();
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.qos.logback.classic.spi.ThrowableProxy;
+
+/**
+ * Cost of building a {@link ThrowableProxy} for an exception with a cause,
+ * with and without packaging data.
+ *
+ * @since 1.1.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ThrowableProxyBenchmark {
+
+  @Param({ "10", "100" })
+  int depth;
+
+  Throwable throwable;
+
+  @Setup
+  public void setUp() {
+    throwable = new IllegalStateException("outer", recurse(depth));
+  }
+
+  private Throwable recurse(int remaining) {
+    if (remaining == 0) {
+      return new IllegalArgumentException("inner");
+    }
+    return recurse(remaining - 1);
+  }
+
+  @Benchmark
+  public ThrowableProxy construct() {
+    return new ThrowableProxy(throwable);
+  }
+
+  @Benchmark
+  public ThrowableProxy constructWithPackagingData() {
+    ThrowableProxy tp = new ThrowableProxy(throwable);
+    tp.calculatePackagingData();
+    return tp;
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.WriteMode;
+
+/**
+ * Throughput of a contended {@link FileAppender} in each
+ * {@link WriteMode}.
+ *
+ * @since 1.1.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class WriteModeBenchmark {
+
+  @Param({ "FAIR_LOCK", "LOCK", "CONCURRENT_ENCODING", "COMBINING" })
+  WriteMode writeMode;
+
+  LoggerContext lc;
+  Logger logger;
+  File dir;
+
+  @Setup
+  public void setUp() throws IOException {
+    dir = BenchmarkUtil.newOutputDir("writeMode");
+    lc = new LoggerContext();
+
+    FileAppender<ILoggingEvent> fileAppender = new FileAppender<ILoggingEvent>();
+    fileAppender.setContext(lc);
+    fileAppender.setName("FILE");
+    fileAppender.setFile(BenchmarkUtil.path(dir, "benchmark.log"));
+    fileAppender.setEncoder(BenchmarkUtil.buildEncoder(lc, BenchmarkUtil.DEFAULT_PATTERN, false));
+    fileAppender.setWriteMode(writeMode);
+    fileAppender.start();
+
+    Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.setLevel(Level.INFO);
+    root.addAppender(fileAppender);
+    logger = lc.getLogger(WriteModeBenchmark.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    lc.stop();
+    BenchmarkUtil.deleteRecursively(dir);
+  }
+
+  @Benchmark
+  public void log() {
+    logger.info("message {} of the benchmark", 42);
+  }
+}
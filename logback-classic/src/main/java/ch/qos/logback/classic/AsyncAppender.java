@@ -13,8 +13,10 @@
  */
 package ch.qos.logback.classic;
 
+import ch.qos.logback.classic.net.LoggingEventPreSerializationTransformer;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.AsyncAppenderBase;
+import ch.qos.logback.core.spi.PreSerializationTransformer;
 
 /**
  * In order to optimize performance this appender deems events of level TRACE, DEBUG and INFO as discardable. See the
@@ -30,6 +32,8 @@ public class AsyncAppender extends AsyncAppenderBase<ILoggingEvent> {
 
   boolean includeCallerData = false;
 
+  private static final PreSerializationTransformer<ILoggingEvent> pst =
+      new LoggingEventPreSerializationTransformer();
 
   /**
    * Events of level TRACE, DEBUG and INFO are deemed to be discardable.
@@ -47,6 +51,14 @@ public class AsyncAppender extends AsyncAppenderBase<ILoggingEvent> {
       eventObject.getCallerData();
   }
 
+  /**
+   * Spilled events are written as {@link ch.qos.logback.classic.spi.LoggingEventVO} instances.
+   */
+  @Override
+  protected PreSerializationTransformer<ILoggingEvent> getPST() {
+    return pst;
+  }
+
   public boolean isIncludeCallerData() {
     return includeCallerData;
   }
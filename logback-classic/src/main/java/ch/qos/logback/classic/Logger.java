@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.spi.LocationAwareLogger;
 
+import ch.qos.logback.classic.pattern.Abbreviator;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.core.Appender;
@@ -99,6 +100,20 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
    */
   transient private boolean additive = true;
 
+  /**
+   * The appenders of this logger and of its ancestors, as far as additivity
+   * allows, in the order {@link #callAppenders(ILoggingEvent)} invokes them.
+   * The cache is stale once the appender generation of the logger context has
+   * moved past the one it was computed for.
+   */
+  transient private volatile AppenderCache appenderCache;
+
+  /**
+   * The name of this logger as abbreviated by the first abbreviator passed to
+   * {@link #getAbbreviatedName(Abbreviator)}.
+   */
+  transient private volatile AbbreviatedName abbreviatedName;
+
   final transient LoggerContext loggerContext;
 
   Logger(String name, Logger parent, LoggerContext loggerContext) {
@@ -123,6 +138,34 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
     return name;
   }
 
+  /**
+   * Return the name of this logger abbreviated by <code>abbreviator</code>.
+   * A logger keeps the abbreviation of its name by a single abbreviator, the
+   * first one passed. For abbreviators not equal to it, null is returned and
+   * the caller is expected to abbreviate the name itself.
+   *
+   * @since 1.1.4
+   */
+  public String getAbbreviatedName(Abbreviator abbreviator) {
+    AbbreviatedName cached = abbreviatedName;
+    if (cached != null) {
+      return cached.abbreviator.equals(abbreviator) ? cached.name : null;
+    }
+    String abbreviated = abbreviator.abbreviate(name);
+    abbreviatedName = new AbbreviatedName(abbreviator, abbreviated);
+    return abbreviated;
+  }
+
+  private static final class AbbreviatedName {
+    final Abbreviator abbreviator;
+    final String name;
+
+    AbbreviatedName(Abbreviator abbreviator, String name) {
+      this.abbreviator = abbreviator;
+      this.name = name;
+    }
+  }
+
   private boolean isRootLogger() {
     // only the root logger has a null parent
     return parent == null;
@@ -207,6 +250,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   public void detachAndStopAllAppenders() {
     if (aai != null) {
       aai.detachAndStopAllAppenders();
+      loggerContext.appendersChanged();
     }
   }
 
@@ -214,7 +258,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
     if (aai == null) {
       return false;
     }
-    return aai.detachAppender(name);
+    boolean result = aai.detachAppender(name);
+    loggerContext.appendersChanged();
+    return result;
   }
 
   // this method MUST be synchronized. See comments on 'aai' field for further
@@ -224,6 +270,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
       aai = new AppenderAttachableImpl<ILoggingEvent>();
     }
     aai.addAppender(newAppender);
+    loggerContext.appendersChanged();
   }
 
   public boolean isAttached(Appender<ILoggingEvent> appender) {
@@ -255,24 +302,53 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
    *          The event to log
    */
   public void callAppenders(ILoggingEvent event) {
-    int writes = 0;
+    Appender<ILoggingEvent>[] appenders = getEffectiveAppenders();
+    // No appenders in hierarchy
+    if (appenders.length == 0) {
+      loggerContext.noAppenderDefinedWarning(this);
+      return;
+    }
+    for (int i = 0; i < appenders.length; i++) {
+      appenders[i].doAppend(event);
+    }
+  }
+
+  private Appender<ILoggingEvent>[] getEffectiveAppenders() {
+    int generation = loggerContext.getAppenderGeneration();
+    AppenderCache cache = appenderCache;
+    if (cache == null || cache.generation != generation) {
+      // the generation is read before the appenders, a concurrent change
+      // makes the cache stale at the latest on the next call
+      cache = new AppenderCache(generation, collectEffectiveAppenders());
+      appenderCache = cache;
+    }
+    return cache.appenders;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Appender<ILoggingEvent>[] collectEffectiveAppenders() {
+    List<Appender<ILoggingEvent>> list = new ArrayList<Appender<ILoggingEvent>>();
     for (Logger l = this; l != null; l = l.parent) {
-      writes += l.appendLoopOnAppenders(event);
+      if (l.aai != null) {
+        Iterator<Appender<ILoggingEvent>> it = l.aai.iteratorForAppenders();
+        while (it.hasNext()) {
+          list.add(it.next());
+        }
+      }
       if (!l.additive) {
         break;
       }
     }
-    // No appenders in hierarchy
-    if (writes == 0) {
-      loggerContext.noAppenderDefinedWarning(this);
-    }
+    return list.toArray(new Appender[list.size()]);
   }
 
-  private int appendLoopOnAppenders(ILoggingEvent event) {
-    if (aai != null) {
-      return aai.appendLoopOnAppenders(event);
-    } else {
-      return 0;
+  private static final class AppenderCache {
+    final int generation;
+    final Appender<ILoggingEvent>[] appenders;
+
+    AppenderCache(int generation, Appender<ILoggingEvent>[] appenders) {
+      this.generation = generation;
+      this.appenders = appenders;
     }
   }
 
@@ -283,7 +359,9 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
     if (aai == null) {
       return false;
     }
-    return aai.detachAppender(appender);
+    boolean result = aai.detachAppender(appender);
+    loggerContext.appendersChanged();
+    return result;
   }
 
 
@@ -411,6 +489,13 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
       return;
     }
 
+    if (loggerContext.isEventReuseEnabled()) {
+      LoggingEvent le = loggerContext.getLoggingEventRecycler().acquire(localFQCN, this, level, marker, msg, param, t);
+      if (le != null) {
+        appendRecycled(le);
+        return;
+      }
+    }
     buildLoggingEventAndAppend(localFQCN, marker, level, msg,
         new Object[] { param }, t);
   }
@@ -430,6 +515,13 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
       return;
     }
 
+    if (loggerContext.isEventReuseEnabled()) {
+      LoggingEvent le = loggerContext.getLoggingEventRecycler().acquire(localFQCN, this, level, marker, msg, param1, param2, t);
+      if (le != null) {
+        appendRecycled(le);
+        return;
+      }
+    }
     buildLoggingEventAndAppend(localFQCN, marker, level, msg, new Object[] {
         param1, param2 }, t);
   }
@@ -437,11 +529,26 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   private void buildLoggingEventAndAppend(final String localFQCN,
       final Marker marker, final Level level, final String msg,
       final Object[] params, final Throwable t) {
+    if (loggerContext.isEventReuseEnabled()) {
+      LoggingEvent le = loggerContext.getLoggingEventRecycler().acquire(localFQCN, this, level, marker, msg, params, t);
+      if (le != null) {
+        appendRecycled(le);
+        return;
+      }
+    }
     LoggingEvent le = new LoggingEvent(localFQCN, this, level, msg, t, params);
     le.setMarker(marker);
     callAppenders(le);
   }
 
+  private void appendRecycled(LoggingEvent le) {
+    try {
+      callAppenders(le);
+    } finally {
+      loggerContext.getLoggingEventRecycler().release(le);
+    }
+  }
+
   public void trace(String msg) {
     filterAndLog_0_Or3Plus(FQCN, null, Level.TRACE, msg, null, null);
   }
@@ -751,6 +858,7 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
 
   public void setAdditive(boolean additive) {
     this.additive = additive;
+    loggerContext.appendersChanged();
   }
 
   public String toString() {
@@ -15,14 +15,19 @@ package ch.qos.logback.classic;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import ch.qos.logback.classic.util.LoggerNameUtil;
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Marker;
 
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.CallerDataProvider;
 import ch.qos.logback.classic.spi.LoggerComparator;
 import ch.qos.logback.classic.spi.LoggerContextListener;
 import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.LoggingEventRecycler;
+import ch.qos.logback.classic.spi.PackagingDataCache;
 import ch.qos.logback.classic.spi.TurboFilterList;
 import ch.qos.logback.classic.turbo.TurboFilter;
 import ch.qos.logback.core.ContextBase;
@@ -48,6 +53,9 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
   /** Default setting of stacktrace packaging detail */
   public static final boolean DEFAULT_PACKAGING_STATE = false;
 
+  /** Default setting of logging event reuse */
+  public static final boolean DEFAULT_EVENT_REUSE_STATE = false;
+
   final Logger root;
   private int size;
   private int noAppenderWarning = 0;
@@ -58,8 +66,13 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
   private LoggerContextVO loggerContextRemoteView;
   private final TurboFilterList turboFilterList = new TurboFilterList();
   private boolean packagingDataEnabled = DEFAULT_PACKAGING_STATE;
+  private volatile boolean eventReuseEnabled = DEFAULT_EVENT_REUSE_STATE;
+  private final AtomicInteger appenderGeneration = new AtomicInteger();
 
   private int maxCallerDataDepth = ClassicConstants.DEFAULT_MAX_CALLEDER_DATA_DEPTH;
+  private volatile CallerDataProvider callerDataProvider = CallerData.newCallerDataProvider();
+  private final PackagingDataCache packagingDataCache = new PackagingDataCache();
+  private final LoggingEventRecycler loggingEventRecycler = new LoggingEventRecycler();
 
   int resetCount = 0;
   private List<String> frameworkPackages;
@@ -173,6 +186,18 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
     return (Logger) loggerCache.get(name);
   }
 
+  /**
+   * Invalidate the appender arrays cached by loggers. Invoked whenever an
+   * appender is attached or detached, or the additivity of a logger changes.
+   */
+  final void appendersChanged() {
+    appenderGeneration.incrementAndGet();
+  }
+
+  final int getAppenderGeneration() {
+    return appenderGeneration.get();
+  }
+
   final void noAppenderDefinedWarning(final Logger logger) {
     if (noAppenderWarning++ == 0) {
       getStatusManager().add(
@@ -200,6 +225,32 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
     return packagingDataEnabled;
   }
 
+  /**
+   * When enabled, loggers pass a recycled, thread-local {@link LoggingEvent}
+   * to their appenders instead of allocating a new event per enabled logging
+   * statement. Appenders shipping with logback which retain events, such as
+   * {@link AsyncAppender}, retain a snapshot of the recycled event instead.
+   * Custom appenders retaining events must do the same, see
+   * {@link ch.qos.logback.core.spi.ReusableEvent}.
+   *
+   * @since 1.1.4
+   */
+  public void setEventReuseEnabled(boolean eventReuseEnabled) {
+    this.eventReuseEnabled = eventReuseEnabled;
+  }
+
+  public boolean isEventReuseEnabled() {
+    return eventReuseEnabled;
+  }
+
+  /**
+   * @return the recycler handing out events when event reuse is enabled
+   * @since 1.1.4
+   */
+  public LoggingEventRecycler getLoggingEventRecycler() {
+    return loggingEventRecycler;
+  }
+
   /**
    * This method clears all internal properties, except internal status messages,
    * closes all appenders, removes any turboFilters, fires an OnReset event,
@@ -214,7 +265,9 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
     super.reset();
     initEvaluatorMap();
     root.recursiveReset();
+    appendersChanged();
     resetTurboFilterList();
+    loggingEventRecycler.releaseSlots();
     fireOnReset();
     resetListenersExceptResetResistant();
     resetStatusListeners();
@@ -355,6 +408,30 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
     this.maxCallerDataDepth = maxCallerDataDepth;
   }
 
+  /**
+   * The provider computing the caller data of logging events, by default the
+   * most efficient one available on this JVM.
+   *
+   * @since 1.1.4
+   */
+  public CallerDataProvider getCallerDataProvider() {
+    return callerDataProvider;
+  }
+
+  public void setCallerDataProvider(CallerDataProvider callerDataProvider) {
+    this.callerDataProvider = callerDataProvider;
+  }
+
+  /**
+   * The packaging data computed for the exceptions logged within this
+   * context, when packaging data is enabled.
+   *
+   * @since 1.1.4
+   */
+  public PackagingDataCache getPackagingDataCache() {
+    return packagingDataCache;
+  }
+
   /**
    * List of packages considered part of the logging framework such that they are never considered
    * as callers of the logging framework. This list used to compute the caller for logging events.
@@ -95,6 +95,10 @@ public class PatternLayout extends PatternLayoutBase<ILoggingEvent> {
     defaultConverterMap.put("xThrowable", ExtendedThrowableProxyConverter.class
         .getName());
 
+    defaultConverterMap.put("dEx", DeduplicatingThrowableProxyConverter.class.getName());
+    defaultConverterMap.put("dedupException", DeduplicatingThrowableProxyConverter.class
+        .getName());
+
     defaultConverterMap.put("nopex", NopThrowableInformationConverter.class
         .getName());
     defaultConverterMap.put("nopexception",
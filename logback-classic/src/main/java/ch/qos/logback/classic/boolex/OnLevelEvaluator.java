@@ -0,0 +1,50 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.boolex;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.boolex.EvaluationException;
+import ch.qos.logback.core.boolex.EventEvaluatorBase;
+
+/**
+ * Evaluates to true when the logging event passed as parameter has the
+ * user-specified level or higher. The level defaults to ERROR.
+ * <p/>
+ * A typical use is as the <b>flushEvaluator</b> of a file appender in group
+ * commit mode, so that warnings and errors reach the disk without delay.
+ *
+ * @since 1.1.4
+ */
+public class OnLevelEvaluator extends EventEvaluatorBase<ILoggingEvent> {
+
+  Level level = Level.ERROR;
+
+  public void setLevel(String level) {
+    this.level = Level.toLevel(level, Level.ERROR);
+  }
+
+  public Level getLevel() {
+    return level;
+  }
+
+  /**
+   * Return true if event passed as parameter has the specified level or
+   * higher, returns false otherwise.
+   */
+  public boolean evaluate(ILoggingEvent event) throws NullPointerException,
+      EvaluationException {
+    return event.getLevel().isGreaterOrEqual(level);
+  }
+}
@@ -0,0 +1,428 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.classic.util.SortedArrayMap;
+import ch.qos.logback.core.encoder.BatchEncoder;
+import ch.qos.logback.core.encoder.ConcurrentEncoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+/**
+ * An encoder writing each event as a JSON object on a line of its own, in
+ * UTF-8. For example:
+ *
+ * <pre>
+ * {"timestamp":1436803200000,"level":"INFO","thread":"main","logger":"com.foo.App","message":"Hello world","mdc":{"user":"alice"}}
+ * </pre>
+ *
+ * Events are written field by field into a reusable byte buffer. Field names
+ * are escaped once and for all, strings are escaped and encoded as they are
+ * copied, and the MDC, markers, throwable and caller data are read in place.
+ * Encoding an event therefore does not allocate memory in the steady state,
+ * except for the formatted message, the iterators over markers and, unless
+ * the MDC is the map of {@link ch.qos.logback.classic.util.LogbackMDCAdapter},
+ * the entries of the MDC map. As with {@link
+ * ch.qos.logback.core.encoder.LayoutWrappingEncoder}, callers must serialize
+ * calls to {@link #doEncode(ILoggingEvent)} and {@link #doEncodeBatch(List)},
+ * whereas calls to {@link #encodeToBuffer(ILoggingEvent)} may be concurrent.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public class JsonEncoder extends EncoderBase<ILoggingEvent> implements BatchEncoder<ILoggingEvent>,
+    ConcurrentEncoder<ILoggingEvent> {
+
+  static final String TIMESTAMP = "timestamp";
+  static final String LEVEL = "level";
+  static final String THREAD = "thread";
+  static final String LOGGER = "logger";
+  static final String MESSAGE = "message";
+  static final String MDC = "mdc";
+  static final String MARKERS = "markers";
+  static final String THROWABLE = "throwable";
+  static final String CALLER = "caller";
+  static final String CLASS = "class";
+  static final String FRAMES = "frames";
+  static final String COMMON_FRAMES = "commonFrames";
+  static final String CAUSE = "cause";
+  static final String SUPPRESSED = "suppressed";
+  static final String METHOD = "method";
+  static final String FILE = "file";
+  static final String LINE = "line";
+
+  // the escaped names of the fields, each followed by a colon, the first
+  // field of an object being preceded by an opening brace, the others by a comma
+  private static final byte[] TIMESTAMP_FIELD = firstField(TIMESTAMP);
+  private static final byte[] LEVEL_FIELD = field(LEVEL);
+  private static final byte[] THREAD_FIELD = field(THREAD);
+  private static final byte[] LOGGER_FIELD = field(LOGGER);
+  private static final byte[] MESSAGE_FIELD = field(MESSAGE);
+  private static final byte[] MDC_FIELD = field(MDC);
+  private static final byte[] MARKERS_FIELD = field(MARKERS);
+  private static final byte[] THROWABLE_FIELD = field(THROWABLE);
+  private static final byte[] CALLER_FIELD = field(CALLER);
+  private static final byte[] FIRST_CLASS_FIELD = firstField(CLASS);
+  private static final byte[] FRAMES_FIELD = field(FRAMES);
+  private static final byte[] COMMON_FRAMES_FIELD = field(COMMON_FRAMES);
+  private static final byte[] CAUSE_FIELD = field(CAUSE);
+  private static final byte[] SUPPRESSED_FIELD = field(SUPPRESSED);
+  private static final byte[] METHOD_FIELD = field(METHOD);
+  private static final byte[] FILE_FIELD = field(FILE);
+  private static final byte[] LINE_FIELD = field(LINE);
+
+  private static final byte[] TRACE_VALUE = JsonWriter.quote(Level.TRACE.levelStr);
+  private static final byte[] DEBUG_VALUE = JsonWriter.quote(Level.DEBUG.levelStr);
+  private static final byte[] INFO_VALUE = JsonWriter.quote(Level.INFO.levelStr);
+  private static final byte[] WARN_VALUE = JsonWriter.quote(Level.WARN.levelStr);
+  private static final byte[] ERROR_VALUE = JsonWriter.quote(Level.ERROR.levelStr);
+
+  private static final byte[] END_OF_EVENT = { '}', '\n' };
+
+  private boolean immediateFlush = true;
+  private boolean includeCallerData = false;
+  private boolean includeMdc = true;
+
+  /**
+   * Writer of the serialized write path, created on first use.
+   */
+  private JsonWriter writer;
+
+  /**
+   * Writers of {@link #encodeToBuffer(ILoggingEvent)}, one per thread.
+   */
+  private final ThreadLocal<JsonWriter> threadWriters = new ThreadLocal<JsonWriter>() {
+    @Override
+    protected JsonWriter initialValue() {
+      return new JsonWriter();
+    }
+  };
+
+  private static byte[] firstField(String name) {
+    return fieldName('{', name);
+  }
+
+  private static byte[] field(String name) {
+    return fieldName(',', name);
+  }
+
+  private static byte[] fieldName(char prefix, String name) {
+    byte[] quoted = JsonWriter.quote(name);
+    byte[] result = new byte[quoted.length + 2];
+    result[0] = (byte) prefix;
+    System.arraycopy(quoted, 0, result, 1, quoted.length);
+    result[result.length - 1] = ':';
+    return result;
+  }
+
+  /**
+   * Sets the immediateFlush option. The default value for immediateFlush is
+   * 'true'. If set to true, the doEncode() method will immediately flush the
+   * underlying OutputStream.
+   */
+  public void setImmediateFlush(boolean immediateFlush) {
+    this.immediateFlush = immediateFlush;
+  }
+
+  public boolean isImmediateFlush() {
+    return immediateFlush;
+  }
+
+  /**
+   * If set to true, the location of the logging request is written in a
+   * "caller" field. Computing caller data is expensive, this option is
+   * therefore disabled by default.
+   */
+  public void setIncludeCallerData(boolean includeCallerData) {
+    this.includeCallerData = includeCallerData;
+  }
+
+  public boolean isIncludeCallerData() {
+    return includeCallerData;
+  }
+
+  /**
+   * If set to true, which is the default, non-empty MDC maps are written in
+   * an "mdc" field.
+   */
+  public void setIncludeMdc(boolean includeMdc) {
+    this.includeMdc = includeMdc;
+  }
+
+  public boolean isIncludeMdc() {
+    return includeMdc;
+  }
+
+  public void doEncode(ILoggingEvent event) throws IOException {
+    JsonWriter w = getWriter();
+    // discard leftovers of a previous call interrupted by an exception
+    w.reset();
+    writeEvent(w, event);
+    writeBytes(w.toByteBuffer());
+    w.releaseOversizedBuffer();
+    if (immediateFlush)
+      outputStream.flush();
+  }
+
+  /**
+   * Write each event and, if immediateFlush is set, flush the underlying
+   * OutputStream once for the whole batch. Consecutive events are written in
+   * chunks of up to {@link JsonWriter#MAX_RETAINED_BUFFER_SIZE} bytes.
+   */
+  public void doEncodeBatch(List<ILoggingEvent> events) throws IOException {
+    JsonWriter w = getWriter();
+    w.reset();
+    for (ILoggingEvent event : events) {
+      writeEvent(w, event);
+      if (w.length() >= JsonWriter.MAX_RETAINED_BUFFER_SIZE) {
+        writeBytes(w.toByteBuffer());
+        w.reset();
+      }
+    }
+    if (w.length() > 0) {
+      writeBytes(w.toByteBuffer());
+    }
+    w.releaseOversizedBuffer();
+    if (immediateFlush)
+      outputStream.flush();
+  }
+
+  /**
+   * Returns true, each thread encodes into a writer of its own.
+   */
+  public boolean isConcurrentEncodingSupported() {
+    return true;
+  }
+
+  public ByteBuffer encodeToBuffer(ILoggingEvent event) {
+    JsonWriter w = threadWriters.get();
+    // the buffer returned by the previous call has been written by now
+    w.releaseOversizedBuffer();
+    writeEvent(w, event);
+    return w.toByteBuffer();
+  }
+
+  public void writeEncoded(ByteBuffer encoded, boolean endOfWrite) throws IOException {
+    writeBytes(encoded);
+    if (endOfWrite && immediateFlush)
+      outputStream.flush();
+  }
+
+  public void writeEncoded(ByteBuffer[] encoded, int offset, int length, boolean endOfWrite) throws IOException {
+    writeBytes(encoded, offset, length);
+    if (endOfWrite && immediateFlush)
+      outputStream.flush();
+  }
+
+  public void close() throws IOException {
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    if (outputStream != null) {
+      try {
+        outputStream.flush();
+      } catch (IOException e) {
+      }
+    }
+  }
+
+  private JsonWriter getWriter() {
+    if (writer == null) {
+      writer = new JsonWriter();
+    }
+    return writer;
+  }
+
+  void writeEvent(JsonWriter w, ILoggingEvent event) {
+    w.writeBytes(TIMESTAMP_FIELD);
+    w.writeTimestamp(event.getTimeStamp());
+    w.writeBytes(LEVEL_FIELD);
+    writeLevel(w, event.getLevel());
+    w.writeBytes(THREAD_FIELD);
+    w.writeString(event.getThreadName());
+    w.writeBytes(LOGGER_FIELD);
+    w.writeString(event.getLoggerName());
+    w.writeBytes(MESSAGE_FIELD);
+    w.writeString(event.getFormattedMessage());
+
+    if (includeMdc) {
+      writeMdc(w, event.getMDCPropertyMap());
+    }
+    Marker marker = event.getMarker();
+    if (marker != null) {
+      w.writeBytes(MARKERS_FIELD);
+      w.writeByte((byte) '[');
+      writeMarker(w, marker, true);
+      w.writeByte((byte) ']');
+    }
+    IThrowableProxy tp = event.getThrowableProxy();
+    if (tp != null) {
+      w.writeBytes(THROWABLE_FIELD);
+      writeThrowable(w, tp);
+    }
+    if (includeCallerData) {
+      StackTraceElement[] cda = event.getCallerData();
+      if (cda != null && cda.length > 0) {
+        w.writeBytes(CALLER_FIELD);
+        writeFrame(w, cda[0]);
+      }
+    }
+    w.writeBytes(END_OF_EVENT);
+  }
+
+  private void writeLevel(JsonWriter w, Level level) {
+    switch (level.levelInt) {
+    case Level.TRACE_INT:
+      w.writeBytes(TRACE_VALUE);
+      break;
+    case Level.DEBUG_INT:
+      w.writeBytes(DEBUG_VALUE);
+      break;
+    case Level.INFO_INT:
+      w.writeBytes(INFO_VALUE);
+      break;
+    case Level.WARN_INT:
+      w.writeBytes(WARN_VALUE);
+      break;
+    case Level.ERROR_INT:
+      w.writeBytes(ERROR_VALUE);
+      break;
+    default:
+      w.writeString(level.levelStr);
+    }
+  }
+
+  private void writeMdc(JsonWriter w, Map<String, String> mdc) {
+    if (mdc == null || mdc.isEmpty()) {
+      return;
+    }
+    w.writeBytes(MDC_FIELD);
+    w.writeByte((byte) '{');
+    if (mdc instanceof SortedArrayMap) {
+      // read the arrays of the map, its entry set creates an entry per key
+      SortedArrayMap sam = (SortedArrayMap) mdc;
+      for (int i = 0; i < sam.size(); i++) {
+        if (i > 0) {
+          w.writeByte((byte) ',');
+        }
+        w.writeString(sam.keyAt(i));
+        w.writeByte((byte) ':');
+        w.writeString(sam.valueAt(i));
+      }
+      w.writeByte((byte) '}');
+      return;
+    }
+    boolean first = true;
+    for (Map.Entry<String, String> entry : mdc.entrySet()) {
+      if (!first) {
+        w.writeByte((byte) ',');
+      }
+      first = false;
+      w.writeString(entry.getKey());
+      w.writeByte((byte) ':');
+      w.writeString(entry.getValue());
+    }
+    w.writeByte((byte) '}');
+  }
+
+  /**
+   * Write the name of the marker followed by the names of its references,
+   * depth first.
+   */
+  private void writeMarker(JsonWriter w, Marker marker, boolean first) {
+    if (!first) {
+      w.writeByte((byte) ',');
+    }
+    w.writeString(marker.getName());
+    if (marker.hasReferences()) {
+      Iterator<Marker> it = marker.iterator();
+      while (it.hasNext()) {
+        writeMarker(w, it.next(), false);
+      }
+    }
+  }
+
+  private void writeThrowable(JsonWriter w, IThrowableProxy tp) {
+    w.writeBytes(FIRST_CLASS_FIELD);
+    w.writeString(tp.getClassName());
+    if (tp.getMessage() != null) {
+      w.writeBytes(MESSAGE_FIELD);
+      w.writeString(tp.getMessage());
+    }
+    StackTraceElementProxy[] stepArray = tp.getStackTraceElementProxyArray();
+    int commonFrames = tp.getCommonFrames();
+    w.writeBytes(FRAMES_FIELD);
+    w.writeByte((byte) '[');
+    if (stepArray != null) {
+      for (int i = 0; i < stepArray.length - commonFrames; i++) {
+        if (i > 0) {
+          w.writeByte((byte) ',');
+        }
+        writeFrame(w, stepArray[i].getStackTraceElement());
+      }
+    }
+    w.writeByte((byte) ']');
+    if (commonFrames > 0) {
+      w.writeBytes(COMMON_FRAMES_FIELD);
+      w.writeLong(commonFrames);
+    }
+    IThrowableProxy cause = tp.getCause();
+    if (cause != null) {
+      w.writeBytes(CAUSE_FIELD);
+      writeThrowable(w, cause);
+    }
+    IThrowableProxy[] suppressed = tp.getSuppressed();
+    if (suppressed != null && suppressed.length > 0) {
+      w.writeBytes(SUPPRESSED_FIELD);
+      w.writeByte((byte) '[');
+      for (int i = 0; i < suppressed.length; i++) {
+        if (i > 0) {
+          w.writeByte((byte) ',');
+        }
+        writeThrowable(w, suppressed[i]);
+      }
+      w.writeByte((byte) ']');
+    }
+    w.writeByte((byte) '}');
+  }
+
+  private void writeFrame(JsonWriter w, StackTraceElement ste) {
+    w.writeBytes(FIRST_CLASS_FIELD);
+    w.writeString(ste.getClassName());
+    w.writeBytes(METHOD_FIELD);
+    w.writeString(ste.getMethodName());
+    if (ste.getFileName() != null) {
+      w.writeBytes(FILE_FIELD);
+      w.writeString(ste.getFileName());
+    }
+    if (ste.getLineNumber() >= 0) {
+      w.writeBytes(LINE_FIELD);
+      w.writeLong(ste.getLineNumber());
+    }
+    w.writeByte((byte) '}');
+  }
+}
@@ -0,0 +1,262 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A growable byte buffer into which JSON text is written as UTF-8, escaping
+ * strings on the fly, so that no intermediate String or char array is built.
+ * <p/>
+ * Instances are not thread-safe.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+class JsonWriter {
+
+  /**
+   * Initial size, in bytes, of the buffer.
+   */
+  static final int INITIAL_BUFFER_SIZE = 512;
+
+  /**
+   * Buffers grown beyond this size, in bytes, by an unusually large event are
+   * released by {@link #releaseOversizedBuffer()}.
+   */
+  static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+  private static final byte[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+  /**
+   * The escape sequence of each ASCII char, null for chars written as is.
+   */
+  private static final byte[][] ASCII_ESCAPES = new byte[128][];
+
+  static {
+    for (int c = 0; c < 0x20; c++) {
+      ASCII_ESCAPES[c] = new byte[] { '\\', 'u', '0', '0', HEX[c >> 4], HEX[c & 0xF] };
+    }
+    ASCII_ESCAPES['\b'] = new byte[] { '\\', 'b' };
+    ASCII_ESCAPES['\t'] = new byte[] { '\\', 't' };
+    ASCII_ESCAPES['\n'] = new byte[] { '\\', 'n' };
+    ASCII_ESCAPES['\f'] = new byte[] { '\\', 'f' };
+    ASCII_ESCAPES['\r'] = new byte[] { '\\', 'r' };
+    ASCII_ESCAPES['"'] = new byte[] { '\\', '"' };
+    ASCII_ESCAPES['\\'] = new byte[] { '\\', '\\' };
+  }
+
+  private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+  private static final byte[] MIN_LONG = { '-', '9', '2', '2', '3', '3', '7', '2', '0', '3', '6', '8', '5', '4', '7', '7', '5', '8', '0', '8' };
+
+  private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+  private int length;
+
+  // the digits of the second of the last timestamp written
+  private long cachedSecond = -1;
+  private byte[] cachedSecondDigits = new byte[20];
+  private int cachedSecondLength;
+
+  /**
+   * Return the UTF-8 bytes of the given string as a JSON string literal,
+   * quotes included.
+   */
+  static byte[] quote(String s) {
+    JsonWriter writer = new JsonWriter();
+    writer.writeString(s);
+    byte[] quoted = new byte[writer.length];
+    System.arraycopy(writer.bytes, 0, quoted, 0, writer.length);
+    return quoted;
+  }
+
+  int length() {
+    return length;
+  }
+
+  void reset() {
+    length = 0;
+  }
+
+  /**
+   * Wrap the bytes written so far, which remain valid until the next call to
+   * {@link #reset()} or {@link #releaseOversizedBuffer()}.
+   */
+  ByteBuffer toByteBuffer() {
+    return ByteBuffer.wrap(bytes, 0, length);
+  }
+
+  /**
+   * Release the buffer an unusually large event made grow, so that it is not
+   * retained for the next event. Also resets the writer.
+   */
+  void releaseOversizedBuffer() {
+    if (bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+      bytes = new byte[INITIAL_BUFFER_SIZE];
+    }
+    length = 0;
+  }
+
+  void writeByte(byte b) {
+    ensureCapacity(1);
+    bytes[length++] = b;
+  }
+
+  void writeBytes(byte[] b) {
+    ensureCapacity(b.length);
+    System.arraycopy(b, 0, bytes, length, b.length);
+    length += b.length;
+  }
+
+  void writeNull() {
+    writeBytes(NULL);
+  }
+
+  void writeLong(long value) {
+    if (value == Long.MIN_VALUE) {
+      writeBytes(MIN_LONG);
+      return;
+    }
+    ensureCapacity(20);
+    byte[] buf = bytes;
+    int pos = length;
+    if (value < 0) {
+      buf[pos++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for (long p = 10; digits < 19 && value >= p; p *= 10) {
+      digits++;
+    }
+    int end = pos + digits;
+    for (int i = end - 1; i >= pos; i--) {
+      long q = value / 10;
+      buf[i] = (byte) ('0' + (value - q * 10));
+      value = q;
+    }
+    length = end;
+  }
+
+  /**
+   * Write the given timestamp, in milliseconds. Consecutive events are
+   * usually logged within the same second, whose digits are cached.
+   */
+  void writeTimestamp(long millis) {
+    if (millis < 1000) {
+      writeLong(millis);
+      return;
+    }
+    long second = millis / 1000;
+    if (second != cachedSecond) {
+      int start = length;
+      writeLong(second);
+      cachedSecondLength = length - start;
+      System.arraycopy(bytes, start, cachedSecondDigits, 0, cachedSecondLength);
+      cachedSecond = second;
+      length = start;
+    }
+    ensureCapacity(cachedSecondLength + 3);
+    System.arraycopy(cachedSecondDigits, 0, bytes, length, cachedSecondLength);
+    length += cachedSecondLength;
+    int ms = (int) (millis - second * 1000);
+    bytes[length++] = (byte) ('0' + ms / 100);
+    bytes[length++] = (byte) ('0' + (ms / 10) % 10);
+    bytes[length++] = (byte) ('0' + ms % 10);
+  }
+
+  /**
+   * Write the given string as a JSON string literal, or null.
+   */
+  void writeString(String s) {
+    if (s == null) {
+      writeNull();
+      return;
+    }
+    writeByte((byte) '"');
+    writeStringContent(s);
+    writeByte((byte) '"');
+  }
+
+  /**
+   * Write the escaped UTF-8 bytes of the given string, without quotes.
+   * Unpaired surrogates are replaced by '?', as {@link String#getBytes()}
+   * does.
+   */
+  void writeStringContent(String s) {
+    int len = s.length();
+    // at most 3 bytes per char, escapes of ASCII chars excepted
+    ensureCapacity(3 * len);
+    // locals rather than fields, so that the loops run in registers
+    byte[] buf = bytes;
+    int pos = length;
+    int i = 0;
+    // fast path for plain ASCII
+    while (i < len) {
+      char c = s.charAt(i);
+      if (c >= 0x80 || ASCII_ESCAPES[c] != null) {
+        break;
+      }
+      buf[pos++] = (byte) c;
+      i++;
+    }
+    length = pos;
+    if (i < len) {
+      writeRemainingContent(s, i);
+    }
+  }
+
+  private void writeRemainingContent(String s, int from) {
+    int len = s.length();
+    for (int i = from; i < len; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        byte[] escape = ASCII_ESCAPES[c];
+        if (escape == null) {
+          ensureCapacity(1);
+          bytes[length++] = (byte) c;
+        } else {
+          writeBytes(escape);
+        }
+      } else if (c < 0x800) {
+        ensureCapacity(2);
+        bytes[length++] = (byte) (0xC0 | (c >> 6));
+        bytes[length++] = (byte) (0x80 | (c & 0x3F));
+      } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+        if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+          int cp = Character.toCodePoint(c, s.charAt(++i));
+          ensureCapacity(4);
+          bytes[length++] = (byte) (0xF0 | (cp >> 18));
+          bytes[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+          bytes[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+          bytes[length++] = (byte) (0x80 | (cp & 0x3F));
+        } else {
+          ensureCapacity(1);
+          bytes[length++] = '?';
+        }
+      } else {
+        ensureCapacity(3);
+        bytes[length++] = (byte) (0xE0 | (c >> 12));
+        bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        bytes[length++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    if (length + extra > bytes.length) {
+      byte[] larger = new byte[Math.max(length + extra, 2 * bytes.length)];
+      System.arraycopy(bytes, 0, larger, 0, length);
+      bytes = larger;
+    }
+  }
+}
@@ -25,6 +25,7 @@ public class PatternLayoutEncoder extends PatternLayoutEncoderBase<ILoggingEvent
     patternLayout.setContext(context);
     patternLayout.setPattern(getPattern());
     patternLayout.setOutputPatternAsHeader(outputPatternAsHeader);
+    patternLayout.setFuseConverters(fuseConverters);
     patternLayout.start();
     this.layout = patternLayout;
     super.start();
@@ -28,6 +28,7 @@ import ch.qos.logback.core.util.OptionHelper;
 public class ConfigurationAction extends Action {
   static final String INTERNAL_DEBUG_ATTR = "debug";
   static final String PACKAGING_INFO_ATTR = "packageTrace";
+  static final String EVENT_REUSE_ATTR = "eventReuse";
   static final String SCAN_ATTR = "scan";
   static final String SCAN_PERIOD_ATTR = "scanPeriod";
   static final String DEBUG_SYSTEM_PROPERTY_KEY = "logback.debug";
@@ -62,6 +63,10 @@ public class ConfigurationAction extends Action {
                                     ic.subst(attributes.getValue(PACKAGING_INFO_ATTR)),
                                     LoggerContext.DEFAULT_PACKAGING_STATE);
     lc.setPackagingDataEnabled(packageTraceEnabled);
+    boolean eventReuseEnabled = OptionHelper.toBoolean(
+                                    ic.subst(attributes.getValue(EVENT_REUSE_ATTR)),
+                                    LoggerContext.DEFAULT_EVENT_REUSE_STATE);
+    lc.setEventReuseEnabled(eventReuseEnabled);
 
     if (EnvUtil.isGroovyAvailable()) {
       contextUtil.addGroovyPackages(lc.getFrameworkPackages());
@@ -21,6 +21,7 @@ import ch.qos.logback.core.Layout;
 import ch.qos.logback.core.boolex.EventEvaluator;
 import ch.qos.logback.core.helpers.CyclicBuffer;
 import ch.qos.logback.core.net.SMTPAppenderBase;
+import ch.qos.logback.core.spi.ReusableEventUtil;
 import org.slf4j.Marker;
 
 /**
@@ -81,7 +82,7 @@ public class SMTPAppender extends SMTPAppenderBase<ILoggingEvent> {
       event.getCallerData();
     }
     event.prepareForDeferredProcessing();
-    cb.add(event);
+    cb.add(ReusableEventUtil.snapshot(event));
   }
 
   @Override
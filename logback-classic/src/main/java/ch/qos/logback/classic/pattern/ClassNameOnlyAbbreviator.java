@@ -34,4 +34,14 @@ public class ClassNameOnlyAbbreviator implements Abbreviator {
       return fqClassName;
     }
   }
+
+  @Override
+  public boolean equals(Object o) {
+    return o != null && getClass() == o.getClass();
+  }
+
+  @Override
+  public int hashCode() {
+    return getClass().hashCode();
+  }
 }
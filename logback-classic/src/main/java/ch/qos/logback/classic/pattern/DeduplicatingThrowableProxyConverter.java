@@ -0,0 +1,93 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.pattern;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.util.Duration;
+
+/**
+ * Outputs the stack trace of an exception in full the first time it is seen
+ * within a time window. Within the window, the same exception thrown from the
+ * same place is output as its first line followed by a reference such as
+ * <code>[stack #1b2c3d4e repeated 512x]</code>. Exceptions are told apart by
+ * {@link ThrowableProxyUtil#fingerprint(IThrowableProxy)}, which ignores
+ * messages.
+ *
+ * <p>Besides the options of {@link ThrowableProxyConverter}, the length of the
+ * window can be given as an option, e.g. <code>%dEx{full, 5 minutes}</code>.
+ * It defaults to one minute.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public class DeduplicatingThrowableProxyConverter extends ThrowableProxyConverter {
+
+  public static final long DEFAULT_WINDOW_MILLIS = 60 * 1000;
+
+  long windowMillis = DEFAULT_WINDOW_MILLIS;
+  StackTraceCache stackTraceCache;
+
+  @Override
+  public void start() {
+    super.start();
+    stackTraceCache = new StackTraceCache(windowMillis);
+  }
+
+  @Override
+  protected boolean handleOption(String option) {
+    try {
+      windowMillis = Duration.valueOf(option).getMilliseconds();
+      return true;
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  public StackTraceCache getStackTraceCache() {
+    return stackTraceCache;
+  }
+
+  @Override
+  protected String convertThrowableProxy(ILoggingEvent event, IThrowableProxy tp) {
+    long fingerprint = ThrowableProxyUtil.fingerprint(tp);
+    int repeats = stackTraceCache.record(fingerprint, event.getTimeStamp());
+    String reference = toReference(fingerprint);
+    if (repeats == 0) {
+      String full = throwableProxyToString(tp);
+      int endOfFirstLine = full.indexOf(CoreConstants.LINE_SEPARATOR);
+      if (endOfFirstLine == -1) {
+        return full;
+      }
+      return full.substring(0, endOfFirstLine) + " [stack " + reference + "]" + full.substring(endOfFirstLine);
+    }
+
+    StringBuilder buf = new StringBuilder(128);
+    buf.append(tp.getClassName()).append(": ").append(tp.getMessage());
+    buf.append(" [stack ").append(reference).append(" repeated ").append(repeats).append("x]");
+    buf.append(CoreConstants.LINE_SEPARATOR);
+    return buf.toString();
+  }
+
+  static String toReference(long fingerprint) {
+    String hex = Integer.toHexString((int) (fingerprint ^ (fingerprint >>> 32)));
+    StringBuilder buf = new StringBuilder(9).append('#');
+    for (int i = hex.length(); i < 8; i++) {
+      buf.append('0');
+    }
+    return buf.append(hex).toString();
+  }
+}
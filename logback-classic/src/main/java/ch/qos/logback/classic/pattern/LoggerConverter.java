@@ -13,11 +13,29 @@
  */
 package ch.qos.logback.classic.pattern;
 
+import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
 
 public class LoggerConverter extends NamedConverter {
 
   protected String getFullyQualifiedName(ILoggingEvent event) {
     return event.getLoggerName();
   }
+
+  @Override
+  public String convert(ILoggingEvent event) {
+    if (abbreviator != null && event instanceof LoggingEvent) {
+      // the abbreviation is kept by the logger itself
+      Logger logger = ((LoggingEvent) event).getLogger();
+      if (logger != null) {
+        String abbreviated = logger.getAbbreviatedName(abbreviator);
+        if (abbreviated != null) {
+          return abbreviated;
+        }
+        // the logger keeps the abbreviation of another converter
+      }
+    }
+    return super.convert(event);
+  }
 }
@@ -13,12 +13,24 @@
  */
 package ch.qos.logback.classic.pattern;
 
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import ch.qos.logback.classic.spi.ILoggingEvent;
 
 public abstract class NamedConverter extends ClassicConverter {
 
+  /**
+   * The maximum number of abbreviated names kept by each converter.
+   */
+  static final int MAX_CACHE_SIZE = 8192;
+
   Abbreviator abbreviator = null;
 
+  // the names already abbreviated, mapped to their abbreviation
+  final ConcurrentMap<String, String> cache = new ConcurrentHashMap<String, String>();
+
   /**
    * Gets fully qualified name from event.
    * 
@@ -50,7 +62,28 @@ public abstract class NamedConverter extends ClassicConverter {
     if (abbreviator == null) {
       return fqn;
     } else {
-      return abbreviator.abbreviate(fqn);
+      return abbreviate(fqn);
+    }
+  }
+
+  /**
+   * Abbreviate <code>fqn</code>, computing its abbreviation only if it is not
+   * already cached.
+   */
+  protected String abbreviate(String fqn) {
+    String abbreviated = cache.get(fqn);
+    if (abbreviated == null) {
+      abbreviated = abbreviator.abbreviate(fqn);
+      if (cache.size() >= MAX_CACHE_SIZE) {
+        // evict an arbitrary entry to stay within bounds
+        Iterator<String> it = cache.keySet().iterator();
+        if (it.hasNext()) {
+          it.next();
+          it.remove();
+        }
+      }
+      cache.put(fqn, abbreviated);
     }
+    return abbreviated;
   }
 }
@@ -0,0 +1,111 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.pattern;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers, by fingerprint, the stack traces recently rendered in full by a
+ * {@link DeduplicatingThrowableProxyConverter}. The least recently seen
+ * fingerprints are forgotten first.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public class StackTraceCache {
+
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private final long windowMillis;
+  private final Map<Long, Rendered> lru;
+
+  private long renderedCount;
+  private long repeatedCount;
+  private long evictedCount;
+
+  public StackTraceCache(long windowMillis) {
+    this(windowMillis, DEFAULT_CAPACITY);
+  }
+
+  public StackTraceCache(long windowMillis, final int capacity) {
+    this.windowMillis = windowMillis;
+    this.lru = new LinkedHashMap<Long, Rendered>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Rendered> eldest) {
+        if (size() > capacity) {
+          evictedCount++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Record a stack trace with the given fingerprint seen at
+   * <code>timestamp</code>.
+   *
+   * @return 0 if the stack trace is to be rendered in full, that is if it was
+   *         not seen within the window, otherwise the number of times it was
+   *         repeated since it was last rendered
+   */
+  public synchronized int record(long fingerprint, long timestamp) {
+    Long key = fingerprint;
+    Rendered rendered = lru.get(key);
+    if (rendered == null || timestamp - rendered.at >= windowMillis) {
+      lru.put(key, new Rendered(timestamp));
+      renderedCount++;
+      return 0;
+    }
+    repeatedCount++;
+    return ++rendered.repeats;
+  }
+
+  /**
+   * @return the number of stack traces rendered in full
+   */
+  public synchronized long getRenderedCount() {
+    return renderedCount;
+  }
+
+  /**
+   * @return the number of stack traces replaced by a reference
+   */
+  public synchronized long getRepeatedCount() {
+    return repeatedCount;
+  }
+
+  /**
+   * @return the number of fingerprints forgotten to stay within capacity
+   */
+  public synchronized long getEvictedCount() {
+    return evictedCount;
+  }
+
+  public synchronized int size() {
+    return lru.size();
+  }
+
+  static final class Rendered {
+    final long at;
+    int repeats;
+
+    Rendered(long at) {
+      this.at = at;
+    }
+  }
+}
@@ -64,6 +64,22 @@ public class TargetLengthBasedClassNameAbbreviator implements Abbreviator {
     return buf.toString();
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return targetLength == ((TargetLengthBasedClassNameAbbreviator) o).targetLength;
+  }
+
+  @Override
+  public int hashCode() {
+    return targetLength;
+  }
+
   static int computeDotIndexes(final String className, int[] dotArray) {
     int dotCount = 0;
     int k = 0;
@@ -77,7 +77,7 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
                 .get(evaluatorOrIgnoredStackTraceLine);
         if (ee != null) {
           addEvaluator(ee);
-        } else {
+        } else if (!handleOption(evaluatorOrIgnoredStackTraceLine)) {
           addIgnoreStackTraceLine(evaluatorOrIgnoredStackTraceLine);
         }
       }
@@ -85,6 +85,17 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
     super.start();
   }
 
+  /**
+   * Give subclasses a chance to interpret an option which does not name an
+   * evaluator, before it is taken as a stack trace line to ignore.
+   *
+   * @return true if the option was handled
+   * @since 1.1.4
+   */
+  protected boolean handleOption(String option) {
+    return false;
+  }
+
   private void addEvaluator(EventEvaluator<ILoggingEvent> ee) {
     if (evaluatorList == null) {
       evaluatorList = new ArrayList<EventEvaluator<ILoggingEvent>>();
@@ -147,6 +158,15 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
       }
     }
 
+    return convertThrowableProxy(event, tp);
+  }
+
+  /**
+   * Render <code>tp</code>, the throwable proxy of <code>event</code>.
+   *
+   * @since 1.1.4
+   */
+  protected String convertThrowableProxy(ILoggingEvent event, IThrowableProxy tp) {
     return throwableProxyToString(tp);
   }
 
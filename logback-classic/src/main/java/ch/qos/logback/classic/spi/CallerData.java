@@ -118,6 +118,19 @@ public class CallerData {
     return false;
   }
 
+  /**
+   * Returns a new instance of the most efficient {@link CallerDataProvider}
+   * available on this JVM.
+   *
+   * @since 1.1.4
+   */
+  public static CallerDataProvider newCallerDataProvider() {
+    if (StackWalkerCallerDataProvider.isAvailable()) {
+      return new StackWalkerCallerDataProvider();
+    }
+    return new ThrowableCallerDataProvider();
+  }
+
   /**
    * Returns a StackTraceElement where all string fields are set to {@link #NA} and line number is set to {@link #LINE_NA}.
    *
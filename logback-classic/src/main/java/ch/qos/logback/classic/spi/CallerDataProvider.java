@@ -0,0 +1,38 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.List;
+
+/**
+ * Computes the caller data of logging events, that is the stack frames
+ * following the last frame of the logging framework.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public interface CallerDataProvider {
+
+  /**
+   * Extract the caller data of the current thread.
+   *
+   * @param fqnOfInvokingClass the fully qualified name of the class the
+   *                           logging call went through
+   * @param maxDepth           the maximum number of frames returned
+   * @param frameworkPackageList packages whose classes are never callers, may
+   *                           be null
+   * @return the caller data, empty if the caller could not be found
+   */
+  StackTraceElement[] extract(String fqnOfInvokingClass, int maxDepth, List<String> frameworkPackageList);
+}
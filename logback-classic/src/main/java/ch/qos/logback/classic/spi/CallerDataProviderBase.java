@@ -0,0 +1,113 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Finds the caller among stack frames, remembering for each class name
+ * whether it belongs to the logging framework.
+ *
+ * @param <F> the type of the stack frames
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public abstract class CallerDataProviderBase<F> implements CallerDataProvider {
+
+  /**
+   * The maximum number of class names whose status is remembered.
+   */
+  static final int MAX_CACHE_SIZE = 4096;
+
+  private volatile FrameworkClassCache frameworkClassCache = new FrameworkClassCache(null);
+
+  protected abstract String getClassName(F frame);
+
+  protected abstract StackTraceElement toStackTraceElement(F frame);
+
+  /**
+   * Return the caller data found in <code>frames</code>, ordered from the
+   * innermost frame outward. Frames are only consumed as far as needed.
+   */
+  protected StackTraceElement[] extract(Iterator<F> frames, String fqnOfInvokingClass, int maxDepth,
+                                        List<String> frameworkPackageList) {
+    FrameworkClassCache cache = getFrameworkClassCache(frameworkPackageList);
+    boolean found = false;
+    while (frames.hasNext()) {
+      F frame = frames.next();
+      String className = getClassName(frame);
+      if (className.equals(fqnOfInvokingClass) || cache.isInFrameworkSpace(className)) {
+        found = true;
+      } else if (found) {
+        // the caller is the first frame following the framework frames
+        if (maxDepth <= 0) {
+          break;
+        }
+        List<StackTraceElement> callerData = new ArrayList<StackTraceElement>(Math.min(maxDepth, 16));
+        callerData.add(toStackTraceElement(frame));
+        while (callerData.size() < maxDepth && frames.hasNext()) {
+          callerData.add(toStackTraceElement(frames.next()));
+        }
+        return callerData.toArray(new StackTraceElement[callerData.size()]);
+      }
+    }
+    return CallerData.EMPTY_CALLER_DATA_ARRAY;
+  }
+
+  private FrameworkClassCache getFrameworkClassCache(List<String> frameworkPackageList) {
+    FrameworkClassCache cache = frameworkClassCache;
+    if (!cache.isFor(frameworkPackageList)) {
+      cache = new FrameworkClassCache(frameworkPackageList);
+      frameworkClassCache = cache;
+    }
+    return cache;
+  }
+
+  /**
+   * Remembers which classes belong to the logging framework according to a
+   * given list of framework packages.
+   */
+  static final class FrameworkClassCache {
+    final List<String> frameworkPackageList;
+    final ConcurrentMap<String, Boolean> map = new ConcurrentHashMap<String, Boolean>();
+
+    FrameworkClassCache(List<String> frameworkPackageList) {
+      // a copy, since the list of the logger context may change
+      this.frameworkPackageList = frameworkPackageList == null ? null : new ArrayList<String>(frameworkPackageList);
+    }
+
+    boolean isFor(List<String> list) {
+      if (list == null || list.isEmpty()) {
+        return frameworkPackageList == null || frameworkPackageList.isEmpty();
+      }
+      return list.equals(frameworkPackageList);
+    }
+
+    boolean isInFrameworkSpace(String className) {
+      Boolean inFrameworkSpace = map.get(className);
+      if (inFrameworkSpace == null) {
+        inFrameworkSpace = CallerData.isInFrameworkSpace(className, null, frameworkPackageList);
+        if (map.size() >= MAX_CACHE_SIZE) {
+          map.clear();
+        }
+        map.put(className, inFrameworkSpace);
+      }
+      return inFrameworkSpace;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.spi.ReusableEvent;
 
 import org.slf4j.spi.MDCAdapter;
 
@@ -45,7 +46,7 @@ import org.slf4j.spi.MDCAdapter;
  * @author Ceki G&uuml;lc&uuml;
  * @author S&eacute;bastien Pennec
  */
-public class LoggingEvent implements ILoggingEvent {
+public class LoggingEvent implements ILoggingEvent, ReusableEvent<ILoggingEvent> {
 
   /**
    * Fully qualified name of the calling Logger class. This field does not
@@ -62,6 +63,11 @@ public class LoggingEvent implements ILoggingEvent {
   private String threadName;
 
   private String loggerName;
+
+  /**
+   * The logger which created this event, unknown once deserialized.
+   */
+  private transient Logger logger;
   private LoggerContext loggerContext;
   private LoggerContextVO loggerContextVO;
 
@@ -98,13 +104,24 @@ public class LoggingEvent implements ILoggingEvent {
    */
   private long timeStamp;
 
+  /**
+   * True if this instance is recycled by {@link LoggingEventRecycler}.
+   */
+  private transient boolean recycled;
+
   public LoggingEvent() {
   }
 
   public LoggingEvent(String fqcn, Logger logger, Level level, String message,
                       Throwable throwable, Object[] argArray) {
+    init(fqcn, logger, level, message, throwable, argArray);
+  }
+
+  private void init(String fqcn, Logger logger, Level level, String message,
+                    Throwable throwable, Object[] argArray) {
     this.fqnOfLoggerClass = fqcn;
     this.loggerName = logger.getName();
+    this.logger = logger;
     this.loggerContext = logger.getLoggerContext();
     this.loggerContextVO = loggerContext.getLoggerContextRemoteView();
     this.level = level;
@@ -120,13 +137,83 @@ public class LoggingEvent implements ILoggingEvent {
       this.throwableProxy = new ThrowableProxy(throwable);
       LoggerContext lc = logger.getLoggerContext();
       if (lc.isPackagingDataEnabled()) {
-        this.throwableProxy.calculatePackagingData();
+        this.throwableProxy.calculatePackagingData(lc.getPackagingDataCache());
       }
     }
 
     timeStamp = System.currentTimeMillis();
   }
 
+  /**
+   * Turn this recycled instance into a new event, as if it had been built by
+   * the corresponding constructor.
+   */
+  void reinit(String fqcn, Logger logger, Level level, String message,
+              Throwable throwable, Object[] argArray, Marker marker) {
+    this.recycled = true;
+    this.threadName = null;
+    this.formattedMessage = null;
+    this.throwableProxy = null;
+    this.callerDataArray = null;
+    this.mdcPropertyMap = null;
+    init(fqcn, logger, level, message, throwable, argArray);
+    this.marker = marker;
+  }
+
+  /**
+   * Drop the references held by this recycled instance, so that they do not
+   * outlive the logging call. In particular, a recycled instance kept by a
+   * pooled thread must not keep the logger context, and hence its class
+   * loader, alive. {@link #reinit} sets all these fields again.
+   */
+  void clear() {
+    this.fqnOfLoggerClass = null;
+    this.threadName = null;
+    this.loggerName = null;
+    this.logger = null;
+    this.loggerContext = null;
+    this.loggerContextVO = null;
+    this.message = null;
+    this.formattedMessage = null;
+    this.argumentArray = null;
+    this.throwableProxy = null;
+    this.callerDataArray = null;
+    this.marker = null;
+    this.mdcPropertyMap = null;
+  }
+
+  /**
+   * Returns this instance, unless it is recycled, in which case a copy with
+   * its lazily computed fields initialized is returned. See also
+   * {@link #prepareForDeferredProcessing()}.
+   *
+   * @since 1.1.4
+   */
+  public ILoggingEvent snapshot() {
+    if (!recycled) {
+      return this;
+    }
+    LoggingEvent copy = new LoggingEvent();
+    copy.fqnOfLoggerClass = fqnOfLoggerClass;
+    copy.threadName = getThreadName();
+    copy.loggerName = loggerName;
+    copy.logger = logger;
+    copy.loggerContext = loggerContext;
+    copy.loggerContextVO = loggerContextVO;
+    copy.level = level;
+    copy.message = message;
+    copy.formattedMessage = getFormattedMessage();
+    if (argumentArray != null) {
+      copy.argumentArray = argumentArray.clone();
+    }
+    copy.throwableProxy = throwableProxy;
+    copy.callerDataArray = callerDataArray;
+    copy.marker = marker;
+    copy.mdcPropertyMap = getMDCPropertyMap();
+    copy.timeStamp = timeStamp;
+    return copy;
+  }
+
   private Throwable extractThrowableAnRearrangeArguments(Object[] argArray) {
     Throwable extractedThrowable = EventArgUtil.extractThrowable(argArray);
     if(EventArgUtil.successfulExtraction(extractedThrowable)) {
@@ -158,6 +245,18 @@ public class LoggingEvent implements ILoggingEvent {
     this.loggerName = loggerName;
   }
 
+  /**
+   * @return the logger which created this event, or null if unknown
+   * @since 1.1.4
+   */
+  public Logger getLogger() {
+    if (logger != null && logger.getName() != loggerName) {
+      // the logger name was changed after creation
+      return null;
+    }
+    return logger;
+  }
+
   public String getThreadName() {
     if (threadName == null) {
       threadName = (Thread.currentThread()).getName();
@@ -258,7 +357,7 @@ public class LoggingEvent implements ILoggingEvent {
    */
   public StackTraceElement[] getCallerData() {
     if (callerDataArray == null) {
-      callerDataArray = CallerData.extract(new Throwable(), fqnOfLoggerClass,
+      callerDataArray = loggerContext.getCallerDataProvider().extract(fqnOfLoggerClass,
               loggerContext.getMaxCallerDataDepth(), loggerContext.getFrameworkPackages());
     }
     return callerDataArray;
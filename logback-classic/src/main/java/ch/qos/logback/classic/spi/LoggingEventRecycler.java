@@ -0,0 +1,132 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+/**
+ * Hands out one mutable {@link LoggingEvent} per thread, together with the
+ * argument arrays of the one and two parameter logging methods, so that
+ * enabled logging statements do not allocate them.
+ * <p/>
+ * A recycled event is only valid until {@link #release(LoggingEvent)} is
+ * called, i.e. until the appenders it was passed to have returned. Appenders
+ * retaining events must keep the result of {@link LoggingEvent#snapshot()}
+ * instead.
+ * <p/>
+ * Each {@link ch.qos.logback.classic.LoggerContext} owns a recycler, whose
+ * per-thread slots are dropped by {@link #releaseSlots()} when the context is
+ * reset or stopped, so that pooled threads do not keep the context alive.
+ *
+ * @since 1.1.4
+ */
+public class LoggingEventRecycler {
+
+  static class Slot {
+    final LoggingEvent event = new LoggingEvent();
+    final Object[] oneArg = new Object[1];
+    final Object[] twoArgs = new Object[2];
+    boolean inUse;
+  }
+
+  private volatile ThreadLocal<Slot> slots = newSlots();
+
+  private static ThreadLocal<Slot> newSlots() {
+    return new ThreadLocal<Slot>() {
+      @Override
+      protected Slot initialValue() {
+        return new Slot();
+      }
+    };
+  }
+
+  /**
+   * @return the event of the calling thread, or null if it is already in use,
+   *         e.g. because an appender logs while appending
+   */
+  public LoggingEvent acquire(String fqcn, Logger logger, Level level,
+      Marker marker, String msg, Object[] params, Throwable t) {
+    Slot slot = slots.get();
+    if (slot.inUse) {
+      return null;
+    }
+    slot.inUse = true;
+    slot.event.reinit(fqcn, logger, level, msg, t, params, marker);
+    return slot.event;
+  }
+
+  /**
+   * Same as {@link #acquire(String, Logger, Level, Marker, String, Object[], Throwable)}
+   * with a recycled single element argument array.
+   */
+  public LoggingEvent acquire(String fqcn, Logger logger, Level level,
+      Marker marker, String msg, Object param, Throwable t) {
+    Slot slot = slots.get();
+    if (slot.inUse) {
+      return null;
+    }
+    slot.inUse = true;
+    slot.oneArg[0] = param;
+    slot.event.reinit(fqcn, logger, level, msg, t, slot.oneArg, marker);
+    return slot.event;
+  }
+
+  /**
+   * Same as {@link #acquire(String, Logger, Level, Marker, String, Object[], Throwable)}
+   * with a recycled two element argument array.
+   */
+  public LoggingEvent acquire(String fqcn, Logger logger, Level level,
+      Marker marker, String msg, Object param1, Object param2, Throwable t) {
+    Slot slot = slots.get();
+    if (slot.inUse) {
+      return null;
+    }
+    slot.inUse = true;
+    slot.twoArgs[0] = param1;
+    slot.twoArgs[1] = param2;
+    slot.event.reinit(fqcn, logger, level, msg, t, slot.twoArgs, marker);
+    return slot.event;
+  }
+
+  /**
+   * Make the event of the calling thread, previously returned by one of the
+   * acquire methods, available again.
+   */
+  public void release(LoggingEvent event) {
+    // the event is cleared even if the slots were released in the meantime
+    event.clear();
+    Slot slot = slots.get();
+    if (slot.event != event) {
+      return;
+    }
+    slot.oneArg[0] = null;
+    slot.twoArgs[0] = null;
+    slot.twoArgs[1] = null;
+    slot.inUse = false;
+  }
+
+  /**
+   * Drop the slots of all threads. The slots of other threads are no longer
+   * reachable from this recycler and are reclaimed along with their stale
+   * thread-local entries. Threads logging afterwards get new slots.
+   */
+  public void releaseSlots() {
+    ThreadLocal<Slot> previous = slots;
+    slots = newSlots();
+    previous.remove();
+  }
+}
@@ -0,0 +1,186 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Packaging data of classes, shared by the {@link PackagingDataCalculator}
+ * instances of a logger context. Entries are keyed by class loader and class
+ * name. Class loaders are weakly referenced, so that the entries of an
+ * undeployed application are dropped along with its class loader.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public class PackagingDataCache {
+
+  // the entries of classes without a known class loader
+  private final ConcurrentMap<String, ClassPackagingData> bootstrapEntries = new ConcurrentHashMap<String, ClassPackagingData>();
+  private final ConcurrentMap<Object, ConcurrentMap<String, ClassPackagingData>> entriesByLoader = new ConcurrentHashMap<Object, ConcurrentMap<String, ClassPackagingData>>();
+  private final ReferenceQueue<ClassLoader> collectedLoaders = new ReferenceQueue<ClassLoader>();
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * @return the packaging data of the class named <code>className</code> as
+   *         seen from <code>classLoader</code>, or null if not cached
+   */
+  public ClassPackagingData get(ClassLoader classLoader, String className) {
+    ConcurrentMap<String, ClassPackagingData> entries = getEntries(classLoader, false);
+    ClassPackagingData cpd = entries == null ? null : entries.get(className);
+    if (cpd == null) {
+      missCount.incrementAndGet();
+    } else {
+      hitCount.incrementAndGet();
+    }
+    return cpd;
+  }
+
+  public void put(ClassLoader classLoader, String className, ClassPackagingData cpd) {
+    getEntries(classLoader, true).put(className, cpd);
+  }
+
+  /**
+   * Compute the packaging data of the given classes ahead of the first
+   * exception referencing them.
+   */
+  public void warmUp(Class<?>... types) {
+    PackagingDataCalculator pdc = new PackagingDataCalculator(this);
+    for (Class<?> type : types) {
+      pdc.calculateByExactType(type);
+    }
+  }
+
+  private ConcurrentMap<String, ClassPackagingData> getEntries(ClassLoader classLoader, boolean create) {
+    if (classLoader == null) {
+      return bootstrapEntries;
+    }
+    ConcurrentMap<String, ClassPackagingData> entries = entriesByLoader.get(new LookupKey(classLoader));
+    if (entries == null && create) {
+      expungeCollectedLoaders();
+      entries = new ConcurrentHashMap<String, ClassPackagingData>();
+      ConcurrentMap<String, ClassPackagingData> existing = entriesByLoader.putIfAbsent(new WeakKey(classLoader,
+          collectedLoaders), entries);
+      if (existing != null) {
+        entries = existing;
+      }
+    }
+    return entries;
+  }
+
+  private void expungeCollectedLoaders() {
+    Reference<? extends ClassLoader> ref;
+    while ((ref = collectedLoaders.poll()) != null) {
+      entriesByLoader.remove(ref);
+    }
+  }
+
+  /**
+   * @return the number of lookups answered from this cache
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * @return the number of lookups not answered from this cache
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * @return the number of class loaders, other than the bootstrap loader,
+   *         with cached entries
+   */
+  public int getClassLoaderCount() {
+    expungeCollectedLoaders();
+    return entriesByLoader.size();
+  }
+
+  public void clear() {
+    bootstrapEntries.clear();
+    entriesByLoader.clear();
+  }
+
+  private interface LoaderKey {
+    ClassLoader getClassLoader();
+  }
+
+  /**
+   * Weak key of a class loader in {@link #entriesByLoader}, equal to any key
+   * referring to the same loader.
+   */
+  private static final class WeakKey extends WeakReference<ClassLoader> implements LoaderKey {
+    private final int hash;
+
+    WeakKey(ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+      super(classLoader, queue);
+      this.hash = System.identityHashCode(classLoader);
+    }
+
+    public ClassLoader getClassLoader() {
+      return get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof LoaderKey)) {
+        return false;
+      }
+      ClassLoader classLoader = get();
+      return classLoader != null && classLoader == ((LoaderKey) o).getClassLoader();
+    }
+  }
+
+  /**
+   * Short-lived key used to look a class loader up.
+   */
+  private static final class LookupKey implements LoaderKey {
+    private final ClassLoader classLoader;
+
+    LookupKey(ClassLoader classLoader) {
+      this.classLoader = classLoader;
+    }
+
+    public ClassLoader getClassLoader() {
+      return classLoader;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(classLoader);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof LoaderKey && classLoader == ((LoaderKey) o).getClassLoader();
+    }
+  }
+}
@@ -15,7 +15,6 @@ package ch.qos.logback.classic.spi;
 
 import java.net.URL;
 import java.security.CodeSource;
-import java.util.HashMap;
 
 import sun.reflect.Reflection;
 // import java.security.AccessControlException; import java.security.AccessController;import java.security.PrivilegedAction;
@@ -29,7 +28,7 @@ public class PackagingDataCalculator {
 
   final static StackTraceElementProxy[] STEP_ARRAY_TEMPLATE = new StackTraceElementProxy[0];
 
-  HashMap<String, ClassPackagingData> cache = new HashMap<String, ClassPackagingData>();
+  final PackagingDataCache cache;
 
   private static boolean GET_CALLER_CLASS_METHOD_AVAILABLE = false; //private static boolean HAS_GET_CLASS_LOADER_PERMISSION = false;
 
@@ -52,6 +51,19 @@ public class PackagingDataCalculator {
   }
 
 
+  public PackagingDataCalculator() {
+    this(new PackagingDataCache());
+  }
+
+  /**
+   * @param cache the packaging data already computed, typically shared by
+   *              the calculators of a logger context
+   * @since 1.1.4
+   */
+  public PackagingDataCalculator(PackagingDataCache cache) {
+    this.cache = cache;
+  }
+
   public void calculate(IThrowableProxy tp) {
     while (tp != null) {
       populateFrames(tp.getStackTraceElementProxyArray());
@@ -115,23 +127,25 @@ public class PackagingDataCalculator {
     }
   }
 
-  private ClassPackagingData calculateByExactType(Class type) {
+  ClassPackagingData calculateByExactType(Class type) {
     String className = type.getName();
-    ClassPackagingData cpd = cache.get(className);
-    if (cpd != null) {
+    ClassLoader classLoader = type.getClassLoader();
+    ClassPackagingData cpd = cache.get(classLoader, className);
+    // an entry computed by loading the class by name is not exact
+    if (cpd != null && cpd.isExact()) {
       return cpd;
     }
     String version = getImplementationVersion(type);
     String codeLocation = getCodeLocation(type);
     cpd = new ClassPackagingData(codeLocation, version);
-    cache.put(className, cpd);
+    cache.put(classLoader, className, cpd);
     return cpd;
   }
 
   private ClassPackagingData computeBySTEP(StackTraceElementProxy step,
                                            ClassLoader lastExactClassLoader) {
     String className = step.ste.getClassName();
-    ClassPackagingData cpd = cache.get(className);
+    ClassPackagingData cpd = cache.get(lastExactClassLoader, className);
     if (cpd != null) {
       return cpd;
     }
@@ -139,7 +153,7 @@ public class PackagingDataCalculator {
     String version = getImplementationVersion(type);
     String codeLocation = getCodeLocation(type);
     cpd = new ClassPackagingData(codeLocation, version, false);
-    cache.put(className, cpd);
+    cache.put(lastExactClassLoader, className, cpd);
     return cpd;
   }
 
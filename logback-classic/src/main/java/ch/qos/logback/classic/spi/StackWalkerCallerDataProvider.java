@@ -0,0 +1,158 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Finds the caller by walking the stack with the <code>StackWalker</code> of
+ * Java 9 and later. Frames are visited lazily, so that only the frames up to
+ * the caller, plus the requested depth, are materialized.
+ *
+ * <p>The walker is reached by reflection, so that this class can be loaded
+ * on older JVMs, where {@link #isAvailable()} returns false.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public class StackWalkerCallerDataProvider extends CallerDataProviderBase<Object> {
+
+  private static final Object WALKER;
+  private static final Method WALK;
+  private static final Constructor<?> FUNCTION_CONSTRUCTOR;
+  private static final Method ITERATOR;
+  private static final Method GET_CLASS_NAME;
+  private static final Method TO_STACK_TRACE_ELEMENT;
+
+  static {
+    Object walker = null;
+    Method walk = null;
+    Constructor<?> functionConstructor = null;
+    Method iterator = null;
+    Method getClassName = null;
+    Method toStackTraceElement = null;
+    try {
+      Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+      Class<?> optionClass = Class.forName("java.lang.StackWalker$Option");
+      Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+      Class<?> functionClass = Class.forName("java.util.function.Function");
+      // reflection frames are part of Throwable stack traces as well
+      Object showReflectFrames = optionClass.getField("SHOW_REFLECT_FRAMES").get(null);
+      walker = walkerClass.getMethod("getInstance", optionClass).invoke(null, showReflectFrames);
+      walk = walkerClass.getMethod("walk", functionClass);
+      functionConstructor = Proxy.getProxyClass(functionClass.getClassLoader(), functionClass).getConstructor(
+          InvocationHandler.class);
+      iterator = Class.forName("java.util.stream.BaseStream").getMethod("iterator");
+      getClassName = frameClass.getMethod("getClassName");
+      toStackTraceElement = frameClass.getMethod("toStackTraceElement");
+    } catch (Exception e) {
+      // not available before Java 9
+      walker = null;
+    }
+    WALKER = walker;
+    WALK = walk;
+    FUNCTION_CONSTRUCTOR = functionConstructor;
+    ITERATOR = iterator;
+    GET_CLASS_NAME = getClassName;
+    TO_STACK_TRACE_ELEMENT = toStackTraceElement;
+  }
+
+  /**
+   * @return true if the JVM offers a <code>StackWalker</code>
+   */
+  public static boolean isAvailable() {
+    return WALKER != null;
+  }
+
+  public StackTraceElement[] extract(String fqnOfInvokingClass, int maxDepth, List<String> frameworkPackageList) {
+    if (!isAvailable()) {
+      throw new IllegalStateException("StackWalker is not available");
+    }
+    try {
+      Object function = FUNCTION_CONSTRUCTOR.newInstance(new Walk(fqnOfInvokingClass, maxDepth, frameworkPackageList));
+      return (StackTraceElement[]) WALK.invoke(WALKER, function);
+    } catch (InvocationTargetException e) {
+      throw rethrow(e.getCause());
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to walk the stack", e);
+    }
+  }
+
+  private static RuntimeException rethrow(Throwable t) {
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    throw new IllegalStateException("Failed to walk the stack", t);
+  }
+
+  @Override
+  protected String getClassName(Object frame) {
+    return (String) invoke(GET_CLASS_NAME, frame);
+  }
+
+  @Override
+  protected StackTraceElement toStackTraceElement(Object frame) {
+    return (StackTraceElement) invoke(TO_STACK_TRACE_ELEMENT, frame);
+  }
+
+  static Object invoke(Method method, Object target) {
+    try {
+      return method.invoke(target);
+    } catch (InvocationTargetException e) {
+      throw rethrow(e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * The function applied by the walker to the stream of stack frames.
+   */
+  private class Walk implements InvocationHandler {
+    final String fqnOfInvokingClass;
+    final int maxDepth;
+    final List<String> frameworkPackageList;
+
+    Walk(String fqnOfInvokingClass, int maxDepth, List<String> frameworkPackageList) {
+      this.fqnOfInvokingClass = fqnOfInvokingClass;
+      this.maxDepth = maxDepth;
+      this.frameworkPackageList = frameworkPackageList;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      String name = method.getName();
+      if (name.equals("apply")) {
+        Iterator<Object> frames = (Iterator<Object>) StackWalkerCallerDataProvider.invoke(ITERATOR, args[0]);
+        return extract(frames, fqnOfInvokingClass, maxDepth, frameworkPackageList);
+      } else if (name.equals("equals")) {
+        return proxy == args[0];
+      } else if (name.equals("hashCode")) {
+        return System.identityHashCode(proxy);
+      } else if (name.equals("toString")) {
+        return "Walk[" + fqnOfInvokingClass + "]";
+      }
+      throw new UnsupportedOperationException(name);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the caller in the stack trace of a new {@link Throwable}. Works on
+ * any JVM, but captures the whole stack.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public class ThrowableCallerDataProvider extends CallerDataProviderBase<StackTraceElement> {
+
+  public StackTraceElement[] extract(String fqnOfInvokingClass, int maxDepth, List<String> frameworkPackageList) {
+    StackTraceElement[] steArray = new Throwable().getStackTrace();
+    return extract(Arrays.asList(steArray).iterator(), fqnOfInvokingClass, maxDepth, frameworkPackageList);
+  }
+
+  @Override
+  protected String getClassName(StackTraceElement frame) {
+    return frame.getClassName();
+  }
+
+  @Override
+  protected StackTraceElement toStackTraceElement(StackTraceElement frame) {
+    return frame;
+  }
+}
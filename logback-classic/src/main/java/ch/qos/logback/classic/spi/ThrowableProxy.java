@@ -138,9 +138,22 @@ public class ThrowableProxy implements IThrowableProxy {
   }
 
   public void calculatePackagingData() {
+    calculatePackagingData(null);
+  }
+
+  /**
+   * Calculate packaging data, reusing the data held by <code>cache</code>.
+   *
+   * @param cache the cache of the logger context, may be null
+   * @since 1.1.4
+   */
+  public void calculatePackagingData(PackagingDataCache cache) {
     if (calculatedPackageData) {
       return;
     }
+    if (cache != null && throwable != null && packagingDataCalculator == null) {
+      packagingDataCalculator = new PackagingDataCalculator(cache);
+    }
     PackagingDataCalculator pdc = this.getPackagingDataCalculator();
     if (pdc != null) {
       calculatedPackageData = true;
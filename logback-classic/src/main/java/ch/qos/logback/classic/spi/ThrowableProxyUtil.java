@@ -186,4 +186,44 @@ public class ThrowableProxyUtil {
   private static void subjoinExceptionMessage(StringBuilder buf, IThrowableProxy tp) {
     buf.append(tp.getClassName()).append(": ").append(tp.getMessage());
   }
+
+  /**
+   * Compute a hash of the classes and stack frames of <code>tp</code>, its
+   * causes and suppressed throwables. Messages are left out, so that the same
+   * exception thrown from the same place always has the same fingerprint,
+   * from one run to the next as well.
+   *
+   * @since 1.1.4
+   */
+  public static long fingerprint(IThrowableProxy tp) {
+    long h = 17;
+    while (tp != null) {
+      h = 31 * h + tp.getClassName().hashCode();
+      StackTraceElementProxy[] stepArray = tp.getStackTraceElementProxyArray();
+      if (stepArray != null) {
+        for (StackTraceElementProxy step : stepArray) {
+          StackTraceElement ste = step.getStackTraceElement();
+          h = 31 * h + ste.getClassName().hashCode();
+          h = 31 * h + ste.getMethodName().hashCode();
+          h = 31 * h + ste.getLineNumber();
+        }
+      }
+      IThrowableProxy[] suppressed = tp.getSuppressed();
+      if (suppressed != null) {
+        for (IThrowableProxy current : suppressed) {
+          h = 31 * h + fingerprint(current);
+        }
+      }
+      tp = tp.getCause();
+      // separates a cause from the frames of its parent
+      h = 31 * h + 1;
+    }
+    // spread the bits, see MurmurHash3
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
 }
@@ -15,7 +15,6 @@ package ch.qos.logback.classic.util;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Collections;
 import java.util.Set;
 
 
@@ -31,6 +30,10 @@ import org.slf4j.spi.MDCAdapter;
  * automatically inherits a <em>copy</em> of the mapped diagnostic context of
  * its parent.
  * <p/>
+ * Each thread holds an immutable {@link SortedArrayMap}. Updates replace
+ * the map of the current thread, so that the map captured by a logging event,
+ * or inherited by a child thread, can be shared as is.
+ * <p/>
  * <p/>
  * For more information about MDC, please refer to the online manual at
  * http://logback.qos.ch/manual/mdc.html
@@ -39,49 +42,13 @@ import org.slf4j.spi.MDCAdapter;
  */
 public final class LogbackMDCAdapter implements MDCAdapter {
 
-  // We wish to avoid unnecessarily copying of the map. To ensure
-  // efficient/timely copying, we have a variable keeping track of the last
-  // operation. A copy is necessary on 'put' or 'remove' but only if the last
-  // operation was a 'get'. Get operations never necessitate a copy nor
-  // successive 'put/remove' operations, only a get followed by a 'put/remove'
-  // requires copying the map.
-  // See http://jira.qos.ch/browse/LBCLASSIC-254 for the original discussion.
-
+  // The maps held by this thread local are immutable. Parent and child
+  // threads initially reference the same map, as soon as either of them
+  // invokes put() or remove() it references a new map. The map of a thread
+  // can thus be handed out to logging events without copying it and without
+  // synchronization.
   // We no longer use CopyOnInheritThreadLocal in order to solve LBCLASSIC-183
-  // Initially the contents of the thread local in parent and child threads
-  // reference the same map. However, as soon as a thread invokes the put()
-  // method, the maps diverge as they should.
-  final InheritableThreadLocal<Map<String, String>> copyOnInheritThreadLocal = new InheritableThreadLocal<Map<String, String>>();
-
-  private static final int WRITE_OPERATION = 1;
-  private static final int READ_OPERATION = 2;
-
-  // keeps track of the last operation performed
-  final ThreadLocal<Integer> lastOperation = new ThreadLocal<Integer>();
-
-  private Integer getAndSetLastOperation(int op) {
-    Integer lastOp = lastOperation.get();
-    lastOperation.set(op);
-    return lastOp;
-  }
-
-  private boolean wasLastOpReadOrNull(Integer lastOp) {
-    return lastOp == null || lastOp.intValue() == READ_OPERATION;
-  }
-
-  private Map<String, String> duplicateAndInsertNewMap(Map<String, String> oldMap) {
-    Map<String, String> newMap = Collections.synchronizedMap(new HashMap<String, String>());
-    if (oldMap != null) {
-        // we don't want the parent thread modifying oldMap while we are
-        // iterating over it
-        synchronized (oldMap) {
-          newMap.putAll(oldMap);
-        }
-    }
-
-    copyOnInheritThreadLocal.set(newMap);
-    return newMap;
-  }
+  final InheritableThreadLocal<SortedArrayMap> copyOnInheritThreadLocal = new InheritableThreadLocal<SortedArrayMap>();
 
   /**
    * Put a context value (the <code>val</code> parameter) as identified with the
@@ -98,15 +65,14 @@ public final class LogbackMDCAdapter implements MDCAdapter {
     if (key == null) {
       throw new IllegalArgumentException("key cannot be null");
     }
-
-    Map<String, String> oldMap = copyOnInheritThreadLocal.get();
-    Integer lastOp = getAndSetLastOperation(WRITE_OPERATION);
-
-    if (wasLastOpReadOrNull(lastOp) || oldMap == null) {
-      Map<String, String> newMap = duplicateAndInsertNewMap(oldMap);
-      newMap.put(key, val);
-    } else {
-      oldMap.put(key, val);
+    SortedArrayMap oldMap = copyOnInheritThreadLocal.get();
+    if (oldMap == null) {
+      copyOnInheritThreadLocal.set(SortedArrayMap.EMPTY.with(key, val));
+      return;
+    }
+    SortedArrayMap newMap = oldMap.with(key, val);
+    if (newMap != oldMap) {
+      copyOnInheritThreadLocal.set(newMap);
     }
   }
 
@@ -118,16 +84,12 @@ public final class LogbackMDCAdapter implements MDCAdapter {
     if (key == null) {
       return;
     }
-    Map<String, String> oldMap = copyOnInheritThreadLocal.get();
+    SortedArrayMap oldMap = copyOnInheritThreadLocal.get();
     if (oldMap == null) return;
 
-    Integer lastOp = getAndSetLastOperation(WRITE_OPERATION);
-
-    if (wasLastOpReadOrNull(lastOp)) {
-      Map<String, String> newMap = duplicateAndInsertNewMap(oldMap);
-      newMap.remove(key);
-    } else {
-      oldMap.remove(key);
+    SortedArrayMap newMap = oldMap.without(key);
+    if (newMap != oldMap) {
+      copyOnInheritThreadLocal.set(newMap);
     }
   }
 
@@ -136,7 +98,6 @@ public final class LogbackMDCAdapter implements MDCAdapter {
    * Clear all entries in the MDC.
    */
   public void clear() {
-    lastOperation.set(WRITE_OPERATION);
     copyOnInheritThreadLocal.remove();
   }
 
@@ -145,9 +106,9 @@ public final class LogbackMDCAdapter implements MDCAdapter {
    * <p/>
    */
   public String get(String key) {
-    final Map<String, String> hashMap = copyOnInheritThreadLocal.get();
-    if (hashMap != null && key != null) {
-      return hashMap.get(key);
+    final SortedArrayMap map = copyOnInheritThreadLocal.get();
+    if (map != null && key != null) {
+      return map.get(key);
     } else {
       return null;
     }
@@ -156,9 +117,11 @@ public final class LogbackMDCAdapter implements MDCAdapter {
   /**
    * Get the current thread's MDC as a map. This method is intended to be used
    * internally.
+   * <p/>
+   * The returned map is immutable and is not affected by later changes to
+   * the MDC. The returned value can be null.
    */
   public Map<String, String> getPropertyMap() {
-    lastOperation.set(READ_OPERATION);
     return copyOnInheritThreadLocal.get();
   }
 
@@ -181,23 +144,16 @@ public final class LogbackMDCAdapter implements MDCAdapter {
    * null.
    */
   public Map getCopyOfContextMap() {
-    lastOperation.set(READ_OPERATION);
-    Map<String, String> hashMap = copyOnInheritThreadLocal.get();
-    if (hashMap == null) {
+    Map<String, String> map = copyOnInheritThreadLocal.get();
+    if (map == null) {
       return null;
     } else {
-      return new HashMap<String, String>(hashMap);
+      return new HashMap<String, String>(map);
     }
   }
 
   @SuppressWarnings("unchecked")
   public void setContextMap(Map contextMap) {
-    lastOperation.set(WRITE_OPERATION);
-
-    Map<String, String> newMap = Collections.synchronizedMap(new HashMap<String, String>());
-    newMap.putAll(contextMap);
-
-    // the newMap replaces the old one for serialisation's sake
-    copyOnInheritThreadLocal.set(newMap);
+    copyOnInheritThreadLocal.set(SortedArrayMap.copyOf(contextMap));
   }
 }
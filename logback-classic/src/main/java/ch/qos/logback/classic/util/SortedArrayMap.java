@@ -0,0 +1,234 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map of strings backed by two arrays, the keys being kept in
+ * their natural order.
+ * <p/>
+ * Lookups are binary searches. {@link #with(String, String)} and
+ * {@link #without(String)} leave the instance untouched and return a new map,
+ * which makes instances safe to share between threads and to capture in
+ * logging events without copying them. Maps of a few dozen entries, which is
+ * the common case for the MDC, are cheaper to copy this way than a
+ * {@link java.util.HashMap}.
+ *
+ * @since 1.1.4
+ */
+public final class SortedArrayMap extends AbstractMap<String, String> implements Serializable {
+
+  private static final long serialVersionUID = 7431390617547346271L;
+
+  private static final String[] NO_STRINGS = new String[0];
+
+  public static final SortedArrayMap EMPTY = new SortedArrayMap(NO_STRINGS, NO_STRINGS);
+
+  private final String[] keys;
+  private final String[] values;
+
+  private transient Set<Map.Entry<String, String>> entrySet;
+
+  private SortedArrayMap(String[] keys, String[] values) {
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * Create a map with the entries of <code>map</code>. Entries with a null
+   * key are ignored.
+   */
+  public static SortedArrayMap copyOf(Map<String, String> map) {
+    if (map instanceof SortedArrayMap) {
+      return (SortedArrayMap) map;
+    }
+    if (map == null || map.isEmpty()) {
+      return EMPTY;
+    }
+    String[] sortedKeys = new String[map.size()];
+    int n = 0;
+    for (String key : map.keySet()) {
+      if (key != null) {
+        sortedKeys[n++] = key;
+      }
+    }
+    if (n == 0) {
+      return EMPTY;
+    }
+    if (n < sortedKeys.length) {
+      sortedKeys = Arrays.copyOf(sortedKeys, n);
+    }
+    Arrays.sort(sortedKeys);
+    String[] sortedValues = new String[n];
+    for (int i = 0; i < n; i++) {
+      sortedValues[i] = map.get(sortedKeys[i]);
+    }
+    return new SortedArrayMap(sortedKeys, sortedValues);
+  }
+
+  private int indexOf(String key) {
+    return Arrays.binarySearch(keys, key);
+  }
+
+  /**
+   * @return a map with the entries of this map, <code>key</code> being
+   *         associated with <code>value</code>
+   */
+  public SortedArrayMap with(String key, String value) {
+    if (key == null) {
+      throw new IllegalArgumentException("key cannot be null");
+    }
+    int index = indexOf(key);
+    if (index >= 0) {
+      String current = values[index];
+      if (current == value || (current != null && current.equals(value))) {
+        return this;
+      }
+      String[] newValues = values.clone();
+      newValues[index] = value;
+      return new SortedArrayMap(keys, newValues);
+    }
+    int insertionPoint = -(index + 1);
+    int size = keys.length;
+    String[] newKeys = new String[size + 1];
+    String[] newValues = new String[size + 1];
+    System.arraycopy(keys, 0, newKeys, 0, insertionPoint);
+    System.arraycopy(values, 0, newValues, 0, insertionPoint);
+    newKeys[insertionPoint] = key;
+    newValues[insertionPoint] = value;
+    System.arraycopy(keys, insertionPoint, newKeys, insertionPoint + 1, size - insertionPoint);
+    System.arraycopy(values, insertionPoint, newValues, insertionPoint + 1, size - insertionPoint);
+    return new SortedArrayMap(newKeys, newValues);
+  }
+
+  /**
+   * @return a map with the entries of this map except the one of
+   *         <code>key</code>
+   */
+  public SortedArrayMap without(String key) {
+    if (key == null) {
+      return this;
+    }
+    int index = indexOf(key);
+    if (index < 0) {
+      return this;
+    }
+    int size = keys.length;
+    if (size == 1) {
+      return EMPTY;
+    }
+    String[] newKeys = new String[size - 1];
+    String[] newValues = new String[size - 1];
+    System.arraycopy(keys, 0, newKeys, 0, index);
+    System.arraycopy(values, 0, newValues, 0, index);
+    System.arraycopy(keys, index + 1, newKeys, index, size - index - 1);
+    System.arraycopy(values, index + 1, newValues, index, size - index - 1);
+    return new SortedArrayMap(newKeys, newValues);
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return keys.length == 0;
+  }
+
+  /**
+   * @return the key at <code>index</code>, keys being in ascending order
+   */
+  public String keyAt(int index) {
+    return keys[index];
+  }
+
+  /**
+   * @return the value of the key at <code>index</code>
+   */
+  public String valueAt(int index) {
+    return values[index];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof String && indexOf((String) key) >= 0;
+  }
+
+  @Override
+  public String get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    int index = indexOf((String) key);
+    return index >= 0 ? values[index] : null;
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  /**
+   * Instances are serialized as a {@link HashMap}, so that serialized events
+   * can be read by receivers unaware of this class.
+   */
+  private Object writeReplace() {
+    return new HashMap<String, String>(this);
+  }
+
+  private class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+    @Override
+    public int size() {
+      return keys.length;
+    }
+
+    @Override
+    public Iterator<Map.Entry<String, String>> iterator() {
+      return new Iterator<Map.Entry<String, String>>() {
+        int index;
+
+        public boolean hasNext() {
+          return index < keys.length;
+        }
+
+        public Map.Entry<String, String> next() {
+          if (index >= keys.length) {
+            throw new NoSuchElementException();
+          }
+          Map.Entry<String, String> entry = new SimpleImmutableEntry<String, String>(keys[index], values[index]);
+          index++;
+          return entry;
+        }
+
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+}
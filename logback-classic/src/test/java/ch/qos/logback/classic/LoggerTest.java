@@ -224,4 +224,72 @@ public class LoggerTest {
     assertEquals(root.getEffectiveLevel(), child.getEffectiveLevel());
   }
 
+  @Test
+  public void eventReuseKeepsRetainedEventsIntact() {
+    lc.setEventReuseEnabled(true);
+    listAppender.start();
+    root.addAppender(listAppender);
+    loggerTest.info("a={}", 1);
+    loggerTest.info("a={} b={}", 2, 3);
+    loggerTest.info("none");
+    assertEquals(3, listAppender.list.size());
+    assertEquals("a=1", listAppender.list.get(0).getFormattedMessage());
+    assertEquals("a=2 b=3", listAppender.list.get(1).getFormattedMessage());
+    assertEquals("none", listAppender.list.get(2).getFormattedMessage());
+    assertFalse(listAppender.list.get(0) == listAppender.list.get(1));
+  }
+
+  @Test
+  public void eventReuseWithAppenderLoggingWhileAppending() {
+    lc.setEventReuseEnabled(true);
+    final Logger inner = lc.getLogger("inner");
+    inner.setAdditive(false);
+    inner.addAppender(listAppender);
+    listAppender.start();
+    ch.qos.logback.core.AppenderBase<ILoggingEvent> reentrant = new ch.qos.logback.core.AppenderBase<ILoggingEvent>() {
+      protected void append(ILoggingEvent e) {
+        inner.info("inner {}", e.getFormattedMessage());
+      }
+    };
+    reentrant.setContext(lc);
+    reentrant.start();
+    loggerTest.addAppender(reentrant);
+    loggerTest.info("outer {}", 1);
+    assertEquals(1, listAppender.list.size());
+    assertEquals("inner outer 1", listAppender.list.get(0).getFormattedMessage());
+  }
+
+  @Test
+  public void appendersAddedToAncestorAfterFirstEventAreCalled() {
+    Logger child = lc.getLogger(loggerTest.getName() + ".child");
+    ListAppender<ILoggingEvent> rootAppender = new ListAppender<ILoggingEvent>();
+    rootAppender.start();
+    root.addAppender(rootAppender);
+    child.info("a");
+    assertEquals(1, rootAppender.list.size());
+
+    listAppender.start();
+    loggerTest.addAppender(listAppender);
+    child.info("b");
+    assertEquals(2, rootAppender.list.size());
+    assertEquals(1, listAppender.list.size());
+
+    loggerTest.setAdditive(false);
+    child.info("c");
+    assertEquals(2, rootAppender.list.size());
+    assertEquals(2, listAppender.list.size());
+
+    loggerTest.detachAppender(listAppender);
+    child.info("d");
+    assertEquals(2, listAppender.list.size());
+    assertEquals(2, rootAppender.list.size());
+
+    lc.reset();
+    // reset stops detached appenders
+    rootAppender.start();
+    root.addAppender(rootAppender);
+    child.info("e");
+    assertEquals(3, rootAppender.list.size());
+  }
+
 }
@@ -0,0 +1,56 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.boolex;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.boolex.EvaluationException;
+
+public class OnLevelEvaluatorTest {
+
+  LoggerContext lc = new LoggerContext();
+  OnLevelEvaluator evaluator = new OnLevelEvaluator();
+
+  @Before
+  public void before() {
+    evaluator.setContext(lc);
+  }
+
+  @Test
+  public void defaultsToError() throws EvaluationException {
+    evaluator.start();
+    assertFalse(evaluator.evaluate(makeEvent(Level.WARN)));
+    assertTrue(evaluator.evaluate(makeEvent(Level.ERROR)));
+  }
+
+  @Test
+  public void levelAndAbove() throws EvaluationException {
+    evaluator.setLevel("WARN");
+    evaluator.start();
+    assertFalse(evaluator.evaluate(makeEvent(Level.INFO)));
+    assertTrue(evaluator.evaluate(makeEvent(Level.WARN)));
+    assertTrue(evaluator.evaluate(makeEvent(Level.ERROR)));
+  }
+
+  LoggingEvent makeEvent(Level level) {
+    return new LoggingEvent("x", lc.getLogger("x"), level, "msg", null, null);
+  }
+}
@@ -18,6 +18,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({JaninoEventEvaluatorTest.class, OnMarkerEvaluatorTest.class})
+@SuiteClasses({JaninoEventEvaluatorTest.class, OnMarkerEvaluatorTest.class,
+    OnLevelEvaluatorTest.class})
 public class PackageTest {
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.encoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.SortedArrayMap;
+
+public class JsonEncoderTest {
+
+  JsonEncoder encoder = new JsonEncoder();
+  LoggerContext context = new LoggerContext();
+  ByteArrayOutputStream baos = new ByteArrayOutputStream();
+  Logger logger = context.getLogger("com.foo.App");
+
+  @Before
+  public void setUp() throws IOException {
+    encoder.setContext(context);
+    encoder.start();
+    encoder.init(baos);
+  }
+
+  LoggingEvent makeLoggingEvent(String message, Throwable t) {
+    LoggingEvent le = new LoggingEvent(Logger.FQCN, logger, Level.INFO, message, t, null);
+    le.setTimeStamp(1436803200000L);
+    le.setThreadName("main");
+    return le;
+  }
+
+  String encode(ILoggingEvent event) throws IOException {
+    baos.reset();
+    encoder.doEncode(event);
+    return new String(baos.toByteArray(), "UTF-8");
+  }
+
+  @Test
+  public void smoke() throws IOException {
+    assertEquals("{\"timestamp\":1436803200000,\"level\":\"INFO\",\"thread\":\"main\",\"logger\":\"com.foo.App\","
+        + "\"message\":\"hello\"}\n", encode(makeLoggingEvent("hello", null)));
+  }
+
+  @Test
+  public void stringsAreEscaped() throws IOException {
+    String msg = "a\"b\\c\n\t\u0001 \u00e9\u20ac\ud83d\ude00 \ud83d";
+    String json = encode(makeLoggingEvent(msg, null));
+    assertTrue(json, json.contains("\"message\":\"a\\\"b\\\\c\\n\\t\\u0001 \u00e9\u20ac\ud83d\ude00 ?\"}"));
+  }
+
+  @Test
+  public void mdcAndMarkers() throws IOException {
+    LoggingEvent le = makeLoggingEvent("hello", null);
+    Map<String, String> mdc = new LinkedHashMap<String, String>();
+    mdc.put("user", "alice");
+    mdc.put("k\"ey", null);
+    le.setMDCPropertyMap(mdc);
+    Marker marker = MarkerFactory.getDetachedMarker("A");
+    marker.add(MarkerFactory.getDetachedMarker("B"));
+    le.setMarker(marker);
+    String json = encode(le);
+    assertTrue(json, json.endsWith(",\"message\":\"hello\",\"mdc\":{\"user\":\"alice\",\"k\\\"ey\":null},"
+        + "\"markers\":[\"A\",\"B\"]}\n"));
+
+    encoder.setIncludeMdc(false);
+    json = encode(le);
+    assertTrue(json, json.endsWith(",\"message\":\"hello\",\"markers\":[\"A\",\"B\"]}\n"));
+  }
+
+  @Test
+  public void sortedArrayMapMdc() throws IOException {
+    LoggingEvent le = makeLoggingEvent("hello", null);
+    le.setMDCPropertyMap(SortedArrayMap.EMPTY.with("user", "alice").with("k\"ey", null));
+    String json = encode(le);
+    assertTrue(json, json.endsWith(",\"message\":\"hello\",\"mdc\":{\"k\\\"ey\":null,\"user\":\"alice\"}}\n"));
+  }
+
+  @Test
+  public void throwable() throws IOException {
+    Exception cause = new IllegalStateException();
+    Exception e = new Exception("boom", cause);
+    String json = encode(makeLoggingEvent("hello", e));
+    StackTraceElement top = e.getStackTrace()[0];
+    assertTrue(json, json.contains(",\"throwable\":{\"class\":\"java.lang.Exception\",\"message\":\"boom\","
+        + "\"frames\":[{\"class\":\"" + top.getClassName() + "\",\"method\":\"" + top.getMethodName()
+        + "\",\"file\":\"JsonEncoderTest.java\",\"line\":" + top.getLineNumber() + "},"));
+    assertTrue(json, json.contains(",\"cause\":{\"class\":\"java.lang.IllegalStateException\",\"frames\":[{"));
+    assertTrue(json, json.contains(",\"commonFrames\":"));
+    assertTrue(json, json.endsWith("}}}\n"));
+  }
+
+  @Test
+  public void callerData() throws IOException {
+    encoder.setIncludeCallerData(true);
+    LoggingEvent le = makeLoggingEvent("hello", null);
+    StackTraceElement ste = new StackTraceElement("com.foo.App", "main", "App.java", 12);
+    le.setCallerData(new StackTraceElement[] { ste });
+    String json = encode(le);
+    assertTrue(json, json.endsWith(",\"caller\":{\"class\":\"com.foo.App\",\"method\":\"main\",\"file\":\"App.java\","
+        + "\"line\":12}}\n"));
+  }
+
+  @Test
+  public void allWritePathsProduceSameBytes() throws IOException {
+    List<ILoggingEvent> events = new ArrayList<ILoggingEvent>();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      ILoggingEvent le = makeLoggingEvent("message " + i, i % 3 == 0 ? new Exception("e" + i) : null);
+      events.add(le);
+      expected.append(encode(le));
+    }
+
+    baos.reset();
+    encoder.doEncodeBatch(events);
+    assertEquals(expected.toString(), baos.toString("UTF-8"));
+
+    baos.reset();
+    for (ILoggingEvent le : events) {
+      ByteBuffer encoded = encoder.encodeToBuffer(le);
+      encoder.writeEncoded(encoded, true);
+    }
+    assertEquals(expected.toString(), baos.toString("UTF-8"));
+  }
+
+  @Test
+  public void longValues() {
+    JsonWriter w = new JsonWriter();
+    long[] values = { 0, 7, -7, 10, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE };
+    for (long v : values) {
+      w.reset();
+      w.writeLong(v);
+      ByteBuffer bb = w.toByteBuffer();
+      assertEquals(Long.toString(v), new String(bb.array(), 0, bb.remaining()));
+    }
+  }
+
+  @Test
+  public void timestamps() {
+    JsonWriter w = new JsonWriter();
+    long[] values = { 0, 999, 1000, 1436803200000L, 1436803200007L, 1436803200999L, 1436803201050L, 1436803200123L };
+    for (long v : values) {
+      w.reset();
+      w.writeTimestamp(v);
+      ByteBuffer bb = w.toByteBuffer();
+      assertEquals(Long.toString(v), new String(bb.array(), 0, bb.remaining()));
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.multiJVM;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.qos.logback.core.FileAppender;
+
+/**
+ * Launches several JVMs writing to the same file with a prudent
+ * {@link SafeModeFileAppender}, reports their aggregate throughput and then
+ * checks the file with {@link Checker}.
+ * <p/>
+ * Compare an atomic append limit of 0, where every record is written under
+ * a file lock, with the default limit.
+ */
+public class PrudentThroughput {
+
+  static void usage(String msg) {
+    System.err.println(msg);
+    System.err.println("Usage: java " + PrudentThroughput.class.getName()
+        + " jvmCount runLength filename [atomicAppendLimit]\n"
+        + "   jvmCount (integer) the number of JVMs writing to the file\n"
+        + "   runLength (integer) the number of logs to generate per JVM\n"
+        + "   filename (string) the filename where to write\n"
+        + "   atomicAppendLimit (integer) records up to this size are appended without locking\n");
+    System.exit(1);
+  }
+
+  public static void main(String[] argv) throws Exception {
+    if (argv.length != 3 && argv.length != 4) {
+      usage("Wrong number of arguments.");
+    }
+
+    int jvmCount = Integer.parseInt(argv[0]);
+    String runLength = argv[1];
+    String filename = argv[2];
+    String atomicAppendLimit = argv.length == 4 ? argv[3] : Integer
+        .toString(FileAppender.DEFAULT_ATOMIC_APPEND_LIMIT);
+    new File(filename).delete();
+
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    String classpath = System.getProperty("java.class.path");
+
+    long start = System.nanoTime();
+    List<Process> processes = new ArrayList<Process>();
+    for (int i = 0; i < jvmCount; i++) {
+      ProcessBuilder pb = new ProcessBuilder(java, "-cp", classpath,
+          SafeModeFileAppender.class.getName(), "S" + i, runLength, filename, atomicAppendLimit);
+      pb.redirectErrorStream(true);
+      processes.add(pb.start());
+    }
+    for (Process process : processes) {
+      BufferedReader br = new BufferedReader(new InputStreamReader(process.getInputStream()));
+      String line;
+      while ((line = br.readLine()) != null) {
+        System.out.println(line);
+      }
+      br.close();
+      process.waitFor();
+    }
+    double elapsedMillis = (System.nanoTime() - start) / 1000000.0;
+
+    long total = jvmCount * Long.parseLong(runLength);
+    System.out.println(jvmCount + " JVMs wrote " + total + " logs in " + elapsedMillis
+        + " ms, that is " + (total / elapsedMillis) + " logs per ms. Atomic append limit "
+        + atomicAppendLimit);
+
+    Checker.LEN = Long.parseLong(runLength);
+    Checker.FILENAME = filename;
+    for (int i = 0; i < jvmCount; i++) {
+      Checker.check("S" + i, filename, true);
+    }
+  }
+}
@@ -31,24 +31,29 @@ public class SafeModeFileAppender {
   static long LEN;
   static String FILENAME;
   static String STAMP;
+  static int ATOMIC_APPEND_LIMIT = FileAppender.DEFAULT_ATOMIC_APPEND_LIMIT;
 
   static public void main(String[] argv) throws Exception {
-    if (argv.length != 3) {
+    if (argv.length != 3 && argv.length != 4) {
       usage("Wrong number of arguments.");
     }
 
     STAMP = argv[0];
     LEN = Integer.parseInt(argv[1]);
     FILENAME = argv[2];
+    if (argv.length == 4) {
+      ATOMIC_APPEND_LIMIT = Integer.parseInt(argv[3]);
+    }
     writeContinously(STAMP, FILENAME, true);
   }
 
   static void usage(String msg) {
     System.err.println(msg);
     System.err.println("Usage: java " + SafeModeFileAppender.class.getName()
-        + " stamp runLength filename\n" + " stamp JVM instance stamp\n"
+        + " stamp runLength filename [atomicAppendLimit]\n" + " stamp JVM instance stamp\n"
         + "   runLength (integer) the number of logs to generate perthread"
-        + "    filename (string) the filename where to write\n");
+        + "    filename (string) the filename where to write\n"
+        + "   atomicAppendLimit (integer) records up to this size are appended without locking\n");
     System.exit(1);
   }
 
@@ -67,6 +72,7 @@ public class SafeModeFileAppender {
     fa.setFile(filename);
     fa.setAppend(true);
     fa.setPrudent(safetyMode);
+    fa.setAtomicAppendLimit(ATOMIC_APPEND_LIMIT);
     fa.setContext(loggerContext);
     fa.start();
 
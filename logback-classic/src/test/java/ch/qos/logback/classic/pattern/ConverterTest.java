@@ -14,6 +14,7 @@
 package ch.qos.logback.classic.pattern;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Before;
@@ -199,6 +200,53 @@ public class ConverterTest {
     converter.write(buf, le);
     assertEquals(witness.toString(), buf.toString());
   }
+
+  @Test
+  public void testLoggerKeepsAbbreviation() {
+    LoggerConverter converter = new LoggerConverter();
+    this.optionList.add("20");
+    converter.setOptionList(this.optionList);
+    converter.start();
+
+    String abbreviated = converter.convert(le);
+    assertEquals("c.q.l.c.p.ConverterTest", abbreviated);
+    assertSame(abbreviated, converter.convert(makeLoggingEvent(null)));
+    assertSame(abbreviated, logger.getAbbreviatedName(new TargetLengthBasedClassNameAbbreviator(20)));
+    // the logger does not need the cache of the converter
+    assertEquals(0, converter.cache.size());
+  }
+
+  @Test
+  public void testConvertersOfDifferentLengthsKeepTheirAbbreviations() {
+    LoggerConverter first = new LoggerConverter();
+    first.setOptionList(Arrays.asList("20"));
+    first.start();
+    LoggerConverter second = new LoggerConverter();
+    second.setOptionList(Arrays.asList("0"));
+    second.start();
+
+    String abbreviated = first.convert(le);
+    assertEquals("ConverterTest", second.convert(le));
+    assertEquals("ConverterTest", second.convert(le));
+    // the second converter falls back to its own cache
+    assertEquals(1, second.cache.size());
+    assertSame(abbreviated, first.convert(le));
+    assertEquals(0, first.cache.size());
+  }
+
+  @Test
+  public void testAbbreviationCacheIsBounded() {
+    LoggerConverter converter = new LoggerConverter();
+    this.optionList.add("5");
+    converter.setOptionList(this.optionList);
+    converter.start();
+
+    for (int i = 0; i < NamedConverter.MAX_CACHE_SIZE + 10; i++) {
+      le.setLoggerName("org.example.Logger" + i);
+      assertEquals("o.e.Logger" + i, converter.convert(le));
+    }
+    assertEquals(NamedConverter.MAX_CACHE_SIZE, converter.cache.size());
+  }
   
   @Test
   public void testClass() {
@@ -0,0 +1,118 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+
+public class DeduplicatingThrowableProxyConverterTest {
+
+  LoggerContext lc = new LoggerContext();
+  DeduplicatingThrowableProxyConverter converter = new DeduplicatingThrowableProxyConverter();
+  long now = System.currentTimeMillis();
+
+  @Before
+  public void setUp() {
+    List<String> optionList = new ArrayList<String>();
+    optionList.add("full");
+    optionList.add("10 seconds");
+    converter.setOptionList(optionList);
+    converter.setContext(lc);
+    converter.start();
+  }
+
+  LoggingEvent createLoggingEvent(Throwable t, long timestamp) {
+    LoggingEvent le = new LoggingEvent(this.getClass().getName(), lc.getLogger(Logger.ROOT_LOGGER_NAME),
+        Level.DEBUG, "test message", t, null);
+    le.setTimeStamp(timestamp);
+    return le;
+  }
+
+  Exception makeException(String message) {
+    return new IllegalStateException(message, new RuntimeException("cause"));
+  }
+
+  @Test
+  public void fingerprintIgnoresMessages() {
+    Exception[] sameSite = new Exception[2];
+    for (int i = 0; i < sameSite.length; i++) {
+      sameSite[i] = makeException("message " + i);
+    }
+    long fp0 = ThrowableProxyUtil.fingerprint(new ThrowableProxy(sameSite[0]));
+    assertEquals(fp0, ThrowableProxyUtil.fingerprint(new ThrowableProxy(sameSite[1])));
+    assertFalse(fp0 == ThrowableProxyUtil.fingerprint(new ThrowableProxy(makeException("message 0"))));
+  }
+
+  @Test
+  public void repeatsWithinWindowAreReferenced() {
+    String full = null;
+    String reference = null;
+    for (int i = 0; i < 4; i++) {
+      Exception e = makeException("message " + i);
+      String result = converter.convert(createLoggingEvent(e, now + i));
+      if (i == 0) {
+        full = result;
+        assertTrue(full.contains("Caused by: java.lang.RuntimeException: cause"));
+        reference = full.substring(full.indexOf("[stack #") + 7, full.indexOf("]"));
+        assertEquals(9, reference.length());
+      } else {
+        assertEquals("java.lang.IllegalStateException: message " + i + " [stack " + reference + " repeated " + i
+            + "x]" + CoreConstants.LINE_SEPARATOR, result);
+      }
+    }
+    assertEquals(1, converter.getStackTraceCache().getRenderedCount());
+    assertEquals(3, converter.getStackTraceCache().getRepeatedCount());
+  }
+
+  @Test
+  public void fullTraceAfterWindow() {
+    Exception e = makeException("message");
+    converter.convert(createLoggingEvent(e, now));
+    assertTrue(converter.convert(createLoggingEvent(e, now + 9999)).contains("repeated 1x"));
+    String result = converter.convert(createLoggingEvent(e, now + 10000));
+    assertTrue(result.contains("Caused by: "));
+    assertFalse(result.contains("repeated"));
+    assertEquals(2, converter.getStackTraceCache().getRenderedCount());
+  }
+
+  @Test
+  public void leastRecentlySeenAreEvicted() {
+    StackTraceCache cache = new StackTraceCache(1000, 2);
+    assertEquals(0, cache.record(1, now));
+    assertEquals(0, cache.record(2, now));
+    assertEquals(1, cache.record(1, now));
+    assertEquals(0, cache.record(3, now));
+    assertEquals(1, cache.getEvictedCount());
+    // 2 was the least recently seen
+    assertEquals(2, cache.record(1, now));
+    assertEquals(0, cache.record(2, now));
+    assertEquals(2, cache.getEvictedCount());
+    assertEquals(2, cache.size());
+  }
+}
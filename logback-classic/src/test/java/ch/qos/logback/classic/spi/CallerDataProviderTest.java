@@ -0,0 +1,82 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CallerDataProviderTest {
+
+  List<String> frameworkPackages = new ArrayList<String>();
+
+  /**
+   * Stands for the logger class the logging call goes through.
+   */
+  static class Framework {
+    static StackTraceElement[] extract(CallerDataProvider provider, int maxDepth, List<String> frameworkPackages) {
+      return provider.extract(Framework.class.getName(), maxDepth, frameworkPackages);
+    }
+  }
+
+  StackTraceElement[] callerData(CallerDataProvider provider, int maxDepth) {
+    return Framework.extract(provider, maxDepth, frameworkPackages);
+  }
+
+  void verifyCaller(CallerDataProvider provider) {
+    StackTraceElement[] cda = callerData(provider, 2);
+    assertEquals(2, cda.length);
+    assertEquals(CallerDataProviderTest.class.getName(), cda[0].getClassName());
+    assertEquals("callerData", cda[0].getMethodName());
+    assertEquals("verifyCaller", cda[1].getMethodName());
+
+    // the cached decisions follow changes of the framework packages
+    frameworkPackages.add(CallerDataProviderTest.class.getName());
+    cda = callerData(provider, 1);
+    assertEquals(1, cda.length);
+    assertFalse(cda[0].getClassName().startsWith(CallerDataProviderTest.class.getName()));
+    frameworkPackages.clear();
+
+    assertEquals(0, provider.extract("com.inexistent.Foo", 10, frameworkPackages).length);
+    assertEquals(0, callerData(provider, 0).length);
+  }
+
+  @Test
+  public void throwableProvider() {
+    verifyCaller(new ThrowableCallerDataProvider());
+  }
+
+  @Test
+  public void stackWalkerProvider() {
+    assumeTrue(StackWalkerCallerDataProvider.isAvailable());
+    verifyCaller(new StackWalkerCallerDataProvider());
+  }
+
+  @Test
+  public void providersAgree() {
+    assumeTrue(StackWalkerCallerDataProvider.isAvailable());
+    CallerDataProvider[] providers = { new ThrowableCallerDataProvider(), new StackWalkerCallerDataProvider() };
+    StackTraceElement[][] results = new StackTraceElement[2][];
+    for (int i = 0; i < providers.length; i++) {
+      results[i] = callerData(providers[i], 100);
+    }
+    assertArrayEquals(results[0], results[1]);
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+
+public class LoggingEventRecyclerTest {
+
+  LoggerContext loggerContext = new LoggerContext();
+  Logger logger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+  LoggingEventRecycler recycler = loggerContext.getLoggingEventRecycler();
+
+  @After
+  public void tearDown() {
+    MDC.clear();
+  }
+
+  @Test
+  public void eventIsReusedOnceReleased() {
+    LoggingEvent first = recycler.acquire("", logger, Level.INFO, null, "x={}", 1, null);
+    assertEquals("x=1", first.getFormattedMessage());
+    recycler.release(first);
+
+    LoggingEvent second = recycler.acquire("", logger, Level.WARN, null, "{}-{}", 2, 3, null);
+    assertSame(first, second);
+    assertEquals(Level.WARN, second.getLevel());
+    assertEquals("2-3", second.getFormattedMessage());
+    recycler.release(second);
+  }
+
+  @Test
+  public void eventInUseIsNotHandedOutTwice() {
+    LoggingEvent first = recycler.acquire("", logger, Level.INFO, null, "a", (Object[]) null, null);
+    assertNull(recycler.acquire("", logger, Level.INFO, null, "b", (Object[]) null, null));
+    recycler.release(first);
+  }
+
+  @Test
+  public void snapshotSurvivesRecycling() {
+    MDC.put("k", "v");
+    LoggingEvent event = recycler.acquire("", logger, Level.INFO, null, "x={}", 1, null);
+    ILoggingEvent snapshot = event.snapshot();
+    assertNotSame(event, snapshot);
+    recycler.release(event);
+
+    LoggingEvent other = recycler.acquire("", logger, Level.ERROR, null, "y={}", 2, null);
+    assertEquals("x=1", snapshot.getFormattedMessage());
+    assertEquals(Level.INFO, snapshot.getLevel());
+    assertEquals(1, snapshot.getArgumentArray()[0]);
+    Map<String, String> mdc = snapshot.getMDCPropertyMap();
+    assertEquals("v", mdc.get("k"));
+    assertEquals(Thread.currentThread().getName(), snapshot.getThreadName());
+    recycler.release(other);
+  }
+
+  @Test
+  public void releasedEventDropsLoggerContext() {
+    LoggingEvent event = recycler.acquire("", logger, Level.INFO, null, "x={}", 1, null);
+    recycler.release(event);
+    assertNull(event.getLoggerName());
+    assertNull(event.getLoggerContextVO());
+    assertNull(event.getLogger());
+  }
+
+  @Test
+  public void resetReleasesSlots() {
+    LoggingEvent first = recycler.acquire("", logger, Level.INFO, null, "x={}", 1, null);
+    recycler.release(first);
+    loggerContext.reset();
+
+    LoggingEvent second = recycler.acquire("", logger, Level.INFO, null, "x={}", 1, null);
+    assertNotSame(first, second);
+    recycler.release(second);
+  }
+
+  @Test
+  public void eventAcquiredBeforeReleaseOfSlotsCanBeReleased() {
+    LoggingEvent first = recycler.acquire("", logger, Level.INFO, null, "x={}", 1, null);
+    recycler.releaseSlots();
+    recycler.release(first);
+    assertNull(first.getMessage());
+
+    LoggingEvent second = recycler.acquire("", logger, Level.INFO, null, "x={}", 1, null);
+    assertEquals("x=1", second.getFormattedMessage());
+    recycler.release(second);
+  }
+
+  @Test
+  public void regularEventIsItsOwnSnapshot() {
+    LoggingEvent event = new LoggingEvent("", logger, Level.INFO, "x", null, null);
+    assertSame(event, event.snapshot());
+  }
+}
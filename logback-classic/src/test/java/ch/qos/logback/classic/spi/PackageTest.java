@@ -18,8 +18,8 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses( { ContextListenerTest.class, CallerDataTest.class,
-    LoggerComparatorTest.class, LoggingEventTest.class, LoggingEventSerializationTest.class,
+@SuiteClasses( { ContextListenerTest.class, CallerDataTest.class, CallerDataProviderTest.class,
+    LoggerComparatorTest.class, LoggingEventTest.class, LoggingEventRecyclerTest.class, LoggingEventSerializationTest.class,
     LoggingEventSerializationPerfTest.class, ThrowableProxyTest.class,
     PackagingDataCalculatorTest.class })
 public class PackageTest  {
@@ -13,7 +13,10 @@
  */
 package ch.qos.logback.classic.spi;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.net.MalformedURLException;
@@ -54,6 +57,38 @@ public class PackagingDataCalculatorTest {
     verify(tp);
   }
 
+  @Test
+  public void sharedCacheIsReused() throws Exception {
+    PackagingDataCache cache = new PackagingDataCache();
+    ThrowableProxy tp0 = new ThrowableProxy(TeztHelper.makeNestedException(2));
+    tp0.calculatePackagingData(cache);
+    verify(tp0);
+    long misses = cache.getMissCount();
+    assertTrue(misses > 0);
+
+    ThrowableProxy tp1 = new ThrowableProxy(TeztHelper.makeNestedException(2));
+    tp1.calculatePackagingData(cache);
+    verify(tp1);
+    assertEquals(misses, cache.getMissCount());
+    assertTrue(cache.getHitCount() > 0);
+  }
+
+  @Test
+  public void cacheIsKeyedByClassLoader() throws Exception {
+    PackagingDataCache cache = new PackagingDataCache();
+    cache.warmUp(PackagingDataCalculatorTest.class);
+    ClassLoader cl = PackagingDataCalculatorTest.class.getClassLoader();
+    ClassPackagingData cpd = cache.get(cl, PackagingDataCalculatorTest.class.getName());
+    assertNotNull(cpd);
+    assertTrue(cpd.isExact());
+    assertNull(cache.get(makeBogusClassLoader(), PackagingDataCalculatorTest.class.getName()));
+    assertEquals(1, cache.getClassLoaderCount());
+
+    cache.warmUp(String.class);
+    assertSame(cache.get(null, String.class.getName()), cache.get(null, String.class.getName()));
+    assertEquals(1, cache.getClassLoaderCount());
+  }
+
   public void doCalculateClassPackagingData(
       boolean withClassPackagingCalculation) {
     try {
@@ -71,9 +71,18 @@ public class LogbackMDCAdapterTest {
     Map<String, String> map0 = mdcAdapter.copyOnInheritThreadLocal.get();
     mdcAdapter.get("k0");  // point 0
     mdcAdapter.put("k0", "v1");
-    // verify that map0 is the same instance and that value was updated
-    assertSame(map0, mdcAdapter.copyOnInheritThreadLocal.get());
-    assertEquals("v1", map0.get("k0"));
+    // maps are immutable, map0 keeps the value it had at point 0
+    assertEquals("v0", map0.get("k0"));
+    assertEquals("v1", mdcAdapter.get("k0"));
+  }
+
+  @Test
+  public void putOfSameValueKeepsMap() {
+    mdcAdapter.put("k0", "v0");
+    Map<String, String> map0 = mdcAdapter.getPropertyMap();
+    mdcAdapter.put("k0", "v0");
+    mdcAdapter.remove("absent");
+    assertSame(map0, mdcAdapter.getPropertyMap());
   }
 
   @Test
@@ -183,7 +192,7 @@ public class LogbackMDCAdapterTest {
 
 
   Map<String, String> getMapFromMDCAdapter(LogbackMDCAdapter lma) {
-    InheritableThreadLocal<Map<String, String>> copyOnInheritThreadLocal = lma.copyOnInheritThreadLocal;
+    InheritableThreadLocal<SortedArrayMap> copyOnInheritThreadLocal = lma.copyOnInheritThreadLocal;
     return copyOnInheritThreadLocal.get();
   }
 
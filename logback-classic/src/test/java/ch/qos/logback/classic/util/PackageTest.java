@@ -20,7 +20,7 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ContextInitializerTest.class, ContextInitializerAutoConfigTest.class,
-        LogbackMDCAdapterTest.class, LevelToSyslogSeverityTest.class})
+        LogbackMDCAdapterTest.class, SortedArrayMapTest.class, LevelToSyslogSeverityTest.class})
 
 public class PackageTest {
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SortedArrayMapTest {
+
+  @Test
+  public void withAndWithoutLeaveTheOriginalUntouched() {
+    SortedArrayMap m0 = SortedArrayMap.EMPTY.with("b", "1");
+    SortedArrayMap m1 = m0.with("a", "2");
+    SortedArrayMap m2 = m1.without("b");
+
+    assertEquals(1, m0.size());
+    assertEquals("1", m0.get("b"));
+    assertEquals(2, m1.size());
+    assertEquals(1, m2.size());
+    assertNull(m2.get("b"));
+    assertEquals("2", m2.get("a"));
+  }
+
+  @Test
+  public void keysAreIteratedInOrder() {
+    SortedArrayMap map = SortedArrayMap.EMPTY.with("c", "3").with("a", "1").with("b", "2");
+    List<String> keys = new ArrayList<String>(map.keySet());
+    assertEquals("[a, b, c]", keys.toString());
+  }
+
+  @Test
+  public void nullValuesAreAllowed() {
+    SortedArrayMap map = SortedArrayMap.EMPTY.with("k", null);
+    assertTrue(map.containsKey("k"));
+    assertNull(map.get("k"));
+    assertSame(map, map.with("k", null));
+  }
+
+  @Test
+  public void removingTheLastKeyYieldsEmpty() {
+    assertSame(SortedArrayMap.EMPTY, SortedArrayMap.EMPTY.with("k", "v").without("k"));
+  }
+
+  @Test
+  public void behavesLikeHashMap() {
+    Random random = new Random(100);
+    Map<String, String> witness = new HashMap<String, String>();
+    SortedArrayMap map = SortedArrayMap.EMPTY;
+    for (int i = 0; i < 2000; i++) {
+      String key = "k" + random.nextInt(40);
+      if (random.nextInt(3) == 0) {
+        witness.remove(key);
+        map = map.without(key);
+      } else {
+        String value = "v" + i;
+        witness.put(key, value);
+        map = map.with(key, value);
+      }
+      assertEquals(witness, map);
+      assertEquals(witness.hashCode(), map.hashCode());
+    }
+    assertEquals(map, SortedArrayMap.copyOf(witness));
+  }
+
+  @Test
+  public void serializedAsHashMap() throws Exception {
+    SortedArrayMap map = SortedArrayMap.EMPTY.with("a", "1").with("b", "2");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(bytes);
+    oos.writeObject(map);
+    oos.close();
+    ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    Object read = ois.readObject();
+    assertFalse(read instanceof SortedArrayMap);
+    assertEquals(map, read);
+  }
+}
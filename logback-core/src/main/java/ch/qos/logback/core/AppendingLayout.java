@@ -0,0 +1,38 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+/**
+ * A layout which can append the textual representation of an event to a
+ * caller supplied buffer, so that callers formatting many events can reuse
+ * the same buffer instead of allocating a new String per event.
+ * <p/>
+ * For any given event, {@link #doLayout(Object, StringBuilder)} must append
+ * exactly the text returned by {@link #doLayout(Object)}.
+ *
+ * @param <E>
+ *          event type
+ * @since 1.1.4
+ */
+public interface AppendingLayout<E> extends Layout<E> {
+
+  /**
+   * Append the formatted event to <code>buf</code>.
+   *
+   * @param event
+   * @param buf the buffer to append to, its existing content is left untouched
+   */
+  void doLayout(E event, StringBuilder buf);
+
+}
@@ -13,12 +13,32 @@
  */
 package ch.qos.logback.core;
 
+import ch.qos.logback.core.async.OverflowPolicy;
+import ch.qos.logback.core.async.QueueType;
+import ch.qos.logback.core.async.RingBufferBlockingQueue;
+import ch.qos.logback.core.async.SpillFile;
 import ch.qos.logback.core.spi.AppenderAttachable;
 import ch.qos.logback.core.spi.AppenderAttachableImpl;
-
+import ch.qos.logback.core.spi.PreSerializationTransformer;
+import ch.qos.logback.core.spi.ReusableEventUtil;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 /**
  * This appender and derived classes, log events asynchronously.  In order to avoid loss of logging events, this
@@ -27,6 +47,8 @@ import java.util.concurrent.BlockingQueue;
  * <p/>
  * This appender buffers events in a {@link BlockingQueue}. {@link Worker} thread created by this appender takes
  * events from the head of the queue, and dispatches them to the single appender attached to this appender.
+ * The kind of queue is set by the {@link #setQueueType(QueueType) queueType} property, what happens when the queue
+ * is full by the {@link #setOverflowPolicy(OverflowPolicy) overflowPolicy} property.
  * <p/>
  * <p>Please refer to the <a href="http://logback.qos.ch/manual/appenders.html#AsyncAppender">logback manual</a> for
  * further information about this appender.</p>
@@ -36,7 +58,8 @@ import java.util.concurrent.BlockingQueue;
  * @author Torsten Juergeleit
  * @since 1.0.4
  */
-public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implements AppenderAttachable<E> {
+public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implements AppenderAttachable<E>,
+    AsyncAppenderBaseMBean {
 
   AppenderAttachableImpl<E> aai = new AppenderAttachableImpl<E>();
   BlockingQueue<E> blockingQueue;
@@ -47,6 +70,14 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
   public static final int DEFAULT_QUEUE_SIZE = 256;
   int queueSize = DEFAULT_QUEUE_SIZE;
 
+  QueueType queueType = QueueType.ARRAY_BLOCKING_QUEUE;
+
+  /**
+   * The default maximum number of events the worker dispatches at once.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1;
+  int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
   int appenderCount = 0;
 
   static final int UNDEFINED = -1;
@@ -61,7 +92,32 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
    */
   public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
   int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
-  
+
+  OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+  /**
+   * The default time a logging thread waits for room in the queue under the
+   * {@link OverflowPolicy#BLOCK_WITH_TIMEOUT} policy.
+   */
+  public static final long DEFAULT_OVERFLOW_TIMEOUT = 100;
+  Duration overflowTimeout = new Duration(DEFAULT_OVERFLOW_TIMEOUT);
+
+  /**
+   * The default maximum size of the spill file, 100 MB.
+   */
+  public static final long DEFAULT_MAX_SPILL_FILE_SIZE = 100 * 1024 * 1024;
+  String spillFileName;
+  FileSize maxSpillFileSize = new FileSize(DEFAULT_MAX_SPILL_FILE_SIZE);
+  SpillFile spillFile;
+
+  boolean registerMBean = false;
+  ObjectName mbeanName;
+
+  final AtomicLong discardedEventCount = new AtomicLong();
+  final AtomicLong droppedEventCount = new AtomicLong();
+  final AtomicLong spilledEventCount = new AtomicLong();
+  final AtomicLong replayedEventCount = new AtomicLong();
+
   /**
    * Is the eventObject passed as parameter discardable? The base class's implementation of this method always returns
    * 'false' but sub-classes may (and do) override this method.
@@ -86,6 +142,16 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
   protected void preprocess(E eventObject) {
   }
 
+  /**
+   * Get the transformer turning events into their serializable form before they are written to the spill file.
+   * The base class returns null, in which case events must be {@link Serializable} as is.
+   *
+   * @return the transformer, may be null
+   */
+  protected PreSerializationTransformer<E> getPST() {
+    return null;
+  }
+
 
   @Override
   public void start() {
@@ -97,7 +163,26 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
       addError("Invalid queue size [" + queueSize + "]");
       return;
     }
-    blockingQueue = new ArrayBlockingQueue<E>(queueSize);
+    if (maxBatchSize < 1) {
+      addError("Invalid maximum batch size [" + maxBatchSize + "]");
+      return;
+    }
+    if (queueType == null) {
+      addError("No queue type set");
+      return;
+    }
+    if (queueType == QueueType.RING_BUFFER && queueSize < RingBufferBlockingQueue.MIN_CAPACITY) {
+      addError("Invalid queue size [" + queueSize + "] for a ring buffer");
+      return;
+    }
+    if (overflowPolicy == null) {
+      addError("No overflow policy set");
+      return;
+    }
+    if (overflowPolicy == OverflowPolicy.SPILL_TO_DISK && !openSpillFile()) {
+      return;
+    }
+    blockingQueue = createQueue(queueType, queueSize);
 
     if (discardingThreshold == UNDEFINED)
       discardingThreshold = queueSize / 5;
@@ -107,6 +192,52 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
     // make sure this instance is marked as "started" before staring the worker Thread
     super.start();
     worker.start();
+    if (registerMBean) {
+      registerMBean();
+    }
+  }
+
+  private boolean openSpillFile() {
+    if (spillFileName == null) {
+      addError("The spillFile property must be set for the " + OverflowPolicy.SPILL_TO_DISK + " overflow policy");
+      return false;
+    }
+    spillFile = new SpillFile(new File(spillFileName), maxSpillFileSize.getSize());
+    try {
+      spillFile.open();
+      addInfo("Events overflowing the queue will be spilled into [" + spillFileName + "]");
+      return true;
+    } catch (IOException e) {
+      addError("Failed to open spill file [" + spillFileName + "]", e);
+      spillFile = null;
+      return false;
+    }
+  }
+
+  private void registerMBean() {
+    try {
+      String contextName = getContext() == null ? "default" : getContext().getName();
+      mbeanName = new ObjectName("ch.qos.logback.core:Type=" + getClass().getSimpleName() + ",Context="
+          + ObjectName.quote(String.valueOf(contextName)) + ",Name=" + ObjectName.quote(String.valueOf(getName())));
+      MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+      mbs.registerMBean(new StandardMBean(this, AsyncAppenderBaseMBean.class), mbeanName);
+      addInfo("Registered mbean [" + mbeanName + "]");
+    } catch (Exception e) {
+      addError("Failed to register mbean for appender [" + getName() + "]", e);
+      mbeanName = null;
+    }
+  }
+
+  private void unregisterMBean() {
+    if (mbeanName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+    } catch (Exception e) {
+      addError("Failed to unregister mbean [" + mbeanName + "]", e);
+    }
+    mbeanName = null;
   }
 
   @Override
@@ -135,16 +266,35 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
     } catch (InterruptedException e) {
       addError("Failed to join worker thread. " + blockingQueue.size() + " queued events may be discarded.", e);
     }
+    unregisterMBean();
   }
 
 
   @Override
   protected void append(E eventObject) {
     if (isQueueBelowDiscardingThreshold() && isDiscardable(eventObject)) {
+      discardedEventCount.incrementAndGet();
       return;
     }
     preprocess(eventObject);
-    put(eventObject);
+    put(ReusableEventUtil.snapshot(eventObject));
+  }
+
+  /**
+   * Create the queue in which events are buffered before being dispatched by the worker thread.
+   *
+   * @param queueType the kind of queue
+   * @param capacity  the capacity of the queue
+   * @return a new queue
+   */
+  protected BlockingQueue<E> createQueue(QueueType queueType, int capacity) {
+    switch (queueType) {
+      case RING_BUFFER:
+        return new RingBufferBlockingQueue<E>(capacity);
+      case ARRAY_BLOCKING_QUEUE:
+      default:
+        return new ArrayBlockingQueue<E>(capacity);
+    }
   }
 
   private boolean isQueueBelowDiscardingThreshold() {
@@ -152,6 +302,28 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
   }
 
   private void put(E eventObject) {
+    switch (overflowPolicy) {
+      case BLOCK:
+        putUninterruptibly(eventObject);
+        break;
+      case BLOCK_WITH_TIMEOUT:
+        offerWithTimeout(eventObject);
+        break;
+      case DROP_NEWEST:
+        if (!blockingQueue.offer(eventObject)) {
+          droppedEventCount.incrementAndGet();
+        }
+        break;
+      case DROP_OLDEST_DISCARDABLE:
+        offerEvictingDiscardable(eventObject);
+        break;
+      case SPILL_TO_DISK:
+        offerOrSpill(eventObject);
+        break;
+    }
+  }
+
+  private void putUninterruptibly(E eventObject) {
     try {
       blockingQueue.put(eventObject);
     } catch (InterruptedException e) {
@@ -161,6 +333,124 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
     }
   }
 
+  private void offerWithTimeout(E eventObject) {
+    try {
+      if (!blockingQueue.offer(eventObject, overflowTimeout.getMilliseconds(), TimeUnit.MILLISECONDS)) {
+        droppedEventCount.incrementAndGet();
+      }
+    } catch (InterruptedException e) {
+      droppedEventCount.incrementAndGet();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void offerEvictingDiscardable(E eventObject) {
+    while (!blockingQueue.offer(eventObject)) {
+      if (evictOldestDiscardable()) {
+        droppedEventCount.incrementAndGet();
+      } else if (isDiscardable(eventObject)) {
+        droppedEventCount.incrementAndGet();
+        return;
+      } else {
+        putUninterruptibly(eventObject);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Remove the oldest discardable event from the queue. A ring buffer only
+   * allows the removal of its head, in which case the head is removed if
+   * discardable.
+   */
+  private boolean evictOldestDiscardable() {
+    if (!isStarted()) {
+      // the worker is flushing the queue, which it expects to shrink only by its own hand
+      return false;
+    }
+    if (blockingQueue instanceof RingBufferBlockingQueue) {
+      E head = blockingQueue.peek();
+      return head != null && isDiscardable(head)
+          && ((RingBufferBlockingQueue<E>) blockingQueue).pollIfHeadIs(head);
+    }
+    for (E queued : blockingQueue) {
+      if (isDiscardable(queued) && blockingQueue.remove(queued)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Remove <code>event</code>, which the worker has just dispatched, from the
+   * queue unless a producer has evicted it in the meantime.
+   */
+  private void removeDispatched(E event) {
+    if (blockingQueue instanceof RingBufferBlockingQueue) {
+      ((RingBufferBlockingQueue<E>) blockingQueue).pollIfHeadIs(event);
+    } else {
+      blockingQueue.remove(event);
+    }
+  }
+
+  private void offerOrSpill(E eventObject) {
+    // once events are spilled, subsequent ones follow them to the spill file until it is replayed
+    if (!spillFile.hasPending() && blockingQueue.offer(eventObject)) {
+      return;
+    }
+    Serializable serializable = toSerializable(eventObject);
+    if (serializable == null) {
+      droppedEventCount.incrementAndGet();
+      return;
+    }
+    try {
+      byte[] record = SpillFile.toRecord(serializable);
+      if (spillFile.append(record, false)) {
+        spilledEventCount.incrementAndGet();
+      } else {
+        droppedEventCount.incrementAndGet();
+      }
+    } catch (IOException e) {
+      droppedEventCount.incrementAndGet();
+      addError("Failed to spill event into [" + spillFileName + "]", e);
+    }
+  }
+
+  private Serializable toSerializable(E eventObject) {
+    PreSerializationTransformer<E> pst = getPST();
+    if (pst != null) {
+      return pst.transform(eventObject);
+    }
+    if (eventObject instanceof Serializable) {
+      return (Serializable) eventObject;
+    }
+    return null;
+  }
+
+  /**
+   * Dispatch up to maxCount spilled events to the attached appenders.
+   *
+   * @return the number of events dispatched
+   */
+  @SuppressWarnings("unchecked")
+  int replaySpilledEvents(int maxCount) {
+    List<Object> spilled;
+    try {
+      spilled = spillFile.read(maxCount);
+    } catch (IOException e) {
+      addError("Failed to read spill file [" + spillFileName + "]. Discarding spilled events.", e);
+      droppedEventCount.addAndGet(spillFile.getPendingCount());
+      spillFile.close();
+      return 0;
+    }
+    if (spilled.isEmpty()) {
+      return 0;
+    }
+    aai.appendBatchLoopOnAppenders((List<E>) (List<?>) spilled);
+    replayedEventCount.addAndGet(spilled.size());
+    return spilled.size();
+  }
+
   public int getQueueSize() {
     return queueSize;
   }
@@ -169,6 +459,127 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
     this.queueSize = queueSize;
   }
 
+  public QueueType getQueueType() {
+    return queueType;
+  }
+
+  /**
+   * The kind of queue events are buffered in. By default, an {@link ArrayBlockingQueue}
+   * is used. Under heavy contention from many logging threads, {@link QueueType#RING_BUFFER}
+   * avoids the lock of the former.
+   *
+   * @param queueType
+   */
+  public void setQueueType(QueueType queueType) {
+    this.queueType = queueType;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * The maximum number of queued events the worker thread takes from the queue at once. Attached appenders
+   * implementing {@link BatchAppender} receive these events as a single batch. By default, events are dispatched
+   * one at a time.
+   *
+   * @param maxBatchSize
+   * @since 1.1.4
+   */
+  public void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  /**
+   * What to do with an event when the queue is full. By default, the logging thread blocks until room becomes
+   * available.
+   *
+   * @param overflowPolicy
+   * @since 1.1.4
+   */
+  public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  public Duration getOverflowTimeout() {
+    return overflowTimeout;
+  }
+
+  /**
+   * How long a logging thread waits for room in the queue under the {@link OverflowPolicy#BLOCK_WITH_TIMEOUT}
+   * policy. Defaults to 100 milliseconds.
+   *
+   * @param overflowTimeout
+   * @since 1.1.4
+   */
+  public void setOverflowTimeout(Duration overflowTimeout) {
+    this.overflowTimeout = overflowTimeout;
+  }
+
+  public String getSpillFile() {
+    return spillFileName;
+  }
+
+  /**
+   * The local file events are spilled into under the {@link OverflowPolicy#SPILL_TO_DISK} policy. The file is
+   * truncated when the appender starts and deleted when it stops.
+   *
+   * @param spillFile
+   * @since 1.1.4
+   */
+  public void setSpillFile(String spillFile) {
+    this.spillFileName = spillFile;
+  }
+
+  public FileSize getMaxSpillFileSize() {
+    return maxSpillFileSize;
+  }
+
+  /**
+   * Events which would grow the spill file beyond this size are dropped. Defaults to 100 MB.
+   *
+   * @param maxSpillFileSize
+   * @since 1.1.4
+   */
+  public void setMaxSpillFileSize(FileSize maxSpillFileSize) {
+    this.maxSpillFileSize = maxSpillFileSize;
+  }
+
+  public boolean isRegisterMBean() {
+    return registerMBean;
+  }
+
+  /**
+   * Register an {@link AsyncAppenderBaseMBean} exposing the queue and overflow counters of this appender with the
+   * platform MBean server. The MBean is unregistered when the appender stops.
+   *
+   * @param registerMBean
+   * @since 1.1.4
+   */
+  public void setRegisterMBean(boolean registerMBean) {
+    this.registerMBean = registerMBean;
+  }
+
+  public long getDiscardedEventCount() {
+    return discardedEventCount.get();
+  }
+
+  public long getDroppedEventCount() {
+    return droppedEventCount.get();
+  }
+
+  public long getSpilledEventCount() {
+    return spilledEventCount.get();
+  }
+
+  public long getReplayedEventCount() {
+    return replayedEventCount.get();
+  }
+
   public int getDiscardingThreshold() {
     return discardingThreshold;
   }
@@ -241,29 +652,74 @@ public class AsyncAppenderBase<E> extends UnsynchronizedAppenderBase<E> implemen
     return aai.detachAppender(name);
   }
 
+  /**
+   * How long the worker waits on an empty queue before checking the spill file again, in milliseconds.
+   */
+  static final long SPILL_REPLAY_DELAY = 10;
+
+  /**
+   * The maximum number of spilled events read back at once.
+   */
+  static final int SPILL_REPLAY_BATCH_SIZE = 256;
+
   class Worker extends Thread {
 
     public void run() {
       AsyncAppenderBase<E> parent = AsyncAppenderBase.this;
       AppenderAttachableImpl<E> aai = parent.aai;
+      int maxBatchSize = parent.maxBatchSize;
+      List<E> batch = new ArrayList<E>(maxBatchSize);
+
+      SpillFile spillFile = parent.spillFile;
 
       // loop while the parent is started
       while (parent.isStarted()) {
         try {
-          E e = parent.blockingQueue.take();
-          aai.appendLoopOnAppenders(e);
+          E e;
+          if (spillFile == null) {
+            e = parent.blockingQueue.take();
+          } else {
+            // spilled events are replayed once the queue has drained
+            if (parent.blockingQueue.isEmpty() && spillFile.hasPending()) {
+              parent.replaySpilledEvents(Math.max(maxBatchSize, SPILL_REPLAY_BATCH_SIZE));
+              continue;
+            }
+            e = parent.blockingQueue.poll(SPILL_REPLAY_DELAY, TimeUnit.MILLISECONDS);
+            if (e == null) {
+              continue;
+            }
+          }
+          if (maxBatchSize == 1) {
+            aai.appendLoopOnAppenders(e);
+          } else {
+            batch.add(e);
+            parent.blockingQueue.drainTo(batch, maxBatchSize - 1);
+            aai.appendBatchLoopOnAppenders(batch);
+          }
         } catch (InterruptedException ie) {
           break;
+        } finally {
+          batch.clear();
         }
       }
 
       addInfo("Worker thread will flush remaining events before exiting. ");
 
-      for (E e : parent.blockingQueue) {
+      // events leave the queue only once dispatched. A producer which started
+      // evicting before the appender stopped may still remove an event, so
+      // only the dispatched event is removed, never whatever is now the head
+      E e;
+      while ((e = parent.blockingQueue.peek()) != null) {
         aai.appendLoopOnAppenders(e);
-        parent.blockingQueue.remove(e);
+        parent.removeDispatched(e);
       }
-      
+      if (spillFile != null) {
+        while (parent.replaySpilledEvents(SPILL_REPLAY_BATCH_SIZE) > 0) {
+          // keep replaying until the spill file is exhausted
+        }
+        spillFile.close();
+      }
+
 
       aai.detachAndStopAllAppenders();
     }
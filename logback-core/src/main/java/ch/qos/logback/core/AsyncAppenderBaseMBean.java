@@ -0,0 +1,51 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+/**
+ * Management interface of {@link AsyncAppenderBase}, registered with the
+ * platform MBean server when the appender's <b>registerMBean</b> property is set.
+ *
+ * @since 1.1.4
+ */
+public interface AsyncAppenderBaseMBean {
+
+  int getQueueSize();
+
+  int getNumberOfElementsInQueue();
+
+  int getRemainingCapacity();
+
+  /**
+   * Number of events discarded because the queue was filled beyond the
+   * discarding threshold.
+   */
+  long getDiscardedEventCount();
+
+  /**
+   * Number of events dropped by the overflow policy.
+   */
+  long getDroppedEventCount();
+
+  /**
+   * Number of events written to the spill file.
+   */
+  long getSpilledEventCount();
+
+  /**
+   * Number of spilled events read back and dispatched.
+   */
+  long getReplayedEventCount();
+
+}
@@ -0,0 +1,37 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import java.util.List;
+
+/**
+ * An appender capable of appending several events at once, typically so that
+ * the whole batch is written under a single lock acquisition and flushed
+ * once. {@link AsyncAppenderBase} hands batches of events to attached
+ * appenders implementing this interface.
+ *
+ * @param <E>
+ * @since 1.1.4
+ */
+public interface BatchAppender<E> extends Appender<E> {
+
+  /**
+   * Append the events of the given list, in order. Each event is subject to
+   * the filters attached to this appender just as with {@link #doAppend(Object)}.
+   *
+   * @param events the events to append, never modified by this method
+   */
+  void doBatchAppend(List<E> events) throws LogbackException;
+
+}
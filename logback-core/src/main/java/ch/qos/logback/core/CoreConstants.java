@@ -167,6 +167,15 @@ public class CoreConstants {
    */
   public static final int SECONDS_TO_WAIT_FOR_COMPRESSION_JOBS = 30;
 
+  /**
+   * Maximum number of files compressed at the same time by the rolling
+   * policies of a context.
+   */
+  public static final int MAX_CONCURRENT_COMPRESSIONS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  // Context Object name for the semaphore bounding concurrent compressions
+  public static final String COMPRESSION_PERMITS = "COMPRESSION_PERMITS";
+
   public static final String CONTEXT_SCOPE_VALUE = "context";
 
   public static final String RESET_MSG_PREFIX = "Will reset and reconfigure context ";
@@ -15,10 +15,13 @@ package ch.qos.logback.core;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.channels.FileChannel;
-import java.nio.channels.FileLock;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
 
+import ch.qos.logback.core.recovery.MappedFileOutputStream;
 import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.FileUtil;
 
 /**
@@ -45,6 +48,14 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
 
   private boolean prudent = false;
 
+  public static final int DEFAULT_ATOMIC_APPEND_LIMIT = 0;
+
+  private int atomicAppendLimit = DEFAULT_ATOMIC_APPEND_LIMIT;
+
+  private FileSize bufferSize = new FileSize(ResilientFileOutputStream.DEFAULT_BUFFER_SIZE);
+  private boolean channelOutput = false;
+  private PrudentOutputStream prudentStream;
+
   /**
    * The <b>File</b> property takes a string value which should be the name of
    * the file to append to.
@@ -94,6 +105,10 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
    */
   public void start() {
     int errors = 0;
+    if (bufferSize.getSize() <= 0 || bufferSize.getSize() > Integer.MAX_VALUE) {
+      addError("BufferSize must be between 1 byte and 2GB, was " + bufferSize.getSize());
+      return;
+    }
     if (getFile() != null) {
       addInfo("File property is set to [" + fileName + "]");
 
@@ -102,6 +117,14 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
           setAppend(true);
           addWarn("Setting \"Append\" property to true on account of \"Prudent\" mode");
         }
+        if (isGroupCommit()) {
+          disableGroupCommit();
+          addWarn("Disabling group commit on account of \"Prudent\" mode");
+        }
+        if (getWriteMode() == WriteMode.CONCURRENT_ENCODING || getWriteMode() == WriteMode.COMBINING) {
+          setWriteMode(WriteMode.LOCK);
+          addWarn("Setting \"WriteMode\" property to " + WriteMode.LOCK + " on account of \"Prudent\" mode");
+        }
       }
 
       try {
@@ -110,6 +133,11 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
         errors++;
         addError("openFile(" + fileName + "," + append + ") call failed.", e);
       }
+      if (errors == 0 && prudent && prudentStream == null) {
+        errors++;
+        addError("\"Prudent\" mode is not supported by the output stream of appender named [" + name + "]");
+        closeOutputStream();
+      }
     } else {
       errors++;
       addError("\"File\" property not set for appender named [" + name + "].");
@@ -145,15 +173,26 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
             + file.getAbsolutePath() + "]");
       }
 
-      ResilientFileOutputStream resilientFos = new ResilientFileOutputStream(
-          file, append);
-      resilientFos.setContext(context);
-      setOutputStream(resilientFos);
+      setOutputStream(openFileOutputStream(file));
     } finally {
       lock.unlock();
     }
   }
 
+  /**
+   * Open the stream writing to the given file, appending to it according to
+   * the <b>Append</b> property. Derived classes may write to the file by
+   * other means.
+   *
+   * @since 1.1.4
+   */
+  protected OutputStream openFileOutputStream(File file) throws IOException {
+    ResilientFileOutputStream resilientFos = new ResilientFileOutputStream(
+        file, append, (int) bufferSize.getSize(), channelOutput);
+    resilientFos.setContext(context);
+    return resilientFos;
+  }
+
   /**
    * @see #setPrudent(boolean)
    * 
@@ -173,51 +212,131 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
     this.prudent = prudent;
   }
 
+  /**
+   * Returns the length of the file being written, as tracked in memory by
+   * the output stream, or -1 if this appender has no file open. The length
+   * counts bytes not yet flushed to the file. In prudent mode, other
+   * processes may write to the file and -1 is returned as well.
+   *
+   * @since 1.1.4
+   */
+  public long getActiveFileLength() {
+    if (prudent) {
+      return -1;
+    }
+    OutputStream os = getOutputStream();
+    if (os instanceof ResilientFileOutputStream) {
+      return ((ResilientFileOutputStream) os).getLength();
+    }
+    if (os instanceof MappedFileOutputStream) {
+      return ((MappedFileOutputStream) os).getLength();
+    }
+    return -1;
+  }
+
   public void setAppend(boolean append) {
     this.append = append;
   }
 
-  private void safeWrite(E event) throws IOException {
-    ResilientFileOutputStream resilientFOS = (ResilientFileOutputStream) getOutputStream();
-    FileChannel fileChannel = resilientFOS.getChannel();
-    if (fileChannel == null) {
-      return;
-    }
+  public FileSize getBufferSize() {
+    return bufferSize;
+  }
 
-    // Clear any current interrupt (see LOGBACK-875)
-    boolean interrupted = Thread.interrupted();
+  /**
+   * The size of the buffer collecting bytes before they are written to the
+   * file, 8KB by default. Writing large batches of events, or with
+   * immediateFlush set to false, benefits from a larger buffer.
+   *
+   * @since 1.1.4
+   */
+  public void setBufferSize(FileSize bufferSize) {
+    this.bufferSize = bufferSize;
+  }
 
-    FileLock fileLock = null;
-    try {
-      fileLock = fileChannel.lock();
-      long position = fileChannel.position();
-      long size = fileChannel.size();
-      if (size != position) {
-        fileChannel.position(size);
-      }
-      super.writeOut(event);
-    } catch (IOException e) {
-      // Mainly to catch FileLockInterruptionExceptions (see LOGBACK-875)
-      resilientFOS.postIOFailure(e);
+  public boolean isChannelOutput() {
+    return channelOutput;
+  }
+
+  /**
+   * When set to true, bytes are buffered in a direct buffer and written to
+   * the file through its {@link java.nio.channels.FileChannel}. The bytes of
+   * several events which do not fit in the buffer are then written with a
+   * single gathering write, without being copied. The default is false,
+   * bytes are written through a {@link java.io.BufferedOutputStream}.
+   *
+   * @since 1.1.4
+   */
+  public void setChannelOutput(boolean channelOutput) {
+    this.channelOutput = channelOutput;
+  }
+
+  public int getAtomicAppendLimit() {
+    return atomicAppendLimit;
+  }
+
+  /**
+   * In prudent mode, the events of a write are appended to the file as one
+   * record. Records of at most this many bytes are appended with a single
+   * system call, relying on the atomicity of appends to a file opened in
+   * append mode. Longer records are written under an exclusive file lock.
+   * <p/>
+   * The default, 0, locks the file for every record. Network file systems
+   * such as NFS or SMB, where prudent mode is typically used, do not
+   * guarantee atomic appends across hosts. On a local file system, a limit
+   * of 4096 bytes stays within the page size of common systems.
+   *
+   * @since 1.1.4
+   */
+  public void setAtomicAppendLimit(int atomicAppendLimit) {
+    this.atomicAppendLimit = atomicAppendLimit;
+  }
+
+  @Override
+  OutputStream newEncoderStream(OutputStream outputStream) {
+    if (prudent && outputStream instanceof ResilientFileOutputStream) {
+      prudentStream = new PrudentOutputStream((ResilientFileOutputStream) outputStream, atomicAppendLimit);
+      return prudentStream;
     }
-    finally {
-      if (fileLock != null && fileLock.isValid()) {
-        fileLock.release();
-      }
+    prudentStream = null;
+    return super.newEncoderStream(outputStream);
+  }
 
-      // Re-interrupt if we started in an interrupted state (see LOGBACK-875)
-      if (interrupted) {
-        Thread.currentThread().interrupt();
-      }
+  /**
+   * Append the events to the file as a single record, so that a batch costs
+   * at most one lock acquisition.
+   */
+  private void safeWrite(List<E> events) throws IOException {
+    // writeOut() would call this method again
+    encodeBatch(events);
+    if (prudentStream != null) {
+      prudentStream.commit();
     }
   }
 
   @Override
   protected void writeOut(E event) throws IOException {
     if (prudent) {
-      safeWrite(event);
+      safeWrite(Collections.singletonList(event));
     } else {
       super.writeOut(event);
     }
   }
+
+  @Override
+  protected void writeOutOneOf(E event, boolean last) throws IOException {
+    if (prudent) {
+      writeOut(event);
+    } else {
+      super.writeOutOneOf(event, last);
+    }
+  }
+
+  @Override
+  protected void writeOutBatch(List<E> events) throws IOException {
+    if (prudent) {
+      safeWrite(events);
+    } else {
+      super.writeOutBatch(events);
+    }
+  }
 }
@@ -0,0 +1,100 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Wraps the output stream of an {@link OutputStreamAppender} in group commit
+ * mode. Flush requests issued by the encoder are deferred, the appender
+ * decides when pending bytes are actually flushed by calling
+ * {@link #flushPending()}.
+ * <p/>
+ * Instances are not thread-safe, they are always accessed under the lock of
+ * the owning appender.
+ *
+ * @since 1.1.4
+ */
+class GroupCommitOutputStream extends OutputStream {
+
+  private final OutputStream out;
+  private long pendingBytes;
+  private long oldestPendingNanos;
+
+  GroupCommitOutputStream(OutputStream out) {
+    this.out = out;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    out.write(b);
+    addPending(1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    out.write(b, off, len);
+    addPending(len);
+  }
+
+  private void addPending(int len) {
+    if (len <= 0) {
+      return;
+    }
+    if (pendingBytes == 0) {
+      oldestPendingNanos = System.nanoTime();
+    }
+    pendingBytes += len;
+  }
+
+  /**
+   * Deferred, see {@link #flushPending()}.
+   */
+  @Override
+  public void flush() {
+  }
+
+  /**
+   * Flush the bytes written since the last call to this method.
+   */
+  void flushPending() throws IOException {
+    out.flush();
+    pendingBytes = 0;
+  }
+
+  boolean hasPending() {
+    return pendingBytes > 0;
+  }
+
+  long getPendingBytes() {
+    return pendingBytes;
+  }
+
+  /**
+   * @return the time elapsed, in milliseconds, since the oldest unflushed
+   *         write
+   */
+  long getPendingAgeMillis() {
+    if (pendingBytes == 0) {
+      return 0;
+    }
+    return (System.nanoTime() - oldestPendingNanos) / 1000000L;
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
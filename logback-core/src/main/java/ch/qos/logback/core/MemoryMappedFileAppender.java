@@ -0,0 +1,66 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import ch.qos.logback.core.recovery.MappedFileOutputStream;
+import ch.qos.logback.core.recovery.MappedFileUtil;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * MemoryMappedFileAppender appends log events to a file through regions of
+ * the file mapped in memory, see {@link MappedFileOutputStream}. Writing an
+ * event is a memory copy, a system call is made only when a region is full
+ * and the next one is mapped.
+ * <p/>
+ * Prudent mode is not supported, other processes cannot safely append to a
+ * mapped file.
+ * <p/>
+ * For more information about this appender, please refer to the online manual
+ * at http://logback.qos.ch/manual/appenders.html#MemoryMappedFileAppender
+ *
+ * @since 1.1.4
+ */
+public class MemoryMappedFileAppender<E> extends FileAppender<E> {
+
+  private FileSize regionSize = new FileSize(MappedFileOutputStream.DEFAULT_REGION_SIZE);
+
+  @Override
+  public void start() {
+    if (!MappedFileUtil.isStartable(this, regionSize)) {
+      return;
+    }
+    super.start();
+  }
+
+  @Override
+  protected OutputStream openFileOutputStream(File file) throws IOException {
+    return MappedFileUtil.open(file, append, regionSize);
+  }
+
+  public FileSize getRegionSize() {
+    return regionSize;
+  }
+
+  /**
+   * The size of the regions of the file mapped in memory, 32MB by default.
+   * The file grows by this size whenever a region is full.
+   */
+  public void setRegionSize(FileSize regionSize) {
+    this.regionSize = regionSize;
+  }
+}
@@ -17,12 +17,21 @@ import static ch.qos.logback.core.CoreConstants.CODES_URL;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.ReentrantLock;
 
+import ch.qos.logback.core.boolex.EvaluationException;
+import ch.qos.logback.core.boolex.EventEvaluator;
+import ch.qos.logback.core.encoder.BatchEncoder;
+import ch.qos.logback.core.encoder.ConcurrentEncoder;
 import ch.qos.logback.core.encoder.Encoder;
 import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
 import ch.qos.logback.core.spi.DeferredProcessingAware;
 import ch.qos.logback.core.status.ErrorStatus;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
 
 /**
  * OutputStreamAppender appends events to a {@link OutputStream}. This class
@@ -33,7 +42,7 @@ import ch.qos.logback.core.status.ErrorStatus;
  * 
  * @author Ceki G&uuml;lc&uuml;
  */
-public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
+public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> implements BatchAppender<E> {
 
   
   /**
@@ -43,15 +52,72 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
   protected Encoder<E> encoder;
 
   /**
-   * All synchronization in this class is done via the lock object.
+   * All synchronization in this class is done via the lock object. The lock
+   * is fair, but in write modes other than {@link WriteMode#FAIR_LOCK},
+   * writers first attempt to barge in with {@link ReentrantLock#tryLock()}.
    */
   protected final ReentrantLock lock = new ReentrantLock(true);
 
+  private WriteMode writeMode = WriteMode.FAIR_LOCK;
+
+  /**
+   * Number of times a thread in {@link WriteMode#COMBINING} mode attempts to
+   * become the combiner, or finds its bytes written by another combiner,
+   * before blocking on the lock.
+   */
+  static final int COMBINING_SPINS = 64;
+
+  /**
+   * Number of writes after which a combiner, its own bytes being written,
+   * leaves the remaining ones to the next combiner.
+   */
+  static final int MAX_COMBINED_WRITES = 1024;
+
+  /**
+   * Maximum number of published bytes a combiner writes at once, e.g. with
+   * a single gathering write.
+   */
+  static final int GATHERED_WRITES = 64;
+
+  private final ConcurrentLinkedQueue<PendingWrite<E>> pendingWrites = new ConcurrentLinkedQueue<PendingWrite<E>>();
+  // used by the combiner, under the lock
+  @SuppressWarnings("unchecked")
+  private final PendingWrite<E>[] gatheredWrites = new PendingWrite[GATHERED_WRITES];
+  private final ByteBuffer[] gatheredBytes = new ByteBuffer[GATHERED_WRITES];
+  private final ThreadLocal<PendingWrite<E>> threadPendingWrite = new ThreadLocal<PendingWrite<E>>() {
+    @Override
+    protected PendingWrite<E> initialValue() {
+      return new PendingWrite<E>();
+    }
+  };
+
   /**
    * This is the {@link OutputStream outputStream} where output will be written.
    */
   private OutputStream outputStream;
 
+  /**
+   * Group commit settings, see {@link #setFlushDelay(Duration)}.
+   */
+  /**
+   * The flush delay in group commit mode, if only flushSize or flushEvaluator
+   * is set.
+   *
+   * @since 1.1.4
+   */
+  public static final long DEFAULT_FLUSH_DELAY_MILLIS = 1000;
+
+  private Duration flushDelay;
+  private FileSize flushSize;
+  private EventEvaluator<E> flushEvaluator;
+  private int flushEvaluatorErrorCount = 0;
+
+  /**
+   * Non-null while group commit is enabled and an output stream is set.
+   */
+  private GroupCommitOutputStream groupCommitStream;
+  private Flusher flusher;
+
   /**
    * The underlying output stream used by this appender.
    * 
@@ -78,9 +144,29 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
           "No output stream set for the appender named \"" + name + "\".", this));
       errors++;
     }
+
+    if (isConcurrentEncoding() && !isConcurrentEncoder(encoder)) {
+      addWarn("The " + writeMode + " write mode requires an encoder implementing "
+          + ConcurrentEncoder.class.getName() + " and able to encode concurrently, falling back to "
+          + WriteMode.LOCK);
+      writeMode = WriteMode.LOCK;
+    }
+
+    if (isGroupCommit() && flushDelay == null) {
+      flushDelay = Duration.buildByMilliseconds(DEFAULT_FLUSH_DELAY_MILLIS);
+      addInfo("Setting flushDelay to " + flushDelay + " for the appender named \"" + name + "\".");
+    }
+    if (flushDelay != null && flushDelay.getMilliseconds() <= 0) {
+      addError("Invalid flushDelay [" + flushDelay + "] for the appender named \""
+          + name + "\".");
+      errors++;
+    }
     // only error free appenders should be activated
     if (errors == 0) {
       super.start();
+      if (flushDelay != null) {
+        startFlusher();
+      }
     }
   }
 
@@ -103,6 +189,15 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
     subAppend(eventObject);
   }
 
+  @Override
+  protected void appendBatch(List<E> events) {
+    if (!isStarted()) {
+      return;
+    }
+
+    subAppendBatch(events);
+  }
+
   /**
    * Stop this appender instance. The underlying stream or writer is also
    * closed.
@@ -111,6 +206,8 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
    * Stopped appenders cannot be reused.
    */
   public void stop() {
+    // the flusher acquires the lock, stop it first
+    stopFlusher();
     lock.lock();
     try {
       closeOutputStream();
@@ -128,6 +225,10 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
       try {
         // before closing we have to output out layout's footer
         encoderClose();
+        if (groupCommitStream != null) {
+          groupCommitStream.flushPending();
+          groupCommitStream = null;
+        }
         this.outputStream.close();
         this.outputStream = null;
       } catch (IOException e) {
@@ -140,7 +241,7 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
   void encoderInit() {
     if (encoder != null && this.outputStream != null) {
       try {
-        encoder.init(outputStream);
+        encoder.init(newEncoderStream(outputStream));
       } catch (IOException ioe) {
         this.started = false;
         addStatus(new ErrorStatus(
@@ -150,6 +251,18 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
     }
   }
 
+  /**
+   * Returns the stream the encoder writes to, which is the output stream
+   * itself unless group commit is enabled.
+   */
+  OutputStream newEncoderStream(OutputStream outputStream) {
+    if (isGroupCommit()) {
+      groupCommitStream = new GroupCommitOutputStream(outputStream);
+      return groupCommitStream;
+    }
+    return outputStream;
+  }
+
   void encoderClose() {
     if (encoder != null && this.outputStream != null) {
       try {
@@ -211,12 +324,18 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
       if (event instanceof DeferredProcessingAware) {
         ((DeferredProcessingAware) event).prepareForDeferredProcessing();
       }
+      if (isConcurrentEncoding()) {
+        writeConcurrently(event);
+        return;
+      }
       // the synchronization prevents the OutputStream from being closed while we
       // are writing. It also prevents multiple threads from entering the same
-      // converter. Converters assume that they are in a synchronized block.
-      lock.lock();
+      // converter. Converters other than the built-in ones of a pattern layout
+      // may assume that they are in a synchronized block.
+      lockForWrite();
       try {
         writeOut(event);
+        flushIfRequired(event);
       } finally {
         lock.unlock();
       }
@@ -228,6 +347,449 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
     }
   }
 
+  /**
+   * Write a batch of events. Encoders implementing {@link BatchEncoder} are
+   * given the whole batch, other encoders are invoked once per event.
+   *
+   * @since 1.1.4
+   */
+  protected void writeOutBatch(List<E> events) throws IOException {
+    if (this.encoder instanceof BatchEncoder) {
+      ((BatchEncoder<E>) this.encoder).doEncodeBatch(events);
+    } else {
+      for (E event : events) {
+        writeOut(event);
+      }
+    }
+  }
+
+  /**
+   * Hand the events to the encoder directly, without going through
+   * {@link #writeOut(Object)}.
+   */
+  void encodeBatch(List<E> events) throws IOException {
+    if (this.encoder instanceof BatchEncoder) {
+      ((BatchEncoder<E>) this.encoder).doEncodeBatch(events);
+    } else {
+      for (E event : events) {
+        this.encoder.doEncode(event);
+      }
+    }
+  }
+
+  /**
+   * Write a batch of events under a single acquisition of the lock.
+   * <p>
+   * Subclasses overriding {@link #subAppend(Object)} will typically need to
+   * override this method as well.
+   *
+   * @since 1.1.4
+   */
+  protected void subAppendBatch(List<E> events) {
+    if (!isStarted()) {
+      return;
+    }
+    try {
+      for (E event : events) {
+        if (event instanceof DeferredProcessingAware) {
+          ((DeferredProcessingAware) event).prepareForDeferredProcessing();
+        }
+      }
+      lockForWrite();
+      try {
+        writeOutBatch(events);
+        if (groupCommitStream != null && isFlushRequired(events)) {
+          groupCommitStream.flushPending();
+        }
+      } finally {
+        lock.unlock();
+      }
+    } catch (IOException ioe) {
+      this.started = false;
+      addStatus(new ErrorStatus("IO failure in appender", this, ioe));
+    }
+  }
+
+  /**
+   * Write a batch of events one by one under a single acquisition of the
+   * lock, calling {@link #beforeWriteOf(Object)} before writing each of them.
+   * Encoders implementing {@link ConcurrentEncoder} flush the underlying
+   * stream at most once, after the last event. This suits subclasses whose
+   * decisions depend on the bytes written so far, e.g. size-based rollover.
+   *
+   * @since 1.1.4
+   */
+  protected void subAppendOneByOne(List<E> events) {
+    if (!isStarted()) {
+      return;
+    }
+    try {
+      for (E event : events) {
+        if (event instanceof DeferredProcessingAware) {
+          ((DeferredProcessingAware) event).prepareForDeferredProcessing();
+        }
+      }
+      lockForWrite();
+      try {
+        int last = events.size() - 1;
+        for (int i = 0; i <= last; i++) {
+          E event = events.get(i);
+          beforeWriteOf(event);
+          if (!isStarted()) {
+            return;
+          }
+          writeOutOneOf(event, i == last);
+          flushIfRequired(event);
+        }
+      } finally {
+        lock.unlock();
+      }
+    } catch (IOException ioe) {
+      this.started = false;
+      addStatus(new ErrorStatus("IO failure in appender", this, ioe));
+    }
+  }
+
+  /**
+   * Invoked by {@link #subAppendOneByOne(List)} before writing each event,
+   * while holding the lock. Does nothing by default.
+   *
+   * @since 1.1.4
+   */
+  protected void beforeWriteOf(E event) {
+  }
+
+  /**
+   * Write one of the events of {@link #subAppendOneByOne(List)}.
+   *
+   * @param last true for the last event of the batch
+   * @since 1.1.4
+   */
+  protected void writeOutOneOf(E event, boolean last) throws IOException {
+    if (this.encoder instanceof ConcurrentEncoder) {
+      ConcurrentEncoder<E> concurrentEncoder = (ConcurrentEncoder<E>) this.encoder;
+      concurrentEncoder.writeEncoded(concurrentEncoder.encodeToBuffer(event), last);
+    } else {
+      writeOut(event);
+    }
+  }
+
+  private boolean isConcurrentEncoder(Encoder<E> encoder) {
+    return encoder instanceof ConcurrentEncoder && ((ConcurrentEncoder<E>) encoder).isConcurrentEncodingSupported();
+  }
+
+  /**
+   * Acquire the lock in order to write events. Unless the write mode is
+   * {@link WriteMode#FAIR_LOCK}, the lock is taken at once if it is free,
+   * ahead of waiting threads, as a non-fair lock would.
+   */
+  private void lockForWrite() {
+    if (writeMode == WriteMode.FAIR_LOCK || !lock.tryLock()) {
+      lock.lock();
+    }
+  }
+
+  private boolean isConcurrentEncoding() {
+    return writeMode == WriteMode.CONCURRENT_ENCODING || writeMode == WriteMode.COMBINING;
+  }
+
+  /**
+   * Encode the event without holding the lock, then write the resulting bytes
+   * under the lock, either directly or by way of a combiner.
+   */
+  private void writeConcurrently(E event) throws IOException {
+    ConcurrentEncoder<E> concurrentEncoder = (ConcurrentEncoder<E>) encoder;
+    ByteBuffer bytes = concurrentEncoder.encodeToBuffer(event);
+    if (writeMode == WriteMode.COMBINING) {
+      writeCombined(event, bytes);
+      return;
+    }
+    lockForWrite();
+    try {
+      concurrentEncoder.writeEncoded(bytes, true);
+      flushIfRequired(event);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Publish the bytes of the current thread, then either become the combiner
+   * writing all published bytes, or wait until another combiner has written
+   * them.
+   */
+  private void writeCombined(E event, ByteBuffer bytes) throws IOException {
+    PendingWrite<E> pendingWrite = threadPendingWrite.get();
+    pendingWrite.event = event;
+    pendingWrite.bytes = bytes;
+    pendingWrite.failure = null;
+    pendingWrite.done = false;
+    pendingWrites.offer(pendingWrite);
+
+    try {
+      for (int i = 0; i < COMBINING_SPINS; i++) {
+        if (pendingWrite.done) {
+          return;
+        }
+        if (lock.tryLock()) {
+          try {
+            combine(pendingWrite);
+          } finally {
+            lock.unlock();
+          }
+          return;
+        }
+        Thread.yield();
+      }
+      lockForWrite();
+      try {
+        if (!pendingWrite.done) {
+          combine(pendingWrite);
+        }
+      } finally {
+        lock.unlock();
+      }
+    } finally {
+      // whoever wrote the bytes of this thread, a failure is reported by this thread
+      IOException failure = pendingWrite.failure;
+      pendingWrite.failure = null;
+      if (failure != null) {
+        throw failure;
+      }
+    }
+  }
+
+  /**
+   * Write published bytes in publication order, at least up to and including
+   * those of <code>own</code>. Must be called while holding the lock. A
+   * failure is recorded on each of the writes it affects, to be reported by
+   * the threads which published them.
+   */
+  private void combine(PendingWrite<E> own) {
+    ConcurrentEncoder<E> concurrentEncoder = (ConcurrentEncoder<E>) encoder;
+    int count = 0;
+    boolean ownPolled = false;
+    while (!ownPolled || count < MAX_COMBINED_WRITES) {
+      // up to GATHERED_WRITES bytes are handed to the encoder at once
+      int n = 0;
+      PendingWrite<E> pendingWrite;
+      while (n < GATHERED_WRITES && (pendingWrite = pendingWrites.poll()) != null) {
+        gatheredWrites[n] = pendingWrite;
+        gatheredBytes[n] = pendingWrite.bytes;
+        ownPolled |= pendingWrite == own;
+        n++;
+      }
+      if (n == 0) {
+        break;
+      }
+      IOException failure = null;
+      try {
+        concurrentEncoder.writeEncoded(gatheredBytes, 0, n, pendingWrites.isEmpty());
+        for (int i = 0; i < n; i++) {
+          flushIfRequired(gatheredWrites[i].event);
+        }
+      } catch (IOException e) {
+        failure = e;
+      }
+      for (int i = 0; i < n; i++) {
+        pendingWrite = gatheredWrites[i];
+        pendingWrite.event = null;
+        pendingWrite.bytes = null;
+        pendingWrite.failure = failure;
+        pendingWrite.done = true;
+        gatheredWrites[i] = null;
+        gatheredBytes[i] = null;
+      }
+      count += n;
+    }
+  }
+
+  private void flushIfRequired(E event) throws IOException {
+    if (groupCommitStream != null && isFlushRequired(event)) {
+      groupCommitStream.flushPending();
+    }
+  }
+
+  private boolean isFlushRequired(E event) {
+    if (flushSize != null && groupCommitStream.getPendingBytes() >= flushSize.getSize()) {
+      return true;
+    }
+    return isFlushTrigger(event);
+  }
+
+  private boolean isFlushRequired(List<E> events) {
+    if (flushSize != null && groupCommitStream.getPendingBytes() >= flushSize.getSize()) {
+      return true;
+    }
+    if (flushEvaluator == null) {
+      return false;
+    }
+    for (E event : events) {
+      if (isFlushTrigger(event)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isFlushTrigger(E event) {
+    if (flushEvaluator == null) {
+      return false;
+    }
+    try {
+      return flushEvaluator.evaluate(event);
+    } catch (EvaluationException ex) {
+      flushEvaluatorErrorCount++;
+      if (flushEvaluatorErrorCount < CoreConstants.MAX_ERROR_COUNT) {
+        addError("Flush evaluator threw an exception", ex);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Flush pending bytes if the oldest of them is older than the flush delay.
+   *
+   * @return the number of milliseconds to wait before checking again
+   */
+  long flushIfOlderThan(long delay) {
+    lock.lock();
+    try {
+      if (groupCommitStream == null || !groupCommitStream.hasPending()) {
+        return delay;
+      }
+      long age = groupCommitStream.getPendingAgeMillis();
+      if (age < delay) {
+        return delay - age;
+      }
+      groupCommitStream.flushPending();
+      return delay;
+    } catch (IOException ioe) {
+      this.started = false;
+      addStatus(new ErrorStatus("IO failure while flushing in appender", this, ioe));
+      return delay;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void startFlusher() {
+    flusher = new Flusher(flushDelay.getMilliseconds());
+    flusher.setDaemon(true);
+    flusher.setName("OutputStreamAppender-Flusher-" + getName());
+    flusher.start();
+  }
+
+  private void stopFlusher() {
+    Flusher t = flusher;
+    if (t == null) {
+      return;
+    }
+    flusher = null;
+    t.interrupt();
+    try {
+      t.join(t.delay + 1000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return true if at least one of the group commit properties is set
+   * @since 1.1.4
+   */
+  public boolean isGroupCommit() {
+    return flushDelay != null || flushSize != null || flushEvaluator != null;
+  }
+
+  public Duration getFlushDelay() {
+    return flushDelay;
+  }
+
+  /**
+   * Enable group commit, bounding the time bytes written to the output
+   * stream may remain unflushed.
+   * <p/>
+   * In group commit mode, flushes requested by the encoder, e.g. because of
+   * its <b>immediateFlush</b> property, are ignored. Instead, pending bytes
+   * are flushed by a background thread once the oldest of them is older than
+   * the flush delay, when more than <b>flushSize</b> bytes are pending or when
+   * <b>flushEvaluator</b> evaluates an event to true.
+   *
+   * @param flushDelay
+   * @since 1.1.4
+   */
+  public void setFlushDelay(Duration flushDelay) {
+    this.flushDelay = flushDelay;
+  }
+
+  public FileSize getFlushSize() {
+    return flushSize;
+  }
+
+  /**
+   * Enable group commit, flushing as soon as the given number of bytes are
+   * pending. Unless set, the flush delay defaults to
+   * {@link #DEFAULT_FLUSH_DELAY_MILLIS}. See {@link #setFlushDelay(Duration)}.
+   *
+   * @param flushSize
+   * @since 1.1.4
+   */
+  public void setFlushSize(FileSize flushSize) {
+    this.flushSize = flushSize;
+  }
+
+  public EventEvaluator<E> getFlushEvaluator() {
+    return flushEvaluator;
+  }
+
+  /**
+   * Enable group commit, flushing right after writing an event for which the
+   * given evaluator returns true. Unless set, the flush delay defaults to
+   * {@link #DEFAULT_FLUSH_DELAY_MILLIS}. See {@link #setFlushDelay(Duration)}.
+   *
+   * @param flushEvaluator
+   * @since 1.1.4
+   */
+  public void setFlushEvaluator(EventEvaluator<E> flushEvaluator) {
+    this.flushEvaluator = flushEvaluator;
+  }
+
+  /**
+   * Disable group commit.
+   *
+   * @since 1.1.4
+   */
+  protected void disableGroupCommit() {
+    this.flushDelay = null;
+    this.flushSize = null;
+    this.flushEvaluator = null;
+  }
+
+  public WriteMode getWriteMode() {
+    return writeMode;
+  }
+
+  /**
+   * Set the way threads writing to the output stream are serialized. The
+   * default is {@link WriteMode#FAIR_LOCK}. Cannot be changed once the appender
+   * is started.
+   * <p/>
+   * In the {@link WriteMode#CONCURRENT_ENCODING} and
+   * {@link WriteMode#COMBINING} modes, {@link #writeOut(Object)} is bypassed
+   * for single events.
+   *
+   * @param writeMode
+   * @since 1.1.4
+   */
+  public void setWriteMode(WriteMode writeMode) {
+    if (isStarted()) {
+      addWarn("Cannot change the write mode of started appender [" + name + "].");
+      return;
+    }
+    this.writeMode = writeMode;
+  }
+
   public Encoder<E> getEncoder() {
     return encoder;
   }
@@ -235,5 +797,38 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
   public void setEncoder(Encoder<E> encoder) {
     this.encoder = encoder;
   }
-  
+
+  /**
+   * Flushes the output stream of the enclosing appender in group commit mode.
+   */
+  class Flusher extends Thread {
+
+    final long delay;
+
+    Flusher(long delay) {
+      this.delay = delay;
+    }
+
+    public void run() {
+      try {
+        while (!isInterrupted()) {
+          Thread.sleep(Math.max(1, flushIfOlderThan(delay)));
+        }
+      } catch (InterruptedException e) {
+        // the appender is being stopped
+      }
+    }
+  }
+
+  /**
+   * Bytes published by a thread in {@link WriteMode#COMBINING} mode. Each
+   * thread reuses a single instance.
+   */
+  static class PendingWrite<E> {
+    E event;
+    ByteBuffer bytes;
+    // set before done, read by the publishing thread once done
+    IOException failure;
+    volatile boolean done;
+  }
 }
@@ -0,0 +1,159 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+
+/**
+ * Wraps the output stream of a {@link FileAppender} in prudent mode. Bytes
+ * written by the encoder are collected in memory, and appended to the file
+ * as a single record on {@link #commit()}.
+ * <p/>
+ * The file is opened in append mode, so that each write to it lands at the
+ * end of the file, whichever process writes it. A record no longer than the
+ * atomic append limit is written with a single system call and no file lock.
+ * Longer records are written while holding an exclusive lock on the file.
+ * <p/>
+ * Instances are not thread-safe, they are always accessed under the lock of
+ * the owning appender.
+ *
+ * @since 1.1.4
+ */
+class PrudentOutputStream extends OutputStream {
+
+  static final int INITIAL_CAPACITY = 1024;
+  static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+  private final ResilientFileOutputStream out;
+  private final int atomicAppendLimit;
+
+  private byte[] record = new byte[INITIAL_CAPACITY];
+  private int count;
+
+  private long atomicAppendCount;
+  private long lockedAppendCount;
+
+  PrudentOutputStream(ResilientFileOutputStream out, int atomicAppendLimit) {
+    this.out = out;
+    this.atomicAppendLimit = atomicAppendLimit;
+  }
+
+  @Override
+  public void write(int b) {
+    ensureCapacity(count + 1);
+    record[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    ensureCapacity(count + len);
+    System.arraycopy(b, off, record, count, len);
+    count += len;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > record.length) {
+      byte[] grown = new byte[Math.max(capacity, record.length * 2)];
+      System.arraycopy(record, 0, grown, 0, count);
+      record = grown;
+    }
+  }
+
+  /**
+   * Flushing commits the bytes written so far, so that headers and footers
+   * written by encoders reach the file.
+   */
+  @Override
+  public void flush() {
+    commit();
+  }
+
+  /**
+   * Append the bytes written since the last commit to the file, as one
+   * record.
+   */
+  void commit() {
+    if (count == 0) {
+      return;
+    }
+    try {
+      if (count <= atomicAppendLimit) {
+        // the buffer of the underlying stream is empty, this is a single write
+        out.write(record, 0, count);
+        out.flush();
+        atomicAppendCount++;
+      } else {
+        lockedAppend();
+      }
+    } finally {
+      count = 0;
+      if (record.length > MAX_RETAINED_CAPACITY) {
+        record = new byte[INITIAL_CAPACITY];
+      }
+    }
+  }
+
+  private void lockedAppend() {
+    FileChannel fileChannel = out.getChannel();
+    if (fileChannel == null) {
+      return;
+    }
+
+    // Clear any current interrupt (see LOGBACK-875)
+    boolean interrupted = Thread.interrupted();
+
+    FileLock fileLock = null;
+    try {
+      fileLock = fileChannel.lock();
+      out.write(record, 0, count);
+      out.flush();
+      lockedAppendCount++;
+    } catch (IOException e) {
+      // Mainly to catch FileLockInterruptionExceptions (see LOGBACK-875)
+      out.postIOFailure(e);
+    } finally {
+      if (fileLock != null && fileLock.isValid()) {
+        try {
+          fileLock.release();
+        } catch (IOException e) {
+          out.postIOFailure(e);
+        }
+      }
+
+      // Re-interrupt if we started in an interrupted state (see LOGBACK-875)
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  long getAtomicAppendCount() {
+    return atomicAppendCount;
+  }
+
+  long getLockedAppendCount() {
+    return lockedAppendCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    commit();
+    out.close();
+  }
+}
@@ -0,0 +1,35 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+/**
+ * A layout whose <code>doLayout</code> methods may be invoked by several
+ * threads at the same time, e.g. because it keeps no per-call state in its
+ * fields. Only such layouts are laid out concurrently by the
+ * {@link WriteMode#CONCURRENT_ENCODING} and {@link WriteMode#COMBINING} write
+ * modes, and only as long as {@link #isThreadSafe()} returns true.
+ *
+ * @param <E>
+ *          event type
+ * @since 1.1.4
+ */
+public interface ThreadSafeLayout<E> extends Layout<E> {
+
+  /**
+   * Returns true if this layout, as currently configured, may be invoked
+   * by several threads at the same time. Checked once the layout is
+   * started.
+   */
+  boolean isThreadSafe();
+}
@@ -13,6 +13,7 @@
  */
 package ch.qos.logback.core;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import ch.qos.logback.core.filter.Filter;
@@ -98,6 +99,83 @@ abstract public class UnsynchronizedAppenderBase<E> extends ContextAwareBase imp
 
   abstract protected void append(E eventObject);
 
+  /**
+   * Append a batch of events. This method applies the same checks as
+   * {@link #doAppend(Object)} and then invokes {@link #appendBatch(List)} with
+   * the events accepted by the filter chain.
+   * <p>
+   * Derived classes implementing {@link BatchAppender} inherit this method
+   * as their implementation of {@link BatchAppender#doBatchAppend(List)}.
+   *
+   * @param events
+   * @since 1.1.4
+   */
+  public void doBatchAppend(List<E> events) {
+    // prevent re-entry.
+    if (Boolean.TRUE.equals(guard.get())) {
+      return;
+    }
+
+    try {
+      guard.set(Boolean.TRUE);
+
+      if (!this.started) {
+        if (statusRepeatCount++ < ALLOWED_REPEATS) {
+          addStatus(new WarnStatus(
+              "Attempted to append to non started appender [" + name + "].",
+              this));
+        }
+        return;
+      }
+
+      List<E> accepted = filterBatch(events);
+      if (!accepted.isEmpty()) {
+        this.appendBatch(accepted);
+      }
+
+    } catch (Exception e) {
+      if (exceptionCount++ < ALLOWED_REPEATS) {
+        addError("Appender [" + name + "] failed to append.", e);
+      }
+    } finally {
+      guard.set(Boolean.FALSE);
+    }
+  }
+
+  /**
+   * Returns the events of the list accepted by the filter chain. The list
+   * passed as parameter is returned as is if no event is denied.
+   */
+  private List<E> filterBatch(List<E> events) {
+    List<E> accepted = events;
+    for (int i = 0; i < events.size(); i++) {
+      E e = events.get(i);
+      if (getFilterChainDecision(e) == FilterReply.DENY) {
+        if (accepted == events) {
+          accepted = new ArrayList<E>(events.subList(0, i));
+        }
+      } else if (accepted != events) {
+        accepted.add(e);
+      }
+    }
+    return accepted;
+  }
+
+  /**
+   * Append a batch of events which already passed the filter chain. The
+   * default implementation invokes {@link #append(Object)} for each event.
+   * Derived classes may override this method to process the whole batch
+   * at once.
+   *
+   * @param events
+   * @since 1.1.4
+   */
+  protected void appendBatch(List<E> events) {
+    for (E e : events) {
+      this.append(e);
+    }
+  }
+
   /**
    * Set the name of this appender.
    */
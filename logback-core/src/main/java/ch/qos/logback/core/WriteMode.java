@@ -0,0 +1,55 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+/**
+ * How an {@link OutputStreamAppender} serializes the threads writing to its
+ * output stream.
+ *
+ * @since 1.1.4
+ */
+public enum WriteMode {
+
+  /**
+   * Events are laid out, encoded and written while holding a lock, which
+   * writers may take ahead of waiting threads, as with a non-fair lock. This
+   * saves a thread handoff on every release of a contended lock, at the
+   * cost of arrival order.
+   */
+  LOCK,
+
+  /**
+   * Same as {@link #LOCK} but the lock is granted to waiting threads in
+   * arrival order. This is the default.
+   */
+  FAIR_LOCK,
+
+  /**
+   * Events are laid out and encoded concurrently, in buffers owned by the
+   * logging threads. The lock is only held while copying the encoded bytes to
+   * the output stream. Requires a
+   * {@link ch.qos.logback.core.encoder.ConcurrentEncoder} supporting
+   * concurrent encoding. A pattern layout qualifies only if its pattern
+   * refers to built-in converters alone, as custom converters are not
+   * assumed to be thread-safe.
+   */
+  CONCURRENT_ENCODING,
+
+  /**
+   * Events are encoded as in {@link #CONCURRENT_ENCODING}. Writers then
+   * publish their encoded bytes to a queue, and whichever thread holds the
+   * lock writes the bytes queued by all threads, flushing once for the lot.
+   */
+  COMBINING;
+}
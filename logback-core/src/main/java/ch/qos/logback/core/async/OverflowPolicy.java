@@ -0,0 +1,53 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+/**
+ * What an {@link ch.qos.logback.core.AsyncAppenderBase} does with an event
+ * when its queue is full.
+ *
+ * @since 1.1.4
+ */
+public enum OverflowPolicy {
+
+  /**
+   * Block the logging thread until room becomes available. This is the
+   * default.
+   */
+  BLOCK,
+
+  /**
+   * Block the logging thread for at most the overflow timeout, then drop
+   * the event.
+   */
+  BLOCK_WITH_TIMEOUT,
+
+  /**
+   * Drop the incoming event without blocking.
+   */
+  DROP_NEWEST,
+
+  /**
+   * Make room by removing the oldest queued event deemed discardable. If
+   * there is no such event, a discardable incoming event is dropped while
+   * other events block the logging thread.
+   */
+  DROP_OLDEST_DISCARDABLE,
+
+  /**
+   * Write the event to a local spill file. Spilled events are replayed, in
+   * order, once the queue has drained.
+   */
+  SPILL_TO_DISK;
+}
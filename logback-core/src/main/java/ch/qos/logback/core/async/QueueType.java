@@ -0,0 +1,35 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+/**
+ * The kind of queue an {@link ch.qos.logback.core.AsyncAppenderBase} buffers
+ * its events in.
+ *
+ * @since 1.1.4
+ */
+public enum QueueType {
+
+  /**
+   * A {@link java.util.concurrent.ArrayBlockingQueue}, guarded by a single lock.
+   * This is the default.
+   */
+  ARRAY_BLOCKING_QUEUE,
+
+  /**
+   * A lock-free {@link RingBufferBlockingQueue}, better suited for many
+   * concurrent producers.
+   */
+  RING_BUFFER;
+}
@@ -0,0 +1,348 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, pre-allocated, lock-free {@link BlockingQueue} backed by a ring
+ * buffer.
+ * <p/>
+ * Each slot of the ring carries a sequence number which tells producers and
+ * consumers whether the slot is free or holds a published element. Producers
+ * claim slots with a single compare-and-set on the tail counter and never
+ * contend on a lock. The queue is designed for many producers and a single
+ * consumer, e.g. the worker thread of an {@link ch.qos.logback.core.AsyncAppenderBase},
+ * although concurrent consumers are handled correctly as well.
+ * <p/>
+ * A producer facing a full queue backs off by yielding and then parking
+ * for short periods. A consumer facing an empty queue parks until a producer
+ * wakes it up.
+ * <p/>
+ * The iterator returned by {@link #iterator()} is a weakly consistent
+ * snapshot which does not support removal.
+ *
+ * @param <E> the type of elements held in this queue
+ * @since 1.1.4
+ */
+public class RingBufferBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+  /**
+   * Slot sequence numbers cannot tell a free slot from a published one in a
+   * ring of a single slot.
+   */
+  public static final int MIN_CAPACITY = 2;
+
+  /**
+   * Number of times a producer yields on a full queue before parking.
+   */
+  static final int MAX_YIELDS = 64;
+
+  /**
+   * Park duration of a producer waiting for room in a full queue.
+   */
+  static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /**
+   * Upper bound on the park duration of a waiting consumer. Wake ups are
+   * signaled by producers, this bound is only a safety net.
+   */
+  static final long CONSUMER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  final int capacity;
+  final int mask;
+
+  final AtomicReferenceArray<E> buffer;
+  final AtomicLongArray sequences;
+
+  final AtomicLong tail = new PaddedAtomicLong();
+  final AtomicLong head = new PaddedAtomicLong();
+
+  final AtomicReference<Thread> waitingConsumer = new AtomicReference<Thread>();
+
+  public RingBufferBlockingQueue(int capacity) {
+    if (capacity < MIN_CAPACITY) {
+      throw new IllegalArgumentException("Capacity must be at least " + MIN_CAPACITY + ", was " + capacity);
+    }
+    this.capacity = capacity;
+    this.mask = Integer.bitCount(capacity) == 1 ? capacity - 1 : -1;
+    this.buffer = new AtomicReferenceArray<E>(capacity);
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  private int index(long sequence) {
+    if (mask != -1) {
+      return (int) (sequence & mask);
+    }
+    return (int) (sequence % capacity);
+  }
+
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    long pos;
+    int index;
+    for (; ; ) {
+      pos = tail.get();
+      index = index(pos);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+      } else if (diff < 0) {
+        // the slot still holds an element from the previous lap
+        return false;
+      }
+      // else another producer claimed this slot, retry
+    }
+    buffer.lazySet(index, e);
+    sequences.set(index, pos + 1);
+    signalConsumer();
+    return true;
+  }
+
+  public E poll() {
+    long pos;
+    int index;
+    for (; ; ) {
+      pos = head.get();
+      index = index(pos);
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+      } else if (diff < 0) {
+        // nothing published at this position yet
+        return null;
+      }
+    }
+    E e = buffer.get(index);
+    buffer.lazySet(index, null);
+    sequences.set(index, pos + capacity);
+    return e;
+  }
+
+  /**
+   * Remove the element at the head of the queue, but only if it is the given
+   * instance. Elements cannot be removed from the middle of the ring, this
+   * method is the lock-free substitute for {@link #remove(Object)}.
+   *
+   * @return true if the head was the given instance and was removed
+   */
+  public boolean pollIfHeadIs(E expected) {
+    long pos = head.get();
+    int index = index(pos);
+    if (sequences.get(index) != pos + 1 || buffer.get(index) != expected) {
+      return false;
+    }
+    // the slot cannot be reused before its sequence is advanced by whoever wins the head
+    if (!head.compareAndSet(pos, pos + 1)) {
+      return false;
+    }
+    buffer.lazySet(index, null);
+    sequences.set(index, pos + capacity);
+    return true;
+  }
+
+  public E peek() {
+    long pos = head.get();
+    int index = index(pos);
+    if (sequences.get(index) == pos + 1) {
+      return buffer.get(index);
+    }
+    return null;
+  }
+
+  public void put(E e) throws InterruptedException {
+    int attempts = 0;
+    while (!offer(e)) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      attempts = backOff(attempts, PRODUCER_PARK_NANOS);
+    }
+  }
+
+  public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int attempts = 0;
+    while (!offer(e)) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      attempts = backOff(attempts, Math.min(remaining, PRODUCER_PARK_NANOS));
+    }
+    return true;
+  }
+
+  private int backOff(int attempts, long parkNanos) {
+    if (attempts < MAX_YIELDS) {
+      Thread.yield();
+      return attempts + 1;
+    }
+    LockSupport.parkNanos(this, parkNanos);
+    return attempts;
+  }
+
+  public E take() throws InterruptedException {
+    E e = poll();
+    while (e == null) {
+      awaitElement(CONSUMER_PARK_NANOS);
+      e = poll();
+    }
+    return e;
+  }
+
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    E e = poll();
+    while (e == null) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      awaitElement(Math.min(remaining, CONSUMER_PARK_NANOS));
+      e = poll();
+    }
+    return e;
+  }
+
+  /**
+   * Park the current thread until a producer publishes an element, the given
+   * time elapses or the thread is interrupted.
+   */
+  private void awaitElement(long parkNanos) throws InterruptedException {
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    Thread current = Thread.currentThread();
+    waitingConsumer.set(current);
+    // re-check after registering, a producer may have published in between
+    if (isEmpty()) {
+      LockSupport.parkNanos(this, parkNanos);
+    }
+    waitingConsumer.compareAndSet(current, null);
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+  }
+
+  private void signalConsumer() {
+    Thread waiter = waitingConsumer.get();
+    if (waiter != null && waitingConsumer.compareAndSet(waiter, null)) {
+      LockSupport.unpark(waiter);
+    }
+  }
+
+  @Override
+  public boolean isEmpty() {
+    long pos = head.get();
+    return sequences.get(index(pos)) != pos + 1;
+  }
+
+  public int size() {
+    for (; ; ) {
+      long h = head.get();
+      long t = tail.get();
+      if (head.get() == h) {
+        long size = t - h;
+        if (size < 0) {
+          return 0;
+        }
+        return (int) Math.min(size, capacity);
+      }
+    }
+  }
+
+  public int remainingCapacity() {
+    return capacity - size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int drainTo(Collection<? super E> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  public int drainTo(Collection<? super E> c, int maxElements) {
+    if (c == null) {
+      throw new NullPointerException();
+    }
+    if (c == this) {
+      throw new IllegalArgumentException();
+    }
+    int n = 0;
+    E e;
+    while (n < maxElements && (e = poll()) != null) {
+      c.add(e);
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * Returns a weakly consistent snapshot of the elements currently in the
+   * queue. The returned iterator does not support removal.
+   */
+  public Iterator<E> iterator() {
+    List<E> snapshot = new ArrayList<E>();
+    long pos = head.get();
+    long end = tail.get();
+    for (; pos < end; pos++) {
+      int index = index(pos);
+      if (sequences.get(index) != pos + 1) {
+        continue;
+      }
+      E e = buffer.get(index);
+      if (e != null) {
+        snapshot.add(e);
+      }
+    }
+    return Collections.unmodifiableList(snapshot).iterator();
+  }
+
+  /**
+   * An {@link AtomicLong} padded so that the head and tail counters do not
+   * share a cache line.
+   */
+  @SuppressWarnings("unused")
+  static class PaddedAtomicLong extends AtomicLong {
+    private static final long serialVersionUID = 1L;
+    long p1, p2, p3, p4, p5, p6, p7;
+  }
+}
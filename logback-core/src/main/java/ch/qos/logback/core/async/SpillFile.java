@@ -0,0 +1,172 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A local file holding events which did not fit in the queue of an
+ * {@link ch.qos.logback.core.AsyncAppenderBase}.
+ * <p/>
+ * Events are written as length-prefixed serialized records and read back in
+ * the order they were written. Once all records have been read, the file is
+ * truncated so that its size remains bounded by the number of pending
+ * records. All methods are thread safe.
+ *
+ * @since 1.1.4
+ */
+public class SpillFile {
+
+  final File file;
+  final long maxSize;
+
+  private RandomAccessFile raf;
+  private long readPosition = 0;
+  private long writePosition = 0;
+  private int pendingCount = 0;
+
+  /**
+   * @param file    the file to spill into, truncated when opened
+   * @param maxSize the maximum size of the file in bytes
+   */
+  public SpillFile(File file, long maxSize) {
+    this.file = file;
+    this.maxSize = maxSize;
+  }
+
+  public synchronized void open() throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.exists()) {
+      parent.mkdirs();
+    }
+    raf = new RandomAccessFile(file, "rw");
+    raf.setLength(0);
+    readPosition = writePosition = 0;
+    pendingCount = 0;
+  }
+
+  /**
+   * Serialize an object into a record suitable for {@link #append(byte[], boolean)}.
+   * This method does not touch the file and may be called without holding any lock.
+   */
+  public static byte[] toRecord(Serializable o) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(512);
+    ObjectOutputStream oos = new ObjectOutputStream(baos);
+    oos.writeObject(o);
+    oos.close();
+    return baos.toByteArray();
+  }
+
+  /**
+   * Append a record to the file.
+   *
+   * @param record           the serialized object
+   * @param onlyIfPending    if true, the record is appended only if the file
+   *                         already holds pending records
+   * @return true if the record was appended, false if it was not because
+   *         the file is closed, the size limit would be exceeded or
+   *         onlyIfPending is set and there are no pending records
+   */
+  public synchronized boolean append(byte[] record, boolean onlyIfPending) throws IOException {
+    if (raf == null || (onlyIfPending && pendingCount == 0)) {
+      return false;
+    }
+    if (writePosition + 4 + record.length > maxSize) {
+      return false;
+    }
+    raf.seek(writePosition);
+    raf.writeInt(record.length);
+    raf.write(record);
+    writePosition += 4 + record.length;
+    pendingCount++;
+    return true;
+  }
+
+  /**
+   * Read up to maxCount pending objects, oldest first. Records which cannot
+   * be deserialized are skipped.
+   */
+  public synchronized List<Object> read(int maxCount) throws IOException {
+    List<Object> result = new ArrayList<Object>();
+    if (raf == null) {
+      return result;
+    }
+    while (pendingCount > 0 && result.size() < maxCount) {
+      raf.seek(readPosition);
+      int length = raf.readInt();
+      byte[] record = new byte[length];
+      raf.readFully(record);
+      readPosition += 4 + length;
+      pendingCount--;
+      Object o = fromRecord(record);
+      if (o != null) {
+        result.add(o);
+      }
+    }
+    if (pendingCount == 0) {
+      raf.setLength(0);
+      readPosition = writePosition = 0;
+    }
+    return result;
+  }
+
+  private static Object fromRecord(byte[] record) throws IOException {
+    ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(record));
+    try {
+      return ois.readObject();
+    } catch (ClassNotFoundException e) {
+      return null;
+    } finally {
+      ois.close();
+    }
+  }
+
+  public synchronized boolean hasPending() {
+    return pendingCount > 0;
+  }
+
+  public synchronized int getPendingCount() {
+    return pendingCount;
+  }
+
+  /**
+   * Close and delete the file. Pending records are lost.
+   */
+  public synchronized void close() {
+    if (raf == null) {
+      return;
+    }
+    try {
+      raf.close();
+    } catch (IOException e) {
+      assert true; // avoid an empty catch
+    }
+    raf = null;
+    pendingCount = 0;
+    file.delete();
+  }
+
+  public File getFile() {
+    return file;
+  }
+}
@@ -0,0 +1,38 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.encoder;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * An encoder which can encode several events in one go, flushing the
+ * underlying {@link java.io.OutputStream} at most once per batch.
+ *
+ * @param <E>
+ *          event type
+ * @since 1.1.4
+ */
+public interface BatchEncoder<E> extends Encoder<E> {
+
+  /**
+   * Encode and write the given events, in order, to the appropriate
+   * {@link java.io.OutputStream}.
+   *
+   * @param events
+   * @throws IOException
+   */
+  void doEncodeBatch(List<E> events) throws IOException;
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.encoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * An encoder able to turn events into bytes concurrently, so that appenders
+ * need to serialize only the write of those bytes to the
+ * {@link java.io.OutputStream}.
+ *
+ * @param <E>
+ *          event type
+ * @since 1.1.4
+ */
+public interface ConcurrentEncoder<E> extends Encoder<E> {
+
+  /**
+   * Whether {@link #encodeToBuffer(Object)} may currently be invoked by
+   * several threads at the same time. When false, it may only be invoked
+   * while holding the lock serializing writes.
+   *
+   * @return true if events may be encoded concurrently
+   */
+  boolean isConcurrentEncodingSupported();
+
+  /**
+   * Encode the given event into a buffer owned by the calling thread. This
+   * method may be invoked by several threads at the same time if
+   * {@link #isConcurrentEncodingSupported()} returns true.
+   *
+   * @param event
+   * @return the encoded bytes, between position and limit of the returned
+   *         buffer, valid until the calling thread invokes this method again
+   */
+  ByteBuffer encodeToBuffer(E event);
+
+  /**
+   * Write bytes returned by {@link #encodeToBuffer(Object)} to the
+   * appropriate {@link java.io.OutputStream}. Calls to this method must be
+   * serialized by the caller.
+   *
+   * @param encoded
+   * @param endOfWrite true if no other write immediately follows, in which
+   *          case the encoder may flush the stream
+   * @throws IOException
+   */
+  void writeEncoded(ByteBuffer encoded, boolean endOfWrite) throws IOException;
+
+  /**
+   * Write bytes returned by several calls to {@link #encodeToBuffer(Object)},
+   * in order, possibly with a single gathering write. Calls to this method
+   * must be serialized by the caller.
+   *
+   * @param encoded
+   * @param offset index of the first buffer to write
+   * @param length number of buffers to write
+   * @param endOfWrite true if no other write immediately follows, in which
+   *          case the encoder may flush the stream
+   * @throws IOException
+   */
+  void writeEncoded(ByteBuffer[] encoded, int offset, int length, boolean endOfWrite) throws IOException;
+
+}
@@ -15,6 +15,8 @@ package ch.qos.logback.core.encoder;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
 
 import ch.qos.logback.core.spi.ContextAwareBase;
 
@@ -39,5 +41,45 @@ abstract public class EncoderBase<E> extends ContextAwareBase implements Encoder
   public void stop() {
     started = false;
   }
+
+  /**
+   * Write the remaining bytes of <code>bytes</code>, a heap buffer, to the
+   * underlying stream, through its channel interface if it has one.
+   *
+   * @since 1.1.4
+   */
+  protected void writeBytes(ByteBuffer bytes) throws IOException {
+    if (outputStream instanceof GatheringByteChannel) {
+      GatheringByteChannel channel = (GatheringByteChannel) outputStream;
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      return;
+    }
+    outputStream.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+  }
+
+  /**
+   * Write the remaining bytes of the given heap buffers to the underlying
+   * stream, with a single gathering write if the stream supports it.
+   *
+   * @since 1.1.4
+   */
+  protected void writeBytes(ByteBuffer[] buffers, int offset, int length) throws IOException {
+    if (outputStream instanceof GatheringByteChannel) {
+      GatheringByteChannel channel = (GatheringByteChannel) outputStream;
+      long remaining = 0;
+      for (int i = offset; i < offset + length; i++) {
+        remaining += buffers[i].remaining();
+      }
+      while (remaining > 0) {
+        remaining -= channel.write(buffers, offset, length);
+      }
+    } else {
+      for (int i = offset; i < offset + length; i++) {
+        writeBytes(buffers[i]);
+      }
+    }
+  }
 }  
 
@@ -15,13 +15,31 @@ package ch.qos.logback.core.encoder;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.List;
 
+import ch.qos.logback.core.AppendingLayout;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.Layout;
+import ch.qos.logback.core.ThreadSafeLayout;
 
-public class LayoutWrappingEncoder<E> extends EncoderBase<E> {
+/**
+ * An encoder which writes the output of a {@link Layout} to the underlying
+ * {@link OutputStream}.
+ * <p/>
+ * Events are formatted into a reusable text buffer, directly so if the layout
+ * is an {@link AppendingLayout}, and encoded with a cached
+ * {@link CharsetEncoder} into a reusable byte buffer which is handed over to
+ * the stream. Encoding an event therefore does not allocate memory in the
+ * steady state. As a consequence, callers must serialize calls to
+ * {@link #doEncode(Object)} and {@link #doEncodeBatch(List)}, as
+ * {@link ch.qos.logback.core.OutputStreamAppender} does. Calls to
+ * {@link #encodeToBuffer(Object)} may be concurrent if the layout is a
+ * {@link ThreadSafeLayout}, each thread encodes into buffers of its own.
+ */
+public class LayoutWrappingEncoder<E> extends EncoderBase<E> implements BatchEncoder<E>, ConcurrentEncoder<E> {
 
   protected Layout<E> layout;
 
@@ -36,6 +54,15 @@ public class LayoutWrappingEncoder<E> extends EncoderBase<E> {
 
   private boolean immediateFlush = true;
 
+  /**
+   * Buffers of the serialized write path, created on first use.
+   */
+  private TextEncodingBuffer buffer;
+
+  /**
+   * Buffers of {@link #encodeToBuffer(Object)}, one per thread.
+   */
+  private ThreadLocal<TextEncodingBuffer> threadBuffers = newThreadBuffers(null);
 
   /**
    * Sets the immediateFlush option. The default value for immediateFlush is 'true'. If set to true,
@@ -78,6 +105,17 @@ public class LayoutWrappingEncoder<E> extends EncoderBase<E> {
    */
   public void setCharset(Charset charset) {
     this.charset = charset;
+    this.buffer = null;
+    this.threadBuffers = newThreadBuffers(charset);
+  }
+
+  private static ThreadLocal<TextEncodingBuffer> newThreadBuffers(final Charset charset) {
+    return new ThreadLocal<TextEncodingBuffer>() {
+      @Override
+      protected TextEncodingBuffer initialValue() {
+        return new TextEncodingBuffer(charset);
+      }
+    };
   }
 
   public void init(OutputStream os) throws IOException {
@@ -121,22 +159,94 @@ public class LayoutWrappingEncoder<E> extends EncoderBase<E> {
     if (charset == null) {
       return s.getBytes();
     } else {
-      try {
-        return s.getBytes(charset.name());
-      } catch (UnsupportedEncodingException e) {
-        throw new IllegalStateException(
-                "An existing charset cannot possibly be unsupported.");
-      }
+      return s.getBytes(charset);
     }
   }
 
   public void doEncode(E event) throws IOException {
-    String txt = layout.doLayout(event);
-    outputStream.write(convertToBytes(txt));
+    TextEncodingBuffer b = getBuffer();
+    // discard leftovers of a previous call interrupted by an exception
+    b.getText().setLength(0);
+    layoutInto(event, b.getText());
+    writeBytes(b.encode());
+    b.releaseOversizedBuffers();
     if (immediateFlush)
       outputStream.flush();
   }
 
+  /**
+   * Write the layout of each event and, if immediateFlush is set, flush the
+   * underlying OutputStream once for the whole batch. The text of consecutive
+   * events is encoded and written in chunks of up to
+   * {@link TextEncodingBuffer#MAX_RETAINED_BUFFER_SIZE} chars.
+   */
+  public void doEncodeBatch(List<E> events) throws IOException {
+    TextEncodingBuffer b = getBuffer();
+    b.getText().setLength(0);
+    for (E event : events) {
+      layoutInto(event, b.getText());
+      if (b.getText().length() >= TextEncodingBuffer.MAX_RETAINED_BUFFER_SIZE) {
+        writeBytes(b.encode());
+      }
+    }
+    if (b.getText().length() > 0) {
+      writeBytes(b.encode());
+    }
+    b.releaseOversizedBuffers();
+    if (immediateFlush)
+      outputStream.flush();
+  }
+
+  /**
+   * Returns true if the layout is a {@link ThreadSafeLayout} reporting itself
+   * thread-safe, which is the case of pattern layouts shipping with logback
+   * as long as their pattern only refers to built-in converters.
+   */
+  public boolean isConcurrentEncodingSupported() {
+    return layout instanceof ThreadSafeLayout && ((ThreadSafeLayout<E>) layout).isThreadSafe();
+  }
+
+  /**
+   * Lay the event out and encode it into buffers owned by the calling thread.
+   */
+  public ByteBuffer encodeToBuffer(E event) {
+    TextEncodingBuffer b = threadBuffers.get();
+    // the buffer returned by the previous call has been written by now
+    b.releaseOversizedBuffers();
+    layoutInto(event, b.getText());
+    return b.encode();
+  }
+
+  public void writeEncoded(ByteBuffer encoded, boolean endOfWrite) throws IOException {
+    writeBytes(encoded);
+    if (endOfWrite && immediateFlush)
+      outputStream.flush();
+  }
+
+  public void writeEncoded(ByteBuffer[] encoded, int offset, int length, boolean endOfWrite) throws IOException {
+    writeBytes(encoded, offset, length);
+    if (endOfWrite && immediateFlush)
+      outputStream.flush();
+  }
+
+  private TextEncodingBuffer getBuffer() {
+    if (buffer == null) {
+      buffer = new TextEncodingBuffer(charset);
+    }
+    return buffer;
+  }
+
+  private void layoutInto(E event, StringBuilder buf) {
+    if (layout instanceof AppendingLayout) {
+      ((AppendingLayout<E>) layout).doLayout(event, buf);
+    } else {
+      String txt = layout.doLayout(event);
+      if (txt != null) {
+        buf.append(txt);
+      }
+    }
+  }
+
   public boolean isStarted() {
     return false;
   }
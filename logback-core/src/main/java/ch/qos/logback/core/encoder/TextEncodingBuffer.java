@@ -0,0 +1,121 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.encoder;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reusable buffers turning text into bytes without allocating memory in the
+ * steady state. Text is appended to {@link #getText()} and converted with a
+ * cached {@link CharsetEncoder} by {@link #encode()}.
+ * <p/>
+ * Instances are not thread-safe.
+ *
+ * @since 1.1.4
+ */
+class TextEncodingBuffer {
+
+  /**
+   * Initial size, in chars, of the text buffer.
+   */
+  static final int INITIAL_BUFFER_SIZE = 256;
+
+  /**
+   * Buffers grown beyond this size, in chars, by an unusually large event are
+   * released by {@link #releaseOversizedBuffers()}.
+   */
+  static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;
+
+  private final CharsetEncoder charsetEncoder;
+  private StringBuilder text = new StringBuilder(INITIAL_BUFFER_SIZE);
+  private CharBuffer charBuffer = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+  private ByteBuffer byteBuffer;
+
+  TextEncodingBuffer(Charset charset) {
+    Charset cs = (charset == null) ? Charset.defaultCharset() : charset;
+    // String.getBytes() also substitutes malformed and unmappable input
+    this.charsetEncoder = cs.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  StringBuilder getText() {
+    return text;
+  }
+
+  /**
+   * Encode the text buffer, which is empty on return.
+   *
+   * @return the encoded bytes, between position and limit of the returned
+   *         buffer, valid until the next call to this method
+   */
+  ByteBuffer encode() {
+    int length = text.length();
+    if (charBuffer.capacity() < length) {
+      charBuffer = CharBuffer.allocate(Math.max(length, 2 * charBuffer.capacity()));
+    }
+    text.getChars(0, length, charBuffer.array(), 0);
+    text.setLength(0);
+    charBuffer.clear();
+    charBuffer.limit(length);
+
+    int expectedBytes = (int) Math.ceil(length * (double) charsetEncoder.maxBytesPerChar());
+    if (byteBuffer == null || byteBuffer.capacity() < expectedBytes) {
+      byteBuffer = ByteBuffer.allocate(Math.max(expectedBytes, INITIAL_BUFFER_SIZE));
+    }
+    byteBuffer.clear();
+    charsetEncoder.reset();
+    CoderResult result = charsetEncoder.encode(charBuffer, byteBuffer, true);
+    while (result.isOverflow()) {
+      // maxBytesPerChar does not account for the replacement of malformed input
+      growByteBuffer();
+      result = charsetEncoder.encode(charBuffer, byteBuffer, true);
+    }
+    while (charsetEncoder.flush(byteBuffer).isOverflow()) {
+      growByteBuffer();
+    }
+    byteBuffer.flip();
+    return byteBuffer;
+  }
+
+  private void growByteBuffer() {
+    ByteBuffer larger = ByteBuffer.allocate(2 * byteBuffer.capacity());
+    byteBuffer.flip();
+    larger.put(byteBuffer);
+    byteBuffer = larger;
+  }
+
+  /**
+   * Release the buffers an unusually large event made grow, so that they are
+   * not retained for the next event. Also clears the text buffer.
+   */
+  void releaseOversizedBuffers() {
+    if (text.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+      text = new StringBuilder(INITIAL_BUFFER_SIZE);
+    } else {
+      text.setLength(0);
+    }
+    if (charBuffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+      charBuffer = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+    if (byteBuffer != null && byteBuffer.capacity() > MAX_RETAINED_BUFFER_SIZE * 4) {
+      byteBuffer = null;
+    }
+  }
+}
@@ -15,16 +15,21 @@ package ch.qos.logback.core.layout;
 
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.LayoutBase;
+import ch.qos.logback.core.ThreadSafeLayout;
 
 /**
  * Echos the incoming object adding a line separator character(s) at the end.
  * 
  * @author Ceki
  */
-public class EchoLayout<E> extends LayoutBase<E> {
+public class EchoLayout<E> extends LayoutBase<E> implements ThreadSafeLayout<E> {
 
   public String doLayout(E event) {
     return event+CoreConstants.LINE_SEPARATOR;
   }
 
+  public boolean isThreadSafe() {
+    return true;
+  }
+
 }
@@ -20,6 +20,8 @@ import java.net.ConnectException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -27,7 +29,9 @@ import java.util.concurrent.TimeUnit;
 import javax.net.SocketFactory;
 
 import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.BatchAppender;
 import ch.qos.logback.core.spi.PreSerializationTransformer;
+import ch.qos.logback.core.spi.ReusableEventUtil;
 import ch.qos.logback.core.util.CloseUtil;
 import ch.qos.logback.core.util.Duration;
 
@@ -42,7 +46,7 @@ import ch.qos.logback.core.util.Duration;
  */
 
 public abstract class AbstractSocketAppender<E> extends AppenderBase<E>
-    implements SocketConnector.ExceptionHandler {
+    implements BatchAppender<E>, SocketConnector.ExceptionHandler {
 
   /**
    * The default port number of remote logging server (4560).
@@ -176,7 +180,7 @@ public abstract class AbstractSocketAppender<E> extends AppenderBase<E>
     if (event == null || !isStarted()) return;
 
     try {
-      final boolean inserted = deque.offer(event, eventDelayLimit.getMilliseconds(), TimeUnit.MILLISECONDS);
+      final boolean inserted = deque.offer(ReusableEventUtil.snapshot(event), eventDelayLimit.getMilliseconds(), TimeUnit.MILLISECONDS);
       if (!inserted) {
         addInfo("Dropping event due to timeout limit of [" + eventDelayLimit + "] being exceeded");
       }
@@ -185,11 +189,39 @@ public abstract class AbstractSocketAppender<E> extends AppenderBase<E>
     }
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The event delay limit applies to the batch as a whole rather than to
+   * each of its events.
+   */
+  @Override
+  protected void appendBatch(List<E> events) {
+    if (!isStarted()) return;
+
+    long deadline = System.currentTimeMillis() + eventDelayLimit.getMilliseconds();
+    int dropped = 0;
+    try {
+      for (E event : events) {
+        if (event == null) continue;
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        if (!deque.offer(ReusableEventUtil.snapshot(event), remaining, TimeUnit.MILLISECONDS)) {
+          dropped++;
+        }
+      }
+    } catch (InterruptedException e) {
+      addError("Interrupted while appending events to SocketAppender", e);
+    }
+    if (dropped > 0) {
+      addInfo("Dropping " + dropped + " events due to timeout limit of [" + eventDelayLimit + "] being exceeded");
+    }
+  }
+
   private void connectSocketAndDispatchEvents() {
     try {
       while (socketConnectionCouldBeEstablished()) {
         try {
-          ObjectWriter objectWriter = createObjectWriterForSocket();
+          AutoFlushingObjectWriter objectWriter = createObjectWriterForSocket();
           addInfo(peerId + "connection established");
           dispatchEvents(objectWriter);
         } catch (IOException ex) {
@@ -210,9 +242,9 @@ public abstract class AbstractSocketAppender<E> extends AppenderBase<E>
     return (socket = connector.call()) != null;
   }
 
-  private ObjectWriter createObjectWriterForSocket() throws IOException {
+  private AutoFlushingObjectWriter createObjectWriterForSocket() throws IOException {
     socket.setSoTimeout(acceptConnectionTimeout);
-    ObjectWriter objectWriter = objectWriterFactory.newAutoFlushingObjectWriter(socket.getOutputStream());
+    AutoFlushingObjectWriter objectWriter = objectWriterFactory.newAutoFlushingObjectWriter(socket.getOutputStream());
     socket.setSoTimeout(0);
     return objectWriter;
   }
@@ -224,24 +256,55 @@ public abstract class AbstractSocketAppender<E> extends AppenderBase<E>
     return connector;
   }
 
-  private void dispatchEvents(ObjectWriter objectWriter) throws InterruptedException, IOException {
+  /**
+   * Take the events queued so far and write them with a single flush of the
+   * socket. Events appended while the previous ones are being written are
+   * thus sent together.
+   * <p/>
+   * When writing fails, the events not yet written are queued again, to be
+   * sent once reconnected. The event being written at the time is among
+   * them, although it may have reached the receiver, which may therefore
+   * receive it twice.
+   */
+  private void dispatchEvents(AutoFlushingObjectWriter objectWriter) throws InterruptedException, IOException {
+    List<E> events = new ArrayList<E>();
+    List<Serializable> serializableEvents = new ArrayList<Serializable>();
     while (true) {
-      E event = deque.takeFirst();
-      postProcessEvent(event);
-      Serializable serializableEvent = getPST().transform(event);
+      events.add(deque.takeFirst());
+      deque.drainTo(events);
+      for (E event : events) {
+        postProcessEvent(event);
+        serializableEvents.add(getPST().transform(event));
+      }
       try {
-        objectWriter.write(serializableEvent);
+        if (serializableEvents.size() == 1) {
+          objectWriter.write(serializableEvents.get(0));
+        } else {
+          objectWriter.writeAll(serializableEvents);
+        }
+      } catch (PartialWriteException e) {
+        tryReAddingEventsToFrontOfQueue(events.subList(e.getWrittenCount(), events.size()));
+        throw e;
       } catch (IOException e) {
-        tryReAddingEventToFrontOfQueue(event);
+        tryReAddingEventsToFrontOfQueue(events);
         throw e;
       }
+      events.clear();
+      serializableEvents.clear();
     }
   }
 
-  private void tryReAddingEventToFrontOfQueue(E event) {
-    final boolean wasInserted = deque.offerFirst(event);
-    if (!wasInserted) {
+  private void tryReAddingEventsToFrontOfQueue(List<E> events) {
+    int dropped = 0;
+    for (int i = events.size() - 1; i >= 0; i--) {
+      if (!deque.offerFirst(events.get(i))) {
+        dropped++;
+      }
+    }
+    if (dropped == 1) {
       addInfo("Dropping event due to socket connection error and maxed out deque capacity");
+    } else if (dropped > 1) {
+      addInfo("Dropping " + dropped + " events due to socket connection error and maxed out deque capacity");
     }
   }
 
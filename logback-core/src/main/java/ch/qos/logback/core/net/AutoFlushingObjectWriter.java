@@ -15,6 +15,7 @@ package ch.qos.logback.core.net;
 
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.util.List;
 
 /**
  * Automatically flushes the underlying {@link java.io.ObjectOutputStream} immediately after calling
@@ -47,6 +48,35 @@ public class AutoFlushingObjectWriter implements ObjectWriter {
     preventMemoryLeak();
   }
 
+  /**
+   * Writes the given objects, in order, and flushes the underlying stream
+   * once, after the last one.
+   * <p/>
+   * As with {@link #write(Object)}, the object being written when the
+   * stream fails may nonetheless have reached its destination. The objects
+   * before it are reported as written, the last one included if only the
+   * final flush failed.
+   *
+   * @param objects the objects to write
+   * @throws PartialWriteException in case input/output fails, holding the
+   *         number of objects written before the failure
+   * @since 1.1.4
+   */
+  public void writeAll(List<?> objects) throws PartialWriteException {
+    int written = 0;
+    try {
+      for (Object object : objects) {
+        objectOutputStream.writeObject(object);
+        preventMemoryLeak();
+        written++;
+      }
+      objectOutputStream.flush();
+    } catch (IOException e) {
+      // the bytes of the last object may still sit in the stream's buffer
+      throw new PartialWriteException(Math.max(0, Math.min(written, objects.size() - 1)), e);
+    }
+  }
+
   /**
    * Failing to reset the object output stream every now and then creates a serious memory leak which
    * is why the underlying stream will be reset according to the {@code resetFrequency}.
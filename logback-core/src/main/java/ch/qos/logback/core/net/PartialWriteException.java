@@ -0,0 +1,42 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.net;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link AutoFlushingObjectWriter#writeAll(java.util.List)} when
+ * only the first objects of the list were written before writing failed.
+ *
+ * @since 1.1.4
+ */
+public class PartialWriteException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int writtenCount;
+
+  public PartialWriteException(int writtenCount, IOException cause) {
+    super(cause.getMessage(), cause);
+    this.writtenCount = writtenCount;
+  }
+
+  /**
+   * @return the number of objects, at the head of the list, which were
+   *         written before the failure
+   */
+  public int getWrittenCount() {
+    return writtenCount;
+  }
+}
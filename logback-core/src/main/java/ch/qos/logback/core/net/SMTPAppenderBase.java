@@ -42,6 +42,7 @@ import ch.qos.logback.core.pattern.PatternLayoutBase;
 import ch.qos.logback.core.sift.DefaultDiscriminator;
 import ch.qos.logback.core.sift.Discriminator;
 import ch.qos.logback.core.spi.CyclicBufferTracker;
+import ch.qos.logback.core.spi.ReusableEventUtil;
 import ch.qos.logback.core.util.ContentTypeUtil;
 import ch.qos.logback.core.util.OptionHelper;
 
@@ -207,7 +208,7 @@ public abstract class SMTPAppenderBase<E> extends AppenderBase<E> {
 
         if (asynchronousSending) {
           // perform actual sending asynchronously
-          SenderRunnable senderRunnable = new SenderRunnable(cbClone, eventObject);
+          SenderRunnable senderRunnable = new SenderRunnable(cbClone, ReusableEventUtil.snapshot(eventObject));
           context.getExecutorService().execute(senderRunnable);
         } else {
           // synchronous sending
@@ -55,9 +55,9 @@ abstract public class FormattingConverter<E> extends Converter<E> {
 
     if (len > max) {
       if(formattingInfo.isLeftTruncate()) {
-        buf.append(s.substring(len - max));
+        buf.append(s, len - max, len);
       } else {
-        buf.append(s.substring(0, max));
+        buf.append(s, 0, max);
       }
     } else if (len < min) {
       if (formattingInfo.isLeftPad()) {
@@ -0,0 +1,183 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A converter chain compiled into flat arrays, written by a single loop.
+ * Adjacent literals are merged, the output of {@link FormattingConverter}
+ * instances is padded or truncated in place, without intermediate strings,
+ * and the linked list of converters is no longer walked.
+ *
+ * <p>Converters overriding {@link Converter#write(StringBuilder, Object)},
+ * typically custom converters, are still invoked through that method.
+ *
+ * @author Ceki G&uuml;lc&uuml;
+ * @since 1.1.4
+ */
+public final class FusedConverterChain<E> {
+
+  static final byte LITERAL = 0;
+  static final byte PLAIN = 1;
+  static final byte FORMATTED = 2;
+  static final byte GENERIC = 3;
+
+  private final byte[] kinds;
+  private final String[] literals;
+  private final Converter<E>[] converters;
+  private final int[] mins;
+  private final int[] maxs;
+  private final boolean[] leftPads;
+  private final boolean[] leftTruncates;
+
+  @SuppressWarnings("unchecked")
+  private FusedConverterChain(List<Object> segments) {
+    int size = segments.size();
+    kinds = new byte[size];
+    literals = new String[size];
+    converters = new Converter[size];
+    mins = new int[size];
+    maxs = new int[size];
+    leftPads = new boolean[size];
+    leftTruncates = new boolean[size];
+    for (int i = 0; i < size; i++) {
+      Object segment = segments.get(i);
+      if (segment instanceof String) {
+        kinds[i] = LITERAL;
+        literals[i] = (String) segment;
+        continue;
+      }
+      Converter<E> c = (Converter<E>) segment;
+      converters[i] = c;
+      if (overridesWrite(c)) {
+        kinds[i] = GENERIC;
+      } else if (c instanceof FormattingConverter) {
+        FormatInfo formatInfo = ((FormattingConverter<E>) c).getFormattingInfo();
+        if (formatInfo == null) {
+          kinds[i] = PLAIN;
+        } else {
+          kinds[i] = FORMATTED;
+          mins[i] = formatInfo.getMin();
+          maxs[i] = formatInfo.getMax();
+          leftPads[i] = formatInfo.isLeftPad();
+          leftTruncates[i] = formatInfo.isLeftTruncate();
+        }
+      } else {
+        kinds[i] = PLAIN;
+      }
+    }
+  }
+
+  /**
+   * Compile the chain of converters starting at <code>head</code>. The
+   * converters are expected to be started.
+   */
+  public static <E> FusedConverterChain<E> fuse(Converter<E> head) {
+    List<Object> segments = new ArrayList<Object>();
+    StringBuilder literal = null;
+    for (Converter<E> c = head; c != null; c = c.getNext()) {
+      if (c instanceof LiteralConverter) {
+        if (literal == null) {
+          literal = new StringBuilder();
+        }
+        literal.append(((LiteralConverter<E>) c).literal);
+        continue;
+      }
+      if (literal != null) {
+        segments.add(literal.toString());
+        literal = null;
+      }
+      segments.add(c);
+    }
+    if (literal != null) {
+      segments.add(literal.toString());
+    }
+    return new FusedConverterChain<E>(segments);
+  }
+
+  /**
+   * Whether <code>c</code> writes by other means than the
+   * {@link Converter#write(StringBuilder, Object)} or
+   * {@link FormattingConverter#write(StringBuilder, Object)} methods this
+   * class stands for.
+   */
+  private static boolean overridesWrite(Converter<?> c) {
+    try {
+      Class<?> declaringClass = c.getClass().getMethod("write", StringBuilder.class, Object.class)
+          .getDeclaringClass();
+      return declaringClass != Converter.class && declaringClass != FormattingConverter.class;
+    } catch (NoSuchMethodException e) {
+      return true;
+    }
+  }
+
+  /**
+   * @return the number of segments, literals and converters, of this chain
+   */
+  public int size() {
+    return kinds.length;
+  }
+
+  public void write(StringBuilder buf, E event) {
+    for (int i = 0; i < kinds.length; i++) {
+      switch (kinds[i]) {
+      case LITERAL:
+        buf.append(literals[i]);
+        break;
+      case PLAIN:
+        buf.append(converters[i].convert(event));
+        break;
+      case FORMATTED:
+        writeFormatted(buf, converters[i].convert(event), i);
+        break;
+      default:
+        converters[i].write(buf, event);
+      }
+    }
+  }
+
+  /**
+   * Same as {@link FormattingConverter#write(StringBuilder, Object)}.
+   */
+  private void writeFormatted(StringBuilder buf, String s, int i) {
+    int min = mins[i];
+    if (s == null) {
+      if (0 < min) {
+        SpacePadder.spacePad(buf, min);
+      }
+      return;
+    }
+    int len = s.length();
+    int max = maxs[i];
+    if (len > max) {
+      if (leftTruncates[i]) {
+        buf.append(s, len - max, len);
+      } else {
+        buf.append(s, 0, max);
+      }
+    } else if (len < min) {
+      if (leftPads[i]) {
+        SpacePadder.spacePad(buf, min - len);
+        buf.append(s);
+      } else {
+        buf.append(s);
+        SpacePadder.spacePad(buf, min - len);
+      }
+    } else {
+      buf.append(s);
+    }
+  }
+}
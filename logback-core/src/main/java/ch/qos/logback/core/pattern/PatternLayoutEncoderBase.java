@@ -23,6 +23,8 @@ public class PatternLayoutEncoderBase<E> extends LayoutWrappingEncoder<E> {
   // due to popular demand outputPatternAsHeader is set to false by default
   protected boolean outputPatternAsHeader = false;
 
+  protected boolean fuseConverters = false;
+
   public String getPattern() {
     return pattern;
   }
@@ -47,6 +49,20 @@ public class PatternLayoutEncoderBase<E> extends LayoutWrappingEncoder<E> {
   }
 
 
+  public boolean isFuseConverters() {
+    return fuseConverters;
+  }
+
+  /**
+   * Compile the converter chain of the layout, see
+   * {@link PatternLayoutBase#setFuseConverters(boolean)}.
+   *
+   * @since 1.1.4
+   */
+  public void setFuseConverters(boolean fuseConverters) {
+    this.fuseConverters = fuseConverters;
+  }
+
   public boolean isOutputPatternAsPresentationHeader() {
     return outputPatternAsHeader;
   }
@@ -15,6 +15,7 @@ package ch.qos.logback.core.read;
 
 import ch.qos.logback.core.AppenderBase;
 import ch.qos.logback.core.helpers.CyclicBuffer;
+import ch.qos.logback.core.spi.ReusableEventUtil;
 
 /**
  * CyclicBufferAppender stores events in a cyclic buffer of user-specified size. As the 
@@ -43,7 +44,7 @@ public class CyclicBufferAppender<E> extends AppenderBase<E> {
     if (!isStarted()) {
       return;
     }
-    cb.add(eventObject);
+    cb.add(ReusableEventUtil.snapshot(eventObject));
   }
 
   public int getLength() {
@@ -17,12 +17,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.spi.ReusableEventUtil;
 
 public class ListAppender<E> extends AppenderBase<E> {
 
   public List<E> list = new ArrayList<E>();
   
   protected void append(E e) {
-    list.add(e);
+    list.add(ReusableEventUtil.snapshot(e));
   }
 }
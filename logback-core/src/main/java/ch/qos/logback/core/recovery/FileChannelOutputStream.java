@@ -0,0 +1,125 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.recovery;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An {@link OutputStream} buffering bytes in a direct {@link ByteBuffer}
+ * and writing them to a {@link FileChannel}.
+ * <p/>
+ * {@link #write(ByteBuffer[], int, int)} copies the given buffers if they
+ * fit in the buffer. Otherwise, the buffered bytes and the given buffers are
+ * handed to the channel in a single gathering write, without copying.
+ * <p/>
+ * This class is not thread-safe.
+ *
+ * @since 1.1.4
+ */
+class FileChannelOutputStream extends OutputStream {
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private ByteBuffer[] gather = new ByteBuffer[8];
+
+  FileChannelOutputStream(FileChannel channel, int bufferSize) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (!buffer.hasRemaining()) {
+      drain();
+    }
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (len <= buffer.remaining()) {
+      buffer.put(b, off, len);
+      return;
+    }
+    ByteBuffer[] srcs = { ByteBuffer.wrap(b, off, len) };
+    write(srcs, 0, 1);
+  }
+
+  /**
+   * Write the remaining bytes of the given buffers, whether they are heap or
+   * direct buffers.
+   */
+  void write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+    long total = 0;
+    for (int i = offset; i < offset + length; i++) {
+      total += srcs[i].remaining();
+    }
+    if (total <= buffer.remaining()) {
+      for (int i = offset; i < offset + length; i++) {
+        buffer.put(srcs[i]);
+      }
+      return;
+    }
+    if (gather.length < length + 1) {
+      gather = new ByteBuffer[Math.max(length + 1, 2 * gather.length)];
+    }
+    buffer.flip();
+    gather[0] = buffer;
+    System.arraycopy(srcs, offset, gather, 1, length);
+    try {
+      writeFully(gather, length + 1, total + buffer.remaining());
+    } finally {
+      for (int i = 0; i <= length; i++) {
+        gather[i] = null;
+      }
+      buffer.clear();
+    }
+  }
+
+  private void writeFully(ByteBuffer[] srcs, int length, long total) throws IOException {
+    while (total > 0) {
+      total -= channel.write(srcs, 0, length);
+    }
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (buffer.position() > 0) {
+      drain();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+}
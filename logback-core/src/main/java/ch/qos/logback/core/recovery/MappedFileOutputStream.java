@@ -0,0 +1,242 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.recovery;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An {@link OutputStream} writing to a file through a memory-mapped region.
+ * <p/>
+ * Writes are copies into the region, no system call is made until the region
+ * is full, at which point the next region, starting where the previous one
+ * ends, is mapped. Mapping a region extends the file by the region size, the
+ * file is truncated to the length actually written on {@link #close()}. If
+ * the process dies without closing the stream, the file ends with the zero
+ * bytes of the unused part of the region.
+ * <p/>
+ * The written bytes are visible to readers of the file as soon as they are
+ * copied. {@link #flush()} therefore does nothing, {@link #force()} writes
+ * the region to the storage device.
+ * <p/>
+ * This class is not thread-safe.
+ *
+ * @since 1.1.4
+ */
+public class MappedFileOutputStream extends OutputStream {
+
+  public static final int DEFAULT_REGION_SIZE = 32 * 1024 * 1024;
+
+  private static final Unmapper UNMAPPER = Unmapper.find();
+
+  private final File file;
+  private final RandomAccessFile raf;
+  private final FileChannel channel;
+  private final int regionSize;
+
+  private MappedByteBuffer region;
+  private long regionStart;
+  private int remapCount;
+
+  // number of bytes written to the file, updated by the writing thread
+  private volatile long length;
+
+  public MappedFileOutputStream(File file, boolean append, int regionSize) throws IOException {
+    if (regionSize <= 0) {
+      throw new IllegalArgumentException("Region size must be positive, was " + regionSize);
+    }
+    this.file = file;
+    this.regionSize = regionSize;
+    this.raf = new RandomAccessFile(file, "rw");
+    this.channel = raf.getChannel();
+    try {
+      if (!append) {
+        raf.setLength(0);
+      }
+      length = raf.length();
+      map(length);
+    } catch (IOException e) {
+      raf.close();
+      throw e;
+    }
+  }
+
+  private void map(long position) throws IOException {
+    if (region != null) {
+      MappedByteBuffer previous = region;
+      region = null;
+      UNMAPPER.unmap(previous);
+    }
+    region = channel.map(FileChannel.MapMode.READ_WRITE, position, regionSize);
+    regionStart = position;
+  }
+
+  private void ensureOpen() throws IOException {
+    if (region == null) {
+      throw new IOException("Stream to file [" + file + "] is closed");
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    if (!region.hasRemaining()) {
+      remap();
+    }
+    region.put((byte) b);
+    length++;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    long written = 0;
+    while (len > 0) {
+      if (!region.hasRemaining()) {
+        remap();
+      }
+      int n = Math.min(len, region.remaining());
+      region.put(b, off, n);
+      off += n;
+      len -= n;
+      written += n;
+    }
+    length += written;
+  }
+
+  private void remap() throws IOException {
+    map(regionStart + regionSize);
+    remapCount++;
+  }
+
+  /**
+   * Does nothing, written bytes are already visible to readers of the file.
+   */
+  @Override
+  public void flush() {
+  }
+
+  /**
+   * Write the content of the current region to the storage device.
+   */
+  public void force() throws IOException {
+    ensureOpen();
+    region.force();
+  }
+
+  /**
+   * Release the region and truncate the file to the number of bytes
+   * actually written.
+   */
+  @Override
+  public void close() throws IOException {
+    if (region == null) {
+      return;
+    }
+    MappedByteBuffer mapped = region;
+    region = null;
+    try {
+      UNMAPPER.unmap(mapped);
+      channel.truncate(length);
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Returns the number of bytes in the file, not counting the unused part of
+   * the current region.
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the number of regions mapped after the first one.
+   */
+  public int getRemapCount() {
+    return remapCount;
+  }
+
+  public int getRegionSize() {
+    return regionSize;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  @Override
+  public String toString() {
+    return "c.q.l.c.recovery.MappedFileOutputStream@" + System.identityHashCode(this);
+  }
+
+  /**
+   * Releases a mapped region right away instead of waiting for it to be
+   * garbage collected, which matters on platforms where a mapped file cannot
+   * be truncated or renamed. Java offers no public API for it, the unmapper
+   * relies on JDK internals and degrades to doing nothing when they are not
+   * accessible.
+   */
+  static class Unmapper {
+
+    private final Object unsafe;
+    private final Method invokeCleaner;
+
+    Unmapper(Object unsafe, Method invokeCleaner) {
+      this.unsafe = unsafe;
+      this.invokeCleaner = invokeCleaner;
+    }
+
+    static Unmapper find() {
+      try {
+        // Java 9 and later
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        return new Unmapper(theUnsafe.get(null), invokeCleaner);
+      } catch (Exception e) {
+        // older JDK, fall back on the cleaner of the buffer
+        return new Unmapper(null, null);
+      }
+    }
+
+    void unmap(MappedByteBuffer buffer) {
+      try {
+        if (invokeCleaner != null) {
+          invokeCleaner.invoke(unsafe, buffer);
+          return;
+        }
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner != null) {
+          Method clean = cleaner.getClass().getMethod("clean");
+          clean.setAccessible(true);
+          clean.invoke(cleaner);
+        }
+      } catch (Exception e) {
+        // the region will be released when the buffer is garbage collected
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.recovery;
+
+import java.io.File;
+import java.io.IOException;
+
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * Configuration checks and stream creation shared by the appenders writing
+ * through a {@link MappedFileOutputStream}.
+ *
+ * @since 1.1.4
+ */
+public class MappedFileUtil {
+
+  private MappedFileUtil() {
+  }
+
+  /**
+   * Check that the given appender, writing through regions of the given size,
+   * can be started. Problems are reported as errors of the appender.
+   *
+   * @return true if the appender can be started
+   */
+  public static boolean isStartable(FileAppender<?> appender, FileSize regionSize) {
+    if (appender.isPrudent()) {
+      appender.addError("Prudent mode is not supported by memory-mapped appender named ["
+          + appender.getName() + "].");
+      return false;
+    }
+    if (regionSize.getSize() <= 0 || regionSize.getSize() > Integer.MAX_VALUE) {
+      appender.addError("RegionSize must be between 1 byte and 2GB, was " + regionSize.getSize());
+      return false;
+    }
+    return true;
+  }
+
+  public static MappedFileOutputStream open(File file, boolean append, FileSize regionSize) throws IOException {
+    return new MappedFileOutputStream(file, append, (int) regionSize.getSize());
+  }
+}
@@ -14,20 +14,135 @@
 package ch.qos.logback.core.recovery;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
 
-public class ResilientFileOutputStream extends ResilientOutputStreamBase {
+/**
+ * A resilient stream writing to a file, either through a
+ * {@link BufferedOutputStream} or, in channel output mode, through a direct
+ * buffer and the {@link FileChannel} of the file.
+ * <p/>
+ * As a {@link GatheringByteChannel}, the stream accepts the bytes of several
+ * events at once, in heap or direct buffers. In channel output mode, they
+ * are written with a single gathering write whenever they do not fit in the
+ * buffer. The stream must not be used as a channel by several threads at the
+ * same time.
+ */
+public class ResilientFileOutputStream extends ResilientOutputStreamBase implements GatheringByteChannel {
+
+  public static final int DEFAULT_BUFFER_SIZE = 8192;
 
   private File file;
   private FileOutputStream fos;
+  private final int bufferSize;
+  private final boolean channelOutput;
+  private boolean closed;
+  private final ByteBuffer[] single = new ByteBuffer[1];
 
+  // length of the file including buffered bytes, updated by the writing thread
+  private volatile long length;
 
   public ResilientFileOutputStream(File file, boolean append)
       throws FileNotFoundException {
+    this(file, append, DEFAULT_BUFFER_SIZE, false);
+  }
+
+  /**
+   * @param bufferSize the size of the write buffer, in bytes
+   * @param channelOutput true to write through the {@link FileChannel} of
+   *          the file
+   * @since 1.1.4
+   */
+  public ResilientFileOutputStream(File file, boolean append, int bufferSize, boolean channelOutput)
+      throws FileNotFoundException {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("Buffer size must be positive, was " + bufferSize);
+    }
     this.file = file;
+    this.bufferSize = bufferSize;
+    this.channelOutput = channelOutput;
     fos = new FileOutputStream(file, append);
-    this.os = new BufferedOutputStream(fos);
+    this.os = wrap(fos);
     this.presumedClean = true;
+    this.length = append ? file.length() : 0;
+  }
+
+  private OutputStream wrap(FileOutputStream fos) {
+    if (channelOutput) {
+      return new FileChannelOutputStream(fos.getChannel(), bufferSize);
+    }
+    return new BufferedOutputStream(fos, bufferSize);
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public boolean isChannelOutput() {
+    return channelOutput;
+  }
+
+  public int write(ByteBuffer src) {
+    single[0] = src;
+    try {
+      return (int) writeBuffers(single, 0, 1);
+    } finally {
+      single[0] = null;
+    }
+  }
+
+  public long write(ByteBuffer[] srcs) {
+    return writeBuffers(srcs, 0, srcs.length);
+  }
+
+  public long write(ByteBuffer[] srcs, int offset, int length) {
+    return writeBuffers(srcs, offset, length);
+  }
+
+  @Override
+  void writeBuffersToStream(ByteBuffer[] srcs, int offset, int length) throws IOException {
+    if (os instanceof FileChannelOutputStream) {
+      ((FileChannelOutputStream) os).write(srcs, offset, length);
+    } else {
+      super.writeBuffersToStream(srcs, offset, length);
+    }
+  }
+
+  public boolean isOpen() {
+    return !closed;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    super.close();
+  }
+
+  /**
+   * Returns the length of the file, counting the bytes written through this
+   * stream but still buffered. The length is kept in memory, it is exact as
+   * long as this stream is the only writer of the file.
+   *
+   * @since 1.1.4
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * Resynchronize the length with the actual size of the file, as found by
+   * the caller, e.g. when other processes append to it.
+   *
+   * @since 1.1.4
+   */
+  public void setLength(long length) {
+    this.length = length;
+  }
+
+  @Override
+  void bytesWritten(long count) {
+    length += count;
   }
 
   public FileChannel getChannel() {
@@ -50,7 +165,9 @@ public class ResilientFileOutputStream extends ResilientOutputStreamBase {
   OutputStream openNewOutputStream() throws IOException {
     // see LOGBACK-765
     fos = new FileOutputStream(file, true);
-    return new BufferedOutputStream(fos);
+    length = file.length();
+    closed = false;
+    return wrap(fos);
   }
   
   @Override
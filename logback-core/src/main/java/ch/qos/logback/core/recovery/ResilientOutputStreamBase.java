@@ -15,6 +15,7 @@ package ch.qos.logback.core.recovery;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.status.ErrorStatus;
@@ -50,6 +51,7 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
 
     try {
       os.write(b, off, len);
+      bytesWritten(len);
       postSuccessfulWrite();
     } catch (IOException e) {
       postIOFailure(e);
@@ -66,12 +68,73 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
     }
     try {
       os.write(b);
+      bytesWritten(1);
       postSuccessfulWrite();
     } catch (IOException e) {
       postIOFailure(e);
     }
   }
 
+  /**
+   * Write the remaining bytes of the given buffers, which are consumed even
+   * if the bytes are dropped on account of an IO failure, as with the other
+   * write methods.
+   *
+   * @return the number of bytes consumed
+   */
+  long writeBuffers(ByteBuffer[] srcs, int offset, int length) {
+    long total = 0;
+    for (int i = offset; i < offset + length; i++) {
+      total += srcs[i].remaining();
+    }
+    if (isPresumedInError()) {
+      if (!recoveryCoordinator.isTooSoon()) {
+        attemptRecovery();
+      }
+      consume(srcs, offset, length);
+      return total;
+    }
+    try {
+      writeBuffersToStream(srcs, offset, length);
+      bytesWritten(total);
+      postSuccessfulWrite();
+    } catch (IOException e) {
+      consume(srcs, offset, length);
+      postIOFailure(e);
+    }
+    return total;
+  }
+
+  /**
+   * Write the given buffers to the underlying stream. Derived classes may
+   * write them without copying.
+   */
+  void writeBuffersToStream(ByteBuffer[] srcs, int offset, int length) throws IOException {
+    byte[] chunk = null;
+    for (int i = offset; i < offset + length; i++) {
+      ByteBuffer src = srcs[i];
+      if (src.hasArray()) {
+        os.write(src.array(), src.arrayOffset() + src.position(), src.remaining());
+        src.position(src.limit());
+        continue;
+      }
+      while (src.hasRemaining()) {
+        if (chunk == null) {
+          chunk = new byte[Math.min(src.remaining(), 8192)];
+        }
+        int n = Math.min(chunk.length, src.remaining());
+        src.get(chunk, 0, n);
+        os.write(chunk, 0, n);
+      }
+    }
+  }
+
+  private static void consume(ByteBuffer[] srcs, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      srcs[i].position(srcs[i].limit());
+    }
+  }
+
   @Override
   public void flush() {
     if (os != null) {
@@ -88,6 +151,13 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
 
   abstract OutputStream openNewOutputStream() throws IOException;
 
+  /**
+   * Called after <code>count</code> bytes were handed to the underlying
+   * stream without error.
+   */
+  void bytesWritten(long count) {
+  }
+
   private void postSuccessfulWrite() {
     if (recoveryCoordinator != null) {
       recoveryCoordinator = null;
@@ -99,8 +99,7 @@ public class FixedWindowRollingPolicy extends RollingPolicyBase {
       String zipEntryFileNamePatternStr = transformFileNamePatternFromInt2Date(fileNamePatternStr);
       zipEntryFileNamePattern = new FileNamePattern(zipEntryFileNamePatternStr, context);
     }
-    compressor = new Compressor(compressionMode);
-    compressor.setContext(this.context);
+    compressor = buildCompressor();
     super.start();
   }
 
@@ -19,6 +19,7 @@ import ch.qos.logback.core.rolling.helper.FileNamePattern;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import static ch.qos.logback.core.CoreConstants.CODES_URL;
 
@@ -38,6 +39,11 @@ public class RollingFileAppender<E> extends FileAppender<E> {
   TriggeringPolicy<E> triggeringPolicy;
   RollingPolicy rollingPolicy;
 
+  // time spent in rollover() by logging threads, written under the lock
+  private volatile long rolloverCount;
+  private volatile long lastRolloverNanos;
+  private volatile long maxRolloverNanos;
+
   static private String RFA_NO_TP_URL = CODES_URL + "#rfa_no_tp";
   static private String RFA_NO_RP_URL = CODES_URL + "#rfa_no_rp";
   static private String COLLISION_URL = CODES_URL + "#rfa_collision";
@@ -81,6 +87,10 @@ public class RollingFileAppender<E> extends FileAppender<E> {
       }
     }
 
+    if (triggeringPolicy instanceof SizeBasedTriggeringPolicy) {
+      ((SizeBasedTriggeringPolicy<E>) triggeringPolicy).setParent(this);
+    }
+
     currentlyActiveFile = new File(getFile());
     addInfo("Active log file name: " + getFile());
     super.start();
@@ -128,6 +138,7 @@ public class RollingFileAppender<E> extends FileAppender<E> {
   public void rollover() {
     lock.lock();
     try {
+      long start = System.nanoTime();
       // Note: This method needs to be synchronized because it needs exclusive
       // access while it closes and then re-opens the target file.
       //
@@ -136,11 +147,46 @@ public class RollingFileAppender<E> extends FileAppender<E> {
       this.closeOutputStream();
       attemptRollover();
       attemptOpenFile();
+      recordRolloverDuration(System.nanoTime() - start);
     } finally {
       lock.unlock();
     }
   }
 
+  private void recordRolloverDuration(long nanos) {
+    rolloverCount++;
+    lastRolloverNanos = nanos;
+    if (nanos > maxRolloverNanos) {
+      maxRolloverNanos = nanos;
+    }
+  }
+
+  /**
+   * @return the number of rollovers performed since this appender started
+   * @since 1.1.4
+   */
+  public long getRolloverCount() {
+    return rolloverCount;
+  }
+
+  /**
+   * @return the time the last rollover held the appender's lock, that is the
+   *         time logging threads were blocked by it, in nanoseconds
+   * @since 1.1.4
+   */
+  public long getLastRolloverNanos() {
+    return lastRolloverNanos;
+  }
+
+  /**
+   * @return the longest time a rollover held the appender's lock, in
+   *         nanoseconds
+   * @since 1.1.4
+   */
+  public long getMaxRolloverNanos() {
+    return maxRolloverNanos;
+  }
+
     private void attemptOpenFile() {
       try {
         // update the currentlyActiveFile LOGBACK-64
@@ -182,6 +228,27 @@ public class RollingFileAppender<E> extends FileAppender<E> {
     super.subAppend(event);
   }
 
+  /**
+   * Write the batch, rolling over before any triggering event. Events are
+   * written one by one, so that a size-based trigger sees the bytes of the
+   * events preceding it, but under a single acquisition of the lock.
+   */
+  @Override
+  protected void subAppendBatch(List<E> events) {
+    // the triggering policy is locked before the output stream, as in
+    // subAppend()
+    synchronized (triggeringPolicy) {
+      subAppendOneByOne(events);
+    }
+  }
+
+  @Override
+  protected void beforeWriteOf(E event) {
+    if (triggeringPolicy.isTriggeringEvent(currentlyActiveFile, event)) {
+      rollover();
+    }
+  }
+
   public RollingPolicy getRollingPolicy() {
     return rollingPolicy;
   }
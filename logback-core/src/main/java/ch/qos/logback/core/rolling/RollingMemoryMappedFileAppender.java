@@ -0,0 +1,71 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import ch.qos.logback.core.MemoryMappedFileAppender;
+import ch.qos.logback.core.recovery.MappedFileOutputStream;
+import ch.qos.logback.core.recovery.MappedFileUtil;
+import ch.qos.logback.core.util.FileSize;
+
+/**
+ * A {@link RollingFileAppender} writing through regions of the active file
+ * mapped in memory, as {@link MemoryMappedFileAppender} does. The active file
+ * is truncated to the length actually written before each rollover.
+ * <p/>
+ * Prudent mode and the incremental compression of
+ * {@link TimeBasedRollingPolicy} are not supported, as the mapped file holds
+ * unwritten bytes at its end until it is closed.
+ *
+ * @since 1.1.4
+ */
+public class RollingMemoryMappedFileAppender<E> extends RollingFileAppender<E> {
+
+  private FileSize regionSize = new FileSize(MappedFileOutputStream.DEFAULT_REGION_SIZE);
+
+  @Override
+  public void start() {
+    if (!MappedFileUtil.isStartable(this, regionSize)) {
+      return;
+    }
+    RollingPolicy policy = getRollingPolicy();
+    if (policy instanceof TimeBasedRollingPolicy
+        && ((TimeBasedRollingPolicy<?>) policy).getIncrementalCompressionPeriod() != null) {
+      addError("Incremental compression is not supported by RollingMemoryMappedFileAppender named ["
+          + getName() + "].");
+      return;
+    }
+    super.start();
+  }
+
+  @Override
+  protected OutputStream openFileOutputStream(File file) throws IOException {
+    return MappedFileUtil.open(file, append, regionSize);
+  }
+
+  public FileSize getRegionSize() {
+    return regionSize;
+  }
+
+  /**
+   * The size of the regions of the active file mapped in memory, 32MB by
+   * default. The file grows by this size whenever a region is full.
+   */
+  public void setRegionSize(FileSize regionSize) {
+    this.regionSize = regionSize;
+  }
+}
@@ -14,7 +14,10 @@
 package ch.qos.logback.core.rolling;
 
 import ch.qos.logback.core.FileAppender;
+import java.util.zip.Deflater;
+
 import ch.qos.logback.core.rolling.helper.CompressionMode;
+import ch.qos.logback.core.rolling.helper.Compressor;
 import ch.qos.logback.core.rolling.helper.FileNamePattern;
 import ch.qos.logback.core.spi.ContextAwareBase;
 
@@ -38,6 +41,10 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements
   FileNamePattern zipEntryFileNamePattern;
   private boolean started;
 
+  int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+  int compressionBufferSize = Compressor.BUFFER_SIZE;
+  int compressionThreads = 1;
+
   /**
    * Given the FileNamePattern string, this method determines the compression
    * mode depending on last letters of the fileNamePatternStr. Patterns ending
@@ -70,6 +77,62 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements
     return compressionMode;
   }
 
+  /**
+   * Create a compressor for the compression mode of this policy, configured
+   * with the compression properties of this policy.
+   */
+  protected Compressor buildCompressor() {
+    Compressor compressor = new Compressor(compressionMode);
+    compressor.setContext(context);
+    compressor.setCompressionLevel(compressionLevel);
+    compressor.setBufferSize(compressionBufferSize);
+    compressor.setCompressionThreads(compressionThreads);
+    return compressor;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Set the deflate compression level of archives, from 0 (no compression)
+   * to 9 (best compression). By default the JDK's default level is used.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+  }
+
+  public int getCompressionBufferSize() {
+    return compressionBufferSize;
+  }
+
+  /**
+   * Set the size of the buffers used to read and write files during
+   * compression. The default is 8192 bytes.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionBufferSize(int compressionBufferSize) {
+    this.compressionBufferSize = compressionBufferSize;
+  }
+
+  public int getCompressionThreads() {
+    return compressionThreads;
+  }
+
+  /**
+   * Set the number of threads compressing a gz archive in parallel, in
+   * blocks. The resulting archive is a multi-member gzip file. By default
+   * archives are compressed by a single thread.
+   *
+   * @since 1.1.4
+   */
+  public void setCompressionThreads(int compressionThreads) {
+    this.compressionThreads = compressionThreads;
+  }
+
   public boolean isStarted() {
     return started;
   }
@@ -93,4 +156,16 @@ public abstract class RollingPolicyBase extends ContextAwareBase implements
   public String getParentsRawFileProperty() {
     return parent.rawFileProperty();
   }
+
+  /**
+   * @return the length of the parent's active file as tracked in memory, or
+   *         -1 if unknown
+   * @since 1.1.4
+   */
+  public long getParentsActiveFileLength() {
+    if (parent == null) {
+      return -1;
+    }
+    return parent.getActiveFileLength();
+  }
 }
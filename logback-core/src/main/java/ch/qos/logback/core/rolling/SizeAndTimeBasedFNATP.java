@@ -17,6 +17,7 @@ import java.io.File;
 import java.util.Date;
 
 import ch.qos.logback.core.joran.spi.NoAutoStart;
+import ch.qos.logback.core.rolling.helper.ArchiveIndex;
 import ch.qos.logback.core.rolling.helper.ArchiveRemover;
 import ch.qos.logback.core.rolling.helper.CompressionMode;
 import ch.qos.logback.core.rolling.helper.FileFilterUtil;
@@ -43,11 +44,14 @@ public class SizeAndTimeBasedFNATP<E> extends
     // we need to get the correct value of currentPeriodsCounter.
     // usually the value is 0, unless the appender or the application
     // is stopped and restarted within the same period
-    String regex = tbrp.fileNamePattern.toRegexForFixedDate(dateInCurrentPeriod);
-    String stemRegex = FileFilterUtil.afterLastSlash(regex);
-
-
-    computeCurrentPeriodsHighestCounterValue(stemRegex);
+    if (tbrp.archiveIndex != null) {
+      computeCurrentPeriodsHighestCounterValue(tbrp.archiveIndex);
+    }
+    if (tbrp.archiveIndex == null) {
+      String regex = tbrp.fileNamePattern.toRegexForFixedDate(dateInCurrentPeriod);
+      String stemRegex = FileFilterUtil.afterLastSlash(regex);
+      computeCurrentPeriodsHighestCounterValue(stemRegex);
+    }
 
     started = true;
   }
@@ -56,6 +60,36 @@ public class SizeAndTimeBasedFNATP<E> extends
     return new SizeAndTimeBasedArchiveRemover(tbrp.fileNamePattern, rc);
   }
 
+  /**
+   * Find the highest counter of the current period in the archive index,
+   * then probe for archives with higher counters, which the index does not
+   * know of. Without raw file property nor compression, the active file is
+   * such an archive. Otherwise, the archives were made after the index was
+   * last updated and the index is discarded.
+   */
+  void computeCurrentPeriodsHighestCounterValue(ArchiveIndex archiveIndex) {
+    int highest = archiveIndex.getHighestCounter(archiveIndex.getPeriod(dateInCurrentPeriod));
+    int unindexed = 0;
+    while (new File(tbrp.fileNamePattern.convertMultipleArguments(dateInCurrentPeriod, highest + 1)).exists()) {
+      highest++;
+      unindexed++;
+    }
+    boolean activeFileIsUnindexed = tbrp.getParentsRawFileProperty() == null
+        && tbrp.compressionMode == CompressionMode.NONE;
+    if (unindexed > (activeFileIsUnindexed ? 1 : 0)) {
+      tbrp.discardArchiveIndex("archives of the current period are missing from it");
+      return;
+    }
+    if (highest == -1) {
+      currentPeriodsCounter = 0;
+      return;
+    }
+    currentPeriodsCounter = highest;
+    if (tbrp.getParentsRawFileProperty() != null || (tbrp.compressionMode != CompressionMode.NONE)) {
+      currentPeriodsCounter++;
+    }
+  }
+
   void computeCurrentPeriodsHighestCounterValue(final String stemRegex) {
     File file = new File(getCurrentPeriodsFileNameWithoutCompressionSuffix());
     File parentDir = file.getParentFile();
@@ -97,15 +131,20 @@ public class SizeAndTimeBasedFNATP<E> extends
       return true;
     }
 
-    // for performance reasons, check for changes every 16,invocationMask invocations
-    if (((++invocationCounter) & invocationMask) != invocationMask) {
-      return false;
-    }
-    if (invocationMask < 0x0F) {
-      invocationMask = (invocationMask << 1) + 1;
+    // the length tracked by the appender is exact and costs no system call
+    long length = tbrp.getParentsActiveFileLength();
+    if (length < 0) {
+      // for performance reasons, check for changes every 16,invocationMask invocations
+      if (((++invocationCounter) & invocationMask) != invocationMask) {
+        return false;
+      }
+      if (invocationMask < 0x0F) {
+        invocationMask = (invocationMask << 1) + 1;
+      }
+      length = activeFile.length();
     }
 
-    if (activeFile.length() >= maxFileSize.getSize()) {
+    if (length >= maxFileSize.getSize()) {
       elapsedPeriodsFileName = tbrp.fileNamePatternWCS
               .convertMultipleArguments(dateInCurrentPeriod, currentPeriodsCounter);
       currentPeriodsCounter++;
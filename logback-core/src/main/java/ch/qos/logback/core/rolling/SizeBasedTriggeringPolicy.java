@@ -15,6 +15,7 @@ package ch.qos.logback.core.rolling;
 
 import java.io.File;
 
+import ch.qos.logback.core.FileAppender;
 import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.InvocationGate;
 
@@ -22,6 +23,11 @@ import ch.qos.logback.core.util.InvocationGate;
  * SizeBasedTriggeringPolicy looks at size of the file being currently written
  * to. If it grows bigger than the specified size, the FileAppender using the
  * SizeBasedTriggeringPolicy rolls the file and creates a new one.
+ * <p/>
+ * When the policy knows the appender writing the file, the size is the
+ * length tracked in memory by the appender, and is checked on every event.
+ * Otherwise the size of the file is looked up on the file system, for a
+ * fraction of the events only.
  * 
  * For more information about this policy, please refer to the online manual at
  * http://logback.qos.ch/manual/appenders.html#SizeBasedTriggeringPolicy
@@ -49,8 +55,15 @@ public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> {
 
   private InvocationGate invocationGate = new InvocationGate();
 
+  private FileAppender<?> parent;
+
   public boolean isTriggeringEvent(final File activeFile, final E event) {
-  if(invocationGate.skipFurtherWork())
+    long length = parent == null ? -1 : parent.getActiveFileLength();
+    if (length >= 0) {
+      return length >= maxFileSize.getSize();
+    }
+
+    if(invocationGate.skipFurtherWork())
       return false;
 
     long now = System.currentTimeMillis();
@@ -59,6 +72,16 @@ public class SizeBasedTriggeringPolicy<E> extends TriggeringPolicyBase<E> {
     return (activeFile.length() >= maxFileSize.getSize());
   }
 
+  /**
+   * Set the appender writing the file, whose in-memory tracking of the
+   * file's length is then used instead of the file system.
+   *
+   * @since 1.1.4
+   */
+  public void setParent(FileAppender<?> parent) {
+    this.parent = parent;
+  }
+
   public String getMaxFileSize() {
     return maxFileSizeAsString;
   }
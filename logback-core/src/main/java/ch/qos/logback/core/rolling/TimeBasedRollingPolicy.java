@@ -14,14 +14,26 @@
 package ch.qos.logback.core.rolling;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.rolling.helper.*;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+import ch.qos.logback.core.util.FileUtil;
 
 /**
  * <code>TimeBasedRollingPolicy</code> is both easy to configure and quite
@@ -46,12 +58,28 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
   Future<?> future;
 
   private int maxHistory = INFINITE_HISTORY;
+  private FileSize totalSizeCap;
   private ArchiveRemover archiveRemover;
+  ArchiveIndex archiveIndex;
+  private String archiveIndexFile;
+  // archives still being compressed, registered in the index once complete
+  private final List<PendingArchive> pendingArchives = new ArrayList<PendingArchive>();
 
   TimeBasedFileNamingAndTriggeringPolicy<E> timeBasedFileNamingAndTriggeringPolicy;
 
   boolean cleanHistoryOnStart = false;
 
+  boolean asynchronousRollover = false;
+  // archiving jobs are run in rollover order, one at a time
+  private final Queue<ArchivingJob> archivingJobs = new ConcurrentLinkedQueue<ArchivingJob>();
+  private final Object archivingLock = new Object();
+  private volatile long lastArchivingDurationMillis;
+
+  private Duration incrementalCompressionPeriod;
+  private IncrementalCompressor incrementalCompressor;
+  private final AtomicBoolean incrementInFlight = new AtomicBoolean(false);
+  private long nextIncrementTime;
+
   public void start() {
     // set the LR for our utility object
     renameUtil.setContext(this.context);
@@ -67,8 +95,7 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
           + CoreConstants.SEE_FNP_NOT_SET);
     }
 
-    compressor = new Compressor(compressionMode);
-    compressor.setContext(context);
+    compressor = buildCompressor();
 
     // wcs : without compression suffix
     fileNamePatternWCS = new FileNamePattern(Compressor.computeFileNameStr_WCS(
@@ -85,22 +112,61 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
     if (timeBasedFileNamingAndTriggeringPolicy == null) {
       timeBasedFileNamingAndTriggeringPolicy = new DefaultTimeBasedFileNamingAndTriggeringPolicy<E>();
     }
+    if (archiveIndexFile != null) {
+      // read before the triggering policy starts, which may look archives up
+      loadArchiveIndex();
+    }
+
     timeBasedFileNamingAndTriggeringPolicy.setContext(context);
     timeBasedFileNamingAndTriggeringPolicy.setTimeBasedRollingPolicy(this);
     timeBasedFileNamingAndTriggeringPolicy.start();
 
+    if (archiveIndex == null && (archiveIndexFile != null || totalSizeCap != null)) {
+      archiveIndex = ArchiveIndex.build(fileNamePattern, new File(getActiveFileName()));
+      archiveIndex.setContext(context);
+      addInfo("Indexed " + archiveIndex.size() + " archives totaling " + archiveIndex.getTotalSize() + " bytes");
+    }
+    if (archiveIndex != null && archiveIndexFile != null) {
+      persistArchiveIndex();
+    }
+
     // the maxHistory property is given to TimeBasedRollingPolicy instead of to
     // the TimeBasedFileNamingAndTriggeringPolicy. This makes it more convenient
     // for the user at the cost of inconsistency here.
-    if (maxHistory != INFINITE_HISTORY) {
+    if (maxHistory != INFINITE_HISTORY || totalSizeCap != null) {
       archiveRemover = timeBasedFileNamingAndTriggeringPolicy.getArchiveRemover();
-      archiveRemover.setMaxHistory(maxHistory);
+      if (maxHistory != INFINITE_HISTORY) {
+        archiveRemover.setMaxHistory(maxHistory);
+      }
+      if (archiveIndex != null) {
+        archiveRemover.setArchiveIndex(archiveIndex);
+      }
+      if (totalSizeCap != null) {
+        addInfo("Archives total " + archiveIndex.getTotalSize() + " bytes, total size cap is " + totalSizeCap);
+        archiveRemover.setTotalSizeCap(totalSizeCap.getSize(), archiveIndex);
+      }
       if(cleanHistoryOnStart) {
         addInfo("Cleaning on start up");
         archiveRemover.clean(new Date(timeBasedFileNamingAndTriggeringPolicy.getCurrentTime()));
       }
     }
 
+    if (incrementalCompressionPeriod != null) {
+      if (compressionMode == CompressionMode.GZ) {
+        incrementalCompressor = new IncrementalCompressor(compressor);
+        incrementalCompressor.setContext(context);
+        incrementalCompressor.track(new File(getActiveFileName()));
+        nextIncrementTime = timeBasedFileNamingAndTriggeringPolicy.getCurrentTime()
+            + incrementalCompressionPeriod.getMilliseconds();
+      } else {
+        addWarn("Incremental compression requires gz compression, ignoring incrementalCompressionPeriod");
+      }
+    }
+
+    if (getParentsRawFileProperty() != null) {
+      recoverStagedFiles();
+    }
+
     super.start();
   }
 
@@ -109,9 +175,48 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
     if(!isStarted())
       return;
     waitForAsynchronousJobToStop();
+    if (archiveIndex != null) {
+      indexCompressedArchives();
+    }
     super.stop();
   }
 
+  private void loadArchiveIndex() {
+    File file = new File(archiveIndexFile);
+    try {
+      archiveIndex = ArchiveIndex.load(fileNamePattern, file);
+      if (archiveIndex == null) {
+        addInfo("No archive index found at [" + file + "], archives will be listed");
+        return;
+      }
+      archiveIndex.setContext(context);
+      addInfo("Read " + archiveIndex.size() + " archives totaling " + archiveIndex.getTotalSize()
+          + " bytes from archive index [" + file + "]");
+    } catch (IOException e) {
+      addWarn("Ignoring archive index [" + file + "], archives will be listed", e);
+    }
+  }
+
+  private void persistArchiveIndex() {
+    File file = new File(archiveIndexFile);
+    try {
+      FileUtil.createMissingParentDirectories(file);
+      archiveIndex.persistTo(file);
+    } catch (IOException e) {
+      addWarn("Failed to write archive index [" + file + "]", e);
+    }
+  }
+
+  /**
+   * Forget the archive index read on start up, typically because archives
+   * were found which it does not list. The archive directories are listed
+   * instead.
+   */
+  void discardArchiveIndex(String reason) {
+    addWarn("Ignoring archive index [" + archiveIndexFile + "]: " + reason);
+    archiveIndex = null;
+  }
+
 
   private void waitForAsynchronousJobToStop() {
     if(future != null) {
@@ -148,35 +253,256 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
 
     String elapsedPeriodStem = FileFilterUtil.afterLastSlash(elapsedPeriodsFileName);
 
+    IncrementalCompressor.Checkpoint checkpoint = null;
+    if (incrementalCompressor != null) {
+      checkpoint = incrementalCompressor.detach();
+    }
+
+    if (asynchronousRollover) {
+      asynchronousRollover(elapsedPeriodsFileName, elapsedPeriodStem, checkpoint);
+      trackActiveFile();
+      return;
+    }
+
     if (compressionMode == CompressionMode.NONE) {
       if (getParentsRawFileProperty() != null) {
         renameUtil.rename(getParentsRawFileProperty(), elapsedPeriodsFileName);
       } // else { nothing to do if CompressionMode == NONE and parentsRawFileProperty == null }
+      if (archiveIndex != null) {
+        archiveIndex.add(new File(elapsedPeriodsFileName));
+      }
     } else {
       if (getParentsRawFileProperty() == null) {
-        future = asyncCompress(elapsedPeriodsFileName, elapsedPeriodsFileName, elapsedPeriodStem);
+        future = asyncCompress(elapsedPeriodsFileName, elapsedPeriodsFileName, elapsedPeriodStem, checkpoint);
       } else {
-        future = renamedRawAndAsyncCompress(elapsedPeriodsFileName, elapsedPeriodStem);
+        future = renamedRawAndAsyncCompress(elapsedPeriodsFileName, elapsedPeriodStem, checkpoint);
+      }
+      if (archiveIndex != null) {
+        String archiveName = elapsedPeriodsFileName + compressionSuffix();
+        pendingArchives.add(new PendingArchive(new File(archiveName), future));
       }
     }
 
+    if (archiveIndex != null) {
+      indexCompressedArchives();
+    }
     if (archiveRemover != null) {
       archiveRemover.clean(new Date(timeBasedFileNamingAndTriggeringPolicy.getCurrentTime()));
     }
+    trackActiveFile();
+  }
+
+  private void trackActiveFile() {
+    if (incrementalCompressor != null) {
+      incrementalCompressor.track(new File(getActiveFileName()));
+    }
+  }
+
+  /**
+   * Only move the elapsed period's file out of the way of the active file,
+   * and leave renaming, compression and archive removal to a job run by the
+   * executor of the context.
+   */
+  private void asynchronousRollover(String elapsedPeriodsFileName, String elapsedPeriodStem,
+      IncrementalCompressor.Checkpoint checkpoint) throws RolloverFailure {
+    String parentsRawFile = getParentsRawFileProperty();
+    String source;
+    if (parentsRawFile != null) {
+      // a rename within the same folder, which does not involve copying
+      source = parentsRawFile + System.nanoTime() + ".tmp";
+      renameUtil.rename(parentsRawFile, source);
+    } else {
+      // the active file was specific to the elapsed period
+      source = elapsedPeriodsFileName;
+    }
+    Date now = new Date(timeBasedFileNamingAndTriggeringPolicy.getCurrentTime());
+    archivingJobs.add(new ArchivingJob(source, elapsedPeriodsFileName, elapsedPeriodStem, checkpoint, now));
+    submitArchivingJobs();
+  }
+
+  /**
+   * Archive the files the active file was renamed to at rollover but which
+   * were left unarchived, typically because the JVM exited before the
+   * archiving job ran. Each file is archived under the name of the period
+   * it was last modified in.
+   */
+  private void recoverStagedFiles() {
+    File rawFile = new File(getParentsRawFileProperty());
+    File parent = rawFile.getAbsoluteFile().getParentFile();
+    String[] names = parent == null ? null : parent.list();
+    if (names == null) {
+      return;
+    }
+    String stagedRegex = Pattern.quote(rawFile.getName()) + "\\d+\\.tmp";
+    boolean recovered = false;
+    for (String name : names) {
+      if (!name.matches(stagedRegex)) {
+        continue;
+      }
+      File staged = new File(parent, name);
+      String target = freeArchiveName(new Date(staged.lastModified()));
+      if (target == null) {
+        addWarn("Leaving staged file [" + staged + "] in place, its archive name is taken");
+        continue;
+      }
+      addInfo("Recovering staged file [" + staged + "] as [" + target + "]");
+      Date now = new Date(timeBasedFileNamingAndTriggeringPolicy.getCurrentTime());
+      archivingJobs.add(new ArchivingJob(staged.getPath(), target, FileFilterUtil.afterLastSlash(target), null, now));
+      recovered = true;
+    }
+    if (recovered) {
+      submitArchivingJobs();
+    }
+  }
+
+  /**
+   * Archive name, without compression suffix, for the period of the given
+   * date which neither an archive nor a pending archiving job uses, or null
+   * if there is none.
+   */
+  private String freeArchiveName(Date date) {
+    boolean indexed = fileNamePatternWCS.getIntegerTokenConverter() != null;
+    for (int i = 0; i < (indexed ? Integer.MAX_VALUE : 1); i++) {
+      String name = indexed ? fileNamePatternWCS.convertMultipleArguments(date, i) : fileNamePatternWCS.convert(date);
+      if (!new File(name).exists() && !new File(name + compressionSuffix()).exists() && !isArchivingTarget(name)) {
+        return name;
+      }
+    }
+    return null;
+  }
+
+  private boolean isArchivingTarget(String name) {
+    for (ArchivingJob job : archivingJobs) {
+      if (job.elapsedPeriodsFileName.equals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void submitArchivingJobs() {
+    Runnable drainer = new Runnable() {
+      public void run() {
+        runArchivingJobs();
+      }
+    };
+    try {
+      future = context.getExecutorService().submit(drainer);
+    } catch (RejectedExecutionException e) {
+      addWarn("Executor rejected archiving job, archiving on the logging thread instead");
+      runArchivingJobs();
+    }
+  }
+
+  /**
+   * Run the pending archiving jobs in order. Once a call returns, the jobs
+   * queued before it was made have completed.
+   */
+  private void runArchivingJobs() {
+    synchronized (archivingLock) {
+      ArchivingJob job;
+      while ((job = archivingJobs.poll()) != null) {
+        job.run();
+      }
+    }
+  }
+
+  class ArchivingJob {
+    final String source;
+    final String elapsedPeriodsFileName;
+    final String elapsedPeriodStem;
+    final IncrementalCompressor.Checkpoint checkpoint;
+    final Date now;
+
+    ArchivingJob(String source, String elapsedPeriodsFileName, String elapsedPeriodStem,
+        IncrementalCompressor.Checkpoint checkpoint, Date now) {
+      this.source = source;
+      this.elapsedPeriodsFileName = elapsedPeriodsFileName;
+      this.elapsedPeriodStem = elapsedPeriodStem;
+      this.checkpoint = checkpoint;
+      this.now = now;
+    }
+
+    void run() {
+      long start = System.currentTimeMillis();
+      try {
+        if (compressionMode == CompressionMode.NONE) {
+          if (!source.equals(elapsedPeriodsFileName)) {
+            renameUtil.rename(source, elapsedPeriodsFileName);
+          }
+        } else if (checkpoint != null) {
+          incrementalCompressor.complete(checkpoint, source, elapsedPeriodsFileName);
+        } else {
+          compressor.compress(source, elapsedPeriodsFileName, elapsedPeriodStem);
+        }
+        if (archiveIndex != null) {
+          archiveIndex.add(new File(elapsedPeriodsFileName + compressionSuffix()));
+        }
+        if (archiveRemover != null) {
+          archiveRemover.clean(now);
+        }
+      } catch (RolloverFailure rf) {
+        addError("Failed to archive [" + source + "] as [" + elapsedPeriodsFileName + "]", rf);
+      } catch (RuntimeException e) {
+        // keep the drainer going, later jobs are independent of this one
+        addError("Unexpected failure archiving [" + source + "] as [" + elapsedPeriodsFileName + "]", e);
+      }
+      lastArchivingDurationMillis = System.currentTimeMillis() - start;
+      addInfo("Archived [" + elapsedPeriodsFileName + "] in " + lastArchivingDurationMillis + " ms");
+    }
   }
 
-  Future asyncCompress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName)
-      throws RolloverFailure {
+  private String compressionSuffix() {
+    switch (compressionMode) {
+      case GZ:
+        return ".gz";
+      case ZIP:
+        return ".zip";
+      default:
+        return "";
+    }
+  }
+
+  /**
+   * Register the archives whose compression completed in the archive index.
+   */
+  private void indexCompressedArchives() {
+    Iterator<PendingArchive> it = pendingArchives.iterator();
+    while (it.hasNext()) {
+      PendingArchive pending = it.next();
+      if (pending.future == null || pending.future.isDone()) {
+        archiveIndex.add(pending.archive);
+        it.remove();
+      }
+    }
+  }
+
+  static class PendingArchive {
+    final File archive;
+    final Future<?> future;
+
+    PendingArchive(File archive, Future<?> future) {
+      this.archive = archive;
+      this.future = future;
+    }
+  }
+
+  Future asyncCompress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName,
+      IncrementalCompressor.Checkpoint checkpoint) throws RolloverFailure {
     AsynchronousCompressor ac = new AsynchronousCompressor(compressor);
+    if (checkpoint != null) {
+      return ac.runAsynchronously(incrementalCompressor.new CompletionRunnable(checkpoint, nameOfFile2Compress,
+          nameOfCompressedFile));
+    }
     return ac.compressAsynchronously(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
   }
 
-  Future renamedRawAndAsyncCompress(String nameOfCompressedFile, String innerEntryName)
-      throws RolloverFailure {
+  Future renamedRawAndAsyncCompress(String nameOfCompressedFile, String innerEntryName,
+      IncrementalCompressor.Checkpoint checkpoint) throws RolloverFailure {
     String parentsRawFile = getParentsRawFileProperty();
     String tmpTarget = parentsRawFile + System.nanoTime() + ".tmp";
     renameUtil.rename(parentsRawFile, tmpTarget);
-    return asyncCompress(tmpTarget, nameOfCompressedFile, innerEntryName);
+    return asyncCompress(tmpTarget, nameOfCompressedFile, innerEntryName, checkpoint);
   }
 
   /**
@@ -210,7 +536,37 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
   }
 
   public boolean isTriggeringEvent(File activeFile, final E event) {
-    return timeBasedFileNamingAndTriggeringPolicy.isTriggeringEvent(activeFile, event);
+    boolean triggering = timeBasedFileNamingAndTriggeringPolicy.isTriggeringEvent(activeFile, event);
+    if (!triggering && incrementalCompressor != null) {
+      scheduleCompressionIncrementIfDue();
+    }
+    return triggering;
+  }
+
+  /**
+   * Hand the next compression increment of the active file to the executor
+   * of the context, unless the previous one is still running.
+   */
+  private void scheduleCompressionIncrementIfDue() {
+    long now = timeBasedFileNamingAndTriggeringPolicy.getCurrentTime();
+    if (now < nextIncrementTime || !incrementInFlight.compareAndSet(false, true)) {
+      return;
+    }
+    nextIncrementTime = now + incrementalCompressionPeriod.getMilliseconds();
+    Runnable increment = new Runnable() {
+      public void run() {
+        try {
+          incrementalCompressor.compressIncrement();
+        } finally {
+          incrementInFlight.set(false);
+        }
+      }
+    };
+    try {
+      context.getExecutorService().submit(increment);
+    } catch (RejectedExecutionException e) {
+      incrementInFlight.set(false);
+    }
   }
 
   /**
@@ -233,6 +589,91 @@ public class TimeBasedRollingPolicy<E> extends RollingPolicyBase implements
   }
 
 
+  public FileSize getTotalSizeCap() {
+    return totalSizeCap;
+  }
+
+  /**
+   * Set the maximum total size of the archives. Once exceeded, the oldest
+   * archives are deleted, whatever their period, until the total size of the
+   * remaining ones fits within the cap. By default the total size is not
+   * capped.
+   * <p/>
+   * Archives are indexed once on start up, and then on each rollover. A
+   * compressed archive is accounted for by the first rollover following the
+   * completion of its compression.
+   *
+   * @since 1.1.4
+   */
+  public void setTotalSizeCap(FileSize totalSizeCap) {
+    this.totalSizeCap = totalSizeCap;
+  }
+
+  public String getArchiveIndexFile() {
+    return archiveIndexFile;
+  }
+
+  /**
+   * Keep an index of the archives in the given file, so that starting up
+   * does not require the archive folders to be listed. The file is rewritten
+   * on start up and then updated on each rollover. It is ignored, and the
+   * archive folders listed, if it is missing or does not match the archives
+   * on disk. By default there is no index file.
+   *
+   * @since 1.1.4
+   */
+  public void setArchiveIndexFile(String archiveIndexFile) {
+    this.archiveIndexFile = archiveIndexFile;
+  }
+
+  public boolean isAsynchronousRollover() {
+    return asynchronousRollover;
+  }
+
+  /**
+   * When true, a rollover only closes the active file, moves it aside and
+   * opens a new one on the logging thread. Renaming the elapsed period's file
+   * to its final name, compressing it and removing old archives are done
+   * afterwards by the executor of the context. By default this property is
+   * false.
+   *
+   * @since 1.1.4
+   */
+  public void setAsynchronousRollover(boolean asynchronousRollover) {
+    this.asynchronousRollover = asynchronousRollover;
+  }
+
+  /**
+   * @return the time taken by the last asynchronous archiving job, in
+   *         milliseconds
+   */
+  public long getLastArchivingDurationMillis() {
+    return lastArchivingDurationMillis;
+  }
+
+  public Duration getIncrementalCompressionPeriod() {
+    return incrementalCompressionPeriod;
+  }
+
+  /**
+   * Compress the active file incrementally, once per given period, so that
+   * a rollover only has to compress what was logged since the last
+   * increment. Only applies to gz compression. By default the active file
+   * is compressed as a whole on rollover.
+   *
+   * @since 1.1.4
+   */
+  public void setIncrementalCompressionPeriod(Duration incrementalCompressionPeriod) {
+    this.incrementalCompressionPeriod = incrementalCompressionPeriod;
+  }
+
+  /**
+   * @return the compressor of this policy, which tracks compression metrics
+   */
+  public Compressor getCompressor() {
+    return compressor;
+  }
+
   public boolean isCleanHistoryOnStart() {
     return cleanHistoryOnStart;
   }
@@ -0,0 +1,491 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import ch.qos.logback.core.pattern.Converter;
+import ch.qos.logback.core.pattern.LiteralConverter;
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * An in-memory index of the archives generated by a {@link FileNamePattern},
+ * oldest first.
+ * <p/>
+ * The index is built once, by walking the directories the pattern can
+ * produce, and is then kept up to date by registering each new archive on
+ * rollover and unregistering each deleted one. Enforcing a cap on the total
+ * size of the archives thus costs in proportion to the number of archives
+ * removed, instead of requiring the archive directories to be listed again.
+ * <p/>
+ * The index can be persisted to a sidecar file with {@link #persistTo(File)}
+ * and read back on the next start with {@link #load(FileNamePattern, File)},
+ * which spares the walk of the archive directories. The file holds a
+ * snapshot of the index followed by a journal, each registration or
+ * unregistration appending one line to it.
+ * <p/>
+ * Archives must be complete when they are registered, their size is read
+ * once at that time.
+ *
+ * @since 1.1.4
+ */
+public class ArchiveIndex extends ContextAwareBase {
+
+  static final String MAGIC = "logback-archive-index";
+  static final String VERSION = "1";
+  static final char ADDED = '+';
+  static final char REMOVED = '-';
+  static final String ENCODING = "UTF-8";
+
+  static class Entry {
+    final File file;
+    final long length;
+    // the formatted date of the period of the archive, null if unknown
+    final String period;
+    // -1 if unknown or if the pattern has no %i token
+    final int counter;
+    final boolean compressed;
+
+    Entry(File file, long length) {
+      this(file, length, null, -1);
+    }
+
+    Entry(File file, long length, String period, int counter) {
+      this.file = file;
+      this.length = length;
+      this.period = period;
+      this.counter = counter;
+      String name = file.getName();
+      this.compressed = name.endsWith(".gz") || name.endsWith(".zip");
+    }
+  }
+
+  // insertion order is the age order, oldest first
+  private final Map<File, Entry> entries = new LinkedHashMap<File, Entry>();
+  private long totalSize;
+
+  private final FileNamePattern fileNamePattern;
+  private final ArchiveNameParser parser;
+  private File journalFile;
+
+  public ArchiveIndex() {
+    this(null);
+  }
+
+  /**
+   * @param fileNamePattern the pattern of the archives, from which the period
+   *                        and counter of each archive are parsed, may be null
+   */
+  public ArchiveIndex(FileNamePattern fileNamePattern) {
+    this.fileNamePattern = fileNamePattern;
+    this.parser = fileNamePattern == null ? null : new ArchiveNameParser(fileNamePattern);
+  }
+
+  /**
+   * Build the index of the archives matching <code>fileNamePattern</code>
+   * which exist on disk, ordered by last modification date.
+   *
+   * @param activeFile the file currently written to, which is never indexed
+   *                   even if it matches the pattern, may be null
+   */
+  public static ArchiveIndex build(FileNamePattern fileNamePattern, File activeFile) {
+    ArchiveIndex index = new ArchiveIndex(fileNamePattern);
+    String prefix = fileNamePattern.getLiteralPrefix();
+    int lastSlash = prefix.lastIndexOf('/');
+    String baseDirName = lastSlash == -1 ? "" : prefix.substring(0, lastSlash + 1);
+    File baseDir = new File(baseDirName.length() == 0 ? "." : baseDirName);
+    String pattern = fileNamePattern.getPattern();
+    int depth = countSlashes(pattern.substring(baseDirName.length()));
+
+    List<File> found = new ArrayList<File>();
+    Pattern regex = Pattern.compile(fileNamePattern.toArchiveRegex());
+    collect(baseDir, baseDirName, depth, regex, found);
+
+    File[] archives = found.toArray(new File[found.size()]);
+    sortByLastModified(archives);
+    File excluded = activeFile == null ? null : activeFile.getAbsoluteFile();
+    for (File archive : archives) {
+      if (!archive.equals(excluded)) {
+        index.register(index.newEntry(archive, archive.length()));
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Read an index persisted by {@link #persistTo(File)}.
+   *
+   * @return the index, or null if <code>indexFile</code> does not exist
+   * @throws IOException if the file cannot be read, was written for another
+   *                     pattern or does not match the archives on disk
+   */
+  public static ArchiveIndex load(FileNamePattern fileNamePattern, File indexFile) throws IOException {
+    if (!indexFile.exists()) {
+      return null;
+    }
+    String content = readFully(indexFile);
+    // a line without its terminator was being appended when the process died
+    int end = content.lastIndexOf('\n');
+    String[] lines = end == -1 ? new String[0] : content.substring(0, end).split("\n", -1);
+    String expectedHeader = MAGIC + '\t' + VERSION + '\t' + fileNamePattern.getPattern();
+    if (lines.length == 0 || !lines[0].equals(expectedHeader)) {
+      throw new IOException("Index [" + indexFile + "] was not written for the pattern ["
+          + fileNamePattern.getPattern() + "]");
+    }
+
+    ArchiveIndex index = new ArchiveIndex(fileNamePattern);
+    for (int i = 1; i < lines.length; i++) {
+      index.replay(lines[i], indexFile);
+    }
+    index.checkAgainstDisk(indexFile);
+    return index;
+  }
+
+  private static String readFully(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream((int) Math.min(file.length(), Integer.MAX_VALUE));
+      byte[] buf = new byte[8192];
+      int n;
+      while ((n = in.read(buf)) != -1) {
+        baos.write(buf, 0, n);
+      }
+      return baos.toString(ENCODING);
+    } finally {
+      in.close();
+    }
+  }
+
+  private void replay(String line, File indexFile) throws IOException {
+    String[] fields = line.split("\t", 6);
+    if (fields.length == 6 && fields[0].length() == 1 && fields[0].charAt(0) == ADDED) {
+      try {
+        String period = fields[4].length() == 0 ? null : fields[4];
+        register(new Entry(new File(fields[5]), Long.parseLong(fields[2]), period, Integer.parseInt(fields[1])));
+        return;
+      } catch (NumberFormatException e) {
+        // reported below
+      }
+    } else if (fields.length == 2 && fields[0].length() == 1 && fields[0].charAt(0) == REMOVED) {
+      unregister(new File(fields[1]));
+      return;
+    }
+    throw new IOException("Unexpected line [" + line + "] in index [" + indexFile + "]");
+  }
+
+  /**
+   * Check that the oldest and newest archives, the most likely to have been
+   * deleted or created without the index knowing, are as indexed.
+   */
+  private void checkAgainstDisk(File indexFile) throws IOException {
+    Entry oldest = null;
+    Entry newest = null;
+    for (Entry entry : entries.values()) {
+      if (oldest == null) {
+        oldest = entry;
+      }
+      newest = entry;
+    }
+    if (oldest != null && !oldest.file.isFile()) {
+      throw new IOException("Archive [" + oldest.file + "] listed in index [" + indexFile + "] does not exist");
+    }
+    if (newest != null && newest.file.length() != newest.length) {
+      throw new IOException("Archive [" + newest.file + "] does not match index [" + indexFile + "]");
+    }
+  }
+
+  /**
+   * Write the index to <code>indexFile</code>, atomically replacing any
+   * previous content, then record each subsequent change to the index in
+   * that file.
+   */
+  public void persistTo(File indexFile) throws IOException {
+    File tmp = new File(indexFile.getPath() + ".tmp");
+    OutputStream os = new FileOutputStream(tmp);
+    try {
+      StringBuilder buf = new StringBuilder();
+      buf.append(MAGIC).append('\t').append(VERSION).append('\t').append(fileNamePattern.getPattern()).append('\n');
+      for (Entry entry : entries.values()) {
+        appendLine(buf, entry);
+        if (buf.length() >= 8192) {
+          os.write(buf.toString().getBytes(ENCODING));
+          buf.setLength(0);
+        }
+      }
+      os.write(buf.toString().getBytes(ENCODING));
+    } finally {
+      os.close();
+    }
+    if (!tmp.renameTo(indexFile)) {
+      // renaming over an existing file fails on some platforms
+      indexFile.delete();
+      if (!tmp.renameTo(indexFile)) {
+        tmp.delete();
+        throw new IOException("Failed to rename [" + tmp + "] as [" + indexFile + "]");
+      }
+    }
+    journalFile = indexFile;
+  }
+
+  private static void appendLine(StringBuilder buf, Entry entry) {
+    buf.append(ADDED).append('\t').append(entry.counter).append('\t').append(entry.length).append('\t')
+        .append(entry.compressed ? '1' : '0').append('\t').append(entry.period == null ? "" : entry.period)
+        .append('\t').append(entry.file.getPath()).append('\n');
+  }
+
+  /**
+   * Append a line to the persisted index, with a single write so that a
+   * crash leaves at most a partial last line, which is ignored on load.
+   */
+  private void journal(String line) {
+    if (journalFile == null) {
+      return;
+    }
+    try {
+      OutputStream os = new FileOutputStream(journalFile, true);
+      try {
+        os.write(line.getBytes(ENCODING));
+      } finally {
+        os.close();
+      }
+    } catch (IOException e) {
+      addWarn("Failed to update archive index [" + journalFile + "], removing it", e);
+      // the archive directories will be walked on the next start
+      journalFile.delete();
+      journalFile = null;
+    }
+  }
+
+  private static int countSlashes(String s) {
+    int count = 0;
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) == '/') {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static void collect(File dir, String dirPath, int depth, Pattern regex, List<File> found) {
+    File[] children = dir.listFiles();
+    if (children == null) {
+      return;
+    }
+    for (File child : children) {
+      String path = dirPath + child.getName();
+      if (depth > 0) {
+        if (child.isDirectory()) {
+          collect(child, path + '/', depth - 1, regex, found);
+        }
+      } else if (child.isFile() && regex.matcher(path).matches()) {
+        found.add(child.getAbsoluteFile());
+      }
+    }
+  }
+
+  private static void sortByLastModified(File[] files) {
+    // read each date once, a file may be modified while sorting
+    final Map<File, Long> dates = new HashMap<File, Long>();
+    for (File file : files) {
+      dates.put(file, file.lastModified());
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      public int compare(File f1, File f2) {
+        long d1 = dates.get(f1);
+        long d2 = dates.get(f2);
+        if (d1 != d2) {
+          return d1 < d2 ? -1 : 1;
+        }
+        return f1.getPath().compareTo(f2.getPath());
+      }
+    });
+  }
+
+  private Entry newEntry(File archive, long length) {
+    if (parser != null) {
+      Matcher m = parser.match(archive);
+      if (m != null) {
+        String period = parser.dateGroup == -1 ? null : m.group(parser.dateGroup);
+        int counter = parser.counterGroup == -1 ? -1 : parseCounter(m.group(parser.counterGroup));
+        return new Entry(archive, length, period, counter);
+      }
+    }
+    return new Entry(archive, length);
+  }
+
+  private static int parseCounter(String digits) {
+    try {
+      return Integer.parseInt(digits);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private void register(Entry entry) {
+    unregister(entry.file);
+    entries.put(entry.file, entry);
+    totalSize += entry.length;
+  }
+
+  private boolean unregister(File archive) {
+    Entry previous = entries.remove(archive);
+    if (previous != null) {
+      totalSize -= previous.length;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Register a new archive, as the most recent one.
+   */
+  public void add(File archive) {
+    File file = archive.getAbsoluteFile();
+    Entry entry = newEntry(file, file.length());
+    register(entry);
+    if (journalFile != null) {
+      StringBuilder buf = new StringBuilder();
+      appendLine(buf, entry);
+      journal(buf.toString());
+    }
+  }
+
+  /**
+   * Unregister an archive, typically because it was deleted.
+   */
+  public void remove(File archive) {
+    File file = archive.getAbsoluteFile();
+    if (unregister(file)) {
+      journal(String.valueOf(REMOVED) + '\t' + file.getPath() + '\n');
+    }
+  }
+
+  public boolean contains(File archive) {
+    return entries.containsKey(archive.getAbsoluteFile());
+  }
+
+  /**
+   * @return the oldest archive of the index, or null if the index is empty
+   */
+  public File getOldest() {
+    Iterator<File> it = entries.keySet().iterator();
+    return it.hasNext() ? it.next() : null;
+  }
+
+  /**
+   * @return the period, as formatted in archive names, which the given date
+   *         belongs to, or null if this index has no file name pattern
+   */
+  public String getPeriod(Date date) {
+    if (fileNamePattern == null) {
+      return null;
+    }
+    return fileNamePattern.getPrimaryDateTokenConverter().convert(date);
+  }
+
+  /**
+   * @return the archives of the given period, oldest first
+   */
+  public List<File> getArchives(String period) {
+    List<File> archives = new ArrayList<File>();
+    for (Entry entry : entries.values()) {
+      if (period.equals(entry.period)) {
+        archives.add(entry.file);
+      }
+    }
+    return archives;
+  }
+
+  /**
+   * @return the highest counter of the archives of the given period, or -1
+   *         if there are none
+   */
+  public int getHighestCounter(String period) {
+    int highest = -1;
+    for (Entry entry : entries.values()) {
+      if (period.equals(entry.period) && entry.counter > highest) {
+        highest = entry.counter;
+      }
+    }
+    return highest;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return the sum of the sizes of the indexed archives
+   */
+  public long getTotalSize() {
+    return totalSize;
+  }
+
+  /**
+   * Extracts the period and the counter from the name of an archive.
+   */
+  static class ArchiveNameParser {
+    final Pattern regex;
+    int dateGroup = -1;
+    int counterGroup = -1;
+
+    ArchiveNameParser(FileNamePattern fileNamePattern) {
+      DateTokenConverter<Object> primary = fileNamePattern.getPrimaryDateTokenConverter();
+      StringBuilder buf = new StringBuilder();
+      int groups = 0;
+      Converter<Object> p = fileNamePattern.headTokenConverter;
+      while (p != null) {
+        if (p instanceof LiteralConverter) {
+          buf.append(Pattern.quote(FileFilterUtil.slashify(p.convert(null))));
+        } else if (p instanceof IntegerTokenConverter) {
+          buf.append("(\\d+)");
+          counterGroup = ++groups;
+        } else if (p instanceof DateTokenConverter) {
+          String dateRegex = ((DateTokenConverter<Object>) p).toRegex();
+          buf.append('(').append(dateRegex).append(')');
+          groups++;
+          if (p == primary) {
+            dateGroup = groups;
+          }
+          groups += Pattern.compile(dateRegex).matcher("").groupCount();
+        }
+        p = p.getNext();
+      }
+      // absolute paths end with relative patterns
+      regex = Pattern.compile(buf.append('$').toString());
+    }
+
+    Matcher match(File archive) {
+      Matcher m = regex.matcher(FileFilterUtil.slashify(archive.getPath()));
+      return m.find() ? m : null;
+    }
+  }
+}
@@ -25,4 +25,20 @@ import ch.qos.logback.core.spi.ContextAware;
 public interface ArchiveRemover extends ContextAware {
   void clean(Date now);
   void setMaxHistory(int maxHistory);
+
+  /**
+   * Delete the oldest archives of <code>archiveIndex</code> whenever their
+   * total size exceeds <code>totalSizeCap</code> bytes.
+   *
+   * @since 1.1.4
+   */
+  void setTotalSizeCap(long totalSizeCap, ArchiveIndex archiveIndex);
+
+  /**
+   * Look archives up in <code>archiveIndex</code> rather than in the archive
+   * directories, and keep the index in sync with deletions.
+   *
+   * @since 1.1.4
+   */
+  void setArchiveIndex(ArchiveIndex archiveIndex);
 } 
\ No newline at end of file
@@ -26,9 +26,13 @@ public class AsynchronousCompressor {
 
   public Future<?> compressAsynchronously(String nameOfFile2Compress,
       String nameOfCompressedFile, String innerEntryName) {
-    ExecutorService executor = Executors.newScheduledThreadPool(1);
-    Future<?> future = executor.submit(new CompressionRunnable(compressor,
+    return runAsynchronously(new CompressionRunnable(compressor,
         nameOfFile2Compress, nameOfCompressedFile, innerEntryName));
+  }
+
+  public Future<?> runAsynchronously(Runnable compressionJob) {
+    ExecutorService executor = Executors.newScheduledThreadPool(1);
+    Future<?> future = executor.submit(compressionJob);
     executor.shutdown();
     return future;
   }
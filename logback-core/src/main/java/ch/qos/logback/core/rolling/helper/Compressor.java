@@ -14,15 +14,32 @@
 package ch.qos.logback.core.rolling.helper;
 
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
-import ch.qos.logback.core.rolling.RolloverFailure;
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.spi.ContextAwareBase;
 import ch.qos.logback.core.status.ErrorStatus;
 import ch.qos.logback.core.status.WarnStatus;
@@ -31,6 +48,16 @@ import ch.qos.logback.core.util.FileUtil;
 /**
  * The <code>Compression</code> class implements ZIP and GZ file
  * compression/decompression methods.
+ * <p/>
+ * The compression level and the size of the I/O buffers are configurable.
+ * With more than one compression thread, GZ compression splits the file in
+ * blocks compressed in parallel, each block becoming a member of a
+ * multi-member gzip file as specified by RFC 1952. Such files are read back
+ * by gunzip and {@link java.util.zip.GZIPInputStream} as a single stream.
+ * <p/>
+ * The number of files compressed at the same time is bounded for all the
+ * compressors of a context, see
+ * {@link CoreConstants#MAX_CONCURRENT_COMPRESSIONS}.
  *
  * @author Ceki G&uuml;lc&uuml;
  */
@@ -38,7 +65,20 @@ public class Compressor extends ContextAwareBase {
 
   final CompressionMode compressionMode;
 
-  static final int BUFFER_SIZE = 8192;
+  public static final int BUFFER_SIZE = 8192;
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+  int bufferSize = BUFFER_SIZE;
+  int compressionThreads = 1;
+  int blockSize = DEFAULT_BLOCK_SIZE;
+
+  // progress of the compression under way
+  private volatile long bytesToCompress;
+  private volatile long bytesCompressed;
+  // outcome of the last compression
+  private volatile long lastCompressionDurationMillis;
+  private final AtomicLong compressionCount = new AtomicLong();
 
   public Compressor(CompressionMode compressionMode) {
     this.compressionMode = compressionMode;
@@ -50,16 +90,57 @@ public class Compressor extends ContextAwareBase {
    * @param innerEntryName       The name of the file within the zip file. Use for ZIP compression.
    */
   public void compress(String nameOfFile2Compress, String nameOfCompressedFile, String innerEntryName) {
-    switch (compressionMode) {
-      case GZ:
-        gzCompress(nameOfFile2Compress, nameOfCompressedFile);
-        break;
-      case ZIP:
-        zipCompress(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
-        break;
-      case NONE:
-        throw new UnsupportedOperationException(
-                "compress method called in NONE compression mode");
+    if (compressionMode == CompressionMode.NONE) {
+      throw new UnsupportedOperationException(
+              "compress method called in NONE compression mode");
+    }
+    Semaphore permits = getCompressionPermits();
+    if (permits != null) {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        addWarn("Interrupted while waiting to compress [" + nameOfFile2Compress + "]");
+        return;
+      }
+    }
+    long start = System.currentTimeMillis();
+    try {
+      switch (compressionMode) {
+        case GZ:
+          gzCompress(nameOfFile2Compress, nameOfCompressedFile);
+          break;
+        case ZIP:
+          zipCompress(nameOfFile2Compress, nameOfCompressedFile, innerEntryName);
+          break;
+        default:
+          break;
+      }
+    } finally {
+      if (permits != null) {
+        permits.release();
+      }
+      lastCompressionDurationMillis = System.currentTimeMillis() - start;
+      compressionCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Returns the semaphore shared by the compressors of this compressor's
+   * context, creating it on first use.
+   */
+  Semaphore getCompressionPermits() {
+    Context context = getContext();
+    if (context == null) {
+      return null;
+    }
+    synchronized (context) {
+      Semaphore permits = (Semaphore) context.getObject(CoreConstants.COMPRESSION_PERMITS);
+      if (permits == null) {
+        permits = new Semaphore(CoreConstants.MAX_CONCURRENT_COMPRESSIONS, true);
+        context.putObject(CoreConstants.COMPRESSION_PERMITS, permits);
+      }
+      return permits;
     }
   }
 
@@ -97,18 +178,15 @@ public class Compressor extends ContextAwareBase {
     BufferedInputStream bis = null;
     ZipOutputStream zos = null;
     try {
-      bis = new BufferedInputStream(new FileInputStream(nameOfFile2zip));
-      zos = new ZipOutputStream(new FileOutputStream(nameOfZippedFile));
+      bis = new BufferedInputStream(new FileInputStream(nameOfFile2zip), bufferSize);
+      zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(nameOfZippedFile), bufferSize));
+      zos.setLevel(compressionLevel);
 
       ZipEntry zipEntry = computeZipEntry(innerEntryName);
       zos.putNextEntry(zipEntry);
 
-      byte[] inbuf = new byte[BUFFER_SIZE];
-      int n;
-
-      while ((n = bis.read(inbuf)) != -1) {
-        zos.write(inbuf, 0, n);
-      }
+      bytesToCompress = file2zip.length();
+      copy(bis, zos);
 
       bis.close();
       bis = null;
@@ -191,24 +269,28 @@ public class Compressor extends ContextAwareBase {
     }
 
     addInfo("GZ compressing [" + file2gz + "] as ["+gzedFile+"]");
+    long start = System.currentTimeMillis();
     createMissingTargetDirsIfNecessary(gzedFile);
 
     BufferedInputStream bis = null;
-    GZIPOutputStream gzos = null;
+    OutputStream gzos = null;
     try {
-      bis = new BufferedInputStream(new FileInputStream(nameOfFile2gz));
-      gzos = new GZIPOutputStream(new FileOutputStream(nameOfgzedFile));
-      byte[] inbuf = new byte[BUFFER_SIZE];
-      int n;
-
-      while ((n = bis.read(inbuf)) != -1) {
-        gzos.write(inbuf, 0, n);
+      bis = new BufferedInputStream(new FileInputStream(nameOfFile2gz), bufferSize);
+      bytesToCompress = file2gz.length();
+      if (compressionThreads > 1) {
+        gzos = new BufferedOutputStream(new FileOutputStream(nameOfgzedFile), bufferSize);
+        gzCompressBlocks(bis, gzos);
+      } else {
+        gzos = new LeveledGZIPOutputStream(new FileOutputStream(nameOfgzedFile), bufferSize, compressionLevel);
+        copy(bis, gzos);
       }
 
       bis.close();
       bis = null;
       gzos.close();
       gzos = null;
+      addInfo("Compressed " + bytesToCompress + " bytes into " + gzedFile.length() + " bytes in "
+          + (System.currentTimeMillis() - start) + " ms");
 
       if (!file2gz.delete()) {
         addStatus(new WarnStatus("Could not delete [" + nameOfFile2gz + "].",
@@ -235,6 +317,146 @@ public class Compressor extends ContextAwareBase {
     }
   }
 
+  private void copy(InputStream in, OutputStream out) throws IOException {
+    byte[] inbuf = new byte[bufferSize];
+    long total = 0;
+    int n;
+    bytesCompressed = 0;
+    while ((n = in.read(inbuf)) != -1) {
+      out.write(inbuf, 0, n);
+      total += n;
+      bytesCompressed = total;
+    }
+  }
+
+  /**
+   * Compress the input as a sequence of gzip members, one per block, with
+   * {@link #compressionThreads} threads. Members are written in input order.
+   * At most two blocks per thread are held in memory.
+   */
+  private void gzCompressBlocks(InputStream in, OutputStream out) throws IOException, InterruptedException,
+      ExecutionException {
+    ExecutorService executor = Executors.newFixedThreadPool(compressionThreads);
+    Queue<Future<byte[]>> inFlight = new LinkedList<Future<byte[]>>();
+    try {
+      long total = 0;
+      boolean empty = true;
+      byte[] block;
+      bytesCompressed = 0;
+      while ((block = readBlock(in)) != null) {
+        empty = false;
+        if (inFlight.size() == 2 * compressionThreads) {
+          out.write(inFlight.poll().get());
+        }
+        inFlight.add(executor.submit(new GzipMemberCallable(block, compressionLevel)));
+        total += block.length;
+        bytesCompressed = total;
+      }
+      while (!inFlight.isEmpty()) {
+        out.write(inFlight.poll().get());
+      }
+      if (empty) {
+        // a gzip file holds at least one member
+        out.write(gzipMember(new byte[0], 0, 0, compressionLevel));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private byte[] readBlock(InputStream in) throws IOException {
+    byte[] block = new byte[blockSize];
+    int filled = 0;
+    int n;
+    while (filled < blockSize && (n = in.read(block, filled, blockSize - filled)) != -1) {
+      filled += n;
+    }
+    if (filled == 0) {
+      return null;
+    }
+    return filled == blockSize ? block : Arrays.copyOf(block, filled);
+  }
+
+  static byte[] gzipMember(byte[] data, int offset, int length, int level) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(length / 2 + 64);
+    GZIPOutputStream gzos = new LeveledGZIPOutputStream(baos, BUFFER_SIZE, level);
+    gzos.write(data, offset, length);
+    gzos.close();
+    return baos.toByteArray();
+  }
+
+  /**
+   * Append the bytes of <code>source</code> found past <code>offset</code> to
+   * <code>target</code>, as a new gzip member.
+   *
+   * @return the offset up to which <code>source</code> was compressed
+   */
+  long appendGzMember(File source, long offset, File target) throws IOException {
+    long end = source.length();
+    if (end <= offset) {
+      return offset;
+    }
+    RandomAccessFile raf = null;
+    OutputStream os = null;
+    try {
+      raf = new RandomAccessFile(source, "r");
+      raf.seek(offset);
+      os = new LeveledGZIPOutputStream(new FileOutputStream(target, true), bufferSize, compressionLevel);
+      byte[] buf = new byte[bufferSize];
+      long position = offset;
+      while (position < end) {
+        int n = raf.read(buf, 0, (int) Math.min(buf.length, end - position));
+        if (n == -1) {
+          break;
+        }
+        os.write(buf, 0, n);
+        position += n;
+      }
+      os.close();
+      os = null;
+      return position;
+    } finally {
+      if (raf != null) {
+        try {
+          raf.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+      if (os != null) {
+        try {
+          os.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  static class GzipMemberCallable implements Callable<byte[]> {
+    final byte[] block;
+    final int level;
+
+    GzipMemberCallable(byte[] block, int level) {
+      this.block = block;
+      this.level = level;
+    }
+
+    public byte[] call() throws IOException {
+      return gzipMember(block, 0, block.length, level);
+    }
+  }
+
+  /**
+   * A {@link GZIPOutputStream} with a configurable compression level.
+   */
+  static class LeveledGZIPOutputStream extends GZIPOutputStream {
+    LeveledGZIPOutputStream(OutputStream out, int size, int level) throws IOException {
+      super(out, size);
+      def.setLevel(level);
+    }
+  }
+
   static public String computeFileNameStr_WCS(String fileNamePatternStr,
                                               CompressionMode compressionMode) {
     int len = fileNamePatternStr.length();
@@ -264,6 +486,81 @@ public class Compressor extends ContextAwareBase {
     }
   }
 
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Set the deflate compression level, from 0 (no compression) to 9 (best
+   * compression). The default, -1, lets the JDK choose.
+   */
+  public void setCompressionLevel(int compressionLevel) {
+    if (compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+      addWarn("Invalid compression level " + compressionLevel + ", using the default level");
+      compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    }
+    this.compressionLevel = compressionLevel;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setBufferSize(int bufferSize) {
+    if (bufferSize <= 0) {
+      addWarn("Invalid buffer size " + bufferSize + ", using " + BUFFER_SIZE);
+      bufferSize = BUFFER_SIZE;
+    }
+    this.bufferSize = bufferSize;
+  }
+
+  public int getCompressionThreads() {
+    return compressionThreads;
+  }
+
+  /**
+   * Set the number of threads compressing a GZ file in parallel. By default
+   * a file is compressed by a single thread, as a single gzip member.
+   */
+  public void setCompressionThreads(int compressionThreads) {
+    this.compressionThreads = Math.max(1, compressionThreads);
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Set the size of the blocks compressed in parallel.
+   */
+  public void setBlockSize(int blockSize) {
+    this.blockSize = blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+  }
+
+  /**
+   * @return the size of the file being compressed, or of the last file
+   *         compressed
+   */
+  public long getBytesToCompress() {
+    return bytesToCompress;
+  }
+
+  /**
+   * @return the number of bytes of the file being compressed which were read
+   *         so far
+   */
+  public long getBytesCompressed() {
+    return bytesCompressed;
+  }
+
+  public long getLastCompressionDurationMillis() {
+    return lastCompressionDurationMillis;
+  }
+
+  public long getCompressionCount() {
+    return compressionCount.get();
+  }
+
   @Override
   public String toString() {
     return this.getClass().getName();
@@ -32,9 +32,13 @@ abstract public class DefaultArchiveRemover extends ContextAwareBase implements
   final FileNamePattern fileNamePattern;
   final RollingCalendar rc;
   int periodOffsetForDeletionTarget;
+  boolean maxHistorySet = false;
   final boolean parentClean;
   long lastHeartBeat = UNINITIALIZED;
 
+  long totalSizeCap = 0;
+  ArchiveIndex archiveIndex;
+
   public DefaultArchiveRemover(FileNamePattern fileNamePattern,
                                RollingCalendar rc) {
     this.fileNamePattern = fileNamePattern;
@@ -61,19 +65,57 @@ abstract public class DefaultArchiveRemover extends ContextAwareBase implements
   }
 
   public void clean(Date now) {
-    long nowInMillis = now.getTime();
-    int periodsElapsed = computeElapsedPeriodsSinceLastClean(nowInMillis);
-    lastHeartBeat = nowInMillis;
-    if (periodsElapsed > 1) {
-      addInfo("periodsElapsed = " + periodsElapsed);
+    if (maxHistorySet) {
+      long nowInMillis = now.getTime();
+      int periodsElapsed = computeElapsedPeriodsSinceLastClean(nowInMillis);
+      lastHeartBeat = nowInMillis;
+      if (periodsElapsed > 1) {
+        addInfo("periodsElapsed = " + periodsElapsed);
+      }
+      for (int i = 0; i < periodsElapsed; i++) {
+        cleanByPeriodOffset(now, periodOffsetForDeletionTarget - i);
+      }
     }
-    for (int i = 0; i < periodsElapsed; i++) {
-      cleanByPeriodOffset(now, periodOffsetForDeletionTarget - i);
+    if (archiveIndex != null && totalSizeCap > 0) {
+      capTotalSize();
     }
   }
 
   abstract void cleanByPeriodOffset(Date now, int periodOffset);
 
+  /**
+   * Delete the oldest archives until the total size of the remaining ones
+   * fits within {@link #totalSizeCap}.
+   */
+  void capTotalSize() {
+    long totalSize = archiveIndex.getTotalSize();
+    if (totalSize <= totalSizeCap) {
+      return;
+    }
+    addInfo("Archives total " + totalSize + " bytes, exceeding the cap of " + totalSizeCap + " bytes");
+    while (archiveIndex.getTotalSize() > totalSizeCap) {
+      File oldest = archiveIndex.getOldest();
+      if (oldest == null) {
+        break;
+      }
+      deleteArchive(oldest);
+      if (parentClean) {
+        removeFolderIfEmpty(oldest.getParentFile());
+      }
+    }
+  }
+
+  /**
+   * Delete an archive, keeping the archive index, if any, in sync.
+   */
+  void deleteArchive(File archive) {
+    addInfo("deleting " + archive);
+    archive.delete();
+    if (archiveIndex != null) {
+      archiveIndex.remove(archive);
+    }
+  }
+
   boolean computeParentCleaningFlag(FileNamePattern fileNamePattern) {
     DateTokenConverter<Object> dtc = fileNamePattern.getPrimaryDateTokenConverter();
     // if the date pattern has a /, then we need parent cleaning
@@ -133,6 +175,16 @@ abstract public class DefaultArchiveRemover extends ContextAwareBase implements
 
   public void setMaxHistory(int maxHistory) {
     this.periodOffsetForDeletionTarget = -maxHistory - 1;
+    this.maxHistorySet = true;
+  }
+
+  public void setTotalSizeCap(long totalSizeCap, ArchiveIndex archiveIndex) {
+    this.totalSizeCap = totalSizeCap;
+    this.archiveIndex = archiveIndex;
+  }
+
+  public void setArchiveIndex(ArchiveIndex archiveIndex) {
+    this.archiveIndex = archiveIndex;
   }
 
 }
@@ -16,6 +16,7 @@ package ch.qos.logback.core.rolling.helper;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.pattern.Converter;
@@ -177,6 +178,38 @@ public class FileNamePattern extends ContextAwareBase {
     return buf.toString();
   }
 
+  /**
+   * Regular expression matching the names of all the archives generated by
+   * this pattern, whatever their date and index.
+   */
+  String toArchiveRegex() {
+    StringBuilder buf = new StringBuilder();
+    Converter<Object> p = headTokenConverter;
+    while (p != null) {
+      if (p instanceof LiteralConverter) {
+        buf.append(Pattern.quote(p.convert(null)));
+      } else if (p instanceof IntegerTokenConverter) {
+        buf.append("\\d+");
+      } else if (p instanceof DateTokenConverter) {
+        DateTokenConverter<Object> dtc = (DateTokenConverter<Object>) p;
+        buf.append(dtc.toRegex());
+      }
+      p = p.getNext();
+    }
+    return buf.toString();
+  }
+
+  /**
+   * The literal part of this pattern preceding its first date or integer
+   * token.
+   */
+  String getLiteralPrefix() {
+    if (headTokenConverter instanceof LiteralConverter) {
+      return headTokenConverter.convert(null);
+    }
+    return "";
+  }
+
   /**
    * Given date, convert this instance to a regular expression
    */
@@ -0,0 +1,177 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import java.io.File;
+import java.io.IOException;
+
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * Compresses the active file while it grows, as a sequence of gzip members
+ * appended to a partial archive next to it. A multi-member gzip file reads
+ * back as the concatenation of its members, so that on rollover only the
+ * bytes written since the last increment remain to be compressed before the
+ * partial archive is renamed to its final name.
+ * <p/>
+ * Increments rely on the active file only ever being appended to.
+ *
+ * @since 1.1.4
+ */
+public class IncrementalCompressor extends ContextAwareBase {
+
+  static final String PARTIAL_ARCHIVE_SUFFIX = ".part.gz";
+
+  final Compressor compressor;
+
+  private File source;
+  private File partialArchive;
+  private long offset;
+
+  public IncrementalCompressor(Compressor compressor) {
+    this.compressor = compressor;
+  }
+
+  /**
+   * Start compressing the given file from its first byte. A partial archive
+   * left over by a previous run is discarded.
+   */
+  public synchronized void track(File activeFile) {
+    File partial = new File(activeFile.getPath() + PARTIAL_ARCHIVE_SUFFIX);
+    if (partial.exists() && !partial.delete()) {
+      addWarn("Could not delete stale partial archive [" + partial + "], will not compress incrementally");
+      source = null;
+      return;
+    }
+    source = activeFile;
+    partialArchive = partial;
+    offset = 0;
+  }
+
+  /**
+   * Compress the bytes appended to the tracked file since the last increment.
+   */
+  public synchronized void compressIncrement() {
+    if (source == null) {
+      return;
+    }
+    try {
+      offset = compressor.appendGzMember(source, offset, partialArchive);
+    } catch (IOException e) {
+      addError("Failed to compress [" + source + "] incrementally, it will be compressed on rollover", e);
+      partialArchive.delete();
+      source = null;
+    }
+  }
+
+  /**
+   * Stop tracking the current file, typically because it was just closed
+   * for rollover. The partial archive is renamed, within its folder, so that
+   * it does not collide with the one of the next active file.
+   *
+   * @return the state of the partial archive, or null if nothing was
+   *         compressed yet
+   */
+  public synchronized Checkpoint detach() {
+    if (source == null) {
+      return null;
+    }
+    File tracked = source;
+    source = null;
+    if (offset == 0) {
+      return null;
+    }
+    File detached = new File(tracked.getPath() + "." + System.nanoTime() + PARTIAL_ARCHIVE_SUFFIX);
+    if (!partialArchive.renameTo(detached)) {
+      addWarn("Failed to rename [" + partialArchive + "] as [" + detached + "]");
+      partialArchive.delete();
+      return null;
+    }
+    return new Checkpoint(detached, offset);
+  }
+
+  /**
+   * Compress the rest of <code>nameOfFile2Compress</code> into the partial
+   * archive of the checkpoint and give it its final name. The file to
+   * compress may have been renamed since it was detached. Falls back to
+   * compressing the whole file if the partial archive cannot be completed.
+   */
+  public void complete(Checkpoint checkpoint, String nameOfFile2Compress, String nameOfCompressedFile) {
+    if (!nameOfCompressedFile.endsWith(".gz")) {
+      nameOfCompressedFile = nameOfCompressedFile + ".gz";
+    }
+    File file2gz = new File(nameOfFile2Compress);
+    File gzedFile = new File(nameOfCompressedFile);
+    if (gzedFile.exists()) {
+      addWarn("The target compressed file named [" + nameOfCompressedFile
+          + "] exist already. Aborting file compression.");
+      checkpoint.partialArchive.delete();
+      return;
+    }
+    try {
+      compressor.appendGzMember(file2gz, checkpoint.offset, checkpoint.partialArchive);
+      compressor.createMissingTargetDirsIfNecessary(gzedFile);
+      if (!checkpoint.partialArchive.renameTo(gzedFile)) {
+        throw new IOException("Failed to rename [" + checkpoint.partialArchive + "] as [" + gzedFile + "]");
+      }
+    } catch (IOException e) {
+      addWarn("Failed to complete partial archive [" + checkpoint.partialArchive
+          + "], compressing [" + file2gz + "] from scratch", e);
+      checkpoint.partialArchive.delete();
+      compressor.compress(nameOfFile2Compress, nameOfCompressedFile, null);
+      return;
+    }
+    addInfo("Completed [" + gzedFile + "] from " + checkpoint.offset + " bytes compressed incrementally");
+    if (!file2gz.delete()) {
+      addWarn("Could not delete [" + nameOfFile2Compress + "].");
+    }
+  }
+
+  /**
+   * A partial archive, holding the compressed bytes of its source up to
+   * <code>offset</code>.
+   */
+  public static class Checkpoint {
+    final File partialArchive;
+    final long offset;
+
+    Checkpoint(File partialArchive, long offset) {
+      this.partialArchive = partialArchive;
+      this.offset = offset;
+    }
+
+    public long getOffset() {
+      return offset;
+    }
+  }
+
+  /**
+   * Completes a checkpoint, for use with {@link AsynchronousCompressor}.
+   */
+  public class CompletionRunnable implements Runnable {
+    final Checkpoint checkpoint;
+    final String nameOfFile2Compress;
+    final String nameOfCompressedFile;
+
+    public CompletionRunnable(Checkpoint checkpoint, String nameOfFile2Compress, String nameOfCompressedFile) {
+      this.checkpoint = checkpoint;
+      this.nameOfFile2Compress = nameOfFile2Compress;
+      this.nameOfCompressedFile = nameOfCompressedFile;
+    }
+
+    public void run() {
+      complete(checkpoint, nameOfFile2Compress, nameOfCompressedFile);
+    }
+  }
+}
@@ -25,6 +25,11 @@ public class SizeAndTimeBasedArchiveRemover extends DefaultArchiveRemover {
 
   public void cleanByPeriodOffset(Date now, int periodOffset) {
     Date dateOfPeriodToClean = rc.getRelativeDate(now, periodOffset);
+    String period = archiveIndex == null ? null : archiveIndex.getPeriod(dateOfPeriodToClean);
+    if (period != null) {
+      cleanIndexedPeriod(period);
+      return;
+    }
 
     String regex = fileNamePattern.toRegexForFixedDate(dateOfPeriodToClean);
     String stemRegex = FileFilterUtil.afterLastSlash(regex);
@@ -42,8 +47,7 @@ public class SizeAndTimeBasedArchiveRemover extends DefaultArchiveRemover {
       Date fileLastModified = rc.getRelativeDate(new Date(f.lastModified()), -1);
 
       if (fileLastModified.compareTo(dateOfPeriodToClean) <= 0) {
-        addInfo("deleting " + f);
-        f.delete();
+        deleteArchive(f);
       }
     }
 
@@ -52,5 +56,18 @@ public class SizeAndTimeBasedArchiveRemover extends DefaultArchiveRemover {
     }
   }
 
+  /**
+   * Delete the archives of the period as listed in the index, sparing the
+   * listing of their folder.
+   */
+  private void cleanIndexedPeriod(String period) {
+    for (File archive : archiveIndex.getArchives(period)) {
+      deleteArchive(archive);
+      if (parentClean) {
+        removeFolderIfEmpty(archive.getParentFile());
+      }
+    }
+  }
+
 
 }
@@ -31,8 +31,7 @@ public class TimeBasedArchiveRemover extends DefaultArchiveRemover {
       Date fileLastModified = rc.getRelativeDate(new Date(file2Delete.lastModified()), -1);
 
       if (fileLastModified.compareTo(date2delete) <= 0) {
-        addInfo("deleting " + file2Delete);
-        file2Delete.delete();
+        deleteArchive(file2Delete);
 
         if (parentClean) {
           removeFolderIfEmpty(file2Delete.getParentFile());
@@ -14,9 +14,11 @@
 package ch.qos.logback.core.spi;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.BatchAppender;
 
 /**
  * A ReentrantReadWriteLock based implementation of the
@@ -51,6 +53,28 @@ public class AppenderAttachableImpl<E> implements AppenderAttachable<E> {
     return size;
   }
 
+  /**
+   * Hand the given batch of events to all attached appenders. Appenders
+   * implementing {@link BatchAppender} receive the whole batch at once, the
+   * others receive the events one by one.
+   *
+   * @since 1.1.4
+   */
+  public int appendBatchLoopOnAppenders(List<E> events) {
+    int size = 0;
+    for (Appender<E> appender : appenderList) {
+      if (appender instanceof BatchAppender) {
+        ((BatchAppender<E>) appender).doBatchAppend(events);
+      } else {
+        for (E e : events) {
+          appender.doAppend(e);
+        }
+      }
+      size++;
+    }
+    return size;
+  }
+
   /**
    * Get all attached appenders as an Enumeration. If there are no attached
    * appenders <code>null</code> is returned.
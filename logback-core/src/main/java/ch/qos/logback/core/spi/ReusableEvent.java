@@ -0,0 +1,36 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.spi;
+
+/**
+ * An event which its producer may recycle once the appenders it was passed to
+ * have returned. Components keeping a reference to an event beyond that point,
+ * e.g. to process it in another thread or to buffer it, must keep the result
+ * of {@link #snapshot()} instead.
+ *
+ * @param <E>
+ *          event type
+ * @since 1.1.4
+ */
+public interface ReusableEvent<E> {
+
+  /**
+   * Return an instance which will not be recycled and carries the same data
+   * as this event. Values which depend on the thread the event was produced
+   * in are resolved, so this method must be called from that thread.
+   * <p/>
+   * Events which are not recycled return themselves.
+   */
+  E snapshot();
+}
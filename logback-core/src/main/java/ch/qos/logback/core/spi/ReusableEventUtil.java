@@ -0,0 +1,34 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.spi;
+
+/**
+ * Static helpers for components retaining {@link ReusableEvent}s.
+ *
+ * @since 1.1.4
+ */
+public class ReusableEventUtil {
+
+  /**
+   * @return the snapshot of <code>event</code> if it is a
+   *         {@link ReusableEvent}, <code>event</code> itself otherwise
+   */
+  @SuppressWarnings("unchecked")
+  static public <E> E snapshot(E event) {
+    if (event instanceof ReusableEvent) {
+      return ((ReusableEvent<E>) event).snapshot();
+    }
+    return event;
+  }
+}
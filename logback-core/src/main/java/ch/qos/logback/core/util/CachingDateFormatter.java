@@ -13,46 +13,213 @@
  */
 package ch.qos.logback.core.util;
 
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 /**
- * A synchronized implementation of  SimpleDateFormat which uses caching internally.
+ * A thread-safe formatter producing the same output as {@link SimpleDateFormat}
+ * for a given pattern.
+ *
+ * <p>The pattern is compiled once, with its millisecond fields set apart. For
+ * each second, the text surrounding the millisecond fields is formatted by a
+ * {@link SimpleDateFormat} and kept in an immutable cache entry published
+ * through a volatile field. Formatting a timestamp falling within the cached
+ * second only splices its millisecond digits into the cached text, without
+ * taking any lock. The last formatted timestamp is cached as well.
  *
  * @author Ceki G&uuml;c&uuml;
  * @since 0.9.29
  */
 public class CachingDateFormatter {
 
+  // a character standing in for the millisecond fields in the output of sdf
+  static final char MILLIS_MARKER = '\uFFFF';
 
-  long lastTimestamp = -1;
-  String cachedStr = null;
   final SimpleDateFormat sdf;
+  // minimum number of digits of each millisecond field, in order, or null if
+  // the millisecond fields could not be set apart
+  final int[] millisWidths;
+  final char zeroDigit;
+  // guards sdf and date
+  final Date date = new Date();
+
+  volatile CacheEntry cache;
 
   public CachingDateFormatter(String pattern) {
-    sdf = new SimpleDateFormat(pattern);
+    // validates the pattern as given
+    new SimpleDateFormat(pattern);
+    List<Integer> widths = new ArrayList<Integer>();
+    String compiled = compile(pattern, widths);
+    SimpleDateFormat compiledFormat = compiled == null ? null : new SimpleDateFormat(compiled);
+    NumberFormat nf = compiledFormat == null ? null : compiledFormat.getNumberFormat();
+    if (nf instanceof DecimalFormat) {
+      sdf = compiledFormat;
+      millisWidths = toArray(widths);
+      zeroDigit = ((DecimalFormat) nf).getDecimalFormatSymbols().getZeroDigit();
+    } else {
+      sdf = new SimpleDateFormat(pattern);
+      millisWidths = null;
+      zeroDigit = '0';
+    }
   }
 
-  public final String format(long now) {
+  /**
+   * Replace each unquoted run of 'S' letters in <code>pattern</code> with
+   * {@link #MILLIS_MARKER}, adding the length of the run to
+   * <code>widths</code>.
+   *
+   * @return the pattern to format the rest of the date with, or null if the
+   *         pattern already contains the marker
+   */
+  static String compile(String pattern, List<Integer> widths) {
+    if (pattern.indexOf(MILLIS_MARKER) != -1) {
+      return null;
+    }
+    StringBuilder buf = new StringBuilder(pattern.length());
+    boolean quoted = false;
+    int i = 0;
+    while (i < pattern.length()) {
+      char c = pattern.charAt(i);
+      if (c == '\'') {
+        // '' toggles twice, as an escaped quote should
+        quoted = !quoted;
+      } else if (c == 'S' && !quoted) {
+        int end = i;
+        while (end < pattern.length() && pattern.charAt(end) == 'S') {
+          end++;
+        }
+        buf.append(MILLIS_MARKER);
+        widths.add(end - i);
+        i = end;
+        continue;
+      }
+      buf.append(c);
+      i++;
+    }
+    return buf.toString();
+  }
 
-    // SimpleDateFormat is not thread safe.
+  private static int[] toArray(List<Integer> list) {
+    int[] array = new int[list.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = list.get(i);
+    }
+    return array;
+  }
 
-    // See also the discussion in http://jira.qos.ch/browse/LBCLASSIC-36
-    // DateFormattingThreadedThroughputCalculator and SelectiveDateFormattingRunnable
-    // are also noteworthy
+  public final String format(long now) {
+    CacheEntry entry = cache;
+    if (entry != null && entry.timestamp == now) {
+      return entry.formatted;
+    }
 
-    // The now == lastTimestamp guard minimizes synchronization
-    synchronized (this) {
-      if (now != lastTimestamp) {
-        lastTimestamp = now;
-        cachedStr = sdf.format(new Date(now));
+    long start;
+    int millis;
+    if (millisWidths == null) {
+      start = now;
+      millis = 0;
+    } else {
+      millis = (int) (now % 1000);
+      if (millis < 0) {
+        millis += 1000;
       }
-      return cachedStr;
+      start = now - millis;
+    }
+
+    String[] parts;
+    if (entry != null && entry.start == start) {
+      parts = entry.parts;
+    } else {
+      parts = formatParts(start);
     }
+    String formatted = parts.length == 1 ? parts[0] : splice(parts, millis);
+    cache = new CacheEntry(start, parts, now, formatted);
+    return formatted;
   }
 
+  /**
+   * Format the date starting at <code>start</code>, split around the
+   * millisecond fields.
+   */
+  private String[] formatParts(long start) {
+    String text;
+    // SimpleDateFormat is not thread safe. The lock is only taken once per
+    // second, when the cache misses.
+    synchronized (date) {
+      date.setTime(start);
+      text = sdf.format(date);
+    }
+    if (millisWidths == null || millisWidths.length == 0) {
+      return new String[] { text };
+    }
+    String[] parts = new String[millisWidths.length + 1];
+    int from = 0;
+    for (int i = 0; i < millisWidths.length; i++) {
+      int to = text.indexOf(MILLIS_MARKER, from);
+      parts[i] = text.substring(from, to);
+      from = to + 1;
+    }
+    parts[millisWidths.length] = text.substring(from);
+    return parts;
+  }
+
+  private String splice(String[] parts, int millis) {
+    int length = 0;
+    for (int i = 0; i < parts.length; i++) {
+      length += parts[i].length();
+    }
+    StringBuilder buf = new StringBuilder(length + 3 * millisWidths.length);
+    for (int i = 0; i < millisWidths.length; i++) {
+      buf.append(parts[i]);
+      appendMillis(buf, millis, millisWidths[i]);
+    }
+    buf.append(parts[millisWidths.length]);
+    return buf.toString();
+  }
+
+  private void appendMillis(StringBuilder buf, int millis, int width) {
+    int digits = millis >= 100 ? 3 : (millis >= 10 ? 2 : 1);
+    for (int i = digits; i < width; i++) {
+      buf.append(zeroDigit);
+    }
+    if (digits == 3) {
+      buf.append((char) (zeroDigit + millis / 100));
+    }
+    if (digits >= 2) {
+      buf.append((char) (zeroDigit + millis / 10 % 10));
+    }
+    buf.append((char) (zeroDigit + millis % 10));
+  }
+
+  /**
+   * Set the time zone of the formatted dates. Meant to be called before any
+   * call to {@link #format(long)}.
+   */
   public void setTimeZone(TimeZone tz) {
-    sdf.setTimeZone(tz);
+    synchronized (date) {
+      sdf.setTimeZone(tz);
+      cache = null;
+    }
+  }
+
+  static final class CacheEntry {
+    // start of the second covered by parts, in milliseconds
+    final long start;
+    // the formatted date, split around the millisecond fields
+    final String[] parts;
+    final long timestamp;
+    final String formatted;
+
+    CacheEntry(long start, String[] parts, long timestamp, String formatted) {
+      this.start = start;
+      this.parts = parts;
+      this.timestamp = timestamp;
+      this.formatted = formatted;
+    }
   }
 }
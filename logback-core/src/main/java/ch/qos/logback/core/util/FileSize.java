@@ -46,7 +46,7 @@ public class FileSize {
 
   final long size;
 
-  FileSize(long size) {
+  public FileSize(long size) {
     this.size = size;
   }
 
@@ -32,6 +32,7 @@ import org.junit.runners.Suite.SuiteClasses;
         ch.qos.logback.core.net.PackageTest.class,
         ch.qos.logback.core.sift.PackageTest.class,
         ch.qos.logback.core.encoder.PackageTest.class,
-        ch.qos.logback.core.recovery.PackageTest.class})
+        ch.qos.logback.core.recovery.PackageTest.class,
+        ch.qos.logback.core.async.PackageTest.class})
 public class AllCoreTest {
 }
@@ -13,12 +13,25 @@
  */
 package ch.qos.logback.core;
 
+import ch.qos.logback.core.async.OverflowPolicy;
+import ch.qos.logback.core.async.QueueType;
 import ch.qos.logback.core.helpers.NOPAppender;
 import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.testUtil.BatchListAppender;
 import ch.qos.logback.core.testUtil.DelayingListAppender;
 import ch.qos.logback.core.status.OnConsoleStatusListener;
 import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.testUtil.NPEAppender;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+import ch.qos.logback.core.util.Duration;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -152,6 +165,185 @@ public class AsyncAppenderBaseTest {
 		verify(delayingListAppender, loopLen);
 	}
 
+	@Test(timeout = 2000)
+	public void noEventLossWithRingBuffer() {
+		int bufferSize = 10;
+		int loopLen = bufferSize * 2;
+		asyncAppenderBase.addAppender(delayingListAppender);
+		asyncAppenderBase.setQueueSize(bufferSize);
+		asyncAppenderBase.setQueueType(QueueType.RING_BUFFER);
+		asyncAppenderBase.start();
+		for (int i = 0; i < loopLen; i++) {
+			asyncAppenderBase.doAppend(i);
+		}
+		asyncAppenderBase.stop();
+		verify(delayingListAppender, loopLen);
+	}
+
+	@Test(timeout = 2000)
+	public void lossyAppenderWithRingBufferShouldOnlyLooseCertainEvents() {
+		int bufferSize = 5;
+		int loopLen = bufferSize * 2;
+		lossyAsyncAppender.addAppender(delayingListAppender);
+		lossyAsyncAppender.setQueueSize(bufferSize);
+		lossyAsyncAppender.setQueueType(QueueType.RING_BUFFER);
+		lossyAsyncAppender.setDiscardingThreshold(1);
+		lossyAsyncAppender.start();
+		for (int i = 0; i < loopLen; i++) {
+			lossyAsyncAppender.doAppend(i);
+		}
+		lossyAsyncAppender.stop();
+		verify(delayingListAppender, loopLen - 2);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test(timeout = 2000)
+	public void queuedEventsAreDispatchedInBatches() {
+		int loopLen = 10;
+		BatchListAppender<Integer> batchListAppender = new BatchListAppender<Integer>();
+		batchListAppender.setContext(context);
+		batchListAppender.setName("batch");
+		batchListAppender.start();
+		asyncAppenderBase.addAppender(batchListAppender);
+		asyncAppenderBase.setMaxBatchSize(4);
+		asyncAppenderBase.start();
+		asyncAppenderBase.worker.suspend();
+		for (int i = 0; i < loopLen; i++) {
+			asyncAppenderBase.doAppend(i);
+		}
+		asyncAppenderBase.worker.resume();
+		while (batchListAppender.list.size() < loopLen) {
+			Thread.yield();
+		}
+		asyncAppenderBase.stop();
+		verify(batchListAppender, loopLen);
+		for (int i = 0; i < loopLen; i++) {
+			assertEquals(Integer.valueOf(i), batchListAppender.list.get(i));
+		}
+		for (Integer batchSize : batchListAppender.batchSizes) {
+			assertTrue(batchSize <= 4);
+		}
+		assertTrue(batchListAppender.batchSizes.size() < loopLen);
+	}
+
+	@Test
+	public void invalidMaxBatchSizeShouldResultInNonStartedAppender() {
+		asyncAppenderBase.addAppender(new NOPAppender<Integer>());
+		asyncAppenderBase.setMaxBatchSize(0);
+		asyncAppenderBase.start();
+		assertFalse(asyncAppenderBase.isStarted());
+		statusChecker.assertContainsMatch("Invalid maximum batch size");
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test(timeout = 2000)
+	public void dropNewestOverflowPolicy() {
+		asyncAppenderBase.addAppender(listAppender);
+		asyncAppenderBase.setQueueSize(5);
+		asyncAppenderBase.setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+		asyncAppenderBase.start();
+		asyncAppenderBase.worker.suspend();
+		for (int i = 0; i < 8; i++) {
+			asyncAppenderBase.doAppend(i);
+		}
+		assertEquals(3, asyncAppenderBase.getDroppedEventCount());
+		asyncAppenderBase.worker.resume();
+		asyncAppenderBase.stop();
+		verify(listAppender, 5);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test(timeout = 2000)
+	public void blockWithTimeoutOverflowPolicy() {
+		asyncAppenderBase.addAppender(listAppender);
+		asyncAppenderBase.setQueueSize(5);
+		asyncAppenderBase.setOverflowPolicy(OverflowPolicy.BLOCK_WITH_TIMEOUT);
+		asyncAppenderBase.setOverflowTimeout(Duration.buildByMilliseconds(1));
+		asyncAppenderBase.start();
+		asyncAppenderBase.worker.suspend();
+		for (int i = 0; i < 7; i++) {
+			asyncAppenderBase.doAppend(i);
+		}
+		assertEquals(2, asyncAppenderBase.getDroppedEventCount());
+		asyncAppenderBase.worker.resume();
+		asyncAppenderBase.stop();
+		verify(listAppender, 5);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test(timeout = 2000)
+	public void dropOldestDiscardableOverflowPolicy() {
+		lossyAsyncAppender.addAppender(listAppender);
+		lossyAsyncAppender.setQueueSize(5);
+		lossyAsyncAppender.setDiscardingThreshold(0);
+		lossyAsyncAppender.setOverflowPolicy(OverflowPolicy.DROP_OLDEST_DISCARDABLE);
+		lossyAsyncAppender.start();
+		lossyAsyncAppender.worker.suspend();
+		// 0, 3 and 6 are discardable
+		for (int i = 0; i < 7; i++) {
+			lossyAsyncAppender.doAppend(i);
+		}
+		assertEquals(2, lossyAsyncAppender.getDroppedEventCount());
+		lossyAsyncAppender.worker.resume();
+		lossyAsyncAppender.stop();
+		verify(listAppender, 5);
+		assertEquals(Arrays.asList(1, 2, 4, 5, 6), listAppender.list);
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test(timeout = 5000)
+	public void spillToDiskOverflowPolicyReplaysInOrder() {
+		int loopLen = 20;
+		String spillFile = CoreTestConstants.OUTPUT_DIR_PREFIX + "spill-" + RandomUtil.getPositiveInt() + ".bin";
+		asyncAppenderBase.addAppender(listAppender);
+		asyncAppenderBase.setQueueSize(2);
+		asyncAppenderBase.setMaxBatchSize(4);
+		asyncAppenderBase.setOverflowPolicy(OverflowPolicy.SPILL_TO_DISK);
+		asyncAppenderBase.setSpillFile(spillFile);
+		asyncAppenderBase.start();
+		asyncAppenderBase.worker.suspend();
+		for (int i = 0; i < loopLen; i++) {
+			asyncAppenderBase.doAppend(i);
+		}
+		assertEquals(loopLen - 2, asyncAppenderBase.getSpilledEventCount());
+		asyncAppenderBase.worker.resume();
+		while (listAppender.list.size() < loopLen) {
+			Thread.yield();
+		}
+		asyncAppenderBase.stop();
+		verify(listAppender, loopLen);
+		for (int i = 0; i < loopLen; i++) {
+			assertEquals(Integer.valueOf(i), listAppender.list.get(i));
+		}
+		assertEquals(loopLen - 2, asyncAppenderBase.getReplayedEventCount());
+		assertEquals(0, asyncAppenderBase.getDroppedEventCount());
+		assertFalse(new File(spillFile).exists());
+	}
+
+	@Test
+	public void spillToDiskRequiresSpillFile() {
+		asyncAppenderBase.addAppender(listAppender);
+		asyncAppenderBase.setOverflowPolicy(OverflowPolicy.SPILL_TO_DISK);
+		asyncAppenderBase.start();
+		assertFalse(asyncAppenderBase.isStarted());
+		statusChecker.assertContainsMatch("The spillFile property must be set");
+	}
+
+	@Test
+	public void mbeanIsRegisteredWhileStarted() throws Exception {
+		asyncAppenderBase.setName("mbeanTest");
+		asyncAppenderBase.addAppender(listAppender);
+		asyncAppenderBase.setRegisterMBean(true);
+		asyncAppenderBase.start();
+		MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = asyncAppenderBase.mbeanName;
+		assertTrue(mbs.isRegistered(objectName));
+		asyncAppenderBase.doAppend(0);
+		assertEquals(0L, mbs.getAttribute(objectName, "DroppedEventCount"));
+		asyncAppenderBase.stop();
+		assertFalse(mbs.isRegistered(objectName));
+	}
+
 	@Test
 	public void invalidQueueCapacityShouldResultInNonStartedAppender() {
 		asyncAppenderBase.addAppender(new NOPAppender<Integer>());
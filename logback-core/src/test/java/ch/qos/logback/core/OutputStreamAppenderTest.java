@@ -14,16 +14,40 @@
 package ch.qos.logback.core;
 
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import ch.qos.logback.core.boolex.EvaluationException;
+import ch.qos.logback.core.boolex.EventEvaluatorBase;
 import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.encoder.NopEncoder;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.layout.EchoLayout;
+import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.pattern.ExceptionalConverter;
 import ch.qos.logback.core.pattern.parser.SamplePatternLayout;
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+import ch.qos.logback.core.testUtil.FileToBufferUtil;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
 
 public class OutputStreamAppenderTest {
 
@@ -82,6 +106,351 @@ public class OutputStreamAppenderTest {
     headerFooterCheck(FILE_HEADER, PRESENTATION_HEADER, PRESENTATION_FOOTER, FILE_FOOTER);
   }
   
+  @Test
+  public void batchIsFlushedOnce() {
+    OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+    wa.setContext(context);
+    FlushCountingOutputStream os = new FlushCountingOutputStream();
+
+    EchoLayout<Object> layout = new EchoLayout<Object>();
+    layout.start();
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setLayout(layout);
+    encoder.setContext(context);
+    encoder.start();
+
+    wa.setEncoder(encoder);
+    wa.setOutputStream(os);
+    wa.addFilter(new Filter<Object>() {
+      @Override
+      public FilterReply decide(Object event) {
+        return "b".equals(event) ? FilterReply.DENY : FilterReply.NEUTRAL;
+      }
+    });
+    wa.start();
+
+    int flushCountBefore = os.flushCount;
+    wa.doBatchAppend(Arrays.<Object>asList("a", "b", "c"));
+    assertEquals(flushCountBefore + 1, os.flushCount);
+    String result = os.toString();
+    assertEquals("a" + CoreConstants.LINE_SEPARATOR + "c" + CoreConstants.LINE_SEPARATOR, result);
+    wa.stop();
+  }
+
+  OutputStreamAppender<Object> buildEchoAppender() {
+    OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+    wa.setContext(context);
+    EchoLayout<Object> layout = new EchoLayout<Object>();
+    layout.start();
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setLayout(layout);
+    encoder.setContext(context);
+    encoder.start();
+    wa.setEncoder(encoder);
+    return wa;
+  }
+
+  @Test
+  public void groupCommitDefersEncoderFlushes() {
+    OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setFlushSize(new FileSize(1024));
+    FlushCountingOutputStream os = new FlushCountingOutputStream();
+    wa.setOutputStream(os);
+    wa.start();
+
+    for (int i = 0; i < 10; i++) {
+      wa.doAppend("a");
+    }
+    wa.doBatchAppend(Arrays.<Object>asList("b", "c"));
+    assertEquals(0, os.flushCount);
+    wa.stop();
+    assertEquals(1, os.flushCount);
+    assertEquals(12 * (1 + CoreConstants.LINE_SEPARATOR.length()), os.size());
+  }
+
+  @Test
+  public void groupCommitFlushesOnSize() {
+    OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setFlushSize(new FileSize(10));
+    FlushCountingOutputStream os = new FlushCountingOutputStream();
+    wa.setOutputStream(os);
+    wa.start();
+
+    wa.doAppend("12345678");
+    assertEquals(0, os.flushCount);
+    wa.doAppend("12345678");
+    assertEquals(1, os.flushCount);
+    wa.doAppend("1");
+    assertEquals(1, os.flushCount);
+    wa.stop();
+  }
+
+  @Test
+  public void groupCommitFlushesOnEvaluator() {
+    OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setFlushEvaluator(new EventEvaluatorBase<Object>() {
+      public boolean evaluate(Object event) throws NullPointerException, EvaluationException {
+        return "error".equals(event);
+      }
+    });
+    FlushCountingOutputStream os = new FlushCountingOutputStream();
+    wa.setOutputStream(os);
+    wa.start();
+
+    wa.doAppend("info");
+    assertEquals(0, os.flushCount);
+    wa.doAppend("error");
+    assertEquals(1, os.flushCount);
+    wa.doBatchAppend(Arrays.<Object>asList("info", "error", "info"));
+    assertEquals(2, os.flushCount);
+    wa.stop();
+  }
+
+  @Test(timeout = 5000)
+  public void groupCommitFlushesAfterDelay() throws InterruptedException {
+    OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setFlushDelay(Duration.buildByMilliseconds(20));
+    FlushCountingOutputStream os = new FlushCountingOutputStream();
+    wa.setOutputStream(os);
+    wa.start();
+    // the header, if any, may be flushed by the flusher
+    int flushCountBefore = os.flushCount;
+
+    wa.doAppend("a");
+    while (os.flushCount == flushCountBefore) {
+      Thread.sleep(5);
+    }
+    wa.stop();
+    assertEquals("a" + CoreConstants.LINE_SEPARATOR, os.toString());
+  }
+
+  @Test(timeout = 5000)
+  public void groupCommitWithoutDelayFlushesAfterDefaultDelay() throws InterruptedException {
+    OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setFlushSize(new FileSize(1024));
+    FlushCountingOutputStream os = new FlushCountingOutputStream();
+    wa.setOutputStream(os);
+    wa.start();
+    assertEquals(OutputStreamAppender.DEFAULT_FLUSH_DELAY_MILLIS, wa.getFlushDelay().getMilliseconds());
+    int flushCountBefore = os.flushCount;
+
+    wa.doAppend("a");
+    while (os.flushCount == flushCountBefore) {
+      Thread.sleep(5);
+    }
+    wa.stop();
+    assertEquals("a" + CoreConstants.LINE_SEPARATOR, os.toString());
+  }
+
+  @Test
+  public void invalidFlushDelay() {
+    OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setFlushDelay(Duration.buildByMilliseconds(0));
+    wa.setOutputStream(new ByteArrayOutputStream());
+    wa.start();
+    assertFalse(wa.isStarted());
+  }
+
+  @Test
+  public void lockIsFairByDefault() {
+    OutputStreamAppender<Object> wa = buildEchoAppender();
+    assertEquals(WriteMode.FAIR_LOCK, wa.getWriteMode());
+    assertTrue(wa.lock.isFair());
+  }
+
+  @Test
+  public void concurrentEncodingRequiresConcurrentEncoder() {
+    OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+    wa.setContext(context);
+    wa.setEncoder(new NopEncoder<Object>());
+    wa.setWriteMode(WriteMode.CONCURRENT_ENCODING);
+    wa.setOutputStream(new ByteArrayOutputStream());
+    wa.start();
+    assertTrue(wa.isStarted());
+    assertEquals(WriteMode.LOCK, wa.getWriteMode());
+  }
+
+  @Test
+  public void concurrentEncodingRequiresThreadSafeLayout() {
+    OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+    wa.setContext(context);
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setContext(context);
+    encoder.setLayout(new LayoutBase<Object>() {
+      public String doLayout(Object event) {
+        return event.toString();
+      }
+    });
+    encoder.start();
+    wa.setEncoder(encoder);
+    wa.setWriteMode(WriteMode.COMBINING);
+    wa.setOutputStream(new ByteArrayOutputStream());
+    wa.start();
+    assertTrue(wa.isStarted());
+    assertEquals(WriteMode.LOCK, wa.getWriteMode());
+  }
+
+  @Test
+  public void concurrentEncodingRequiresBuiltInConverters() {
+    assertEquals(WriteMode.COMBINING, startCombiningAppender("x%OTT").getWriteMode());
+
+    OutputStreamAppender<Object> wa = startCombiningAppender("x%OTT %custom");
+    assertTrue(wa.isStarted());
+    assertEquals(WriteMode.LOCK, wa.getWriteMode());
+  }
+
+  OutputStreamAppender<Object> startCombiningAppender(String pattern) {
+    SamplePatternLayout<Object> layout = new SamplePatternLayout<Object>();
+    layout.setContext(context);
+    layout.getInstanceConverterMap().put("custom", ExceptionalConverter.class.getName());
+    layout.setPattern(pattern);
+    layout.start();
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setContext(context);
+    encoder.setLayout(layout);
+    encoder.start();
+    OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
+    wa.setContext(context);
+    wa.setEncoder(encoder);
+    wa.setWriteMode(WriteMode.COMBINING);
+    wa.setOutputStream(new ByteArrayOutputStream());
+    wa.start();
+    return wa;
+  }
+
+  @Test
+  public void writeModeCannotChangeOnceStarted() {
+    OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setOutputStream(new ByteArrayOutputStream());
+    wa.start();
+    wa.setWriteMode(WriteMode.COMBINING);
+    assertEquals(WriteMode.FAIR_LOCK, wa.getWriteMode());
+    wa.stop();
+  }
+
+  @Test
+  public void concurrentEncoding() throws InterruptedException {
+    concurrentWriteCheck(WriteMode.CONCURRENT_ENCODING);
+  }
+
+  @Test
+  public void combining() throws InterruptedException {
+    concurrentWriteCheck(WriteMode.COMBINING);
+  }
+
+  @Test
+  public void combiningWithGatheringWrites() throws Exception {
+    File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "osa-gathering-" + RandomUtil.getPositiveInt() + ".log");
+    file.getParentFile().mkdirs();
+    // smaller than a handful of events, so that most writes are gathering ones
+    ResilientFileOutputStream rfos = new ResilientFileOutputStream(file, false, 64, true);
+    rfos.setContext(context);
+    concurrentWrite(WriteMode.COMBINING, rfos);
+
+    List<String> lines = new ArrayList<String>();
+    FileToBufferUtil.regularReadIntoList(file, lines);
+    concurrentOutputCheck(lines.toArray(new String[lines.size()]));
+  }
+
+  @Test(timeout = 5000)
+  public void combiningReportsFailureToEveryWriter() throws InterruptedException {
+    final OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setWriteMode(WriteMode.COMBINING);
+    wa.setOutputStream(new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("disk full");
+      }
+    });
+    wa.start();
+
+    // both writers publish their bytes, then wait for the lock
+    wa.lock.lock();
+    Thread[] threads = new Thread[2];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread() {
+        public void run() {
+          wa.doAppend("event");
+        }
+      };
+      threads[t].start();
+    }
+    while (wa.lock.getQueueLength() < threads.length) {
+      Thread.sleep(5);
+    }
+    // the first writer to get the lock writes the bytes of both
+    wa.lock.unlock();
+    for (Thread t : threads) {
+      t.join();
+    }
+
+    int failures = 0;
+    for (Status s : context.getStatusManager().getCopyOfStatusList()) {
+      if (s.getLevel() == Status.ERROR && "IO failure in appender".equals(s.getMessage())) {
+        failures++;
+      }
+    }
+    assertEquals(threads.length, failures);
+  }
+
+  void concurrentWriteCheck(WriteMode writeMode) throws InterruptedException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    concurrentWrite(writeMode, os);
+    concurrentOutputCheck(os.toString().split(CoreConstants.LINE_SEPARATOR));
+  }
+
+  static final int CONCURRENT_THREAD_COUNT = 8;
+  static final int CONCURRENT_EVENT_COUNT = 2000;
+
+  void concurrentWrite(WriteMode writeMode, OutputStream os) throws InterruptedException {
+    final OutputStreamAppender<Object> wa = buildEchoAppender();
+    wa.setWriteMode(writeMode);
+    wa.setOutputStream(os);
+    wa.start();
+    assertEquals(writeMode, wa.getWriteMode());
+
+    final int threadCount = CONCURRENT_THREAD_COUNT;
+    final int eventCount = CONCURRENT_EVENT_COUNT;
+    Thread[] threads = new Thread[threadCount];
+    for (int t = 0; t < threadCount; t++) {
+      final int threadIndex = t;
+      threads[t] = new Thread() {
+        public void run() {
+          for (int i = 0; i < eventCount; i++) {
+            wa.doAppend("thread-" + threadIndex + "-event-" + i);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    wa.stop();
+  }
+
+  void concurrentOutputCheck(String[] lines) {
+    int threadCount = CONCURRENT_THREAD_COUNT;
+    int eventCount = CONCURRENT_EVENT_COUNT;
+    assertEquals(threadCount * eventCount, lines.length);
+    Set<String> distinct = new HashSet<String>(Arrays.asList(lines));
+    assertEquals(threadCount * eventCount, distinct.size());
+    for (int t = 0; t < threadCount; t++) {
+      for (int i = 0; i < eventCount; i += 97) {
+        assertTrue(distinct.contains("thread-" + t + "-event-" + i));
+      }
+    }
+  }
+
+  static class FlushCountingOutputStream extends ByteArrayOutputStream {
+    volatile int flushCount = 0;
+
+    @Override
+    public void flush() {
+      flushCount++;
+    }
+  }
+
   public void headerFooterCheck(String fileHeader, String presentationHeader, String presentationFooter, String fileFooter) {
     OutputStreamAppender<Object> wa = new OutputStreamAppender<Object>();
     wa.setContext(context);
@@ -20,6 +20,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ContextBaseTest.class,
         OutputStreamAppenderTest.class,
+        PrudentOutputStreamTest.class,
         FileAppenderResilienceTest.class,
         FileAppenderResilience_AS_ROOT_Test.class,
         AsyncAppenderBaseTest.class})
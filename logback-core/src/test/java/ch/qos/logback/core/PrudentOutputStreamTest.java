@@ -0,0 +1,144 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class PrudentOutputStreamTest {
+
+  Context context = new ContextBase();
+  String outputDirStr = CoreTestConstants.OUTPUT_DIR_PREFIX + "prudent-" + RandomUtil.getPositiveInt() + "/";
+  String logfileStr = outputDirStr + "output.log";
+
+  @Before
+  public void setUp() {
+    new File(outputDirStr).mkdirs();
+  }
+
+  FileAppender<Object> buildPrudentAppender(String name, int atomicAppendLimit) {
+    FileAppender<Object> fa = new FileAppender<Object>();
+    fa.setContext(context);
+    fa.setName(name);
+    fa.setPrudent(true);
+    fa.setAtomicAppendLimit(atomicAppendLimit);
+    fa.setEncoder(new EchoEncoder<Object>());
+    fa.setFile(logfileStr);
+    fa.start();
+    return fa;
+  }
+
+  List<String> readLines() throws IOException {
+    List<String> lines = new ArrayList<String>();
+    BufferedReader br = new BufferedReader(new FileReader(logfileStr));
+    String line;
+    while ((line = br.readLine()) != null) {
+      lines.add(line);
+    }
+    br.close();
+    return lines;
+  }
+
+  @Test
+  public void recordsAboveTheLimitAreWrittenUnderLock() throws IOException {
+    File file = new File(logfileStr);
+    ResilientFileOutputStream rfos = new ResilientFileOutputStream(file, true);
+    rfos.setContext(context);
+    PrudentOutputStream pos = new PrudentOutputStream(rfos, 10);
+
+    pos.write("short\n".getBytes());
+    pos.flush();
+    pos.write("a longer record\n".getBytes());
+    pos.commit();
+    // nothing to commit
+    pos.commit();
+    pos.close();
+
+    assertEquals(1, pos.getAtomicAppendCount());
+    assertEquals(1, pos.getLockedAppendCount());
+    List<String> lines = readLines();
+    assertEquals(2, lines.size());
+    assertEquals("short", lines.get(0));
+    assertEquals("a longer record", lines.get(1));
+  }
+
+  @Test
+  public void recordsAreWrittenUnderLockByDefault() throws IOException {
+    File file = new File(logfileStr);
+    ResilientFileOutputStream rfos = new ResilientFileOutputStream(file, true);
+    rfos.setContext(context);
+    PrudentOutputStream pos = new PrudentOutputStream(rfos, new FileAppender<Object>().getAtomicAppendLimit());
+
+    pos.write("short\n".getBytes());
+    pos.commit();
+    pos.close();
+
+    assertEquals(0, pos.getAtomicAppendCount());
+    assertEquals(1, pos.getLockedAppendCount());
+  }
+
+  // two appenders on the same file stand for two processes
+  @Test
+  public void concurrentAtomicAppendsDoNotInterleave() throws Exception {
+    final int runLength = 2000;
+    final List<FileAppender<Object>> appenders = new ArrayList<FileAppender<Object>>();
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i = 0; i < 2; i++) {
+      final FileAppender<Object> fa = buildPrudentAppender("FILE" + i, 4096);
+      final String stamp = "appender" + i;
+      appenders.add(fa);
+      threads.add(new Thread(new Runnable() {
+        public void run() {
+          for (int j = 0; j < runLength; j++) {
+            fa.doAppend(stamp + " message " + j);
+          }
+        }
+      }));
+    }
+    for (Thread t : threads) {
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    for (FileAppender<Object> fa : appenders) {
+      fa.stop();
+    }
+
+    List<String> lines = readLines();
+    assertEquals(2 * runLength, lines.size());
+    int[] expected = new int[2];
+    for (String line : lines) {
+      assertTrue(line, line.matches("appender[01] message \\d+"));
+      int appender = line.charAt("appender".length()) - '0';
+      assertEquals(line, "appender" + appender + " message " + expected[appender], line);
+      expected[appender]++;
+    }
+  }
+}
@@ -18,6 +18,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 import ch.qos.logback.core.status.StatusChecker;
@@ -128,4 +131,26 @@ public class FileAppenderTest extends AbstractAppenderTest<Object> {
     assertTrue(file.exists());
     assertTrue("failed to delete " + file.getAbsolutePath(), file.delete());
   }
+
+  @Test
+  public void prudentModeRequiresResilientStream() {
+    String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "fat-prudentModeRequiresResilientStream.txt";
+    FileAppender<Object> appender = new FileAppender<Object>() {
+      @Override
+      protected OutputStream openFileOutputStream(File file) throws IOException {
+        return new FileOutputStream(file, true);
+      }
+    };
+    appender.setEncoder(new DummyEncoder<Object>());
+    appender.setFile(filename);
+    appender.setName("prudentModeRequiresResilientStream");
+    appender.setContext(context);
+    appender.setPrudent(true);
+    appender.start();
+
+    assertFalse(appender.isStarted());
+    StatusChecker statusChecker = new StatusChecker(context);
+    statusChecker.assertContainsMatch(Status.ERROR, "\"Prudent\" mode is not supported");
+    new File(filename).delete();
+  }
 }
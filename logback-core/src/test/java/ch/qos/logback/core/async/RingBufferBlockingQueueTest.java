@@ -0,0 +1,180 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class RingBufferBlockingQueueTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void singleSlotIsRejected() {
+    new RingBufferBlockingQueue<Integer>(1);
+  }
+
+  @Test
+  public void fifoOrder() {
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(4);
+    for (int i = 0; i < 4; i++) {
+      assertTrue(queue.offer(i));
+    }
+    for (int i = 0; i < 4; i++) {
+      assertEquals(Integer.valueOf(i), queue.poll());
+    }
+    assertNull(queue.poll());
+  }
+
+  @Test
+  public void offerFailsWhenFull() {
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(3);
+    assertTrue(queue.offer(1));
+    assertTrue(queue.offer(2));
+    assertTrue(queue.offer(3));
+    assertFalse(queue.offer(4));
+    assertEquals(3, queue.size());
+    assertEquals(0, queue.remainingCapacity());
+
+    assertEquals(Integer.valueOf(1), queue.poll());
+    assertEquals(1, queue.remainingCapacity());
+    assertTrue(queue.offer(4));
+  }
+
+  @Test
+  public void wrapsAroundWithNonPowerOfTwoCapacity() {
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(5);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(queue.offer(i));
+      assertTrue(queue.offer(-i));
+      assertEquals(Integer.valueOf(i), queue.poll());
+      assertEquals(Integer.valueOf(-i), queue.peek());
+      assertEquals(Integer.valueOf(-i), queue.poll());
+      assertTrue(queue.isEmpty());
+    }
+  }
+
+  @Test
+  public void pollIfHeadIs() {
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(4);
+    Integer first = 1000;
+    Integer second = 2000;
+    queue.offer(first);
+    queue.offer(second);
+    assertFalse(queue.pollIfHeadIs(second));
+    assertTrue(queue.pollIfHeadIs(first));
+    assertEquals(1, queue.size());
+    assertEquals(second, queue.poll());
+  }
+
+  @Test
+  public void iteratorIsSnapshot() {
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(8);
+    queue.offer(1);
+    queue.offer(2);
+    queue.poll();
+    queue.offer(3);
+    Iterator<Integer> it = queue.iterator();
+    assertEquals(Integer.valueOf(2), it.next());
+    assertEquals(Integer.valueOf(3), it.next());
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void drainTo() {
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(8);
+    for (int i = 0; i < 6; i++) {
+      queue.offer(i);
+    }
+    List<Integer> list = new ArrayList<Integer>();
+    assertEquals(4, queue.drainTo(list, 4));
+    assertEquals(2, queue.size());
+    assertEquals(2, queue.drainTo(list));
+    assertEquals(6, list.size());
+    assertEquals(Integer.valueOf(5), list.get(5));
+  }
+
+  @Test(timeout = 2000)
+  public void timedOperations() throws InterruptedException {
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(2);
+    assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+    assertTrue(queue.offer(1, 10, TimeUnit.MILLISECONDS));
+    assertTrue(queue.offer(2, 10, TimeUnit.MILLISECONDS));
+    assertFalse(queue.offer(2, 10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test(timeout = 2000)
+  public void takeIsInterruptible() {
+    RingBufferBlockingQueue<Integer> queue = new RingBufferBlockingQueue<Integer>(2);
+    Thread.currentThread().interrupt();
+    try {
+      queue.take();
+    } catch (InterruptedException e) {
+      assertFalse(Thread.currentThread().isInterrupted());
+      return;
+    }
+    throw new AssertionError("expected InterruptedException");
+  }
+
+  @Test(timeout = 20000)
+  public void manyProducersSingleConsumer() throws InterruptedException {
+    final int producerCount = 8;
+    final int perProducer = 20000;
+    final RingBufferBlockingQueue<Long> queue = new RingBufferBlockingQueue<Long>(64);
+    Thread[] producers = new Thread[producerCount];
+    for (int p = 0; p < producerCount; p++) {
+      final long base = p * (long) perProducer;
+      producers[p] = new Thread(new Runnable() {
+        public void run() {
+          try {
+            for (int i = 0; i < perProducer; i++) {
+              queue.put(base + i);
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+      producers[p].start();
+    }
+
+    final AtomicLong sum = new AtomicLong();
+    long[] lastSeen = new long[producerCount];
+    for (int p = 0; p < producerCount; p++) {
+      lastSeen[p] = -1;
+    }
+    for (int i = 0; i < producerCount * perProducer; i++) {
+      long value = queue.take();
+      int producer = (int) (value / perProducer);
+      // events of a given producer must come out in the order they were put
+      assertTrue(value > lastSeen[producer]);
+      lastSeen[producer] = value;
+      sum.addAndGet(value);
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    long n = producerCount * (long) perProducer;
+    assertEquals(n * (n - 1) / 2, sum.get());
+    assertTrue(queue.isEmpty());
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class SpillFileTest {
+
+  File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "spillFileTest-" + RandomUtil.getPositiveInt() + ".bin");
+  SpillFile spillFile;
+
+  @Before
+  public void setUp() throws IOException {
+    spillFile = new SpillFile(file, 1024);
+    spillFile.open();
+  }
+
+  @After
+  public void tearDown() {
+    spillFile.close();
+  }
+
+  @Test
+  public void recordsAreReadInOrder() throws IOException {
+    for (int i = 0; i < 5; i++) {
+      assertTrue(spillFile.append(SpillFile.toRecord("s" + i), false));
+    }
+    assertEquals(5, spillFile.getPendingCount());
+    assertEquals(Arrays.<Object>asList("s0", "s1", "s2"), spillFile.read(3));
+    assertEquals(Arrays.<Object>asList("s3", "s4"), spillFile.read(10));
+    assertFalse(spillFile.hasPending());
+    assertEquals(0, file.length());
+  }
+
+  @Test
+  public void onlyIfPending() throws IOException {
+    assertFalse(spillFile.append(SpillFile.toRecord("a"), true));
+    assertTrue(spillFile.append(SpillFile.toRecord("a"), false));
+    assertTrue(spillFile.append(SpillFile.toRecord("b"), true));
+  }
+
+  @Test
+  public void sizeLimitIsEnforced() throws IOException {
+    byte[] record = SpillFile.toRecord(new byte[400]);
+    assertTrue(spillFile.append(record, false));
+    assertTrue(spillFile.append(record, false));
+    assertFalse(spillFile.append(record, false));
+    spillFile.read(2);
+    assertTrue(spillFile.append(record, false));
+  }
+
+  @Test
+  public void closeDeletesFile() {
+    assertTrue(file.exists());
+    spillFile.close();
+    assertFalse(file.exists());
+  }
+}
@@ -0,0 +1,170 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.encoder;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.layout.EchoLayout;
+import ch.qos.logback.core.pattern.parser.SamplePatternLayout;
+
+public class LayoutWrappingEncoderTest {
+
+  static final Charset UTF_8 = Charset.forName("UTF-8");
+  static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+  Context context = new ContextBase();
+  ByteArrayOutputStream baos = new ByteArrayOutputStream();
+  LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+
+  void initEncoder(Charset charset) throws IOException {
+    EchoLayout<Object> layout = new EchoLayout<Object>();
+    layout.setContext(context);
+    layout.start();
+    encoder.setContext(context);
+    encoder.setLayout(layout);
+    encoder.setCharset(charset);
+    encoder.start();
+    encoder.init(baos);
+  }
+
+  String expected(Charset charset, Object... events) {
+    StringBuilder sb = new StringBuilder();
+    for (Object e : events) {
+      sb.append(e).append(CoreConstants.LINE_SEPARATOR);
+    }
+    return new String(sb.toString().getBytes(charset), charset);
+  }
+
+  @Test
+  public void nonAsciiText() throws IOException {
+    initEncoder(UTF_8);
+    encoder.doEncode("héllo € 😀");
+    encoder.doEncode("plain");
+    assertEquals(expected(UTF_8, "héllo € 😀", "plain"), baos.toString("UTF-8"));
+  }
+
+  @Test
+  public void unmappableCharactersAreReplaced() throws IOException {
+    initEncoder(ISO_8859_1);
+    String event = "€é";
+    encoder.doEncode(event);
+    assertEquals(expected(ISO_8859_1, event), baos.toString("ISO-8859-1"));
+  }
+
+  @Test
+  public void malformedInputIsReplaced() throws IOException {
+    initEncoder(UTF_8);
+    String event = "lone \ud83d surrogate";
+    encoder.doEncode(event);
+    assertEquals(Arrays.toString((event + CoreConstants.LINE_SEPARATOR).getBytes(UTF_8)),
+        Arrays.toString(baos.toByteArray()));
+  }
+
+  @Test
+  public void largeEventFollowedBySmallOne() throws IOException {
+    initEncoder(UTF_8);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < TextEncodingBuffer.MAX_RETAINED_BUFFER_SIZE * 2; i++) {
+      sb.append((char) ('a' + i % 26));
+    }
+    String large = sb.toString() + "é";
+    encoder.doEncode(large);
+    encoder.doEncode("small");
+    assertEquals(expected(UTF_8, large, "small"), baos.toString("UTF-8"));
+  }
+
+  @Test
+  public void batch() throws IOException {
+    initEncoder(UTF_8);
+    List<Object> events = new ArrayList<Object>();
+    for (int i = 0; i < 5000; i++) {
+      events.add("event é " + i);
+    }
+    encoder.doEncodeBatch(events);
+    assertEquals(expected(UTF_8, events.toArray()), baos.toString("UTF-8"));
+  }
+
+  @Test
+  public void appendingLayout() throws IOException {
+    SamplePatternLayout<Object> layout = new SamplePatternLayout<Object>();
+    layout.setContext(context);
+    layout.setPattern("%-7hello|é %OTT");
+    layout.start();
+    encoder.setContext(context);
+    encoder.setLayout(layout);
+    encoder.setCharset(UTF_8);
+    encoder.init(baos);
+    encoder.doEncode("x");
+    encoder.doEncodeBatch(Arrays.<Object> asList("y", "z"));
+    assertEquals("Hello  |é 123Hello  |é 123Hello  |é 123", baos.toString("UTF-8"));
+  }
+
+  @Test
+  public void layoutOverridingDoLayoutKeepsItsOutput() throws IOException {
+    SamplePatternLayout<Object> layout = new SamplePatternLayout<Object>() {
+      public String doLayout(Object event) {
+        return "[" + super.doLayout(event) + "]";
+      }
+    };
+    layout.setContext(context);
+    layout.setPattern("%OTT");
+    layout.start();
+    encoder.setContext(context);
+    encoder.setLayout(layout);
+    encoder.setCharset(UTF_8);
+    encoder.init(baos);
+    encoder.doEncode("x");
+    encoder.doEncodeBatch(Arrays.<Object> asList("y"));
+    assertEquals("[123][123]", baos.toString("UTF-8"));
+  }
+
+  @Test
+  public void encodeToBufferThenWrite() throws IOException {
+    initEncoder(UTF_8);
+    ByteBuffer first = encoder.encodeToBuffer("héllo");
+    encoder.writeEncoded(first, false);
+    encoder.writeEncoded(encoder.encodeToBuffer("world"), true);
+    assertEquals(expected(UTF_8, "héllo", "world"), baos.toString("UTF-8"));
+  }
+
+  @Test
+  public void threadsEncodeIntoTheirOwnBuffers() throws Exception {
+    initEncoder(UTF_8);
+    ByteBuffer mine = encoder.encodeToBuffer("mine");
+    final ByteBuffer[] theirs = new ByteBuffer[1];
+    Thread t = new Thread() {
+      public void run() {
+        theirs[0] = encoder.encodeToBuffer("theirs");
+      }
+    };
+    t.start();
+    t.join();
+    encoder.writeEncoded(mine, false);
+    encoder.writeEncoded(theirs[0], true);
+    assertEquals(expected(UTF_8, "mine", "theirs"), baos.toString("UTF-8"));
+  }
+}
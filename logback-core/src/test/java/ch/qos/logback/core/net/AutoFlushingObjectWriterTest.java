@@ -15,12 +15,16 @@ package ch.qos.logback.core.net;
 
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -90,6 +94,71 @@ public class AutoFlushingObjectWriterTest {
     inOrder.verify(objectOutputStream).reset();
   }
 
+  @Test
+  public void flushesOnceAfterWritingAll() throws IOException {
+
+    // given
+    AutoFlushingObjectWriter objectWriter = new AutoFlushingObjectWriter(objectOutputStream, 2);
+
+    // when
+    objectWriter.writeAll(Arrays.asList("foo", "bar", "baz"));
+
+    // then
+    InOrder inOrder = inOrder(objectOutputStream);
+    inOrder.verify(objectOutputStream).writeObjectOverride("foo");
+    inOrder.verify(objectOutputStream).writeObjectOverride("bar");
+    inOrder.verify(objectOutputStream).reset();
+    inOrder.verify(objectOutputStream).writeObjectOverride("baz");
+    inOrder.verify(objectOutputStream).flush();
+    verify(objectOutputStream, times(1)).flush();
+  }
+
+  @Test
+  public void reportsObjectsWrittenBeforeFailure() throws IOException {
+
+    // given
+    AutoFlushingObjectWriter objectWriter = new AutoFlushingObjectWriter(new InstrumentedObjectOutputStream() {
+      @Override
+      protected void writeObjectOverride(final Object obj) throws IOException {
+        if ("baz".equals(obj)) {
+          throw new IOException("broken pipe");
+        }
+      }
+    }, 2);
+
+    // when
+    try {
+      objectWriter.writeAll(Arrays.asList("foo", "bar", "baz", "qux"));
+      fail("expected a PartialWriteException");
+    } catch (PartialWriteException e) {
+
+      // then
+      assertEquals(2, e.getWrittenCount());
+    }
+  }
+
+  @Test
+  public void reportsLastObjectUnwrittenWhenFlushFails() throws IOException {
+
+    // given
+    AutoFlushingObjectWriter objectWriter = new AutoFlushingObjectWriter(new InstrumentedObjectOutputStream() {
+      @Override
+      public void flush() throws IOException {
+        throw new IOException("broken pipe");
+      }
+    }, 2);
+
+    // when
+    try {
+      objectWriter.writeAll(Arrays.asList("foo", "bar", "baz"));
+      fail("expected a PartialWriteException");
+    } catch (PartialWriteException e) {
+
+      // then
+      assertEquals(2, e.getWrittenCount());
+    }
+  }
+
   private static class InstrumentedObjectOutputStream extends ObjectOutputStream {
 
     protected InstrumentedObjectOutputStream() throws IOException, SecurityException {
@@ -19,6 +19,7 @@ import org.junit.Test;
 
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.pattern.Converter;
 import ch.qos.logback.core.pattern.PatternLayoutBase;
 
 
@@ -82,6 +83,49 @@ public class SamplePatternLayoutTest extends AbstractPatternLayoutBaseTest<Objec
     assertEquals("hello % world", s);
   }
 
+
+  /**
+   * Writes without going through convert.
+   */
+  public static class WritingConverter extends Converter<Object> {
+    public String convert(Object event) {
+      return "unused";
+    }
+
+    @Override
+    public void write(StringBuilder buf, Object event) {
+      buf.append("written");
+    }
+  }
+
+  @Test
+  public void fusedChainWritesSameOutput() {
+    String[] patterns = { "x%OTT", "x(%OTT\\)y", "hello \\% world", "[%-8OTT][%8hello][%.3hello][%.-3hello]",
+        "%10.2OTT|%-3.4hello|%w%w %w", "a%-12(%OTT %hello)b%.4(%hello)", "%OTT", "%hello%OTT" };
+    for (String pattern : patterns) {
+      PatternLayoutBase<Object> interpreted = getPatternLayoutBase();
+      interpreted.setContext(context);
+      interpreted.getInstanceConverterMap().put("w", WritingConverter.class.getName());
+      interpreted.setPattern(pattern);
+      interpreted.start();
+
+      PatternLayoutBase<Object> fused = getPatternLayoutBase();
+      fused.setContext(context);
+      fused.getInstanceConverterMap().put("w", WritingConverter.class.getName());
+      fused.setPattern(pattern);
+      fused.setFuseConverters(true);
+      fused.start();
+
+      Object event = new Object();
+      assertEquals(pattern, interpreted.doLayout(event), fused.doLayout(event));
+    }
+    PatternLayoutBase<Object> fused = getPatternLayoutBase();
+    fused.setContext(context);
+    fused.setPattern(patterns[3]);
+    fused.setFuseConverters(true);
+    fused.start();
+    assertEquals("[123     ][   Hello][llo][Hel]", fused.doLayout(new Object()));
+  }
   
   @Override
   public Context getContext() {
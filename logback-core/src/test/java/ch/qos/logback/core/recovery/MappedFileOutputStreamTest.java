@@ -0,0 +1,101 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.recovery;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class MappedFileOutputStreamTest {
+
+  int diff = new Random().nextInt(10000);
+  File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "mfos-" + diff + ".log");
+
+  @Before
+  public void setUp() {
+    file.getParentFile().mkdirs();
+  }
+
+  @Test
+  public void writesSpanningRegionsAreTruncatedOnClose() throws IOException {
+    MappedFileOutputStream mfos = new MappedFileOutputStream(file, false, 64);
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    for (int i = 0; i < 50; i++) {
+      byte[] line = ("line " + i + "\n").getBytes();
+      mfos.write(line);
+      expected.write(line);
+    }
+    mfos.write('x');
+    expected.write('x');
+
+    assertEquals(expected.size(), mfos.getLength());
+    assertEquals(expected.size() / 64, mfos.getRemapCount());
+    // the unused part of the region is part of the file until it is closed
+    assertEquals((mfos.getRemapCount() + 1) * 64, file.length());
+
+    mfos.close();
+    assertArrayEquals(expected.toByteArray(), readFile());
+  }
+
+  @Test
+  public void appendKeepsExistingContent() throws IOException {
+    MappedFileOutputStream mfos = new MappedFileOutputStream(file, false, 16);
+    mfos.write("hello ".getBytes());
+    mfos.close();
+
+    mfos = new MappedFileOutputStream(file, true, 16);
+    assertEquals(6, mfos.getLength());
+    mfos.write("world".getBytes());
+    mfos.close();
+    assertEquals("hello world", new String(readFile()));
+
+    mfos = new MappedFileOutputStream(file, false, 16);
+    mfos.write("bye".getBytes());
+    mfos.close();
+    assertEquals("bye", new String(readFile()));
+  }
+
+  @Test(expected = IOException.class)
+  public void writeAfterCloseFails() throws IOException {
+    MappedFileOutputStream mfos = new MappedFileOutputStream(file, false, 16);
+    mfos.close();
+    mfos.write(1);
+  }
+
+  private byte[] readFile() throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      byte[] buf = new byte[1024];
+      int n;
+      while ((n = in.read(buf)) != -1) {
+        baos.write(buf, 0, n);
+      }
+      return baos.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -18,6 +18,6 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({RecoveryCoordinatorTest.class, ResilientOutputStreamTest.class})
+@SuiteClasses({RecoveryCoordinatorTest.class, ResilientOutputStreamTest.class, MappedFileOutputStreamTest.class})
 public class PackageTest  {
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ package ch.qos.logback.core.recovery;
 
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.testUtil.FileToBufferUtil;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.util.CoreTestConstants;
 import ch.qos.logback.core.util.StatusPrinter;
@@ -23,7 +24,13 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -41,6 +48,74 @@ public class ResilientOutputStreamTest {
      file.mkdirs();
    }
 
+   @Test
+   public void lengthCountsExistingAndBufferedBytes() throws Exception {
+     File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX+"resilient-length"+diff+".log");
+     ResilientFileOutputStream rfos = new ResilientFileOutputStream(file, true);
+     rfos.setContext(context);
+     rfos.write("abc".getBytes());
+     assertEquals(3, rfos.getLength());
+     assertEquals(0, file.length());
+     rfos.close();
+
+     rfos = new ResilientFileOutputStream(file, true);
+     rfos.write('d');
+     assertEquals(4, rfos.getLength());
+     rfos.close();
+
+     rfos = new ResilientFileOutputStream(file, false);
+     assertEquals(0, rfos.getLength());
+     rfos.close();
+   }
+
+   @Test
+   public void channelOutputGathersBuffersInOrder() throws Exception {
+     File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX+"resilient-gather"+diff+".log");
+     ResilientFileOutputStream rfos = new ResilientFileOutputStream(file, false, 8, true);
+     rfos.setContext(context);
+     rfos.write("ab".getBytes());
+     ByteBuffer direct = ByteBuffer.allocateDirect(16);
+     direct.put("ghijkl".getBytes()).flip();
+     ByteBuffer[] buffers = { ByteBuffer.wrap("cdef".getBytes()), direct };
+     // 12 bytes do not fit in the buffer
+     assertEquals(10, rfos.write(buffers));
+     assertFalse(direct.hasRemaining());
+     assertEquals(12, rfos.getLength());
+     assertEquals(12, file.length());
+
+     rfos.write(ByteBuffer.wrap("mn".getBytes()));
+     assertEquals(12, file.length());
+     rfos.close();
+     assertEquals("abcdefghijklmn", readFile(file));
+   }
+
+   @Test
+   public void channelOutputRecoversAfterFailure() throws Exception {
+     File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX+"resilient-channel"+diff+".log");
+     ResilientFileOutputStream rfos = new ResilientFileOutputStream(file, false, 8, true);
+     rfos.setContext(context);
+     rfos.write(ByteBuffer.wrap("a".getBytes()));
+     rfos.flush();
+
+     rfos.getChannel().close();
+     ByteBuffer dropped = ByteBuffer.wrap("0123456789".getBytes());
+     assertEquals(10, rfos.write(dropped));
+     assertFalse(dropped.hasRemaining());
+     Thread.sleep(RecoveryCoordinator.BACKOFF_COEFFICIENT_MIN+10);
+     // triggers recovery, the bytes are dropped as well
+     rfos.write(ByteBuffer.wrap("b".getBytes()));
+     rfos.write(ByteBuffer.wrap("c".getBytes()));
+     rfos.close();
+     assertEquals("ac", readFile(file));
+   }
+
+   private String readFile(File file) throws IOException {
+     List<String> lines = new ArrayList<String>();
+     FileToBufferUtil.regularReadIntoList(file, lines);
+     assertEquals(1, lines.size());
+     return lines.get(0);
+   }
+
    @Test
    public void verifyRecuperationAfterFailure() throws Exception {
      File file = new File(CoreTestConstants.OUTPUT_DIR_PREFIX+"resilient"+diff+".log");
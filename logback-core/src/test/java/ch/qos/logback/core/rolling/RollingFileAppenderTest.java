@@ -16,13 +16,23 @@ package ch.qos.logback.core.rolling;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.appender.AbstractAppenderTest;
 import ch.qos.logback.core.encoder.DummyEncoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.layout.EchoLayout;
 import ch.qos.logback.core.status.Status;
 import ch.qos.logback.core.status.StatusChecker;
+import ch.qos.logback.core.testUtil.FileToBufferUtil;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.util.CoreTestConstants;
 import ch.qos.logback.core.util.StatusPrinter;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -207,4 +217,79 @@ public class RollingFileAppenderTest extends AbstractAppenderTest<Object> {
     assertTrue("Missing error: " + msg, containsMatch);
   }
 
+  @Test
+  public void batchSpanningRolloverIsSplit() throws IOException {
+    rfa.setContext(context);
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setContext(context);
+    encoder.setLayout(new EchoLayout<Object>());
+    encoder.start();
+    rfa.setEncoder(encoder);
+    rfa.setFile(randomOutputDir + "batch.log");
+
+    FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+    fwRollingPolicy.setContext(context);
+    fwRollingPolicy.setFileNamePattern(randomOutputDir + "batch-%i.log");
+    fwRollingPolicy.setParent(rfa);
+    fwRollingPolicy.start();
+    TriggeringPolicyBase<Object> onRollEvent = new TriggeringPolicyBase<Object>() {
+      public boolean isTriggeringEvent(File activeFile, Object event) {
+        return "roll".equals(event);
+      }
+    };
+    onRollEvent.start();
+
+    rfa.setRollingPolicy(fwRollingPolicy);
+    rfa.setTriggeringPolicy(onRollEvent);
+    rfa.start();
+
+    rfa.doBatchAppend(Arrays.<Object>asList("a", "b", "roll", "c"));
+    rfa.stop();
+
+    List<String> archived = new ArrayList<String>();
+    FileToBufferUtil.readIntoList(new File(randomOutputDir + "batch-1.log"), archived);
+    assertEquals(Arrays.asList("a", "b"), archived);
+    List<String> active = new ArrayList<String>();
+    FileToBufferUtil.readIntoList(new File(randomOutputDir + "batch.log"), active);
+    assertEquals(Arrays.asList("roll", "c"), active);
+  }
+
+  @Test
+  public void sizeTriggerFiresWithinBatch() throws IOException {
+    rfa.setContext(context);
+    LayoutWrappingEncoder<Object> encoder = new LayoutWrappingEncoder<Object>();
+    encoder.setContext(context);
+    encoder.setLayout(new EchoLayout<Object>());
+    encoder.start();
+    rfa.setEncoder(encoder);
+    rfa.setFile(randomOutputDir + "size.log");
+
+    FixedWindowRollingPolicy fwRollingPolicy = new FixedWindowRollingPolicy();
+    fwRollingPolicy.setContext(context);
+    fwRollingPolicy.setFileNamePattern(randomOutputDir + "size-%i.log");
+    fwRollingPolicy.setMaxIndex(20);
+    fwRollingPolicy.setParent(rfa);
+    fwRollingPolicy.start();
+    SizeBasedTriggeringPolicy<Object> sbtp = new SizeBasedTriggeringPolicy<Object>();
+    sbtp.setContext(context);
+    sbtp.setMaxFileSize("100");
+    sbtp.start();
+
+    rfa.setRollingPolicy(fwRollingPolicy);
+    rfa.setTriggeringPolicy(sbtp);
+    rfa.start();
+
+    List<Object> batch = new ArrayList<Object>();
+    for (int i = 0; i < 50; i++) {
+      batch.add("event-" + (100 + i));
+    }
+    rfa.doBatchAppend(batch);
+    rfa.stop();
+
+    // each event takes 9 bytes plus a line separator
+    long eventLength = 9 + CoreConstants.LINE_SEPARATOR_LEN;
+    File archive = new File(randomOutputDir + "size-1.log");
+    assertTrue(archive.exists());
+    assertTrue("archive length " + archive.length(), archive.length() < 100 + eventLength);
+  }
 }
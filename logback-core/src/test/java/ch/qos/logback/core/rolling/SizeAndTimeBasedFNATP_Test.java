@@ -16,10 +16,14 @@ package ch.qos.logback.core.rolling;
 import ch.qos.logback.core.encoder.EchoEncoder;
 import ch.qos.logback.core.status.InfoStatus;
 import ch.qos.logback.core.status.StatusManager;
+import ch.qos.logback.core.util.CoreTestConstants;
 import ch.qos.logback.core.util.StatusPrinter;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import java.io.File;
 import java.io.IOException;
 import java.util.Date;
@@ -37,6 +41,7 @@ public class SizeAndTimeBasedFNATP_Test extends ScaffoldingForRollingTests {
   int fileSize = 0;
   int fileIndexCounter = 0;
   int sizeThreshold = 0;
+  String archiveIndexFile = null;
 
 
   @Before
@@ -63,6 +68,7 @@ public class SizeAndTimeBasedFNATP_Test extends ScaffoldingForRollingTests {
     tbrp.setFileNamePattern(filenamePattern);
     tbrp.setParent(rfa);
     tbrp.timeBasedFileNamingAndTriggeringPolicy.setCurrentTime(givenTime);
+    tbrp.setArchiveIndexFile(archiveIndexFile);
     rfa.setRollingPolicy(tbrp);
     tbrp.start();
     rfa.start();
@@ -193,4 +199,48 @@ public class SizeAndTimeBasedFNATP_Test extends ScaffoldingForRollingTests {
     List<String> zipFiles = filterElementsInListBySuffix(".zip");
     checkZipEntryMatchesZipFilename(zipFiles);
   }
+
+  @Test
+  public void withArchiveIndex_FileSet_WithStopStart_8() throws Exception {
+    archiveIndexFile = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "-test8.idx";
+    generic("test8", "test8.log", WITH_SECOND_PHASE, DEFAULT_COMPRESSION_SUFFIX);
+    assertTrue(new File(archiveIndexFile).exists());
+  }
+
+  @Test
+  public void withArchiveIndex_FileBlank_WithStopStart_9() throws Exception {
+    archiveIndexFile = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "-test9.idx";
+    generic("test9", null, WITH_SECOND_PHASE, DEFAULT_COMPRESSION_SUFFIX);
+  }
+
+  @Test
+  public void restartFindsCounterInArchiveIndex() throws Exception {
+    archiveIndexFile = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "-test10.idx";
+    String pattern = randomOutputDir + "test10-%d{" + DATE_PATTERN_WITH_SECONDS + "}-%i.txt";
+    initRollingFileAppender(rfa1, randomOutputDir + "test10.log");
+    initPolicies(rfa1, tbrp1, pattern, 50, currentTime, 0);
+    for (int i = 0; i < 30; i++) {
+      rfa1.doAppend("Hello " + i);
+    }
+    rfa1.stop();
+    int archives = tbrp1.archiveIndex.size();
+    assertTrue(archives > 1);
+
+    // an archive the index does not know of is found by the next start
+    initRollingFileAppender(rfa2, randomOutputDir + "test10.log");
+    initPolicies(rfa2, tbrp2, pattern, 50, currentTime, 0);
+    assertEquals(archives, ((SizeAndTimeBasedFNATP<Object>) tbrp2.timeBasedFileNamingAndTriggeringPolicy).currentPeriodsCounter);
+    assertEquals(archives, tbrp2.archiveIndex.size());
+    rfa2.stop();
+
+    new File(tbrp2.fileNamePattern.convertMultipleArguments(new Date(currentTime), archives)).createNewFile();
+    RollingFileAppender<Object> rfa3 = new RollingFileAppender<Object>();
+    TimeBasedRollingPolicy<Object> tbrp3 = new TimeBasedRollingPolicy<Object>();
+    initRollingFileAppender(rfa3, randomOutputDir + "test10.log");
+    initPolicies(rfa3, tbrp3, pattern, 50, currentTime, 0);
+    assertEquals(archives + 1, ((SizeAndTimeBasedFNATP<Object>) tbrp3.timeBasedFileNamingAndTriggeringPolicy).currentPeriodsCounter);
+    // the index was rebuilt by listing the archives
+    assertEquals(archives + 1, tbrp3.archiveIndex.size());
+    rfa3.stop();
+  }
 }
@@ -14,10 +14,16 @@
 package ch.qos.logback.core.rolling;
 
 import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.layout.EchoLayout;
 import ch.qos.logback.core.util.CoreTestConstants;
+import ch.qos.logback.core.util.FileSize;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -104,6 +110,78 @@ public class SizeBasedRollingTest extends ScaffoldingForRollingTests {
     generic("gzed", "a-sbr-gzed.log", "sbr-gzed.%i.gz", expectedFilenameList);
   }
 
+  @Test
+  public void rolloverHappensAtMaxFileSizeDespiteBuffering() throws IOException {
+    rfa.setName("ROLLING");
+    initRFA(randomOutputDir + "a-sizeBased-exact.log");
+    // written bytes stay in the stream's buffer, out of sight of the file system
+    LayoutWrappingEncoder<Object> bufferingEncoder = new LayoutWrappingEncoder<Object>();
+    bufferingEncoder.setLayout(new EchoLayout<Object>());
+    bufferingEncoder.setImmediateFlush(false);
+    rfa.setEncoder(bufferingEncoder);
+
+    sizeBasedTriggeringPolicy.setMaxFileSize("100");
+    fwrp.setMinIndex(0);
+    fwrp.setFileNamePattern(randomOutputDir + "sizeBased-exact.%i");
+
+    rfa.setTriggeringPolicy(sizeBasedTriggeringPolicy);
+    rfa.setRollingPolicy(fwrp);
+
+    fwrp.start();
+    sizeBasedTriggeringPolicy.start();
+    rfa.start();
+
+    String prefix = "hello";
+    for (int i = 0; i < 40; i++) {
+      rfa.doAppend(prefix + i);
+    }
+    rfa.stop();
+
+    // archives exceed the maximum by less than one event
+    int maxEventLength = (prefix + 39).length() + 1;
+    for (int i = 0; i < 2; i++) {
+      long length = new File(randomOutputDir + "sizeBased-exact." + i).length();
+      assertTrue("archive " + i + " has length " + length, length >= 100 && length < 100 + maxEventLength);
+    }
+    reverseSortedContentCheck(randomOutputDir, 40, prefix);
+  }
+
+  @Test
+  public void memoryMappedArchivesAreTruncated() throws IOException {
+    RollingMemoryMappedFileAppender<Object> mmrfa = new RollingMemoryMappedFileAppender<Object>();
+    mmrfa.setContext(context);
+    mmrfa.setName("MAPPED");
+    mmrfa.setEncoder(encoder);
+    mmrfa.setFile(randomOutputDir + "a-sizeBased-mapped.log");
+    // several regions per file
+    mmrfa.setRegionSize(new FileSize(32));
+    fwrp.setParent(mmrfa);
+
+    sizeBasedTriggeringPolicy.setMaxFileSize("100");
+    fwrp.setMinIndex(0);
+    fwrp.setFileNamePattern(randomOutputDir + "sizeBased-mapped.%i");
+
+    mmrfa.setTriggeringPolicy(sizeBasedTriggeringPolicy);
+    mmrfa.setRollingPolicy(fwrp);
+
+    fwrp.start();
+    sizeBasedTriggeringPolicy.start();
+    mmrfa.start();
+
+    String prefix = "hello";
+    for (int i = 0; i < 40; i++) {
+      mmrfa.doAppend(prefix + i);
+    }
+    mmrfa.stop();
+
+    int maxEventLength = (prefix + 39).length() + 1;
+    for (int i = 0; i < 2; i++) {
+      long length = new File(randomOutputDir + "sizeBased-mapped." + i).length();
+      assertTrue("archive " + i + " has length " + length, length >= 100 && length < 100 + maxEventLength);
+    }
+    reverseSortedContentCheck(randomOutputDir, 40, prefix);
+  }
+
   // see also LBCORE-199
   @Test
   public void zipped() throws IOException, InterruptedException  {
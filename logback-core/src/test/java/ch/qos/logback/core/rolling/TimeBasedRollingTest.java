@@ -15,6 +15,7 @@ package ch.qos.logback.core.rolling;
 
 import ch.qos.logback.core.encoder.EchoEncoder;
 import ch.qos.logback.core.testUtil.EnvUtilForTests;
+import ch.qos.logback.core.util.Duration;
 import ch.qos.logback.core.util.StatusPrinter;
 import org.junit.After;
 import org.junit.Before;
@@ -23,8 +24,12 @@ import org.junit.Test;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Date;
 import java.util.concurrent.ExecutionException;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 /**
  * A rather exhaustive set of tests. Tests include leaving the file option
  * blank, or setting it, with and without compression, and tests with or without
@@ -66,6 +71,9 @@ public class TimeBasedRollingTest extends ScaffoldingForRollingTests {
 
   RolloverChecker rolloverChecker;
 
+  boolean asynchronousRollover = false;
+  Duration incrementalCompressionPeriod = null;
+
   @Before
   @Override
   public void setUp() {
@@ -90,6 +98,8 @@ public class TimeBasedRollingTest extends ScaffoldingForRollingTests {
     tbrp.setContext(context);
     tbrp.setFileNamePattern(filenamePattern);
     tbrp.setParent(rfa);
+    tbrp.setAsynchronousRollover(asynchronousRollover);
+    tbrp.setIncrementalCompressionPeriod(incrementalCompressionPeriod);
     tbrp.timeBasedFileNamingAndTriggeringPolicy = new DefaultTimeBasedFileNamingAndTriggeringPolicy<Object>();
     tbrp.timeBasedFileNamingAndTriggeringPolicy.setCurrentTime(givenTime);
     rfa.setRollingPolicy(tbrp);
@@ -207,6 +217,81 @@ public class TimeBasedRollingTest extends ScaffoldingForRollingTests {
     defaultTest("test8", "%d{yyyy-MM-dd, aux}/", ".zip", FILE_OPTION_SET, NO_RESTART);
   }
 
+  @Test
+  public void asynchronousRollover_FileBlank() throws IOException {
+    asynchronousRollover = true;
+    defaultTest("test3", "test3", "", FILE_OPTION_BLANK, WITH_RESTART);
+    assertTrue(rfa1.getRolloverCount() > 0);
+    assertTrue(rfa1.getMaxRolloverNanos() >= rfa1.getLastRolloverNanos());
+  }
+
+  @Test
+  public void asynchronousRollover_FileSet() throws IOException {
+    asynchronousRollover = true;
+    defaultTest("test4", "test4", "", FILE_OPTION_SET, WITH_RESTART);
+  }
+
+  @Test
+  public void asynchronousRolloverWithCompression_FileSet() throws IOException {
+    asynchronousRollover = true;
+    defaultTest("test6", "test6", ".gz", FILE_OPTION_SET, NO_RESTART);
+  }
+
+  @Test
+  public void incrementalCompression_FileBlank() throws IOException {
+    incrementalCompressionPeriod = Duration.buildByMilliseconds(100);
+    defaultTest("test2", "test2", ".gz", FILE_OPTION_BLANK, NO_RESTART);
+    assertOnlyActiveFileHasPartialArchive();
+  }
+
+  @Test
+  public void incrementalCompression_FileSet() throws IOException {
+    incrementalCompressionPeriod = Duration.buildByMilliseconds(100);
+    defaultTest("test6", "test6", ".gz", FILE_OPTION_SET, NO_RESTART);
+    assertOnlyActiveFileHasPartialArchive();
+  }
+
+  @Test
+  public void incrementalCompressionWithAsynchronousRollover_FileSet() throws IOException {
+    incrementalCompressionPeriod = Duration.buildByMilliseconds(100);
+    asynchronousRollover = true;
+    defaultTest("test6", "test6", ".gz", FILE_OPTION_SET, NO_RESTART);
+    assertOnlyActiveFileHasPartialArchive();
+  }
+
+  @Test
+  public void stagedFileLeftByAsynchronousRolloverIsArchivedOnStart() throws IOException {
+    String fileName = testId2FileName("staged");
+    File staged = new File(fileName + "123456789.tmp");
+    staged.getParentFile().mkdirs();
+    FileOutputStream fos = new FileOutputStream(staged);
+    fos.write("Hello".getBytes());
+    fos.close();
+    staged.setLastModified(currentTime);
+    long stagedLastModified = staged.lastModified();
+
+    asynchronousRollover = true;
+    String fileNamePatternStr = randomOutputDir + "staged-%d{" + DATE_PATTERN_WITH_SECONDS + "}";
+    initRFA(rfa1, fileName);
+    initTRBP(rfa1, tbrp1, fileNamePatternStr, currentTime);
+    add(tbrp1.future);
+    waitForJobsToComplete();
+    rfa1.stop();
+
+    assertTrue(new File(tbrp1.fileNamePatternWCS.convert(new Date(stagedLastModified))).exists());
+    assertTrue(!staged.exists());
+  }
+
+  // only the active file may still have a partial archive
+  void assertOnlyActiveFileHasPartialArchive() {
+    String activePartialArchive = new File(tbrp1.getActiveFileName()).getName() + ".part.gz";
+    for (File file : new File(randomOutputDir).listFiles()) {
+      if (file.getName().endsWith(".part.gz")) {
+        assertEquals(activePartialArchive, file.getName());
+      }
+    }
+  }
+
   @Test
   public void failed_rename() throws IOException {
     if (!EnvUtilForTests.isWindows())
@@ -19,6 +19,7 @@ import ch.qos.logback.core.encoder.EchoEncoder;
 import ch.qos.logback.core.rolling.helper.RollingCalendar;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.util.CoreTestConstants;
+import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.StatusPrinter;
 import org.junit.Before;
 import org.junit.Test;
@@ -53,6 +54,7 @@ public class TimeBasedRollingWithArchiveRemoval_Test extends ScaffoldingForRolli
   int MONTHS_IN_YEAR = 12;
 
   int slashCount = 0;
+  FileSize totalSizeCap;
 
   @Before
   public void setUp() {
@@ -205,6 +207,52 @@ public class TimeBasedRollingWithArchiveRemoval_Test extends ScaffoldingForRolli
   }
 
 
+  @Test
+  public void dailyRolloverWithTotalSizeCap() {
+    long cap = 100 * 1000;
+    totalSizeCap = new FileSize(cap);
+    logOverMultiplePeriodsContinuously(currentTime, randomOutputDir + "clean-%d{" + DAILY_DATE_PATTERN + "}.txt",
+            MILLIS_IN_DAY, INFINITE_HISTORY, 10);
+    checkTotalSizeCap(cap, false);
+  }
+
+  @Test
+  public void dailySizeBasedRolloverWithTotalSizeCap() {
+    SizeAndTimeBasedFNATP<Object> sizeAndTimeBasedFNATP = new SizeAndTimeBasedFNATP<Object>();
+    sizeAndTimeBasedFNATP.setMaxFileSize("10000");
+    tbfnatp = sizeAndTimeBasedFNATP;
+    long cap = 3000;
+    totalSizeCap = new FileSize(cap);
+    logOverMultiplePeriodsContinuously(currentTime, randomOutputDir + "/%d{" + DAILY_DATE_PATTERN + "}/clean.%i.gz",
+            MILLIS_IN_DAY, INFINITE_HISTORY, 5);
+    // the last archive is compressed after the last rollover, it is not capped yet
+    checkTotalSizeCap(cap, true);
+  }
+
+  void checkTotalSizeCap(long cap, boolean excludeNewestArchive) {
+    File dir = new File(randomOutputDir);
+    List<File> fileList = new ArrayList<File>();
+    findFilesInFolderRecursivelyByPatterMatch(dir, fileList, "clean.*");
+    long total = 0;
+    int archiveCount = 0;
+    File newest = null;
+    File activeFile = new File(tbrp.getActiveFileName()).getAbsoluteFile();
+    for (File f : fileList) {
+      if (!f.getAbsoluteFile().equals(activeFile)) {
+        total += f.length();
+        archiveCount++;
+        if (newest == null || f.lastModified() >= newest.lastModified()) {
+          newest = f;
+        }
+      }
+    }
+    if (excludeNewestArchive && newest != null) {
+      total -= newest.length();
+    }
+    assertTrue("total size " + total + " exceeds cap " + cap, total <= cap);
+    assertTrue("only " + archiveCount + " archives kept", archiveCount > 1);
+  }
+
   void logOncePeriod(long currentTime, String fileNamePattern, int maxHistory) {
     buildRollingFileAppender(currentTime, fileNamePattern, maxHistory, DO_CLEAN_HISTORY_ON_START);
     rfa.doAppend("Hello ----------------------------------------------------------" + new Date(currentTime));
@@ -273,6 +321,7 @@ public class TimeBasedRollingWithArchiveRemoval_Test extends ScaffoldingForRolli
     tbrp.setMaxHistory(maxHistory);
     tbrp.setParent(rfa);
     tbrp.setCleanHistoryOnStart(cleanHistoryOnStart);
+    tbrp.setTotalSizeCap(totalSizeCap);
     tbrp.timeBasedFileNamingAndTriggeringPolicy = tbfnatp;
     tbrp.timeBasedFileNamingAndTriggeringPolicy.setCurrentTime(currentTime);
     tbrp.start();
@@ -280,6 +329,7 @@ public class TimeBasedRollingWithArchiveRemoval_Test extends ScaffoldingForRolli
     rfa.start();
   }
 
+  static final int INFINITE_HISTORY = 0;
   boolean DO_CLEAN_HISTORY_ON_START = true;
   boolean DO_NOT_CLEAN_HISTORY_ON_START = false;
 
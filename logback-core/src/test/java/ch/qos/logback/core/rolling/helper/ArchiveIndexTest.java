@@ -0,0 +1,161 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class ArchiveIndexTest {
+
+  Context context = new ContextBase();
+  String outputDir = CoreTestConstants.OUTPUT_DIR_PREFIX + "archiveIndex-" + RandomUtil.getPositiveInt() + "/";
+  long now = System.currentTimeMillis();
+
+  @Before
+  public void setUp() {
+    new File(outputDir).mkdirs();
+  }
+
+  File createFile(String name, int length, long lastModified) throws IOException {
+    File file = new File(outputDir + name);
+    file.getParentFile().mkdirs();
+    FileOutputStream fos = new FileOutputStream(file);
+    fos.write(new byte[length]);
+    fos.close();
+    file.setLastModified(lastModified);
+    return file;
+  }
+
+  @Test
+  public void buildOrdersArchivesByLastModificationDate() throws IOException {
+    File newest = createFile("a-2015-01-03.log", 30, now - 1000);
+    File oldest = createFile("a-2015-01-01.log", 10, now - 3000);
+    File middle = createFile("a-2015-01-02.log", 20, now - 2000);
+    createFile("unrelated.log", 100, now);
+
+    FileNamePattern fnp = new FileNamePattern(outputDir + "a-%d{yyyy-MM-dd}.log", context);
+    ArchiveIndex index = ArchiveIndex.build(fnp, null);
+
+    assertEquals(3, index.size());
+    assertEquals(60, index.getTotalSize());
+    assertEquals(oldest.getAbsoluteFile(), index.getOldest());
+    index.remove(oldest);
+    assertEquals(middle.getAbsoluteFile(), index.getOldest());
+    index.remove(middle);
+    assertEquals(newest.getAbsoluteFile(), index.getOldest());
+    assertEquals(30, index.getTotalSize());
+  }
+
+  @Test
+  public void buildWalksDateDirectoriesAndSkipsActiveFile() throws IOException {
+    createFile("2015/01/01/b.0.log", 10, now - 3000);
+    createFile("2015/01/02/b.0.log", 10, now - 2000);
+    File active = createFile("2015/01/02/b.1.log", 10, now - 1000);
+
+    FileNamePattern fnp = new FileNamePattern(outputDir + "%d{yyyy/MM/dd}/b.%i.log", context);
+    ArchiveIndex index = ArchiveIndex.build(fnp, active);
+
+    assertEquals(2, index.size());
+    assertEquals(20, index.getTotalSize());
+  }
+
+  @Test
+  public void addedArchivesAreTheNewest() throws IOException {
+    FileNamePattern fnp = new FileNamePattern(outputDir + "c-%d{yyyy-MM-dd}.log", context);
+    ArchiveIndex index = ArchiveIndex.build(fnp, null);
+    assertNull(index.getOldest());
+
+    File first = createFile("c-2015-01-02.log", 5, now);
+    File second = createFile("c-2015-01-01.log", 7, now - 5000);
+    index.add(first);
+    index.add(second);
+    assertEquals(first.getAbsoluteFile(), index.getOldest());
+    assertEquals(12, index.getTotalSize());
+  }
+
+  @Test
+  public void persistedIndexReplaysJournal() throws IOException {
+    createFile("d-2015-01-01.0.log", 10, now - 3000);
+    File second = createFile("d-2015-01-01.1.log", 20, now - 2000);
+    FileNamePattern fnp = new FileNamePattern(outputDir + "d-%d{yyyy-MM-dd}.%i.log", context);
+    ArchiveIndex index = ArchiveIndex.build(fnp, null);
+    File indexFile = new File(outputDir + "d.idx");
+    index.persistTo(indexFile);
+
+    File third = createFile("d-2015-01-02.0.log", 30, now - 1000);
+    index.add(third);
+    index.remove(second);
+    second.delete();
+
+    ArchiveIndex loaded = ArchiveIndex.load(fnp, indexFile);
+    assertEquals(2, loaded.size());
+    assertEquals(40, loaded.getTotalSize());
+    assertEquals(0, loaded.getHighestCounter("2015-01-01"));
+    assertEquals(0, loaded.getHighestCounter("2015-01-02"));
+    assertEquals(-1, loaded.getHighestCounter("2015-01-03"));
+    assertEquals(Arrays.asList(third.getAbsoluteFile()), loaded.getArchives("2015-01-02"));
+  }
+
+  @Test
+  public void truncatedLastLineIsIgnored() throws IOException {
+    File first = createFile("e-2015-01-01.0.log", 10, now - 2000);
+    FileNamePattern fnp = new FileNamePattern(outputDir + "e-%d{yyyy-MM-dd}.%i.log", context);
+    File indexFile = new File(outputDir + "e.idx");
+    ArchiveIndex.build(fnp, null).persistTo(indexFile);
+
+    FileOutputStream fos = new FileOutputStream(indexFile, true);
+    fos.write("+\t1\t20\t0\t2015-01-01\t".getBytes());
+    fos.close();
+
+    ArchiveIndex loaded = ArchiveIndex.load(fnp, indexFile);
+    assertEquals(1, loaded.size());
+    assertTrue(loaded.contains(first));
+  }
+
+  @Test
+  public void staleIndexIsRejected() throws IOException {
+    File first = createFile("f-2015-01-01.0.log", 10, now - 2000);
+    FileNamePattern fnp = new FileNamePattern(outputDir + "f-%d{yyyy-MM-dd}.%i.log", context);
+    File indexFile = new File(outputDir + "f.idx");
+    ArchiveIndex.build(fnp, null).persistTo(indexFile);
+
+    assertNull(ArchiveIndex.load(fnp, new File(outputDir + "missing.idx")));
+    try {
+      ArchiveIndex.load(new FileNamePattern(outputDir + "f-%d{yyyy-MM-dd}.%i.log.gz", context), indexFile);
+      fail("pattern mismatch not detected");
+    } catch (IOException expected) {
+    }
+    first.delete();
+    try {
+      ArchiveIndex.load(fnp, indexFile);
+      fail("missing archive not detected");
+    } catch (IOException expected) {
+    }
+  }
+}
@@ -13,6 +13,7 @@
  */
 package ch.qos.logback.core.rolling.helper;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -125,6 +126,26 @@ public class CompressTest {
     // + "witness/compress3.txt.zip"));
   }
 
+  @Test
+  public void parallelGzCompressionYieldsMultiMemberGzip() throws Exception {
+    Compressor compressor = new Compressor(CompressionMode.GZ);
+    compressor.setContext(context);
+    compressor.setCompressionThreads(4);
+    compressor.setBlockSize(64);
+    compressor.setCompressionLevel(9);
+    compressor.compress(CoreTestConstants.TEST_SRC_PREFIX
+        + "input/compress1.txt", CoreTestConstants.OUTPUT_DIR_PREFIX
+        + "compress1.txt.gz", null);
+
+    StatusChecker checker = new StatusChecker(context);
+    assertTrue(checker.isErrorFree(0));
+    assertTrue(Compare.gzCompare(CoreTestConstants.OUTPUT_DIR_PREFIX
+        + "compress1.txt.gz", CoreTestConstants.TEST_SRC_PREFIX
+        + "witness/compress1.txt.gz"));
+    assertEquals(1, compressor.getCompressionCount());
+    assertEquals(compressor.getBytesToCompress(), compressor.getBytesCompressed());
+  }
+
   private void copy(File src, File dst) throws IOException {
     InputStream in = new FileInputStream(src);
     OutputStream out = new FileOutputStream(dst);
@@ -0,0 +1,115 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.rolling.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.status.StatusChecker;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class IncrementalCompressorTest {
+
+  Context context = new ContextBase();
+  String outputDir = CoreTestConstants.OUTPUT_DIR_PREFIX + "incrementalCompressor-" + RandomUtil.getPositiveInt() + "/";
+  File activeFile = new File(outputDir + "active.log");
+  StringBuilder written = new StringBuilder();
+
+  Compressor compressor = new Compressor(CompressionMode.GZ);
+  IncrementalCompressor incrementalCompressor = new IncrementalCompressor(compressor);
+
+  @Before
+  public void setUp() {
+    new File(outputDir).mkdirs();
+    compressor.setContext(context);
+    incrementalCompressor.setContext(context);
+  }
+
+  void append(String s) throws IOException {
+    FileOutputStream fos = new FileOutputStream(activeFile, true);
+    fos.write(s.getBytes("UTF-8"));
+    fos.close();
+    written.append(s);
+  }
+
+  static String gunzip(File file) throws IOException {
+    InputStream in = new GZIPInputStream(new FileInputStream(file));
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    byte[] buf = new byte[1024];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      baos.write(buf, 0, n);
+    }
+    in.close();
+    return baos.toString("UTF-8");
+  }
+
+  @Test
+  public void archiveIsTheConcatenationOfIncrements() throws IOException {
+    incrementalCompressor.track(activeFile);
+    for (int i = 0; i < 5; i++) {
+      append("line " + i + "\n");
+      incrementalCompressor.compressIncrement();
+    }
+    append("last line\n");
+
+    IncrementalCompressor.Checkpoint checkpoint = incrementalCompressor.detach();
+    assertEquals(activeFile.length() - "last line\n".length(), checkpoint.getOffset());
+
+    // the closed file is moved aside, as done on rollover
+    File renamed = new File(outputDir + "active.log.tmp");
+    assertTrue(activeFile.renameTo(renamed));
+    String archiveName = outputDir + "archive.log.gz";
+    incrementalCompressor.complete(checkpoint, renamed.getPath(), archiveName);
+
+    assertTrue(new StatusChecker(context).isErrorFree(0));
+    assertEquals(written.toString(), gunzip(new File(archiveName)));
+    assertFalse(renamed.exists());
+    assertFalse(checkpoint.partialArchive.exists());
+  }
+
+  @Test
+  public void nothingToDetachBeforeFirstIncrement() throws IOException {
+    incrementalCompressor.track(activeFile);
+    append("not yet compressed\n");
+    assertNull(incrementalCompressor.detach());
+  }
+
+  @Test
+  public void trackDiscardsStalePartialArchive() throws IOException {
+    File stale = new File(activeFile.getPath() + IncrementalCompressor.PARTIAL_ARCHIVE_SUFFIX);
+    FileOutputStream fos = new FileOutputStream(stale);
+    fos.write(new byte[] { 1, 2, 3 });
+    fos.close();
+
+    incrementalCompressor.track(activeFile);
+    assertFalse(stale.exists());
+  }
+}
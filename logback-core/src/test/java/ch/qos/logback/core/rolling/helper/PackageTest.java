@@ -20,7 +20,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses( { CompressTest.class, FileNamePatternTest.class,
+@Suite.SuiteClasses( { CompressTest.class, FileNamePatternTest.class, ArchiveIndexTest.class, IncrementalCompressorTest.class,
     RollingCalendarTest.class, DatePatternToRegexTest.class })
 public class PackageTest extends TestCase {
 
@@ -0,0 +1,34 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2015, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.testUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.qos.logback.core.BatchAppender;
+import ch.qos.logback.core.read.ListAppender;
+
+/**
+ * A {@link ListAppender} which also records the size of each batch it receives.
+ */
+public class BatchListAppender<E> extends ListAppender<E> implements BatchAppender<E> {
+
+  public List<Integer> batchSizes = new ArrayList<Integer>();
+
+  @Override
+  protected void appendBatch(List<E> events) {
+    batchSizes.add(events.size());
+    super.appendBatch(events);
+  }
+}
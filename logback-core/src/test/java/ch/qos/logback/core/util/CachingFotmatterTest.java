@@ -4,12 +4,18 @@ import static org.junit.Assert.assertEquals;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Random;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import ch.qos.logback.core.CoreConstants;
+
 public class CachingFotmatterTest {
 
   final static String DATE_PATTERN = "yyyy-MM-dd'T'HH:mm";
@@ -37,4 +43,90 @@ public class CachingFotmatterTest {
     // AWST (Perth) is 8 hours ahead of UTC
     assertEquals("2015-03-26T17:49", result);
   }
+
+  static final String[] PATTERNS = { CoreConstants.ISO8601_PATTERN, "yyyy-MM-dd'T'HH:mm:ss.SSSZ", "HH:mm:ss.S z",
+      "'SSS' ss SSSS '' S", "EEE, d MMM yyyy HH:mm:ss zzzz", CoreConstants.DAILY_DATE_PATTERN,
+      "'\uFFFF' HH:mm:ss.SSS" };
+  static final String[] ZONES = { "UTC", "Europe/Paris", "America/New_York", "Australia/Lord_Howe",
+      "Asia/Kolkata", "America/St_Johns" };
+  static final long HOUR = 3600 * 1000L;
+
+  Random random = new Random(1234);
+
+  /**
+   * Timestamps around each time zone transition of 2015, and random
+   * timestamps, including negative ones.
+   */
+  List<Long> timestamps(TimeZone tz) throws ParseException {
+    List<Long> list = new ArrayList<Long>();
+    long start = sdf.parse("2015-01-01T00:00").getTime();
+    for (long t = start; t < start + 365 * 24 * HOUR; t += HOUR) {
+      if (tz.getOffset(t) != tz.getOffset(t + HOUR)) {
+        long low = t;
+        long high = t + HOUR;
+        while (high - low > 1) {
+          long mid = (low + high) / 2;
+          if (tz.getOffset(mid) == tz.getOffset(t)) {
+            low = mid;
+          } else {
+            high = mid;
+          }
+        }
+        for (long s = high - 2000; s < high + 2000; s += 7) {
+          list.add(s);
+        }
+      }
+    }
+    for (int i = 0; i < 1000; i++) {
+      list.add((random.nextLong() % (1L << 42)));
+    }
+    return list;
+  }
+
+  @Test
+  public void outputMatchesSimpleDateFormat() throws ParseException {
+    for (String zone : ZONES) {
+      TimeZone tz = TimeZone.getTimeZone(zone);
+      List<Long> timestamps = timestamps(tz);
+      for (String pattern : PATTERNS) {
+        SimpleDateFormat expected = new SimpleDateFormat(pattern);
+        expected.setTimeZone(tz);
+        CachingDateFormatter cdf = new CachingDateFormatter(pattern);
+        cdf.setTimeZone(tz);
+        for (long t : timestamps) {
+          assertEquals(pattern + " in " + zone, expected.format(new Date(t)), cdf.format(t));
+          // served from the cache
+          assertEquals(pattern + " in " + zone, expected.format(new Date(t)), cdf.format(t));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void concurrentFormatting() throws InterruptedException {
+    final CachingDateFormatter cdf = new CachingDateFormatter(CoreConstants.ISO8601_PATTERN);
+    final long start = System.currentTimeMillis();
+    final AtomicReference<String> failure = new AtomicReference<String>();
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      final Random threadRandom = new Random(i);
+      threads[i] = new Thread(new Runnable() {
+        public void run() {
+          SimpleDateFormat expected = new SimpleDateFormat(CoreConstants.ISO8601_PATTERN);
+          for (int j = 0; j < 20000; j++) {
+            long t = start + threadRandom.nextInt(3000);
+            String result = cdf.format(t);
+            if (!expected.format(new Date(t)).equals(result)) {
+              failure.set(result + " for " + t);
+            }
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(null, failure.get());
+  }
 }
@@ -19,6 +19,7 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({
+  CachingFotmatterTest.class,
   DurationTest.class,
   FileSizeTest.class,
   FileUtilTest.class,